@@ -16,12 +16,14 @@
 package io.servicetalk.benchmark.concurrent;
 
 import io.servicetalk.concurrent.api.AsyncContext;
+import io.servicetalk.concurrent.api.AsyncContextMap;
 import io.servicetalk.concurrent.api.AsyncContextMap.Key;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -29,6 +31,7 @@ import org.openjdk.jmh.annotations.Warmup;
 
 import java.util.AbstractList;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +42,11 @@ import java.util.function.Consumer;
 import static io.servicetalk.concurrent.api.AsyncContextMap.Key.newKey;
 import static java.util.Collections.unmodifiableSet;
 
+/**
+ * Measures {@link AsyncContext} operations with the default {@link AsyncContextMap}. The
+ * {@code io.servicetalk.concurrent.api.hamtAsyncContextMap} system property can be passed to the forked JVMs (e.g.
+ * via {@code -jvmArgsAppend}) to measure the hash array mapped trie implementation instead.
+ */
 @Fork(2)
 @State(Scope.Benchmark)
 @Warmup(iterations = 10, time = 2)
@@ -102,12 +110,55 @@ public class AsyncContextMapBenchmark {
         AsyncContext.get(K8);
     }
 
+    @Benchmark
+    public void putGetMany(final ManyKeys state) {
+        final List<Key<String>> keys = state.keys;
+        for (int i = 0; i < keys.size(); ++i) {
+            AsyncContext.put(keys.get(i), "v");
+        }
+        for (int i = 0; i < keys.size(); ++i) {
+            AsyncContext.get(keys.get(i));
+        }
+    }
+
+    /**
+     * Every request copies the context (e.g. when a new async boundary is crossed) and then modifies the copy, so the
+     * cost of {@link AsyncContextMap#copy()} followed by a {@link AsyncContextMap#put(Key, Object)} dominates.
+     */
+    @Benchmark
+    public void copyPutMany(final ManyKeys state) {
+        final List<Key<String>> keys = state.keys;
+        for (int i = 0; i < keys.size(); ++i) {
+            AsyncContext.put(keys.get(i), "v");
+        }
+        final AsyncContextMap current = AsyncContext.current();
+        for (int i = 0; i < keys.size(); ++i) {
+            current.copy().put(keys.get(i), "v2");
+        }
+    }
+
     @Benchmark
     public void putGetMultiFour() {
         AsyncContext.putAll(FourMap.INSTANCE);
         AsyncContext.removeAll(FourList.INSTANCE);
     }
 
+    @State(Scope.Benchmark)
+    public static class ManyKeys {
+        @Param({"8", "16", "32"})
+        public int size;
+
+        List<Key<String>> keys;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            keys = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                keys.add(newKey("k" + i));
+            }
+        }
+    }
+
     private static final class FourList extends AbstractList<Key<?>> {
         static final List<Key<?>> INSTANCE = new FourList();
 
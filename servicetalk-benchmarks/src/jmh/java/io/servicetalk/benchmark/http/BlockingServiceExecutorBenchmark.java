@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.http;
+
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.http.netty.HttpClients;
+import io.servicetalk.http.netty.HttpServers;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static io.servicetalk.concurrent.api.Executors.isVirtualThreadExecutorSupported;
+import static io.servicetalk.concurrent.api.Executors.newCachedThreadExecutor;
+import static io.servicetalk.concurrent.api.Executors.newVirtualThreadExecutor;
+import static io.servicetalk.http.api.HttpExecutionStrategies.defaultStrategy;
+
+/*
+ * Measures request throughput of a blocking service which parks the handling thread for "blockMillis" on every
+ * request, when the service is offloaded to either a cached platform thread executor or a virtual thread executor.
+ * Virtual threads require JDK 21+, the "virtual" parameter is rejected on older runtimes.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class BlockingServiceExecutorBenchmark {
+
+    @Param({"cached", "virtual"})
+    public String executor;
+
+    @Param({"0", "1"})
+    public long blockMillis;
+
+    private Executor serviceExecutor;
+    private ServerContext serverContext;
+    private BlockingHttpClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if ("virtual".equals(executor)) {
+            if (!isVirtualThreadExecutorSupported()) {
+                throw new IllegalStateException("Virtual threads are not supported by the current runtime: " +
+                        System.getProperty("java.version"));
+            }
+            serviceExecutor = newVirtualThreadExecutor();
+        } else {
+            serviceExecutor = newCachedThreadExecutor();
+        }
+        final long blockMillis = this.blockMillis;
+        serverContext = HttpServers.forAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .executionStrategy(defaultStrategy(serviceExecutor))
+                .listenBlockingAndAwait((ctx, request, responseFactory) -> {
+                    if (blockMillis > 0) {
+                        Thread.sleep(blockMillis);
+                    }
+                    return responseFactory.ok();
+                });
+        client = HttpClients.forResolvedAddress((InetSocketAddress) serverContext.listenAddress()).buildBlocking();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        serverContext.close();
+        serviceExecutor.closeAsync().toFuture().get();
+    }
+
+    @Threads(64)
+    @Benchmark
+    public HttpResponse request() throws Exception {
+        return client.request(client.get("/"));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.http;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.http.utils.ContentCoding;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Publisher.fromIterable;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/*
+ * Measures the throughput of ContentCoding on a single thread. The "bytes" secondary result is the number of
+ * uncompressed bytes processed per second, i.e. bytes/sec per core.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class ContentCodingBenchmark {
+
+    @Param({"GZIP_CODING", "DEFLATE_CODING"})
+    public ContentCoding coding;
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    @Param({"8192"})
+    public int chunkSize;
+
+    private Publisher<Buffer> uncompressed;
+    private Publisher<Buffer> compressed;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        uncompressed = split(newJsonLikePayload(payloadSize));
+        compressed = split(concat(coding.encode(uncompressed, DEFAULT_ALLOCATOR).toFuture().get()));
+    }
+
+    @Benchmark
+    public int encode(ByteCounter counter) throws Exception {
+        counter.bytes += payloadSize;
+        return readableBytes(coding.encode(uncompressed, DEFAULT_ALLOCATOR).toFuture().get());
+    }
+
+    @Benchmark
+    public int decode(ByteCounter counter) throws Exception {
+        counter.bytes += payloadSize;
+        return readableBytes(coding.decode(compressed, DEFAULT_ALLOCATOR).toFuture().get());
+    }
+
+    /**
+     * Counts uncompressed bytes, reported by JMH as a rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ByteCounter {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    private Publisher<Buffer> split(final byte[] content) {
+        final List<Buffer> buffers = new ArrayList<>();
+        for (int i = 0; i < content.length; i += chunkSize) {
+            buffers.add(DEFAULT_ALLOCATOR.wrap(content, i, Math.min(chunkSize, content.length - i)));
+        }
+        return fromIterable(buffers);
+    }
+
+    private static byte[] newJsonLikePayload(final int size) {
+        final Random random = new Random(0);
+        final StringBuilder sb = new StringBuilder(size + 64);
+        while (sb.length() < size) {
+            sb.append("{\"id\":").append(random.nextInt(100_000))
+                    .append(",\"name\":\"item-").append(random.nextInt(1_000))
+                    .append("\",\"active\":").append(random.nextBoolean()).append("},");
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes(US_ASCII);
+    }
+
+    private static byte[] concat(final Collection<Buffer> buffers) {
+        final Buffer result = DEFAULT_ALLOCATOR.newBuffer(readableBytes(buffers));
+        for (Buffer buffer : buffers) {
+            result.writeBytes(buffer.duplicate());
+        }
+        final byte[] bytes = new byte[result.readableBytes()];
+        result.readBytes(bytes);
+        return bytes;
+    }
+
+    private static int readableBytes(final Collection<Buffer> buffers) {
+        int size = 0;
+        for (Buffer buffer : buffers) {
+            size += buffer.readableBytes();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.loadbalancer.P2CLoadBalancer;
+import io.servicetalk.loadbalancer.RoundRobinLoadBalancer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import static io.servicetalk.concurrent.api.Completable.completed;
+import static io.servicetalk.concurrent.api.Publisher.fromIterable;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.net.InetSocketAddress.createUnresolved;
+
+/**
+ * Compares the cost of {@link LoadBalancer#selectConnection(Predicate)} for the available {@link LoadBalancer}
+ * implementations when every address already has a pool of connections.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoadBalancerSelectConnectionBenchmark {
+    private static final Predicate<LoadBalancedConnection> SELECT_ANY = __ -> true;
+
+    @Param({"roundrobin", "p2c"})
+    public String loadBalancer;
+
+    @Param({"3", "10", "100"})
+    public int hosts;
+
+    @Param({"1", "8"})
+    public int connectionsPerHost;
+
+    private LoadBalancer<LoadBalancedConnection> lb;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final List<ServiceDiscovererEvent<InetSocketAddress>> events = new ArrayList<>(hosts);
+        for (int i = 1; i <= hosts; ++i) {
+            events.add(new DefaultServiceDiscovererEvent<>(createUnresolved("127.0.0." + i, 0), true));
+        }
+        // Both load balancers synchronously subscribe and will consume all events during construction.
+        lb = "p2c".equals(loadBalancer) ? new P2CLoadBalancer<>(fromIterable(events), ConnFactory.INSTANCE) :
+                new RoundRobinLoadBalancer<>(fromIterable(events), ConnFactory.INSTANCE);
+        // Rejecting already seen connections forces the load balancer to open a new one for every selection.
+        final Set<LoadBalancedConnection> seen = new HashSet<>();
+        final int totalConnections = hosts * connectionsPerHost;
+        for (int i = 0; i < totalConnections; ++i) {
+            lb.selectConnection(seen::add).toFuture().get();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        lb.closeAsync().toFuture().get();
+    }
+
+    @Benchmark
+    public LoadBalancedConnection selectConnection() throws Exception {
+        return lb.selectConnection(SELECT_ANY).toFuture().get();
+    }
+
+    @Threads(4)
+    @Benchmark
+    public LoadBalancedConnection selectConnectionContended() throws Exception {
+        return lb.selectConnection(SELECT_ANY).toFuture().get();
+    }
+
+    private static final class ConnFactory implements ConnectionFactory<InetSocketAddress, LoadBalancedConnection> {
+        static final ConnFactory INSTANCE = new ConnFactory();
+
+        private ConnFactory() {
+        }
+
+        @Override
+        public Single<LoadBalancedConnection> newConnection(final InetSocketAddress inetSocketAddress) {
+            final int score = ThreadLocalRandom.current().nextInt(100);
+            return succeeded(new LoadBalancedConnection() {
+                @Override
+                public int score() {
+                    return score;
+                }
+
+                @Override
+                public Completable onClose() {
+                    return completed();
+                }
+
+                @Override
+                public Completable closeAsync() {
+                    return completed();
+                }
+
+                @Override
+                public Completable closeAsyncGracefully() {
+                    return completed();
+                }
+            });
+        }
+
+        @Override
+        public Completable onClose() {
+            return completed();
+        }
+
+        @Override
+        public Completable closeAsync() {
+            return completed();
+        }
+    }
+}
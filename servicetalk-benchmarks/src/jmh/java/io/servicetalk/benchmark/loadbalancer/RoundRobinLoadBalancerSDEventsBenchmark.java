@@ -18,6 +18,8 @@ package io.servicetalk.benchmark.loadbalancer;
 import io.servicetalk.client.api.ConnectionFactory;
 import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
 import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.LoadBalancerFactory;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Single;
@@ -38,8 +40,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static io.servicetalk.concurrent.api.Completable.completed;
+import static io.servicetalk.concurrent.api.Publisher.from;
 import static io.servicetalk.concurrent.api.Publisher.fromIterable;
 import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.loadbalancer.RoundRobinLoadBalancer.newRoundRobinFactory;
 import static java.net.InetSocketAddress.createUnresolved;
 
 @Fork(1)
@@ -47,7 +51,10 @@ import static java.net.InetSocketAddress.createUnresolved;
 @Warmup(iterations = 5, time = 5)
 @Measurement(iterations = 5, time = 5)
 public class RoundRobinLoadBalancerSDEventsBenchmark {
-    @Param({"5", "10", "100"})
+    private static final LoadBalancerFactory<InetSocketAddress, LoadBalancedConnection> FACTORY =
+            newRoundRobinFactory();
+
+    @Param({"5", "10", "100", "1000", "10000"})
     public int ops;
 
     private List<ServiceDiscovererEvent<InetSocketAddress>> availableEvents;
@@ -80,6 +87,18 @@ public class RoundRobinLoadBalancerSDEventsBenchmark {
         return new RoundRobinLoadBalancer<>(fromIterable(availableEvents), ConnFactory.INSTANCE);
     }
 
+    @Benchmark
+    public LoadBalancer<LoadBalancedConnection> mixedBatched() {
+        // All events are delivered as a single batch, like a DNS answer that changes many addresses at once.
+        return FACTORY.newLoadBalancerFromBatches(from(mixedEvents), ConnFactory.INSTANCE);
+    }
+
+    @Benchmark
+    public LoadBalancer<LoadBalancedConnection> availableBatched() {
+        // All events are delivered as a single batch, like a DNS answer that changes many addresses at once.
+        return FACTORY.newLoadBalancerFromBatches(from(availableEvents), ConnFactory.INSTANCE);
+    }
+
     private static final class ConnFactory implements ConnectionFactory<InetSocketAddress, LoadBalancedConnection> {
         static final ConnFactory INSTANCE = new ConnFactory();
 
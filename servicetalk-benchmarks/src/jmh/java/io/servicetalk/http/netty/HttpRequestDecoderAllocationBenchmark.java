@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.transport.netty.internal.CopyByteBufHandlerChannelInitializer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferUtils.getByteBufAllocator;
+import static io.servicetalk.transport.netty.internal.CloseHandler.UNSUPPORTED_PROTOCOL_CLOSE_HANDLER;
+import static io.servicetalk.transport.netty.internal.CopyByteBufHandlerChannelInitializer.POOLED_ALLOCATOR;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/*
+ * This benchmark decodes a request with a payload body as it is read from the socket into pooled memory, either by
+ * copying every read to unpooled memory first (pooledDecoderBuffers=false) or by decoding the pooled memory directly
+ * (pooledDecoderBuffers=true). Run it with "-prof gc" to compare the allocation rate per request
+ * (gc.alloc.rate.norm).
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class HttpRequestDecoderAllocationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean pooledDecoderBuffers;
+
+    @Param({"0", "256", "8192"})
+    private int payloadLength;
+
+    private byte[] request;
+
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final StringBuilder sb = new StringBuilder(256 + payloadLength)
+                .append("POST /some/path?foo=bar HTTP/1.1\r\n")
+                .append("host: servicetalk.io\r\n")
+                .append("user-agent: servicetalk-benchmark\r\n")
+                .append("accept: application/json\r\n")
+                .append("content-type: application/json\r\n")
+                .append("content-length: ").append(payloadLength).append("\r\n\r\n");
+        for (int i = 0; i < payloadLength; ++i) {
+            sb.append('a');
+        }
+        request = sb.toString().getBytes(US_ASCII);
+
+        final ByteBufAllocator alloc = getByteBufAllocator(DEFAULT_ALLOCATOR);
+        channel = new EmbeddedChannel();
+        if (!pooledDecoderBuffers) {
+            new CopyByteBufHandlerChannelInitializer(alloc).init(channel);
+        }
+        channel.pipeline().addLast(new HttpRequestDecoder(new ArrayDeque<>(), alloc,
+                DefaultHttpHeadersFactory.INSTANCE, 8192, 8192, false, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER,
+                pooledDecoderBuffers));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int decode() {
+        // Simulates a socket read into pooled memory.
+        final ByteBuf read = POOLED_ALLOCATOR.directBuffer(request.length).writeBytes(request);
+        channel.writeInbound(read);
+
+        final HttpRequestMetaData metaData = channel.readInbound();
+        int result = metaData.headers().size();
+        Object next;
+        while (!((next = channel.readInbound()) instanceof HttpHeaders)) {
+            result += ((Buffer) next).readableBytes();
+        }
+        return result + ((HttpHeaders) next).size();
+    }
+}
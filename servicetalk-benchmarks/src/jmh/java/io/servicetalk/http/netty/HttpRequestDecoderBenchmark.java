@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.http.api.HttpRequestMethod;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static io.netty.buffer.Unpooled.directBuffer;
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferUtils.getByteBufAllocator;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/*
+ * This benchmark measures decoding of a typical chunked HTTP/1.1 request with header names that are spelled as the
+ * well-known lower-case or capitalized names, or that are not known to the decoder at all. Run it with the GC profiler
+ * (-prof gc) to compare the allocations per request ("gc.alloc.rate.norm") between these cases.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class HttpRequestDecoderBenchmark {
+
+    @Param({"lowercase", "capitalized", "custom"})
+    private String headerNames;
+
+    private ByteBuf requestByteBuf;
+
+    private Queue<HttpRequestMethod> methodQueue;
+
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final String[] names;
+        switch (headerNames) {
+            case "lowercase":
+                names = new String[] {"host", "user-agent", "accept", "content-type", "transfer-encoding"};
+                break;
+            case "capitalized":
+                names = new String[] {"Host", "User-Agent", "Accept", "Content-Type", "Transfer-Encoding"};
+                break;
+            case "custom":
+                names = new String[] {"host", "x-user-agent", "x-accept", "x-content-type", "transfer-encoding"};
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown headerNames: " + headerNames);
+        }
+        final String request = "POST /some/path?query=value HTTP/1.1\r\n" +
+                names[0] + ": servicetalk.io\r\n" +
+                names[1] + ": servicetalk-benchmark\r\n" +
+                names[2] + ": application/json\r\n" +
+                names[3] + ": application/json\r\n" +
+                names[4] + ": chunked\r\n" +
+                "\r\n" +
+                "1A;name=value\r\n" +
+                "{\"message\":\"servicetalk\"}\r\n" +
+                "0\r\n" +
+                "\r\n";
+        final byte[] bytes = request.getBytes(US_ASCII);
+        requestByteBuf = directBuffer(bytes.length).writeBytes(bytes);
+
+        methodQueue = new ArrayDeque<>();
+        channel = new EmbeddedChannel(new HttpRequestDecoder(methodQueue,
+                getByteBufAllocator(DEFAULT_ALLOCATOR), DefaultHttpHeadersFactory.INSTANCE, 8192, 8192));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        requestByteBuf.release();
+    }
+
+    @Benchmark
+    public int decodeRequest() {
+        channel.writeInbound(requestByteBuf.retainedDuplicate());
+
+        final HttpRequestMetaData request = channel.readInbound();
+        int size = request.headers().size();
+        Object next;
+        while (!((next = channel.readInbound()) instanceof HttpHeaders)) {
+            size += ((Buffer) next).readableBytes();
+        }
+        // The decoder records the method of every request for the encoder, which is not part of this benchmark.
+        methodQueue.poll();
+        return size + ((HttpHeaders) next).size();
+    }
+}
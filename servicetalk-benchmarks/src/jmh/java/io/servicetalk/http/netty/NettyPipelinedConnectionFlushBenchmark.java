@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.PublisherSource;
+import io.servicetalk.concurrent.api.AsyncContext;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.http.api.HttpProtocolVersion;
+import io.servicetalk.transport.netty.internal.DefaultNettyConnection;
+import io.servicetalk.transport.netty.internal.FlushStrategy;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import javax.annotation.Nullable;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.TRANSFER_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderValues.CHUNKED;
+import static io.netty.handler.codec.http.HttpMethod.POST;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Executors.immediate;
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static io.servicetalk.http.api.HttpExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.transport.netty.internal.CloseHandler.UNSUPPORTED_PROTOCOL_CLOSE_HANDLER;
+import static io.servicetalk.transport.netty.internal.FlushStrategies.adaptiveFlush;
+import static io.servicetalk.transport.netty.internal.FlushStrategies.flushOnEach;
+
+/*
+ * Measures throughput of streaming requests with "chunks" payload chunks of "chunkSize" bytes each written via
+ * NettyPipelinedConnection over a loopback TCP connection, for different flush strategies. Each request is answered by
+ * an empty response once it has been fully received by the server.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class NettyPipelinedConnectionFlushBenchmark {
+    static {
+        AsyncContext.disable(); // reduce noise in benchmarks.
+    }
+
+    @Param({"flushOnEach", "adaptive"})
+    public String flushStrategy;
+
+    @Param({"1", "16", "128"})
+    public int chunks;
+
+    @Param({"64", "1024"})
+    public int chunkSize;
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private Channel serverChannel;
+    private ByteBuf chunk;
+    private NettyPipelinedConnection<Object, Object> pipelinedConnection;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        serverGroup = new NioEventLoopGroup(1);
+        clientGroup = new NioEventLoopGroup(1);
+        chunk = Unpooled.unreleasableBuffer(Unpooled.directBuffer(chunkSize).writeZero(chunkSize));
+        serverChannel = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(final Channel ch) {
+                        ch.pipeline().addLast(new HttpServerCodec(), new EmptyResponseHandler());
+                    }
+                })
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).sync().channel();
+        final Channel channel = new Bootstrap()
+                .group(clientGroup)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.AUTO_READ, false)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(serverChannel.localAddress()).sync().channel();
+        final FlushStrategy strategy = "adaptive".equals(flushStrategy) ? adaptiveFlush() : flushOnEach();
+        final DefaultNettyConnection<Object, Object> connection = DefaultNettyConnection.<Object, Object>initChannel(
+                channel, DEFAULT_ALLOCATOR, immediate(), obj -> obj instanceof LastHttpContent,
+                UNSUPPORTED_PROTOCOL_CLOSE_HANDLER, strategy, null,
+                ch -> ch.pipeline().addLast(new HttpClientCodec()), noOffloadsStrategy(),
+                HttpProtocolVersion.HTTP_1_1).toFuture().get();
+        pipelinedConnection = new NettyPipelinedConnection<>(connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pipelinedConnection.closeAsync().toFuture().get();
+        serverChannel.close().sync();
+        clientGroup.shutdownGracefully().sync();
+        serverGroup.shutdownGracefully().sync();
+    }
+
+    @Benchmark
+    public void streamingRequest() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        subscribeCountDownOnTerminate(toSource(pipelinedConnection.write(Publisher.from(newRequest()))), latch);
+        latch.await();
+    }
+
+    private Object[] newRequest() {
+        final Object[] request = new Object[chunks + 2];
+        final HttpRequest metaData = new DefaultHttpRequest(HTTP_1_1, POST, "/");
+        metaData.headers().set(TRANSFER_ENCODING, CHUNKED);
+        request[0] = metaData;
+        for (int i = 1; i <= chunks; ++i) {
+            request[i] = new DefaultHttpContent(chunk.duplicate());
+        }
+        request[request.length - 1] = LastHttpContent.EMPTY_LAST_CONTENT;
+        return request;
+    }
+
+    // Avoid using operators to keep benchmark as focused as possible on the unit under test.
+    private static void subscribeCountDownOnTerminate(PublisherSource<Object> publisherSource, CountDownLatch latch) {
+        publisherSource.subscribe(new PublisherSource.Subscriber<Object>() {
+            @Override
+            public void onSubscribe(final PublisherSource.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(@Nullable final Object o) {
+                ReferenceCountUtil.release(o);
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+    }
+
+    private static final class EmptyResponseHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+            final boolean last = msg instanceof LastHttpContent;
+            ReferenceCountUtil.release(msg);
+            if (last) {
+                DefaultFullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK);
+                response.headers().set(CONTENT_LENGTH, 0);
+                ctx.writeAndFlush(response);
+            }
+        }
+    }
+}
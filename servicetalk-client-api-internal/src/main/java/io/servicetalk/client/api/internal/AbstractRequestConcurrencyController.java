@@ -72,6 +72,11 @@ abstract class AbstractRequestConcurrencyController implements RequestConcurrenc
         pendingRequestsUpdater.decrementAndGet(this);
     }
 
+    @Override
+    public final boolean hasPendingRequests() {
+        return pendingRequests > 0;
+    }
+
     final int lastSeenMaxValue(int defaultValue) {
         return maxConcurrencyHolder.lastSeenValue(defaultValue);
     }
@@ -112,6 +112,12 @@ abstract class AbstractReservableRequestConcurrencyController implements Reserva
         };
     }
 
+    @Override
+    public final boolean hasPendingRequests() {
+        final int pendingRequests = this.pendingRequests;
+        return pendingRequests > 0 || pendingRequests == STATE_RESERVED;
+    }
+
     final int lastSeenMaxValue(int defaultValue) {
         return maxConcurrencyHolder.lastSeenValue(defaultValue);
     }
@@ -53,4 +53,30 @@ public interface RequestConcurrencyController {
      * Generally called from a {@link Publisher#beforeFinally(Runnable)} after a {@link #tryRequest()}.
      */
     void requestFinished();
+
+    /**
+     * Returns an estimate of how many more requests would currently be accepted by {@link #tryRequest()}.
+     * <p>
+     * The returned value is a snapshot which may be outdated by the time it is observed, and hence it can only be
+     * used as a hint to skip resources which are saturated without attempting {@link #tryRequest()}.
+     *
+     * @return an estimate of how many more requests would currently be accepted by {@link #tryRequest()},
+     * {@link Integer#MAX_VALUE} if unknown.
+     */
+    default int availableCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns whether requests accepted by {@link #tryRequest()} have not {@link #requestFinished() finished} yet, or
+     * the resource is otherwise in use.
+     * <p>
+     * The returned value is a snapshot which may be outdated by the time it is observed, and hence it can only be
+     * used as a hint, for example to avoid closing a resource which is in use.
+     *
+     * @return {@code true} if the resource is in use, {@code false} if it is not or if unknown.
+     */
+    default boolean hasPendingRequests() {
+        return false;
+    }
 }
@@ -22,6 +22,7 @@ import io.servicetalk.concurrent.api.Publisher;
 import static io.servicetalk.client.api.internal.RequestConcurrencyController.Result.Accepted;
 import static io.servicetalk.client.api.internal.RequestConcurrencyController.Result.RejectedPermanently;
 import static io.servicetalk.client.api.internal.RequestConcurrencyController.Result.RejectedTemporary;
+import static java.lang.Math.max;
 
 final class RequestConcurrencyControllerMulti extends AbstractRequestConcurrencyController {
     private final int maxRequests;
@@ -49,4 +50,10 @@ final class RequestConcurrencyControllerMulti extends AbstractRequestConcurrency
             }
         }
     }
+
+    @Override
+    public int availableCapacity() {
+        final int currentPending = pendingRequests();
+        return currentPending < 0 ? 0 : max(0, lastSeenMaxValue(maxRequests) - currentPending);
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.client.api.internal;
+
+/**
+ * Tracks the requests issued on the connections to an address, so that a load balancer can account for the
+ * outstanding requests and the response latency of that address.
+ */
+public interface RequestTracker {
+
+    /**
+     * Must be called before a request is issued on a connection, and followed by exactly one of
+     * {@link #onRequestSuccess(long)}, {@link #onRequestError(long)} or {@link #onRequestCancel(long)}.
+     *
+     * @return the current time in nanoseconds, to pass to the method that signals how the request terminated.
+     */
+    long beforeRequestStart();
+
+    /**
+     * Signals that a request issued after {@link #beforeRequestStart()} completed successfully.
+     *
+     * @param beforeStartTimeNs the value returned by the corresponding {@link #beforeRequestStart()}.
+     */
+    void onRequestSuccess(long beforeStartTimeNs);
+
+    /**
+     * Signals that a request issued after {@link #beforeRequestStart()} failed.
+     *
+     * @param beforeStartTimeNs the value returned by the corresponding {@link #beforeRequestStart()}.
+     */
+    void onRequestError(long beforeStartTimeNs);
+
+    /**
+     * Signals that a request issued after {@link #beforeRequestStart()} was cancelled before it terminated.
+     *
+     * @param beforeStartTimeNs the value returned by the corresponding {@link #beforeRequestStart()}.
+     */
+    void onRequestCancel(long beforeStartTimeNs);
+}
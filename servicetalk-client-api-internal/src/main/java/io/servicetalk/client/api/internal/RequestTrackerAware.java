@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.client.api.internal;
+
+/**
+ * A connection which reports the requests issued on it to a {@link RequestTracker}.
+ */
+public interface RequestTrackerAware {
+
+    /**
+     * Sets the {@link RequestTracker} notified about requests issued on this connection. A load balancer calls it once
+     * the connection is established, before the connection is returned from a selection.
+     *
+     * @param tracker the {@link RequestTracker} notified about requests issued on this connection.
+     */
+    void requestTracker(RequestTracker tracker);
+}
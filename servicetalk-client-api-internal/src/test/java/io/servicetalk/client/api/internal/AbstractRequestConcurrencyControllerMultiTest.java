@@ -91,6 +91,31 @@ public abstract class AbstractRequestConcurrencyControllerMultiTest {
         assertThat(controller.tryRequest(), is(RejectedTemporary));
     }
 
+    @Test
+    public void availableCapacityReflectsPendingRequests() {
+        RequestConcurrencyController controller = newController(limitPublisher, never(), 10);
+        assertThat(controller.availableCapacity(), is(10));
+        limitPublisher.onNext(3);
+        assertThat(controller.availableCapacity(), is(3));
+        for (int j = 3; j > 0; --j) {
+            assertThat(controller.tryRequest(), is(Accepted));
+            assertThat(controller.availableCapacity(), is(j - 1));
+        }
+        limitPublisher.onNext(1);
+        assertThat(controller.availableCapacity(), is(0));
+        controller.requestFinished();
+        controller.requestFinished();
+        assertThat(controller.availableCapacity(), is(0));
+        controller.requestFinished();
+        assertThat(controller.availableCapacity(), is(1));
+    }
+
+    @Test
+    public void noCapacityAfterClose() {
+        RequestConcurrencyController controller = newController(from(1), completed(), 10);
+        assertThat(controller.availableCapacity(), is(0));
+    }
+
     @Test
     public void noMoreRequestsAfterClose() {
         RequestConcurrencyController controller = newController(from(1), completed(), 10);
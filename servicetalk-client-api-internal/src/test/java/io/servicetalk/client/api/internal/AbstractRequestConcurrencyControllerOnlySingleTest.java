@@ -82,6 +82,19 @@ public abstract class AbstractRequestConcurrencyControllerOnlySingleTest {
         assertThat(controller.tryRequest(), is(RejectedTemporary));
     }
 
+    @Test
+    public void availableCapacityIsAtMostOne() {
+        RequestConcurrencyController controller = newController(limitPublisher, never());
+        limitPublisher.onNext(10);
+        assertThat(controller.availableCapacity(), is(1));
+        assertThat(controller.tryRequest(), is(Accepted));
+        assertThat(controller.availableCapacity(), is(0));
+        controller.requestFinished();
+        assertThat(controller.availableCapacity(), is(1));
+        limitPublisher.onNext(0);
+        assertThat(controller.availableCapacity(), is(0));
+    }
+
     @Test
     public void noMoreRequestsAfterClose() {
         RequestConcurrencyController controller = newController(from(1), completed());
@@ -17,6 +17,10 @@ package io.servicetalk.client.api;
 
 import io.servicetalk.concurrent.api.Publisher;
 
+import java.util.Collection;
+
+import static java.util.function.Function.identity;
+
 /**
  * A factory for creating {@link LoadBalancer} instances.
  *
@@ -39,4 +43,24 @@ public interface LoadBalancerFactory<ResolvedAddress, C extends LoadBalancedConn
     <T extends C> LoadBalancer<T> newLoadBalancer(
             Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
             ConnectionFactory<ResolvedAddress, T> connectionFactory);
+
+    /**
+     * Create a new {@link LoadBalancer} which consumes batches of {@link ServiceDiscovererEvent}s, typically generated
+     * by {@link ServiceDiscoverer#discoverBatches(Object)}.
+     * <p>
+     * The default implementation flattens the batches and delegates to {@link #newLoadBalancer(Publisher,
+     * ConnectionFactory)}. Implementations are encouraged to override this method if they can apply a batch more
+     * efficiently than its individual events.
+     * @param eventBatchPublisher A stream of batches of {@link ServiceDiscovererEvent}s which the {@link LoadBalancer}
+     * can use to connect to physical hosts.
+     * @param connectionFactory {@link ConnectionFactory} that the returned {@link LoadBalancer} will use to generate
+     * new connections, see {@link #newLoadBalancer(Publisher, ConnectionFactory)}.
+     * @param <T> Type of connections created by the passed {@link ConnectionFactory}.
+     * @return a new {@link LoadBalancer}.
+     */
+    default <T extends C> LoadBalancer<T> newLoadBalancerFromBatches(
+            Publisher<? extends Collection<? extends ServiceDiscovererEvent<ResolvedAddress>>> eventBatchPublisher,
+            ConnectionFactory<ResolvedAddress, T> connectionFactory) {
+        return newLoadBalancer(eventBatchPublisher.flatMapConcatIterable(identity()), connectionFactory);
+    }
 }
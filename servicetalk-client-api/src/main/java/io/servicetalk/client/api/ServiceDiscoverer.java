@@ -19,6 +19,9 @@ import io.servicetalk.concurrent.PublisherSource.Subscription;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Represents the interaction pattern with a service discovery system. It is assumed that once {@link #discover(Object)}
  * is called that the service discovery system will push data updates or implementations of this interface will poll for
@@ -48,4 +51,17 @@ public interface ServiceDiscoverer<UnresolvedAddress, ResolvedAddress,
      * @return a {@link Publisher} that represents a stream of events from the service discovery system.
      */
     Publisher<E> discover(UnresolvedAddress address);
+
+    /**
+     * Same as {@link #discover(Object)} but events which are observed together (e.g. all changes derived from a single
+     * DNS resolution) are delivered as a single batch. Consumers such as {@link LoadBalancer}s may apply a batch
+     * atomically, which is considerably cheaper than applying its events one at a time for large address sets.
+     * <p>
+     * The default implementation delivers every event from {@link #discover(Object)} as a batch of its own.
+     * @param address the service address to discover, see {@link #discover(Object)}.
+     * @return a {@link Publisher} that represents a stream of batches of events from the service discovery system.
+     */
+    default Publisher<? extends Collection<E>> discoverBatches(UnresolvedAddress address) {
+        return discover(address).map(Collections::singletonList);
+    }
 }
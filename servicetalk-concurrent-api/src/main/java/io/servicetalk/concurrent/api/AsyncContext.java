@@ -28,6 +28,7 @@ import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.AsyncContextExecutorPlugin.EXECUTOR_PLUGIN;
 import static io.servicetalk.concurrent.api.Executors.EXECUTOR_PLUGINS;
+import static java.lang.Boolean.getBoolean;
 
 /**
  * Presents a static interface to retain state in an asynchronous environment.
@@ -35,6 +36,10 @@ import static io.servicetalk.concurrent.api.Executors.EXECUTOR_PLUGINS;
  * This should not be used as a "catch all" to avoid designing APIs which accommodate for your needs. This should be
  * used as a last resort (e.g. for low level framework or infrastructure like tasks) because there maybe non-trivial
  * overhead required to maintain this context.
+ * <p>
+ * By default the context is backed by a copy-on-write map which is optimized for a small number of entries. Setting the
+ * {@code io.servicetalk.concurrent.api.hamtAsyncContextMap} system property to {@code true} selects a hash array
+ * mapped trie instead, which keeps modifications and copies cheap for a large number of entries.
  */
 public final class AsyncContext {
     private static final int STATE_DISABLED = -1;
@@ -47,12 +52,15 @@ public final class AsyncContext {
      * about concurrent {@link #enable()} and {@link #disable()} calls.
      */
     private static final AtomicInteger ENABLED_STATE = new AtomicInteger(STATE_INIT);
+    private static final AsyncContextProvider ENABLED_PROVIDER =
+            getBoolean("io.servicetalk.concurrent.api.hamtAsyncContextMap") ?
+                    DefaultAsyncContextProvider.HAMT_INSTANCE : DefaultAsyncContextProvider.INSTANCE;
     /**
      * This is currently not volatile as we rely upon external synchronization for this to be made visible. The current
      * use case for this is a "once at start up" to {@link #disable()} this mechanism completely. This is currently a
      * best effort mechanism for performance reasons, and we can re-evaluate later if more strict behavior is required.
      */
-    private static AsyncContextProvider provider = DefaultAsyncContextProvider.INSTANCE;
+    private static AsyncContextProvider provider = ENABLED_PROVIDER;
 
     private AsyncContext() {
         // no instances
@@ -62,6 +70,16 @@ public final class AsyncContext {
         return provider;
     }
 
+    /**
+     * Get the {@link AsyncContextProvider} which is used when {@link AsyncContext} is enabled, independently of the
+     * current state.
+     *
+     * @return the {@link AsyncContextProvider} which is used when {@link AsyncContext} is enabled.
+     */
+    static AsyncContextProvider enabledProvider() {
+        return ENABLED_PROVIDER;
+    }
+
     /**
      * Get the current {@link AsyncContextMap}.
      *
@@ -304,7 +322,7 @@ public final class AsyncContext {
     }
 
     private static void enable0() {
-        provider = DefaultAsyncContextProvider.INSTANCE;
+        provider = ENABLED_PROVIDER;
         EXECUTOR_PLUGINS.add(EXECUTOR_PLUGIN);
 
         if (ENABLED_STATE.get() == STATE_DISABLED) {
@@ -22,7 +22,7 @@ final class AsyncContextMapThreadLocal {
             withInitial(AsyncContextMapThreadLocal::newContextMap);
 
     private static AsyncContextMap newContextMap() {
-        return new CopyOnWriteAsyncContextMap();
+        return AsyncContext.enabledProvider().newContextMap();
     }
 
     AsyncContextMap get() {
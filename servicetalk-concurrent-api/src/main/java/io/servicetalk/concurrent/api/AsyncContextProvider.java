@@ -49,6 +49,13 @@ interface AsyncContextProvider {
      */
     void contextMap(AsyncContextMap newContextMap);
 
+    /**
+     * Create a new empty {@link AsyncContextMap} of the type used by this provider.
+     *
+     * @return a new empty {@link AsyncContextMap}.
+     */
+    AsyncContextMap newContextMap();
+
     /**
      * Wrap the {@link Cancellable} to ensure it is able to track
      * {@link AsyncContext} correctly.
@@ -16,12 +16,21 @@
 package io.servicetalk.concurrent.api;
 
 import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.internal.SignalOffloader;
+import io.servicetalk.concurrent.internal.SignalOffloaderFactory;
+import io.servicetalk.concurrent.internal.SignalOffloaders;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.servicetalk.concurrent.internal.SignalOffloaders.defaultOffloaderFactory;
 import static java.util.Objects.requireNonNull;
 
-final class ContextPreservingStExecutor implements Executor {
+/**
+ * An {@link Executor} that preserves {@link AsyncContext} for all submitted tasks. It is also a
+ * {@link SignalOffloaderFactory} that delegates to the wrapped {@link Executor}, so wrapping does not hide how the
+ * original {@link Executor} offloads signals or whether it has thread affinity.
+ */
+final class ContextPreservingStExecutor implements Executor, SignalOffloaderFactory {
     private final Executor delegate;
 
     private ContextPreservingStExecutor(Executor delegate) {
@@ -48,6 +57,18 @@ final class ContextPreservingStExecutor implements Executor {
         return delegate.closeAsync();
     }
 
+    @Override
+    public SignalOffloader newSignalOffloader(final io.servicetalk.concurrent.Executor executor) {
+        return delegate instanceof SignalOffloaderFactory ?
+                ((SignalOffloaderFactory) delegate).newSignalOffloader(executor) :
+                defaultOffloaderFactory().newSignalOffloader(executor);
+    }
+
+    @Override
+    public boolean hasThreadAffinity() {
+        return SignalOffloaders.hasThreadAffinity(delegate);
+    }
+
     static Executor of(Executor delegate) {
         return delegate instanceof ContextPreservingStExecutor ? delegate :
                 new ContextPreservingStExecutor(delegate);
@@ -27,14 +27,18 @@ import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 final class DefaultAsyncContextProvider implements AsyncContextProvider {
-    static final AsyncContextProvider INSTANCE = new DefaultAsyncContextProvider();
+    static final AsyncContextProvider INSTANCE = new DefaultAsyncContextProvider(CopyOnWriteAsyncContextMap::new);
+    static final AsyncContextProvider HAMT_INSTANCE = new DefaultAsyncContextProvider(HamtAsyncContextMap::new);
 
     private static final AsyncContextMapThreadLocal contextLocal = new AsyncContextMapThreadLocal();
 
-    private DefaultAsyncContextProvider() {
-        // singleton
+    private final Supplier<AsyncContextMap> contextMapFactory;
+
+    private DefaultAsyncContextProvider(final Supplier<AsyncContextMap> contextMapFactory) {
+        this.contextMapFactory = contextMapFactory;
     }
 
     @Override
@@ -47,6 +51,11 @@ final class DefaultAsyncContextProvider implements AsyncContextProvider {
         contextLocal.set(newContextMap);
     }
 
+    @Override
+    public AsyncContextMap newContextMap() {
+        return contextMapFactory.get();
+    }
+
     @Override
     public CompletableSource.Subscriber wrapCancellable(final CompletableSource.Subscriber subscriber,
                                                         final AsyncContextMap current) {
@@ -75,6 +75,11 @@ final class DefaultExecutor extends AbstractOffloaderAwareExecutor implements Co
         this(jdkExecutor, new SingleThreadedScheduler(jdkExecutor), interruptOnCancel);
     }
 
+    DefaultExecutor(java.util.concurrent.Executor jdkExecutor, SignalOffloaderFactory offloaderFactory) {
+        // Since we run blocking task, we should try interrupt when cancelled.
+        this(jdkExecutor, new SingleThreadedScheduler(jdkExecutor), true, offloaderFactory);
+    }
+
     DefaultExecutor(java.util.concurrent.Executor jdkExecutor, ScheduledExecutorService scheduler) {
         // Since we run blocking task, we should try interrupt when cancelled.
         this(jdkExecutor, scheduler, true);
@@ -87,6 +92,11 @@ final class DefaultExecutor extends AbstractOffloaderAwareExecutor implements Co
 
     private DefaultExecutor(@Nullable java.util.concurrent.Executor jdkExecutor, @Nullable InternalScheduler scheduler,
                             boolean interruptOnCancel) {
+        this(jdkExecutor, scheduler, interruptOnCancel, defaultOffloaderFactory());
+    }
+
+    private DefaultExecutor(@Nullable java.util.concurrent.Executor jdkExecutor, @Nullable InternalScheduler scheduler,
+                            boolean interruptOnCancel, SignalOffloaderFactory offloaderFactory) {
         if (jdkExecutor == null) {
             if (scheduler != null) {
                 scheduler.run();
@@ -99,7 +109,7 @@ final class DefaultExecutor extends AbstractOffloaderAwareExecutor implements Co
 
         executor = newInternalExecutor(jdkExecutor, interruptOnCancel);
         this.scheduler = scheduler;
-        offloaderFactory = defaultOffloaderFactory();
+        this.offloaderFactory = offloaderFactory;
     }
 
     @Override
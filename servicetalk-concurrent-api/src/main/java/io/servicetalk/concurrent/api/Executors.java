@@ -21,6 +21,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import static io.servicetalk.concurrent.api.ImmediateExecutor.IMMEDIATE_EXECUTOR;
+import static io.servicetalk.concurrent.internal.SignalOffloaders.threadBasedOffloaderFactory;
 
 /**
  * Utility methods to create various {@link Executor}s.
@@ -88,6 +89,33 @@ public final class Executors {
         return EXECUTOR_PLUGINS.wrapExecutor(new DefaultExecutor(1, Integer.MAX_VALUE, threadFactory));
     }
 
+    /**
+     * Creates a new {@link Executor} that runs each task on a new virtual thread.
+     * <p>
+     * Virtual threads are cheap to create and to block, which makes this {@link Executor} a good fit for blocking
+     * programming models that would otherwise require a large number of platform threads. Because parking a virtual
+     * thread is cheap, signals offloaded to the returned {@link Executor} are delivered with thread affinity.
+     * <p>
+     * Virtual threads require JDK 21+, use {@link #isVirtualThreadExecutorSupported()} to check if the current runtime
+     * supports them.
+     *
+     * @return A new {@link Executor} that runs each task on a new virtual thread.
+     * @throws UnsupportedOperationException if the current runtime does not support virtual threads.
+     */
+    public static Executor newVirtualThreadExecutor() {
+        return EXECUTOR_PLUGINS.wrapExecutor(new DefaultExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor(),
+                threadBasedOffloaderFactory()));
+    }
+
+    /**
+     * Returns {@code true} if the current runtime supports {@link #newVirtualThreadExecutor()}.
+     *
+     * @return {@code true} if the current runtime supports {@link #newVirtualThreadExecutor()}.
+     */
+    public static boolean isVirtualThreadExecutorSupported() {
+        return VirtualThreads.isSupported();
+    }
+
     /**
      * Creates a new {@link Executor} from the provided {@code jdkExecutor}. <p>
      * Delayed task execution will be delegated to a global scheduler, unless passed
@@ -0,0 +1,432 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.AsyncContextMapUtils.contextMapToString;
+import static java.lang.Integer.bitCount;
+import static java.lang.System.arraycopy;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link AsyncContextMap} backed by a persistent
+ * <a href="https://en.wikipedia.org/wiki/Hash_array_mapped_trie">hash array mapped trie</a>. Modifications only copy
+ * the nodes on the path to the modified {@link Key}, and the rest of the trie is shared with previous versions and
+ * {@link #copy() copies}. This makes {@link #put(Key, Object)} and {@link #copy()} cheaper than
+ * {@link CopyOnWriteAsyncContextMap} when there are more than a few {@link Key}-value pairs, at the cost of an extra
+ * indirection for small maps.
+ */
+final class HamtAsyncContextMap implements AsyncContextMap {
+    private static final AtomicReferenceFieldUpdater<HamtAsyncContextMap, Node> rootUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(HamtAsyncContextMap.class, Node.class, "root");
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    private static final Object NOT_FOUND = new Object();
+
+    private volatile Node root;
+
+    HamtAsyncContextMap() {
+        this(BitmapNode.EMPTY);
+    }
+
+    private HamtAsyncContextMap(Node root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public <T> T get(final Key<T> key) {
+        final Object value = root.find(0, key.hashCode(), key);
+        return value == NOT_FOUND ? null : (T) value;
+    }
+
+    @Override
+    public boolean containsKey(final Key<?> key) {
+        return root.find(0, key.hashCode(), key) != NOT_FOUND;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == BitmapNode.EMPTY;
+    }
+
+    @Override
+    public int size() {
+        // The size is not tracked to avoid an additional allocation per modification, it is rarely needed.
+        return root.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public <T> T put(final Key<T> key, final T value) {
+        final int hash = requireNonNull(key).hashCode();
+        for (;;) {
+            final Node root = this.root;
+            final Object prev = root.find(0, hash, key);
+            if (prev == value || rootUpdater.compareAndSet(this, root, root.put(0, hash, key, value))) {
+                return prev == NOT_FOUND ? null : (T) prev;
+            }
+        }
+    }
+
+    @Override
+    public void putAll(final Map<Key<?>, Object> map) {
+        final PutAllConsumer consumer = new PutAllConsumer();
+        for (;;) {
+            final Node root = this.root;
+            consumer.root = root;
+            map.forEach(consumer);
+            if (consumer.root == root || rootUpdater.compareAndSet(this, root, consumer.root)) {
+                break;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public <T> T remove(final Key<T> key) {
+        final int hash = key.hashCode();
+        for (;;) {
+            final Node root = this.root;
+            final Object prev = root.find(0, hash, key);
+            if (prev == NOT_FOUND) {
+                return null;
+            }
+            if (rootUpdater.compareAndSet(this, root, nonNull(root.remove(0, hash, key)))) {
+                return (T) prev;
+            }
+        }
+    }
+
+    @Override
+    public boolean removeAll(final Iterable<Key<?>> entries) {
+        for (;;) {
+            final Node root = this.root;
+            Node newRoot = root;
+            for (Key<?> key : entries) {
+                newRoot = nonNull(newRoot.remove(0, key.hashCode(), key));
+            }
+            if (newRoot == root) {
+                return false;
+            }
+            if (rootUpdater.compareAndSet(this, root, newRoot)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = BitmapNode.EMPTY;
+    }
+
+    @Nullable
+    @Override
+    public Key<?> forEach(final BiPredicate<Key<?>, Object> consumer) {
+        return root.forEach(consumer);
+    }
+
+    @Override
+    public AsyncContextMap copy() {
+        // Nodes are immutable, so the copy can share the whole trie.
+        return new HamtAsyncContextMap(root);
+    }
+
+    @Override
+    public String toString() {
+        return contextMapToString(this);
+    }
+
+    private static Node nonNull(@Nullable Node node) {
+        return node == null ? BitmapNode.EMPTY : node;
+    }
+
+    private static int bitPosition(int hash, int shift) {
+        return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+
+    private static Object[] cloneAndSet(Object[] array, int index, @Nullable Object value) {
+        final Object[] clone = array.clone();
+        clone[index] = value;
+        return clone;
+    }
+
+    private static Object[] insertPair(Object[] array, int index, Object key, @Nullable Object value) {
+        final Object[] newArray = new Object[array.length + 2];
+        arraycopy(array, 0, newArray, 0, index);
+        newArray[index] = key;
+        newArray[index + 1] = value;
+        arraycopy(array, index, newArray, index + 2, array.length - index);
+        return newArray;
+    }
+
+    private static Object[] removePair(Object[] array, int index) {
+        final Object[] newArray = new Object[array.length - 2];
+        arraycopy(array, 0, newArray, 0, index);
+        arraycopy(array, index + 2, newArray, index, newArray.length - index);
+        return newArray;
+    }
+
+    /**
+     * An immutable node of the trie.
+     */
+    private interface Node {
+        /**
+         * Find the value associated with {@code key}.
+         *
+         * @return the value associated with {@code key}, or {@link #NOT_FOUND}.
+         */
+        @Nullable
+        Object find(int shift, int hash, Key<?> key);
+
+        /**
+         * Associate {@code value} with {@code key}.
+         *
+         * @return a new {@link Node} including the mapping, or {@code this} if the mapping already exists.
+         */
+        Node put(int shift, int hash, Key<?> key, @Nullable Object value);
+
+        /**
+         * Remove the mapping for {@code key}.
+         *
+         * @return a new {@link Node} without the mapping, {@code this} if there is no mapping for {@code key}, or
+         * {@code null} if the resulting {@link Node} is empty.
+         */
+        @Nullable
+        Node remove(int shift, int hash, Key<?> key);
+
+        int size();
+
+        @Nullable
+        Key<?> forEach(BiPredicate<Key<?>, Object> consumer);
+    }
+
+    /**
+     * A {@link Node} which uses five bits of the hash at its level to index up to 32 entries. The
+     * {@link #bitmap} has a bit set for every present index, and {@link #array} is compacted to hold only the present
+     * entries as <[i] = key, [i+1] = value> pairs. A {@code null} key means the value is a sub {@link Node} for the
+     * next level.
+     */
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int arrayIndex(int bit) {
+            return bitCount(bitmap & (bit - 1)) << 1;
+        }
+
+        @Nullable
+        @Override
+        public Object find(int shift, int hash, Key<?> key) {
+            final int bit = bitPosition(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            final int i = arrayIndex(bit);
+            final Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS_PER_LEVEL, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        public Node put(int shift, int hash, Key<?> key, @Nullable Object value) {
+            final int bit = bitPosition(hash, shift);
+            final int i = arrayIndex(bit);
+            if ((bitmap & bit) == 0) {
+                return new BitmapNode(bitmap | bit, insertPair(array, i, key, value));
+            }
+            final Object k = array[i];
+            final Object v = array[i + 1];
+            if (k == null) {
+                final Node subNode = (Node) v;
+                final Node newSubNode = subNode.put(shift + BITS_PER_LEVEL, hash, key, value);
+                return newSubNode == subNode ? this : new BitmapNode(bitmap, cloneAndSet(array, i + 1, newSubNode));
+            }
+            if (key.equals(k)) {
+                return v == value ? this : new BitmapNode(bitmap, cloneAndSet(array, i + 1, value));
+            }
+            final Object[] newArray = cloneAndSet(array, i, null);
+            newArray[i + 1] = newNode(shift + BITS_PER_LEVEL, (Key<?>) k, v, hash, key, value);
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private static Node newNode(int shift, Key<?> key1, @Nullable Object value1,
+                                    int hash2, Key<?> key2, @Nullable Object value2) {
+            final int hash1 = key1.hashCode();
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            // Different hashes always diverge before the shift exceeds the hash width.
+            return EMPTY.put(shift, hash1, key1, value1).put(shift, hash2, key2, value2);
+        }
+
+        @Nullable
+        @Override
+        public Node remove(int shift, int hash, Key<?> key) {
+            final int bit = bitPosition(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int i = arrayIndex(bit);
+            final Object k = array[i];
+            if (k == null) {
+                final Node subNode = (Node) array[i + 1];
+                final Node newSubNode = subNode.remove(shift + BITS_PER_LEVEL, hash, key);
+                if (newSubNode == subNode) {
+                    return this;
+                }
+                if (newSubNode != null) {
+                    return new BitmapNode(bitmap, cloneAndSet(array, i + 1, newSubNode));
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            return bitmap == bit ? null : new BitmapNode(bitmap ^ bit, removePair(array, i));
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int i = 0; i < array.length; i += 2) {
+                size += array[i] == null ? ((Node) array[i + 1]).size() : 1;
+            }
+            return size;
+        }
+
+        @Nullable
+        @Override
+        public Key<?> forEach(BiPredicate<Key<?>, Object> consumer) {
+            for (int i = 0; i < array.length; i += 2) {
+                final Object k = array[i];
+                if (k == null) {
+                    final Key<?> stoppedAt = ((Node) array[i + 1]).forEach(consumer);
+                    if (stoppedAt != null) {
+                        return stoppedAt;
+                    }
+                } else if (!consumer.test((Key<?>) k, array[i + 1])) {
+                    return (Key<?>) k;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A {@link Node} for {@link Key}s which have the same hash. {@link Key}s use identity hash codes so this is rare
+     * and the entries are searched linearly.
+     */
+    private static final class CollisionNode implements Node {
+        private final int hash;
+        /**
+         * Array of <[i] = key, [i+1] = value> pairs.
+         */
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int findIndex(Key<?> key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Nullable
+        @Override
+        public Object find(int shift, int hash, Key<?> key) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            final int i = findIndex(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        public Node put(int shift, int hash, Key<?> key, @Nullable Object value) {
+            if (hash != this.hash) {
+                // Push this node one level down and let a BitmapNode dispatch between the two hashes.
+                return new BitmapNode(bitPosition(this.hash, shift), new Object[] {null, this})
+                        .put(shift, hash, key, value);
+            }
+            final int i = findIndex(key);
+            if (i < 0) {
+                return new CollisionNode(hash, insertPair(array, array.length, key, value));
+            }
+            return array[i + 1] == value ? this : new CollisionNode(hash, cloneAndSet(array, i + 1, value));
+        }
+
+        @Nullable
+        @Override
+        public Node remove(int shift, int hash, Key<?> key) {
+            if (hash != this.hash) {
+                return this;
+            }
+            final int i = findIndex(key);
+            if (i < 0) {
+                return this;
+            }
+            return array.length == 2 ? null : new CollisionNode(hash, removePair(array, i));
+        }
+
+        @Override
+        public int size() {
+            return array.length >>> 1;
+        }
+
+        @Nullable
+        @Override
+        public Key<?> forEach(BiPredicate<Key<?>, Object> consumer) {
+            for (int i = 0; i < array.length; i += 2) {
+                final Key<?> key = (Key<?>) array[i];
+                if (!consumer.test(key, array[i + 1])) {
+                    return key;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class PutAllConsumer implements BiConsumer<Key<?>, Object> {
+        Node root = BitmapNode.EMPTY;
+
+        @Override
+        public void accept(Key<?> key, Object value) {
+            root = root.put(0, requireNonNull(key).hashCode(), key, value);
+        }
+    }
+}
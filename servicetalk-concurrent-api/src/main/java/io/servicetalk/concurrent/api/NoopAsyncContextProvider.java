@@ -38,6 +38,11 @@ final class NoopAsyncContextProvider implements AsyncContextProvider {
         // singleton
     }
 
+    @Override
+    public AsyncContextMap newContextMap() {
+        return NoopAsyncContextMap.INSTANCE;
+    }
+
     @Override
     public AsyncContextMap contextMap() {
         return NoopAsyncContextMap.INSTANCE;
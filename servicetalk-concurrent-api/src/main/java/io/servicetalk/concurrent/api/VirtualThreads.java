@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Runtime detection of virtual threads. The library targets Java 8, so
+ * {@code java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()} is discovered reflectively and is only
+ * considered available if it can be invoked without enabling preview features (JDK 21+).
+ */
+final class VirtualThreads {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+
+    @Nullable
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        MethodHandle methodHandle;
+        try {
+            methodHandle = MethodHandles.publicLookup().findStatic(java.util.concurrent.Executors.class,
+                    "newVirtualThreadPerTaskExecutor", methodType(ExecutorService.class));
+            // JDK 19 and 20 expose the method as a preview API which throws unless preview features are enabled.
+            ((ExecutorService) methodHandle.invoke()).shutdown();
+        } catch (Throwable cause) {
+            LOGGER.debug("java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor(): unavailable", cause);
+            methodHandle = null;
+        }
+        NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = methodHandle;
+        if (methodHandle != null) {
+            LOGGER.debug("java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor(): available");
+        }
+    }
+
+    private VirtualThreads() {
+        // no instances
+    }
+
+    /**
+     * Returns {@code true} if the current runtime supports virtual threads.
+     *
+     * @return {@code true} if the current runtime supports virtual threads.
+     */
+    static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a new {@link ExecutorService} that starts a new virtual thread for each task.
+     *
+     * @return a new {@link ExecutorService} that starts a new virtual thread for each task.
+     * @throws UnsupportedOperationException if virtual threads are not supported by the current runtime.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21+, current version: " +
+                    System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable cause) {
+            throw new IllegalStateException("Failed to create a virtual thread executor", cause);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import io.servicetalk.concurrent.api.AsyncContextMap.Key;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.servicetalk.concurrent.api.AsyncContextMap.Key.newKey;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class HamtAsyncContextMapTest {
+    private static final int KEYS = 100;
+
+    private final List<Key<Integer>> keys = new ArrayList<>(KEYS);
+    private final AsyncContextMap map = new HamtAsyncContextMap();
+
+    public HamtAsyncContextMapTest() {
+        for (int i = 0; i < KEYS; ++i) {
+            keys.add(newKey("k" + i));
+        }
+    }
+
+    @Test
+    public void putGetRemove() {
+        assertThat(map.isEmpty(), is(true));
+        for (int i = 0; i < KEYS; ++i) {
+            assertThat(map.put(keys.get(i), i), is(nullValue()));
+        }
+        assertThat(map.size(), is(KEYS));
+        for (int i = 0; i < KEYS; ++i) {
+            assertThat(map.containsKey(keys.get(i)), is(true));
+            assertThat(map.get(keys.get(i)), is(i));
+            assertThat(map.put(keys.get(i), -i), is(i));
+        }
+        assertThat(map.size(), is(KEYS));
+        assertThat(map.get(newKey()), is(nullValue()));
+
+        for (int i = 0; i < KEYS; ++i) {
+            assertThat(map.remove(keys.get(i)), is(-i));
+            assertThat(map.containsKey(keys.get(i)), is(false));
+            assertThat(map.remove(keys.get(i)), is(nullValue()));
+            assertThat(map.size(), is(KEYS - i - 1));
+        }
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    public void copyIsIsolated() {
+        for (int i = 0; i < KEYS; ++i) {
+            map.put(keys.get(i), i);
+        }
+        final AsyncContextMap copy = map.copy();
+        map.put(keys.get(0), -1);
+        map.remove(keys.get(1));
+        copy.put(keys.get(2), -2);
+
+        assertThat(copy.get(keys.get(0)), is(0));
+        assertThat(copy.get(keys.get(1)), is(1));
+        assertThat(map.get(keys.get(2)), is(2));
+        assertThat(map.size(), is(KEYS - 1));
+        assertThat(copy.size(), is(KEYS));
+    }
+
+    @Test
+    public void putAllRemoveAll() {
+        final Map<Key<?>, Object> entries = new HashMap<>();
+        for (int i = 0; i < KEYS; ++i) {
+            entries.put(keys.get(i), i);
+        }
+        map.put(keys.get(0), -1);
+        map.putAll(entries);
+        assertThat(map.size(), is(KEYS));
+        assertThat(map.get(keys.get(0)), is(0));
+
+        assertThat(map.removeAll(new ArrayList<>(entries.keySet()).subList(0, KEYS / 2)), is(true));
+        assertThat(map.size(), is(KEYS - KEYS / 2));
+        assertThat(map.removeAll(new ArrayList<>(entries.keySet()).subList(0, KEYS / 2)), is(false));
+
+        map.clear();
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    public void forEachVisitsAllAndStops() {
+        for (int i = 0; i < KEYS; ++i) {
+            map.put(keys.get(i), i);
+        }
+        final Map<Key<?>, Object> visited = new HashMap<>();
+        assertThat(map.forEach((key, value) -> {
+            visited.put(key, value);
+            return true;
+        }), is(nullValue()));
+        assertThat(visited.size(), is(KEYS));
+        for (int i = 0; i < KEYS; ++i) {
+            assertThat(visited.get(keys.get(i)), is(i));
+        }
+
+        final Key<Integer> stopAt = keys.get(KEYS / 2);
+        assertThat(map.forEach((key, value) -> key != stopAt), is(sameInstance(stopAt)));
+    }
+}
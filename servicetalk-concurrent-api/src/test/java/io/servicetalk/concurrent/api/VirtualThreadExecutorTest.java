@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.servicetalk.concurrent.api.Executors.isVirtualThreadExecutorSupported;
+import static io.servicetalk.concurrent.api.Executors.newVirtualThreadExecutor;
+import static io.servicetalk.concurrent.internal.SignalOffloaders.hasThreadAffinity;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadExecutorTest {
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private Executor executor;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Virtual threads are not supported by the current runtime", isVirtualThreadExecutorSupported());
+        executor = newVirtualThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (executor != null) {
+            executor.closeAsync().toFuture().get();
+        }
+    }
+
+    @Test
+    public void execution() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        done.await();
+    }
+
+    @Test
+    public void blockedTaskDoesNotHaltOthers() throws Exception {
+        CountDownLatch unblockFirst = new CountDownLatch(1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        AtomicReference<Thread> firstThread = new AtomicReference<>();
+        executor.execute(() -> {
+            firstThread.set(Thread.currentThread());
+            firstStarted.countDown();
+            try {
+                unblockFirst.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        firstStarted.await();
+        AtomicReference<Thread> secondThread = new AtomicReference<>();
+        CountDownLatch secondDone = new CountDownLatch(1);
+        executor.execute(() -> {
+            secondThread.set(Thread.currentThread());
+            secondDone.countDown();
+        });
+        secondDone.await();
+        unblockFirst.countDown();
+        assertThat(secondThread.get(), is(notNullValue()));
+        assertThat(secondThread.get(), is(not(sameInstance(firstThread.get()))));
+    }
+
+    @Test
+    public void timer() throws Exception {
+        executor.timer(1, MILLISECONDS).toFuture().get();
+    }
+
+    @Test
+    public void hasThreadAffinity() {
+        assertThat(hasThreadAffinity(executor), is(true));
+    }
+
+    @Test
+    public void cachedExecutorHasNoThreadAffinity() throws Exception {
+        Executor cached = Executors.newCachedThreadExecutor();
+        try {
+            assertThat(hasThreadAffinity(cached), is(false));
+        } finally {
+            cached.closeAsync().toFuture().get();
+        }
+    }
+}
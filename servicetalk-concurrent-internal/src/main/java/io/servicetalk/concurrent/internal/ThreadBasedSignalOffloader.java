@@ -306,7 +306,12 @@ final class ThreadBasedSignalOffloader implements SignalOffloader, Runnable {
 
     private String executorThreadName() {
         final Thread executorThread = this.executorThread;
-        return executorThread == null ? UNKNOWN_EXECUTOR_THREAD_NAME : executorThread.getName();
+        if (executorThread == null) {
+            return UNKNOWN_EXECUTOR_THREAD_NAME;
+        }
+        // Virtual threads are unnamed by default, fallback to toString() which includes the thread id.
+        final String name = executorThread.getName();
+        return name.isEmpty() ? executorThread.toString() : name;
     }
 
     private interface OffloadedEntity {
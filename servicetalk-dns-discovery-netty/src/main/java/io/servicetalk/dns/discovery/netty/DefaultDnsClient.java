@@ -18,7 +18,10 @@ package io.servicetalk.dns.discovery.netty;
 import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
 import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.PublisherSource.Subscriber;
+import io.servicetalk.concurrent.PublisherSource.Subscription;
 import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
@@ -54,12 +57,16 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.RandomAccess;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
 import static io.netty.handler.codec.dns.DefaultDnsRecordDecoder.decodeName;
@@ -69,6 +76,7 @@ import static io.servicetalk.concurrent.api.AsyncCloseables.toAsyncCloseable;
 import static io.servicetalk.concurrent.api.Completable.completed;
 import static io.servicetalk.concurrent.api.Publisher.defer;
 import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
 import static io.servicetalk.concurrent.internal.FlowControlUtils.addWithOverflowProtection;
 import static io.servicetalk.concurrent.internal.SubscriberUtils.deliverErrorFromSource;
 import static io.servicetalk.concurrent.internal.SubscriberUtils.handleExceptionFromOnSubscribe;
@@ -79,7 +87,9 @@ import static io.servicetalk.concurrent.internal.SubscriberUtils.safeOnError;
 import static io.servicetalk.transport.netty.internal.BuilderUtils.datagramChannel;
 import static io.servicetalk.transport.netty.internal.BuilderUtils.socketChannel;
 import static io.servicetalk.transport.netty.internal.EventLoopAwareNettyIoExecutors.toEventLoopAwareNettyIoExecutor;
-import static java.lang.System.nanoTime;
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.nio.ByteBuffer.wrap;
 import static java.util.Collections.emptyList;
 import static java.util.Comparator.comparing;
@@ -100,9 +110,22 @@ final class DefaultDnsClient implements DnsClient {
     private final DnsNameResolver resolver;
     private final MinTtlCache ttlCache;
     private final Predicate<Throwable> invalidateHostsOnDnsFailure;
+    private final long maxStaleNanos;
+    private final float prefetchTtlFraction;
+    /**
+     * Schedules the queries refreshing resolved records, {@code null} to schedule them on the event loop.
+     */
+    @Nullable
+    private final Executor timer;
+    private final LongSupplier nanoClock;
     private final ListenableAsyncCloseable asyncCloseable;
     @Nullable
     private final DnsServiceDiscovererObserver observer;
+    /**
+     * Resolutions in progress shared by all subscribers of the same name, only accessed from the event loop.
+     */
+    private final Map<String, SharedResolution<InetAddress>> sharedAResolutions = new HashMap<>();
+    private final Map<String, SharedResolution<InetSocketAddress>> sharedSrvResolutions = new HashMap<>();
     private boolean closed;
 
     DefaultDnsClient(final IoExecutor ioExecutor, final int minTTL,
@@ -110,12 +133,18 @@ final class DefaultDnsClient implements DnsClient {
                      @Nullable final Boolean optResourceEnabled, @Nullable final Duration queryTimeout,
                      @Nullable final DnsResolverAddressTypes dnsResolverAddressTypes,
                      @Nullable final DnsServerAddressStreamProvider dnsServerAddressStreamProvider,
-                     @Nullable final DnsServiceDiscovererObserver observer) {
+                     @Nullable final DnsServiceDiscovererObserver observer,
+                     final long maxStaleNanos, final float prefetchTtlFraction,
+                     @Nullable final Executor timer, final LongSupplier nanoClock) {
         // Implementation of this class expects to use only single EventLoop from IoExecutor
         this.nettyIoExecutor = toEventLoopAwareNettyIoExecutor(ioExecutor).next();
         this.ttlCache = new MinTtlCache(new DefaultDnsCache(minTTL, Integer.MAX_VALUE, minTTL), minTTL);
         this.invalidateHostsOnDnsFailure = invalidateHostsOnDnsFailure;
         this.observer = observer;
+        this.maxStaleNanos = maxStaleNanos;
+        this.prefetchTtlFraction = prefetchTtlFraction;
+        this.timer = timer;
+        this.nanoClock = nanoClock;
         asyncCloseable = toAsyncCloseable(graceful -> {
             if (nettyIoExecutor.isCurrentThreadEventLoop()) {
                 closeAsync0();
@@ -171,14 +200,26 @@ final class DefaultDnsClient implements DnsClient {
 
     @Override
     public Publisher<ServiceDiscovererEvent<InetAddress>> dnsQuery(final String address) {
+        return dnsQueryBatches(address).flatMapConcatIterable(identity());
+    }
+
+    @Override
+    public Publisher<List<ServiceDiscovererEvent<InetAddress>>> dnsQueryBatches(final String address) {
         requireNonNull(address);
-        return defer(() -> new ARecordPublisher(true, address, newDiscoveryObserver(address))
-                .flatMapConcatIterable(identity()));
+        return new SharedDnsPublisher<>(sharedAResolutions, address,
+                () -> new ARecordPublisher(true, address, newDiscoveryObserver(address)));
     }
 
     @Override
     public Publisher<ServiceDiscovererEvent<InetSocketAddress>> dnsSrvQuery(final String serviceName) {
         requireNonNull(serviceName);
+        return new SharedDnsPublisher<>(sharedSrvResolutions, serviceName,
+                () -> srvQuery(serviceName).<List<ServiceDiscovererEvent<InetSocketAddress>>>map(
+                        Collections::singletonList))
+                .flatMapConcatIterable(identity());
+    }
+
+    private Publisher<ServiceDiscovererEvent<InetSocketAddress>> srvQuery(final String serviceName) {
         return defer(() -> {
             // State per subscribe requires defer so each subscribe gets independent state.
             final Map<HostAndPort, ARecordPublisher> aRecordMap = new HashMap<>(8);
@@ -216,7 +257,7 @@ final class DefaultDnsClient implements DnsClient {
     }
 
     private static Single<? extends ServiceDiscovererEvent<InetSocketAddress>> srvARecordPubToSingle(
-            Publisher<Iterable<ServiceDiscovererEvent<InetAddress>>> aRecordPublisher,
+            Publisher<List<ServiceDiscovererEvent<InetAddress>>> aRecordPublisher,
             ServiceDiscovererEvent<HostAndPort> srvEvent, String serviceName) {
         return aRecordPublisher.flatMapConcatIterable(identity()).map(inetEvent -> new DefaultServiceDiscovererEvent<>(
                 new InetSocketAddress(inetEvent.address(), srvEvent.address().port()), inetEvent.isAvailable())
@@ -269,10 +310,11 @@ final class DefaultDnsClient implements DnsClient {
 
         @Override
         protected AbstractDnsSubscription newSubscription(
-                final Subscriber<? super Iterable<ServiceDiscovererEvent<HostAndPort>>> subscriber) {
+                final Subscriber<? super List<ServiceDiscovererEvent<HostAndPort>>> subscriber) {
             return new AbstractDnsSubscription(true, subscriber) {
                 @Override
-                protected Future<DnsAnswer<HostAndPort>> doDnsQuery() {
+                protected Future<DnsAnswer<HostAndPort>> doDnsQuery(final boolean refresh) {
+                    // SRV answers are not cached by the resolver, every query (including refreshes) reaches the server.
                     Promise<DnsAnswer<HostAndPort>> promise = ImmediateEventExecutor.INSTANCE.newPromise();
                     resolver.resolveAll(new DefaultDnsQuestion(name, SRV))
                             .addListener((Future<? super List<DnsRecord>> completedFuture) -> {
@@ -344,11 +386,16 @@ final class DefaultDnsClient implements DnsClient {
 
         @Override
         protected AbstractDnsSubscription newSubscription(
-                final Subscriber<? super Iterable<ServiceDiscovererEvent<InetAddress>>> subscriber) {
+                final Subscriber<? super List<ServiceDiscovererEvent<InetAddress>>> subscriber) {
             return new AbstractDnsSubscription(cancelClearsSubscription, subscriber) {
                 @Override
-                protected Future<DnsAnswer<InetAddress>> doDnsQuery() {
+                protected Future<DnsAnswer<InetAddress>> doDnsQuery(final boolean refresh) {
                     ttlCache.prepareForResolution(name);
+                    if (refresh) {
+                        // Refreshes may run before the cached records expire (prefetch), make sure they reach the
+                        // server. Other queries are free to share the cached records.
+                        ttlCache.clear(name);
+                    }
                     Promise<DnsAnswer<InetAddress>> dnsAnswerPromise = ImmediateEventExecutor.INSTANCE.newPromise();
                     resolver.resolveAll(name).addListener(completedFuture -> {
                         Throwable cause = completedFuture.cause();
@@ -397,7 +444,7 @@ final class DefaultDnsClient implements DnsClient {
     }
 
     private abstract class AbstractDnsPublisher<T>
-            extends SubscribablePublisher<Iterable<ServiceDiscovererEvent<T>>> {
+            extends SubscribablePublisher<List<ServiceDiscovererEvent<T>>> {
 
         /**
          * Name of the DNS record to query.
@@ -423,11 +470,11 @@ final class DefaultDnsClient implements DnsClient {
          * @return a new {@link Subscription} for this {@link Publisher}
          */
         protected abstract AbstractDnsSubscription newSubscription(
-                Subscriber<? super Iterable<ServiceDiscovererEvent<T>>> subscriber);
+                Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber);
 
         @Override
         protected final void handleSubscribe(
-                final Subscriber<? super Iterable<ServiceDiscovererEvent<T>>> subscriber) {
+                final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
             if (nettyIoExecutor.isCurrentThreadEventLoop()) {
                 handleSubscribe0(subscriber);
             } else {
@@ -436,7 +483,7 @@ final class DefaultDnsClient implements DnsClient {
         }
 
         private void handleSubscribe0(
-                final Subscriber<? super Iterable<ServiceDiscovererEvent<T>>> subscriber) {
+                final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
             assertInEventloop();
 
             if (subscription != null) {
@@ -471,7 +518,7 @@ final class DefaultDnsClient implements DnsClient {
         }
 
         abstract class AbstractDnsSubscription implements Subscription {
-            private final Subscriber<? super Iterable<ServiceDiscovererEvent<T>>> subscriber;
+            private final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber;
             /**
              * A record resolution for SRV uses flatMapSingle and firstOnOrError which will cancel inline with the
              * first onNext signal. However when we encounter a SRV in-active event we need to manually generate a A*
@@ -482,12 +529,13 @@ final class DefaultDnsClient implements DnsClient {
             private long pendingRequests;
             private List<T> activeAddresses;
             private long resolveDoneNoScheduleTime;
+            private long lastResolvedTime;
             @Nullable
             private Cancellable cancellableForQuery;
             private long ttlNanos;
 
             AbstractDnsSubscription(final boolean cancelClearsSubscription,
-                                    final Subscriber<? super Iterable<ServiceDiscovererEvent<T>>> subscriber) {
+                                    final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
                 this.cancelClearsSubscription = cancelClearsSubscription;
                 this.subscriber = subscriber;
                 activeAddresses = emptyList();
@@ -497,9 +545,11 @@ final class DefaultDnsClient implements DnsClient {
             /**
              * Performs DNS query.
              *
+             * @param refresh {@code true} if the query refreshes previously resolved records, hence must not be
+             * answered from a cache
              * @return a {@link Future} that will be notified when {@link DnsAnswer} is available
              */
-            protected abstract Future<DnsAnswer<T>> doDnsQuery();
+            protected abstract Future<DnsAnswer<T>> doDnsQuery(boolean refresh);
 
             /**
              * Returns a {@link Comparator} for the resolved address type.
@@ -539,11 +589,12 @@ final class DefaultDnsClient implements DnsClient {
                     if (ttlNanos < 0) {
                         doQuery0();
                     } else {
-                        final long durationNs = nanoTime() - resolveDoneNoScheduleTime;
-                        if (durationNs > ttlNanos) {
+                        final long durationNs = nanoClock.getAsLong() - resolveDoneNoScheduleTime;
+                        final long refreshNanos = refreshNanos();
+                        if (durationNs > refreshNanos) {
                             doQuery0();
                         } else {
-                            scheduleQuery0(ttlNanos - durationNs);
+                            scheduleQuery0(refreshNanos - durationNs);
                         }
                     }
                 } else if (cancellableForQuery == TERMINATE_ON_NEXT_REQUEST_N) {
@@ -560,9 +611,9 @@ final class DefaultDnsClient implements DnsClient {
                     handleTerminalError0(new ClosedServiceDiscovererException(DefaultDnsClient.this +
                             " has been closed!"));
                 } else {
-                    final DnsResolutionObserver resolutionObserver = newResolutionObserver();
+                    final DnsResolutionObserver resolutionObserver = newResolutionObserver(isPrefetch());
                     LOGGER.trace("DnsClient {}, querying DNS for {}", DefaultDnsClient.this, AbstractDnsPublisher.this);
-                    final Future<DnsAnswer<T>> addressFuture = doDnsQuery();
+                    final Future<DnsAnswer<T>> addressFuture = doDnsQuery(ttlNanos >= 0);
                     cancellableForQuery = () -> addressFuture.cancel(true);
                     if (addressFuture.isDone()) {
                         handleResolveDone0(addressFuture, resolutionObserver);
@@ -574,13 +625,14 @@ final class DefaultDnsClient implements DnsClient {
             }
 
             @Nullable
-            private DnsResolutionObserver newResolutionObserver() {
+            private DnsResolutionObserver newResolutionObserver(final boolean prefetch) {
                 final DnsDiscoveryObserver discoveryObserver = AbstractDnsPublisher.this.discoveryObserver;
                 if (discoveryObserver == null) {
                     return null;
                 }
                 try {
-                    return discoveryObserver.onNewResolution(name);
+                    return prefetch ? discoveryObserver.onNewPrefetch(name) :
+                            discoveryObserver.onNewResolution(name);
                 } catch (Throwable unexpected) {
                     LOGGER.warn("Unexpected exception from {} while reporting new DNS resolution for: {}",
                             observer, name, unexpected);
@@ -588,6 +640,50 @@ final class DefaultDnsClient implements DnsClient {
                 }
             }
 
+            /**
+             * Returns the delay after a successful resolution before the next query is issued. When prefetch is enabled
+             * this is a fraction of the TTL, so that the refreshed records arrive before the current ones expire.
+             *
+             * @return the delay in nanoseconds after a successful resolution before the next query is issued
+             */
+            private long refreshNanos() {
+                return prefetchTtlFraction < 1f ? (long) (ttlNanos * (double) prefetchTtlFraction) : ttlNanos;
+            }
+
+            private boolean isPrefetch() {
+                return prefetchTtlFraction < 1f && ttlNanos >= 0 && nanoClock.getAsLong() - lastResolvedTime < ttlNanos;
+            }
+
+            /**
+             * Tries to keep serving the current {@link #activeAddresses} after a failed resolution, either because they
+             * have not expired yet (failed prefetch) or because they are within the configured max stale age.
+             *
+             * @param resolutionObserver the observer for the failed resolution
+             * @param cause the cause of the failed resolution
+             * @return {@code true} if the current addresses are still served and another query has been scheduled
+             */
+            private boolean tryServeStale0(@Nullable final DnsResolutionObserver resolutionObserver,
+                                           final Throwable cause) {
+                if ((maxStaleNanos == 0 && prefetchTtlFraction >= 1f) || activeAddresses.isEmpty() || ttlNanos < 0) {
+                    return false;
+                }
+                final long sinceResolvedNanos = nanoClock.getAsLong() - lastResolvedTime;
+                final long remainingNanos = ttlNanos + maxStaleNanos - sinceResolvedNanos;
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                final long staleNanos = sinceResolvedNanos - ttlNanos;
+                if (staleNanos > 0) {
+                    LOGGER.debug("DnsClient {}, serving stale addresses for {} ({} nanos past TTL) after failure.",
+                            DefaultDnsClient.this, AbstractDnsPublisher.this, staleNanos, cause);
+                    reportServingStale(resolutionObserver, cause, staleNanos);
+                }
+                // Retry no later than when the records can't be served anymore. If that retry fails too the failure
+                // is handled as usual.
+                scheduleQuery0(min(max(ttlNanos, 1), remainingNanos));
+                return true;
+            }
+
             private void cancel0() {
                 assertInEventloop();
                 if (cancellableForQuery != null) {
@@ -635,8 +731,39 @@ final class DefaultDnsClient implements DnsClient {
 
                 // This value is coming from DNS TTL for which the unit is seconds and the minimum value we accept
                 // in the builder is 1 second.
-                cancellableForQuery = nettyIoExecutor.asExecutor().schedule(
-                        this::doQuery0, nanos, NANOSECONDS);
+                cancellableForQuery = timer == null ?
+                        nettyIoExecutor.asExecutor().schedule(this::doQuery0, nanos, NANOSECONDS) :
+                        new ScheduledQuery(nanos);
+            }
+
+            /**
+             * A query scheduled on the {@link #timer}, which runs on the event loop unless cancelled by then.
+             */
+            private final class ScheduledQuery implements Runnable, Cancellable {
+                private final Cancellable timerCancellable;
+                // Only accessed from the event loop.
+                private boolean cancelled;
+
+                ScheduledQuery(final long nanos) {
+                    assert timer != null;
+                    timerCancellable = timer.schedule(this, nanos, NANOSECONDS);
+                }
+
+                @Override
+                public void run() {
+                    nettyIoExecutor.asExecutor().execute(() -> {
+                        if (!cancelled) {
+                            doQuery0();
+                        }
+                    });
+                }
+
+                @Override
+                public void cancel() {
+                    assertInEventloop();
+                    cancelled = true;
+                    timerCancellable.cancel();
+                }
             }
 
             private void handleResolveDone0(final Future<DnsAnswer<T>> addressFuture,
@@ -652,6 +779,9 @@ final class DefaultDnsClient implements DnsClient {
                 final Throwable cause = addressFuture.cause();
                 if (cause != null) {
                     reportResolutionFailed(resolutionObserver, cause);
+                    if (tryServeStale0(resolutionObserver, cause)) {
+                        return;
+                    }
                     boolean deliverTerminal = true;
                     try {
                         deliverTerminal = !invalidateHostsOnDnsFailure.test(cause) ||
@@ -674,12 +804,13 @@ final class DefaultDnsClient implements DnsClient {
                             comparator(), resolutionObserver == null ? null : (nAvailable, nUnavailable) ->
                                     reportResolutionResult(resolutionObserver, dnsAnswer, nAvailable, nUnavailable));
                     ttlNanos = dnsAnswer.ttlNanos();
+                    lastResolvedTime = nanoClock.getAsLong();
                     if (events != null) {
                         activeAddresses = addresses;
                         if (--pendingRequests > 0) {
-                            scheduleQuery0(ttlNanos);
+                            scheduleQuery0(refreshNanos());
                         } else {
-                            resolveDoneNoScheduleTime = nanoTime();
+                            resolveDoneNoScheduleTime = nanoClock.getAsLong();
                             cancellableForQuery = null;
                         }
                         try {
@@ -695,7 +826,7 @@ final class DefaultDnsClient implements DnsClient {
                                 DefaultDnsClient.this, AbstractDnsPublisher.this, activeAddresses.size(),
                                 activeAddresses);
 
-                        scheduleQuery0(ttlNanos);
+                        scheduleQuery0(refreshNanos());
                     }
                 }
             }
@@ -714,6 +845,20 @@ final class DefaultDnsClient implements DnsClient {
                 }
             }
 
+            private void reportServingStale(@Nullable final DnsResolutionObserver resolutionObserver,
+                                            final Throwable cause, final long staleNanos) {
+                if (resolutionObserver == null) {
+                    return;
+                }
+                try {
+                    resolutionObserver.servingStale(cause, (int) NANOSECONDS.toSeconds(staleNanos));
+                } catch (Throwable unexpected) {
+                    unexpected.addSuppressed(cause);
+                    LOGGER.warn("Unexpected exception from {} while reporting stale DNS records being served",
+                            resolutionObserver, unexpected);
+                }
+            }
+
             private void reportResolutionResult(final DnsResolutionObserver resolutionObserver,
                                                 final DnsAnswer<T> dnsAnswer,
                                                 final int nAvailable, final int nUnavailable) {
@@ -771,6 +916,315 @@ final class DefaultDnsClient implements DnsClient {
         }
     }
 
+    /**
+     * A {@link Publisher} which multicasts a single resolution loop per name to all its current subscribers, so the
+     * query volume scales with the number of distinct names instead of the number of subscribers. A subscriber that
+     * arrives after the resolution started first receives the currently known addresses as a single batch.
+     *
+     * @param <T> The type of resolved address.
+     */
+    private final class SharedDnsPublisher<T> extends SubscribablePublisher<List<ServiceDiscovererEvent<T>>> {
+        private final Map<String, SharedResolution<T>> resolutions;
+        private final String name;
+        private final Supplier<Publisher<List<ServiceDiscovererEvent<T>>>> resolutionFactory;
+
+        SharedDnsPublisher(final Map<String, SharedResolution<T>> resolutions, final String name,
+                           final Supplier<Publisher<List<ServiceDiscovererEvent<T>>>> resolutionFactory) {
+            this.resolutions = resolutions;
+            this.name = name;
+            this.resolutionFactory = resolutionFactory;
+        }
+
+        @Override
+        protected void handleSubscribe(final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
+            executeInEventloop(() -> handleSubscribe0(subscriber));
+        }
+
+        private void handleSubscribe0(final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
+            assertInEventloop();
+
+            if (closed) {
+                deliverErrorFromSource(subscriber, new ClosedServiceDiscovererException(DefaultDnsClient.this +
+                        " has been closed!"));
+                return;
+            }
+            SharedResolution<T> resolution = resolutions.get(name);
+            if (resolution != null) {
+                resolution.addSubscriber(subscriber);
+                return;
+            }
+            resolution = new SharedResolution<>(resolutions, name);
+            resolutions.put(name, resolution);
+            resolution.addSubscriber(subscriber);
+            final Publisher<List<ServiceDiscovererEvent<T>>> publisher;
+            try {
+                publisher = resolutionFactory.get();
+            } catch (Throwable cause) {
+                resolution.onError(cause);
+                return;
+            }
+            toSource(publisher).subscribe(resolution);
+        }
+    }
+
+    /**
+     * A resolution loop shared by all subscribers of a name. It tracks the currently known addresses to replay them
+     * to late subscribers.
+     *
+     * @param <T> The type of resolved address.
+     */
+    private final class SharedResolution<T> implements Subscriber<List<ServiceDiscovererEvent<T>>> {
+        private final Map<String, SharedResolution<T>> resolutions;
+        private final String name;
+        private final List<SharedSubscription<T>> subscriptions = new ArrayList<>(2);
+        /**
+         * Number of times each address is currently available, insertion ordered to replay events in the order they
+         * were received.
+         */
+        private final Map<T, Integer> activeAddresses = new LinkedHashMap<>();
+        @Nullable
+        private Subscription upstream;
+        private boolean terminated;
+
+        SharedResolution(final Map<String, SharedResolution<T>> resolutions, final String name) {
+            this.resolutions = resolutions;
+            this.name = name;
+        }
+
+        void addSubscriber(final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
+            assertInEventloop();
+            final SharedSubscription<T> subscription = new SharedSubscription<>(this, subscriber);
+            subscriptions.add(subscription);
+            try {
+                subscriber.onSubscribe(subscription);
+            } catch (Throwable cause) {
+                subscription.done = true;
+                removeSubscription(subscription);
+                handleExceptionFromOnSubscribe(subscriber, cause);
+                return;
+            }
+            if (!activeAddresses.isEmpty()) {
+                subscription.enqueue(replayEvents());
+            }
+        }
+
+        void removeSubscription(final SharedSubscription<T> subscription) {
+            assertInEventloop();
+            if (subscriptions.remove(subscription) && subscriptions.isEmpty() && !terminated) {
+                terminated = true;
+                resolutions.remove(name, this);
+                if (upstream != null) {
+                    upstream.cancel();
+                }
+            }
+        }
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+            executeInEventloop(() -> {
+                if (terminated) {
+                    s.cancel();
+                } else {
+                    upstream = s;
+                    // Resolution continues for as long as there are subscribers, demand is managed per subscriber.
+                    s.request(Long.MAX_VALUE);
+                }
+            });
+        }
+
+        @Override
+        public void onNext(final List<ServiceDiscovererEvent<T>> events) {
+            executeInEventloop(() -> {
+                if (terminated) {
+                    return;
+                }
+                for (ServiceDiscovererEvent<T> event : events) {
+                    if (event.isAvailable()) {
+                        activeAddresses.merge(event.address(), 1, Integer::sum);
+                    } else {
+                        activeAddresses.computeIfPresent(event.address(), (__, count) -> count == 1 ? null : count - 1);
+                    }
+                }
+                // Subscriptions may be removed while delivering events.
+                for (SharedSubscription<T> subscription : new ArrayList<>(subscriptions)) {
+                    subscription.enqueue(events);
+                }
+            });
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            executeInEventloop(() -> terminate(t));
+        }
+
+        @Override
+        public void onComplete() {
+            executeInEventloop(() -> terminate(null));
+        }
+
+        private void terminate(@Nullable final Throwable cause) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            // The next subscriber will start a new resolution.
+            resolutions.remove(name, this);
+            final List<SharedSubscription<T>> toTerminate = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+            for (SharedSubscription<T> subscription : toTerminate) {
+                subscription.terminate(cause);
+            }
+        }
+
+        private List<ServiceDiscovererEvent<T>> replayEvents() {
+            final List<ServiceDiscovererEvent<T>> events = new ArrayList<>(activeAddresses.size());
+            for (Map.Entry<T, Integer> entry : activeAddresses.entrySet()) {
+                for (int i = 0; i < entry.getValue(); ++i) {
+                    events.add(new DefaultServiceDiscovererEvent<>(entry.getKey(), true));
+                }
+            }
+            return events;
+        }
+
+        @Override
+        public String toString() {
+            return "Shared resolution for " + name;
+        }
+    }
+
+    /**
+     * {@link Subscription} of a single subscriber to a {@link SharedResolution}. Events received while there is no
+     * demand are coalesced per address and delivered as a single batch once demand arrives.
+     *
+     * @param <T> The type of resolved address.
+     */
+    private final class SharedSubscription<T> implements Subscription {
+        private final SharedResolution<T> resolution;
+        private final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber;
+        private long pendingRequests;
+        /**
+         * Net number of availability changes per address not yet delivered, positive for available and negative for
+         * unavailable. Only the latest state of an address matters, so this is bounded by the number of addresses
+         * no matter how long the subscriber does not request.
+         */
+        @Nullable
+        private Map<T, Integer> pendingEvents;
+        @Nullable
+        private Throwable terminalCause;
+        private boolean terminalPending;
+        private boolean done;
+
+        SharedSubscription(final SharedResolution<T> resolution,
+                           final Subscriber<? super List<ServiceDiscovererEvent<T>>> subscriber) {
+            this.resolution = resolution;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            executeInEventloop(() -> request0(n));
+        }
+
+        @Override
+        public void cancel() {
+            executeInEventloop(() -> {
+                if (!done) {
+                    done = true;
+                    pendingEvents = null;
+                    resolution.removeSubscription(this);
+                }
+            });
+        }
+
+        private void request0(final long n) {
+            assertInEventloop();
+            if (done) {
+                return;
+            }
+            if (!isRequestNValid(n)) {
+                done = true;
+                resolution.removeSubscription(this);
+                safeOnError(subscriber, newExceptionForInvalidRequestN(n));
+                return;
+            }
+            pendingRequests = addWithOverflowProtection(pendingRequests, n);
+            drain();
+        }
+
+        void enqueue(final List<ServiceDiscovererEvent<T>> events) {
+            if (done) {
+                return;
+            }
+            if (pendingEvents == null) {
+                pendingEvents = new LinkedHashMap<>();
+            }
+            for (ServiceDiscovererEvent<T> event : events) {
+                pendingEvents.merge(event.address(), event.isAvailable() ? 1 : -1,
+                        (count, delta) -> count + delta == 0 ? null : count + delta);
+            }
+            if (pendingEvents.isEmpty()) {
+                // The events cancelled each other out.
+                pendingEvents = null;
+            }
+            drain();
+        }
+
+        void terminate(@Nullable final Throwable cause) {
+            terminalPending = true;
+            terminalCause = cause;
+            drain();
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (pendingEvents != null && pendingRequests > 0) {
+                --pendingRequests;
+                final List<ServiceDiscovererEvent<T>> events = toEvents(pendingEvents);
+                pendingEvents = null;
+                try {
+                    LOGGER.debug("DnsClient {}, sending events for {} (size {}) {}.",
+                            DefaultDnsClient.this, resolution, events.size(), events);
+                    subscriber.onNext(events);
+                } catch (Throwable cause) {
+                    done = true;
+                    resolution.removeSubscription(this);
+                    safeOnError(subscriber, cause);
+                    return;
+                }
+            }
+            // Removal events generated before termination are delivered before the terminal signal.
+            if (terminalPending && pendingEvents == null && !done) {
+                done = true;
+                if (terminalCause == null) {
+                    safeOnComplete(subscriber);
+                } else {
+                    safeOnError(subscriber, terminalCause);
+                }
+            }
+        }
+
+        private List<ServiceDiscovererEvent<T>> toEvents(final Map<T, Integer> pendingEvents) {
+            final List<ServiceDiscovererEvent<T>> events = new ArrayList<>(pendingEvents.size());
+            for (Map.Entry<T, Integer> entry : pendingEvents.entrySet()) {
+                final int count = entry.getValue();
+                for (int i = 0; i < abs(count); ++i) {
+                    events.add(new DefaultServiceDiscovererEvent<>(entry.getKey(), count > 0));
+                }
+            }
+            return events;
+        }
+    }
+
+    private void executeInEventloop(final Runnable task) {
+        if (nettyIoExecutor.isCurrentThreadEventLoop()) {
+            task.run();
+        } else {
+            nettyIoExecutor.asExecutor().execute(task);
+        }
+    }
+
     private static ResolvedAddressTypes toNettyType(final DnsResolverAddressTypes dnsResolverAddressTypes) {
         switch (dnsResolverAddressTypes) {
             case IPV4_ONLY:
@@ -17,6 +17,7 @@ package io.servicetalk.dns.discovery.netty;
 
 import io.servicetalk.client.api.ServiceDiscoverer;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.transport.api.HostAndPort;
 import io.servicetalk.transport.api.IoExecutor;
 
@@ -25,6 +26,7 @@ import io.netty.resolver.dns.DnsNameResolverTimeoutException;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.time.Duration;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
@@ -52,10 +54,16 @@ public final class DefaultDnsServiceDiscovererBuilder {
     @Nullable
     private Duration queryTimeout;
     private int minTTLSeconds = 10;
+    private int eventLoopShards = 1;
+    private Duration maxStaleAge = Duration.ZERO;
+    private float prefetchTtlFraction = 1f;
     @Nullable
     private DnsClientFilterFactory filterFactory;
     @Nullable
     private DnsServiceDiscovererObserver observer;
+    @Nullable
+    private Executor timer;
+    private LongSupplier nanoClock = System::nanoTime;
 
     /**
      * The minimum allowed TTL. This will be the minimum poll interval.
@@ -71,6 +79,41 @@ public final class DefaultDnsServiceDiscovererBuilder {
         return this;
     }
 
+    /**
+     * Sets for how long after their TTL expired previously resolved records keep being served when DNS resolutions
+     * fail, similar to <a href="https://tools.ietf.org/html/rfc8767">RFC 8767</a>. While stale records are served,
+     * failures neither terminate the discovery nor send 'unavailable' events, and resolutions are retried every TTL
+     * until one succeeds or the max stale age is exceeded, after which the failure is handled as usual.
+     *
+     * @param maxStaleAge the max time past their TTL for which resolved records can be served, {@link Duration#ZERO}
+     * (default) disables serving stale records.
+     * @return {@code this}.
+     */
+    public DefaultDnsServiceDiscovererBuilder maxStaleAge(final Duration maxStaleAge) {
+        if (maxStaleAge.isNegative()) {
+            throw new IllegalArgumentException("maxStaleAge: " + maxStaleAge + " (expected >= 0)");
+        }
+        this.maxStaleAge = maxStaleAge;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of the TTL after which resolved records are refreshed in the background. For example,
+     * {@code 0.8f} queries DNS again once 80% of the TTL elapsed, so that refreshed records are available before the
+     * current ones expire. A failed refresh keeps serving the current records until they expire. Applies to both
+     * A/AAAA and SRV resolutions.
+     *
+     * @param prefetchTtlFraction the fraction of the TTL in {@code (0, 1]}, {@code 1} (default) disables prefetch.
+     * @return {@code this}.
+     */
+    public DefaultDnsServiceDiscovererBuilder prefetchTtlFraction(final float prefetchTtlFraction) {
+        if (!(prefetchTtlFraction > 0f && prefetchTtlFraction <= 1f)) {
+            throw new IllegalArgumentException("prefetchTtlFraction: " + prefetchTtlFraction + " (expected (0, 1])");
+        }
+        this.prefetchTtlFraction = prefetchTtlFraction;
+        return this;
+    }
+
     /**
      * Set the {@link DnsServerAddressStreamProvider} which determines which DNS server should be used per query.
      *
@@ -180,6 +223,20 @@ public final class DefaultDnsServiceDiscovererBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link Executor} scheduling the queries which refresh resolved records, and the clock measuring their
+     * age. By default, queries are scheduled on the event loop and measured with {@link System#nanoTime()}.
+     *
+     * @param timer {@link Executor} scheduling the refresh queries.
+     * @param nanoClock the clock, in nanoseconds, consistent with {@code timer}.
+     * @return {@code this}.
+     */
+    DefaultDnsServiceDiscovererBuilder timer(final Executor timer, final LongSupplier nanoClock) {
+        this.timer = requireNonNull(timer);
+        this.nanoClock = requireNonNull(nanoClock);
+        return this;
+    }
+
     /**
      * Sets the {@link IoExecutor}.
      *
@@ -191,6 +248,23 @@ public final class DefaultDnsServiceDiscovererBuilder {
         return this;
     }
 
+    /**
+     * Sets the number of event loops of the {@link #ioExecutor(IoExecutor)} used to resolve names. Each name is hashed
+     * to a shard which resolves it on its own event loop with its own cache, so resolving many names with short TTLs
+     * does not saturate a single event loop. Using more shards than the {@link IoExecutor} has threads does not
+     * provide additional parallelism.
+     *
+     * @param eventLoopShards the number of event loops to spread names across, defaults to {@code 1}.
+     * @return {@code this}.
+     */
+    public DefaultDnsServiceDiscovererBuilder eventLoopShards(final int eventLoopShards) {
+        if (eventLoopShards < 1) {
+            throw new IllegalArgumentException("eventLoopShards: " + eventLoopShards + " (expected >= 1)");
+        }
+        this.eventLoopShards = eventLoopShards;
+        return this;
+    }
+
     /**
      * Sets a {@link DnsServiceDiscovererObserver} that provides visibility into
      * <a href="https://tools.ietf.org/html/rfc1034">DNS</a> {@link ServiceDiscoverer} built by this builder.
@@ -236,10 +310,25 @@ public final class DefaultDnsServiceDiscovererBuilder {
      * @return a new instance of {@link DnsClient}.
      */
     DnsClient build() {
-        final DnsClient rawClient = new DefaultDnsClient(
-                ioExecutor == null ? globalExecutionContext().ioExecutor() : ioExecutor, minTTLSeconds, ndots,
-                invalidateHostsOnDnsFailure, optResourceEnabled, queryTimeout, dnsResolverAddressTypes,
-                dnsServerAddressStreamProvider, observer);
+        final IoExecutor ioExecutor = this.ioExecutor == null ? globalExecutionContext().ioExecutor() :
+                this.ioExecutor;
+        final DnsClient rawClient;
+        if (eventLoopShards == 1) {
+            rawClient = newDefaultDnsClient(ioExecutor);
+        } else {
+            // Every DefaultDnsClient picks the next event loop of the IoExecutor.
+            final DnsClient[] shards = new DnsClient[eventLoopShards];
+            for (int i = 0; i < shards.length; ++i) {
+                shards[i] = newDefaultDnsClient(ioExecutor);
+            }
+            rawClient = new ShardedDnsClient(shards);
+        }
         return filterFactory == null ? rawClient : filterFactory.create(rawClient);
     }
+
+    private DnsClient newDefaultDnsClient(final IoExecutor ioExecutor) {
+        return new DefaultDnsClient(ioExecutor, minTTLSeconds, ndots, invalidateHostsOnDnsFailure,
+                optResourceEnabled, queryTimeout, dnsResolverAddressTypes, dnsServerAddressStreamProvider, observer,
+                maxStaleAge.toNanos(), prefetchTtlFraction, timer, nanoClock);
+    }
 }
@@ -21,6 +21,7 @@ import io.servicetalk.concurrent.api.Publisher;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.List;
 
 /**
  * A client for the <a href="https://tools.ietf.org/html/rfc1035">DNS</a> protocol.
@@ -34,6 +35,16 @@ interface DnsClient extends ListenableAsyncCloseable {
      */
     Publisher<ServiceDiscovererEvent<InetAddress>> dnsQuery(String hostName);
 
+    /**
+     * Query for <a href="https://tools.ietf.org/html/rfc1035">host addresses</a> (e.g. A or AAAA records), delivering
+     * all the changes caused by a single DNS answer together.
+     * @param hostName <a href="https://tools.ietf.org/html/rfc1035">host name</a> to lookup.
+     * @return A {@link Publisher} which provides a {@link List} of changes each time the resolved addresses for the
+     * {@code hostName} change.
+     * @see #dnsQuery(String)
+     */
+    Publisher<List<ServiceDiscovererEvent<InetAddress>>> dnsQueryBatches(String hostName);
+
     /**
      * Query for <a href="https://tools.ietf.org/html/rfc2782">SRV Resource Records</a> corresponding to
      * {@code serviceName}. For each SRV answer capture the <strong>Port</strong> and resolve the
@@ -21,6 +21,7 @@ import io.servicetalk.concurrent.api.Publisher;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.List;
 
 import static java.util.Objects.requireNonNull;
 
@@ -44,6 +45,11 @@ class DnsClientFilter implements DnsClient {
         return client.dnsQuery(hostName);
     }
 
+    @Override
+    public Publisher<List<ServiceDiscovererEvent<InetAddress>>> dnsQueryBatches(final String hostName) {
+        return client.dnsQueryBatches(hostName);
+    }
+
     @Override
     public Publisher<ServiceDiscovererEvent<InetSocketAddress>> dnsSrvQuery(final String serviceName) {
         return client.dnsSrvQuery(serviceName);
@@ -24,6 +24,8 @@ import io.servicetalk.transport.api.HostAndPort;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Utilities methods and conversion routines for {@link DnsClient}.
@@ -101,6 +103,20 @@ final class DnsClients {
                                 hostAndPort.port()), originalEvent.isAvailable())
                 );
             }
+
+            @Override
+            public Publisher<List<ServiceDiscovererEvent<InetSocketAddress>>> discoverBatches(
+                    final HostAndPort hostAndPort) {
+                return dns.dnsQueryBatches(hostAndPort.hostName()).map(originalEvents -> {
+                    final List<ServiceDiscovererEvent<InetSocketAddress>> events =
+                            new ArrayList<>(originalEvents.size());
+                    for (ServiceDiscovererEvent<InetAddress> originalEvent : originalEvents) {
+                        events.add(new DefaultServiceDiscovererEvent<>(new InetSocketAddress(originalEvent.address(),
+                                hostAndPort.port()), originalEvent.isAvailable()));
+                    }
+                    return events;
+                });
+            }
         };
     }
 }
@@ -46,6 +46,18 @@ public interface DnsServiceDiscovererObserver {
          * @return {@link DnsResolutionObserver} that provides visibility into results of the current DNS resolution
          */
         DnsResolutionObserver onNewResolution(String name);
+
+        /**
+         * Notifies that a new DNS resolution started before the previously resolved records expired, see
+         * {@link DefaultDnsServiceDiscovererBuilder#prefetchTtlFraction(float)}.
+         *
+         * @param name the name for the <a href="https://tools.ietf.org/html/rfc1035#section-4.1.2">DNS question</a> to
+         * be queried
+         * @return {@link DnsResolutionObserver} that provides visibility into results of the current DNS resolution
+         */
+        default DnsResolutionObserver onNewPrefetch(String name) {
+            return onNewResolution(name);
+        }
     }
 
     /**
@@ -66,6 +78,19 @@ public interface DnsServiceDiscovererObserver {
          * @param result the {@link ResolutionResult}
          */
         void resolutionCompleted(ResolutionResult result);
+
+        /**
+         * Notifies that the current DNS resolution failed, but previously resolved records that already expired keep
+         * being served because they are within the
+         * {@link DefaultDnsServiceDiscovererBuilder#maxStaleAge(java.time.Duration) max stale age}.
+         * <p>
+         * Always preceded by {@link #resolutionFailed(Throwable)} for the same resolution.
+         *
+         * @param cause {@link Throwable} as a cause for the failure
+         * @param staleSeconds time in seconds elapsed since the served records expired
+         */
+        default void servingStale(Throwable cause, int staleSeconds) {
+        }
     }
 
     /**
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.dns.discovery.netty;
+
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.Publisher;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.concurrent.api.Completable.mergeAllDelayError;
+
+/**
+ * A {@link DnsClient} which spreads names across several {@link DnsClient}s, each confined to its own event loop and
+ * owning its own cache. A given name is always resolved by the same shard.
+ */
+final class ShardedDnsClient implements DnsClient {
+    private final DnsClient[] shards;
+    private final CompositeCloseable closeable;
+    private final Completable onClose;
+
+    /**
+     * Create a new instance.
+     *
+     * @param shards the {@link DnsClient}s to spread names across.
+     */
+    ShardedDnsClient(final DnsClient[] shards) {
+        if (shards.length < 2) {
+            throw new IllegalArgumentException("shards: " + shards.length + " (expected >=2)");
+        }
+        this.shards = shards.clone();
+        closeable = newCompositeCloseable().mergeAll(this.shards);
+        final Completable[] onCloses = new Completable[this.shards.length];
+        for (int i = 0; i < onCloses.length; ++i) {
+            onCloses[i] = this.shards[i].onClose();
+        }
+        onClose = mergeAllDelayError(onCloses);
+    }
+
+    @Override
+    public Publisher<ServiceDiscovererEvent<InetAddress>> dnsQuery(final String hostName) {
+        return shard(hostName).dnsQuery(hostName);
+    }
+
+    @Override
+    public Publisher<List<ServiceDiscovererEvent<InetAddress>>> dnsQueryBatches(final String hostName) {
+        return shard(hostName).dnsQueryBatches(hostName);
+    }
+
+    @Override
+    public Publisher<ServiceDiscovererEvent<InetSocketAddress>> dnsSrvQuery(final String serviceName) {
+        return shard(serviceName).dnsSrvQuery(serviceName);
+    }
+
+    private DnsClient shard(final String name) {
+        return shards[(name.hashCode() & Integer.MAX_VALUE) % shards.length];
+    }
+
+    @Override
+    public Completable onClose() {
+        return onClose;
+    }
+
+    @Override
+    public Completable closeAsync() {
+        return closeable.closeAsync();
+    }
+
+    @Override
+    public Completable closeAsyncGracefully() {
+        return closeable.closeAsyncGracefully();
+    }
+
+    @Override
+    public String toString() {
+        return ShardedDnsClient.class.getSimpleName() + "{shards=" + shards.length + '}';
+    }
+}
@@ -40,8 +40,11 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -55,14 +58,19 @@ import static io.servicetalk.dns.discovery.netty.TestRecordStore.createRecord;
 import static io.servicetalk.dns.discovery.netty.TestRecordStore.createSrvRecord;
 import static io.servicetalk.transport.netty.NettyIoExecutors.createIoExecutor;
 import static io.servicetalk.transport.netty.internal.EventLoopAwareNettyIoExecutors.toEventLoopAwareNettyIoExecutor;
+import static java.lang.Math.min;
 import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.directory.server.dns.messages.RecordType.A;
 import static org.apache.directory.server.dns.messages.RecordType.AAAA;
 import static org.apache.directory.server.dns.messages.RecordType.SRV;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -270,6 +278,63 @@ public class DefaultDnsClientTest {
         assertThat(subscriber.inactiveCount(), equalTo(expectedInactiveCount));
     }
 
+    @Test
+    public void subscribersOfSameHostShareResolution() throws Exception {
+        final String ip1 = nextIp();
+        final String ip2 = nextIp();
+        final AtomicInteger queries = new AtomicInteger();
+        recordStore.defaultResponse("apple.com", A, () -> {
+            queries.incrementAndGet();
+            return asList(createRecord("apple.com", A, 60, ip1), createRecord("apple.com", A, 60, ip2));
+        });
+        final int expectedActiveCount = 2;
+
+        AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        CountDownLatch firstLatch = new CountDownLatch(expectedActiveCount);
+        ServiceDiscovererTestSubscriber<InetAddress> firstSubscriber =
+                new ServiceDiscovererTestSubscriber<>(firstLatch, throwableRef, Long.MAX_VALUE);
+        toSource(client.dnsQuery("apple.com")).subscribe(firstSubscriber);
+        firstLatch.await();
+
+        // A late subscriber receives the last known addresses without issuing another query.
+        CountDownLatch secondLatch = new CountDownLatch(expectedActiveCount);
+        ServiceDiscovererTestSubscriber<InetAddress> secondSubscriber =
+                new ServiceDiscovererTestSubscriber<>(secondLatch, throwableRef, Long.MAX_VALUE);
+        toSource(client.dnsQuery("apple.com")).subscribe(secondSubscriber);
+        secondLatch.await();
+
+        assertNull(throwableRef.get());
+        assertThat(firstSubscriber.activeCount(), equalTo(expectedActiveCount));
+        assertThat(secondSubscriber.activeCount(), equalTo(expectedActiveCount));
+        assertThat(queries.get(), equalTo(1));
+    }
+
+    @Test
+    public void eventsWithoutDemandAreCoalescedPerAddress() throws Exception {
+        final List<String> ips = asList(nextIp(), nextIp(), nextIp(), nextIp());
+        final AtomicInteger queries = new AtomicInteger();
+        final CountDownLatch changesResolved = new CountDownLatch(1);
+        recordStore.defaultResponse("apple.com", A, () -> {
+            final int query = queries.incrementAndGet();
+            if (query > ips.size()) {
+                // The query after the last change is only sent once the events of that change were enqueued.
+                changesResolved.countDown();
+            }
+            return singletonList(createRecord("apple.com", A, 1, ips.get(min(query, ips.size()) - 1)));
+        });
+
+        BatchSubscriber subscriber = new BatchSubscriber();
+        toSource(client.dnsQueryBatches("apple.com")).subscribe(subscriber);
+        assertThat(describe(subscriber.batches.take()), contains(ips.get(0) + " available"));
+
+        // Every change makes the previous address unavailable, only the net change is pending.
+        changesResolved.await();
+        subscriber.subscription.request(1);
+        assertThat(describe(subscriber.batches.take()),
+                containsInAnyOrder(ips.get(0) + " unavailable", ips.get(ips.size() - 1) + " available"));
+        assertNull(subscriber.throwableRef.get());
+    }
+
     @Test
     public void singleDiscoverMultipleRecords() throws InterruptedException {
         recordStore.addResponse("apple.com", A, nextIp(), nextIp(), nextIp(), nextIp(), nextIp());
@@ -387,6 +452,30 @@ public class DefaultDnsClientTest {
         assertThat(stSubscriber.inactiveCount(), equalTo(expectedStInactiveCount));
     }
 
+    @Test
+    public void shardedClientDiscoversMultipleHosts() throws Exception {
+        final String appleIp = nextIp();
+        final String stIp = nextIp();
+        recordStore.defaultResponse("apple.com", A, appleIp)
+                .defaultResponse("servicetalk.io", A, stIp);
+        DnsClient shardedClient = dnsClientBuilder().eventLoopShards(2).build();
+        try {
+            CountDownLatch latch = new CountDownLatch(2);
+            TestSubscriber appleSubscriber = new TestSubscriber(latch);
+            TestSubscriber stSubscriber = new TestSubscriber(latch);
+            toSource(shardedClient.dnsQuery("apple.com")).subscribe(appleSubscriber);
+            toSource(shardedClient.dnsQuery("servicetalk.io")).subscribe(stSubscriber);
+
+            latch.await();
+            assertNull(appleSubscriber.throwableRef.get());
+            assertNull(stSubscriber.throwableRef.get());
+            assertThat(appleSubscriber.activeEventAddresses, equalTo(singletonList(appleIp)));
+            assertThat(stSubscriber.activeEventAddresses, equalTo(singletonList(stIp)));
+        } finally {
+            shardedClient.closeAsync().toFuture().get();
+        }
+    }
+
     @Test
     public void repeatDiscoverTtl() throws InterruptedException {
         AtomicLong firstTime = new AtomicLong();
@@ -539,6 +628,43 @@ public class DefaultDnsClientTest {
         }
     }
 
+    @Test
+    public void repeatDiscoverNxDomainServesStaleUntilMaxStaleAge() throws Exception {
+        recordStore.addResponse("apple.com", A, nextIp());
+
+        RecordingTestExecutor timer = new RecordingTestExecutor();
+        DnsClient customClient = dnsClientBuilder().maxStaleAge(ofSeconds(2))
+                .timer(timer, timer::currentNanos).build();
+        try {
+            final int expectedActiveCount = 1;
+            final int expectedInactiveCount = 1;
+            final int expectedErrorCount = 1;
+
+            CountDownLatch latch = new CountDownLatch(expectedActiveCount + expectedInactiveCount + expectedErrorCount);
+            AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+            Publisher<ServiceDiscovererEvent<InetAddress>> publisher = customClient.dnsQuery("apple.com");
+            ServiceDiscovererTestSubscriber<InetAddress> subscriber =
+                    new ServiceDiscovererTestSubscriber<>(latch, throwableRef, Long.MAX_VALUE);
+            toSource(publisher).subscribe(subscriber);
+
+            // The record (TTL 1 second) keeps being served for another 2 seconds, every failed retry schedules the
+            // next one after the TTL.
+            for (int i = 0; i < 3; ++i) {
+                assertThat(timer.takeScheduledNanos(), equalTo(SECONDS.toNanos(DEFAULT_TTL)));
+                assertThat(subscriber.inactiveCount(), equalTo(0));
+                timer.advanceTimeBy(DEFAULT_TTL, SECONDS);
+            }
+
+            latch.await();
+            assertThat("Unexpected exception during DNS lookup.",
+                    throwableRef.get(), instanceOf(UnknownHostException.class));
+            assertThat(subscriber.activeCount(), equalTo(expectedActiveCount));
+            assertThat(subscriber.inactiveCount(), equalTo(expectedInactiveCount));
+        } finally {
+            customClient.closeAsync().toFuture().get();
+        }
+    }
+
     @Test
     public void testTimeoutDoesNotInactivate() throws Exception {
         CountDownLatch timeoutLatch = new CountDownLatch(2);
@@ -720,6 +846,41 @@ public class DefaultDnsClientTest {
                 });
     }
 
+    private static List<String> describe(final List<ServiceDiscovererEvent<InetAddress>> batch) {
+        final List<String> descriptions = new ArrayList<>(batch.size());
+        for (ServiceDiscovererEvent<InetAddress> event : batch) {
+            descriptions.add(event.address().getHostAddress() + (event.isAvailable() ? " available" : " unavailable"));
+        }
+        return descriptions;
+    }
+
+    private static final class BatchSubscriber implements Subscriber<List<ServiceDiscovererEvent<InetAddress>>> {
+        private final BlockingQueue<List<ServiceDiscovererEvent<InetAddress>>> batches = new LinkedBlockingQueue<>();
+        private final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        private volatile Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Subscription s) {
+            subscription = s;
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(final List<ServiceDiscovererEvent<InetAddress>> batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            throwableRef.set(t);
+        }
+
+        @Override
+        public void onComplete() {
+            throwableRef.set(new IllegalStateException("Unexpected completion"));
+        }
+    }
+
     private static class TestSubscriber implements Subscriber<ServiceDiscovererEvent<InetAddress>> {
         private final CountDownLatch latch;
         private final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.dns.discovery.netty;
 
+import io.servicetalk.concurrent.Cancellable;
 import io.servicetalk.concurrent.api.CompositeCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
@@ -33,7 +34,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.BiFunction;
 
 import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
@@ -42,6 +45,8 @@ import static io.servicetalk.dns.discovery.netty.DnsTestUtils.nextIp;
 import static io.servicetalk.dns.discovery.netty.TestRecordStore.DEFAULT_TTL;
 import static io.servicetalk.dns.discovery.netty.TestRecordStore.createSrvRecord;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.directory.server.dns.messages.RecordType.A;
 import static org.apache.directory.server.dns.messages.RecordType.SRV;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -92,15 +97,18 @@ public class DnsServiceDiscovererObserverTest {
     }
 
     private DnsClient dnsClient(DnsServiceDiscovererObserver observer) {
-        return toClose.append(new DefaultDnsServiceDiscovererBuilder()
+        return toClose.append(dnsClientBuilder(observer).build());
+    }
+
+    private DefaultDnsServiceDiscovererBuilder dnsClientBuilder(DnsServiceDiscovererObserver observer) {
+        return new DefaultDnsServiceDiscovererBuilder()
                 .observer(observer)
                 .dnsResolverAddressTypes(DnsResolverAddressTypes.IPV4_PREFERRED)
                 .optResourceEnabled(false)
                 .dnsServerAddressStreamProvider(new SingletonDnsServerAddressStreamProvider(
                         new SingletonDnsServerAddresses(dnsServer.localAddress())))
                 .ndots(1)
-                .minTTL(1)
-                .build());
+                .minTTL(1);
     }
 
     @Test
@@ -165,6 +173,37 @@ public class DnsServiceDiscovererObserverTest {
                 hasItem(anyOf(equalTo(HOST_NAME), equalTo(HOST_NAME + '.'))));
     }
 
+    @Test
+    public void aQueryPrefetchTriggersNewPrefetchObserver() throws Exception {
+        testPrefetch(DnsClient::dnsQuery, HOST_NAME);
+    }
+
+    @Test
+    public void srvQueryPrefetchTriggersNewPrefetchObserver() throws Exception {
+        testPrefetch(DnsClient::dnsSrvQuery, SERVICE_NAME);
+    }
+
+    private void testPrefetch(BiFunction<DnsClient, String, Publisher<?>> publisherFactory,
+                              String expectedName) throws Exception {
+        RecordingTestExecutor timer = new RecordingTestExecutor();
+        PrefetchRecordingDiscoveryObserver discoveryObserver = new PrefetchRecordingDiscoveryObserver();
+        DnsClient client = toClose.append(dnsClientBuilder(__ -> discoveryObserver)
+                .prefetchTtlFraction(0.5f).timer(timer, timer::currentNanos).build());
+
+        Cancellable discovery = publisherFactory.apply(client, expectedName).forEach(__ -> { });
+        try {
+            // The first resolution has nothing to refresh, the next one starts half way through the TTL:
+            final long prefetchNanos = SECONDS.toNanos(DEFAULT_TTL) / 2;
+            assertThat(timer.takeScheduledNanos(), is(prefetchNanos));
+            assertThat("Unexpected calls to newPrefetch(name)", discoveryObserver.prefetches, hasSize(0));
+            timer.advanceTimeBy(prefetchNanos, NANOSECONDS);
+            assertThat("Unexpected name for newPrefetch(name)", discoveryObserver.prefetches.take(),
+                    equalTo(expectedName));
+        } finally {
+            discovery.cancel();
+        }
+    }
+
     @Test
     public void aQueryFailedResolution() {
         testFailedResolution(DnsClient::dnsQuery);
@@ -340,6 +379,21 @@ public class DnsServiceDiscovererObserverTest {
         }
     }
 
+    private static final class PrefetchRecordingDiscoveryObserver implements DnsDiscoveryObserver {
+        final BlockingQueue<String> prefetches = new LinkedBlockingQueue<>();
+
+        @Override
+        public DnsResolutionObserver onNewResolution(final String name) {
+            return NoopDnsResolutionObserver.INSTANCE;
+        }
+
+        @Override
+        public DnsResolutionObserver onNewPrefetch(final String name) {
+            prefetches.add(name);
+            return NoopDnsResolutionObserver.INSTANCE;
+        }
+    }
+
     private static class NoopDnsResolutionObserver implements DnsResolutionObserver {
         static final DnsResolutionObserver INSTANCE = new NoopDnsResolutionObserver();
 
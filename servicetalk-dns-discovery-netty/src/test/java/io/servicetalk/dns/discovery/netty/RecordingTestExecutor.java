@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.dns.discovery.netty;
+
+import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.api.TestExecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TestExecutor} which lets tests wait for tasks to be scheduled before advancing its time.
+ */
+final class RecordingTestExecutor extends TestExecutor {
+    private final BlockingQueue<Long> scheduledDelays = new LinkedBlockingQueue<>();
+
+    @Override
+    public Cancellable schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        final Cancellable cancellable = super.schedule(task, delay, unit);
+        scheduledDelays.add(unit.toNanos(delay));
+        return cancellable;
+    }
+
+    /**
+     * Waits for the next task to be scheduled.
+     *
+     * @return the delay of the scheduled task in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    long takeScheduledNanos() throws InterruptedException {
+        return scheduledDelays.take();
+    }
+}
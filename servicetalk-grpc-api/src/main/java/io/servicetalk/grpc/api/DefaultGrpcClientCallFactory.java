@@ -18,32 +18,61 @@ package io.servicetalk.grpc.api;
 import io.servicetalk.concurrent.BlockingIterator;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.BlockingHttpClient;
 import io.servicetalk.http.api.BlockingStreamingHttpClient;
 import io.servicetalk.http.api.BlockingStreamingHttpRequest;
-import io.servicetalk.http.api.BlockingStreamingHttpResponse;
 import io.servicetalk.http.api.HttpClient;
+import io.servicetalk.http.api.HttpExecutionStrategy;
 import io.servicetalk.http.api.HttpRequest;
 import io.servicetalk.http.api.HttpRequestFactory;
 import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.http.api.HttpSerializer;
 import io.servicetalk.http.api.StreamingHttpClient;
 import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
 
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 
+import static io.servicetalk.concurrent.api.Single.failed;
 import static io.servicetalk.concurrent.internal.BlockingIterables.singletonBlockingIterable;
-import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.grpc.api.GrpcUtils.NO_TIMEOUT;
+import static io.servicetalk.grpc.api.GrpcUtils.callTimeout;
 import static io.servicetalk.grpc.api.GrpcUtils.initRequest;
+import static io.servicetalk.grpc.api.GrpcUtils.newDeadlineExceededException;
+import static io.servicetalk.grpc.api.GrpcUtils.readGrpcMessageCodec;
+import static io.servicetalk.grpc.api.GrpcUtils.setTimeout;
 import static io.servicetalk.grpc.api.GrpcUtils.uncheckedCast;
 import static io.servicetalk.grpc.api.GrpcUtils.validateResponseAndGetPayload;
+import static io.servicetalk.grpc.api.GrpcUtils.withTimeout;
+import static io.servicetalk.grpc.api.MessageSizeLimitingHttpSerializer.limitMessageSize;
+import static io.servicetalk.grpc.api.MessageSizeValidator.validateMaxMessageSize;
+import static io.servicetalk.grpc.api.MessageSizeValidator.validateMessageSize;
+import static io.servicetalk.utils.internal.PlatformDependent.throwException;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
 final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
     private final StreamingHttpClient streamingHttpClient;
     private final GrpcExecutionContext executionContext;
+    private final GrpcMessageCodec requestCodec;
+    private final GrpcMessageCodecs codecs;
+    private final int maxInboundMessageSize;
+    private final int maxOutboundMessageSize;
 
-    DefaultGrpcClientCallFactory(final StreamingHttpClient streamingHttpClient) {
+    DefaultGrpcClientCallFactory(final StreamingHttpClient streamingHttpClient, final GrpcMessageCodec requestCodec,
+                                 final Collection<GrpcMessageCodec> registeredCodecs,
+                                 final int maxInboundMessageSize, final int maxOutboundMessageSize) {
         this.streamingHttpClient = requireNonNull(streamingHttpClient);
+        this.requestCodec = requireNonNull(requestCodec);
+        codecs = new GrpcMessageCodecs(singletonList(requestCodec), registeredCodecs);
+        this.maxInboundMessageSize = validateMaxMessageSize(maxInboundMessageSize);
+        this.maxOutboundMessageSize = validateMaxMessageSize(maxOutboundMessageSize);
         executionContext = new DefaultGrpcExecutionContext(streamingHttpClient.executionContext());
     }
 
@@ -56,13 +85,23 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(responseClass);
         final HttpClient client = streamingHttpClient.asClient();
         return (metadata, request) -> {
-            final HttpRequest httpRequest = newAggregatedRequest(metadata, request, client,
-                    serializationProvider, requestClass);
+            final long timeoutNanos = callTimeout(metadata);
+            final HttpRequest httpRequest;
+            try {
+                final GrpcMessageCodec codec = requestCodec(metadata);
+                httpRequest = newAggregatedRequest(metadata, request, client,
+                        limitMessageSize(serializationProvider.serializerFor(metadata, requestClass, codec),
+                                maxOutboundMessageSize), codec, codecs, timeoutNanos);
+            } catch (Throwable cause) {
+                return failed(cause);
+            }
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            return (strategy == null ? client.request(httpRequest) : client.request(strategy, httpRequest))
+            return withTimeout(requestAggregated(strategy == null ? client.executionContext().executionStrategy() :
+                    strategy, httpRequest), timeoutNanos, executionContext.executor())
                     .map(response -> validateResponseAndGetPayload(response,
-                            serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass)));
+                            serializationProvider.deserializerFor(readGrpcMessageCodec(response, codecs), responseClass,
+                                    maxInboundMessageSize)));
         };
     }
 
@@ -74,16 +113,24 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(requestClass);
         requireNonNull(responseClass);
         return (metadata, request) -> {
+            final long timeoutNanos = callTimeout(metadata);
             final StreamingHttpRequest httpRequest = streamingHttpClient.post(metadata.path());
-            initRequest(httpRequest);
+            final GrpcMessageCodec codec = requestCodec(metadata);
+            initRequest(httpRequest, codec, codecs);
+            setTimeout(httpRequest, timeoutNanos);
             httpRequest.payloadBody(request.map(GrpcUtils::uncheckedCast),
-                    serializationProvider.serializerFor(metadata, requestClass));
+                    limitMessageSize(serializationProvider.serializerFor(metadata, requestClass, codec),
+                            maxOutboundMessageSize));
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            return (strategy == null ? streamingHttpClient.request(httpRequest) :
+            return withTimeout((strategy == null ? streamingHttpClient.request(httpRequest) :
                     streamingHttpClient.request(strategy, httpRequest))
-                    .flatMapPublisher(response -> validateResponseAndGetPayload(response,
-                            serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass)));
+                    .flatMapPublisher(response -> validateResponseAndGetPayload(
+                            response.transformPayloadBody(payload ->
+                                    validateMessageSize(payload, maxInboundMessageSize)),
+                            serializationProvider.deserializerFor(readGrpcMessageCodec(response, codecs), responseClass,
+                                    maxInboundMessageSize))),
+                    timeoutNanos, executionContext.executor());
         };
     }
 
@@ -114,14 +161,21 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(responseClass);
         final BlockingHttpClient client = streamingHttpClient.asBlockingClient();
         return (metadata, request) -> {
+            final long timeoutNanos = blockingCallTimeout(metadata);
+            final GrpcMessageCodec codec = requestCodec(metadata);
             final HttpRequest httpRequest = newAggregatedRequest(metadata, request, client,
-                    serializationProvider, requestClass);
+                    limitMessageSize(serializationProvider.serializerFor(metadata, requestClass, codec),
+                            maxOutboundMessageSize), codec, codecs, timeoutNanos);
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            final HttpResponse response = strategy == null ? client.request(httpRequest) :
-                    client.request(strategy, httpRequest);
+            // The blocking HTTP client only returns after aggregation, so the asynchronous call it wraps is used
+            // instead, to validate the response messages while they arrive and to enforce the deadline locally.
+            final HttpResponse response = blockingInvocation(withTimeout(requestAggregated(strategy == null ?
+                    client.executionContext().executionStrategy() : strategy, httpRequest), timeoutNanos,
+                    executionContext.executor()));
             return validateResponseAndGetPayload(response,
-                    serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass));
+                    serializationProvider.deserializerFor(readGrpcMessageCodec(response, codecs), responseClass,
+                            maxInboundMessageSize));
         };
     }
 
@@ -134,15 +188,27 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(responseClass);
         final BlockingStreamingHttpClient client = streamingHttpClient.asBlockingStreamingClient();
         return (metadata, request) -> {
+            final long timeoutNanos = blockingCallTimeout(metadata);
+            final long startNanos = nanoTime();
             final BlockingStreamingHttpRequest httpRequest = client.post(metadata.path());
-            initRequest(httpRequest);
-            httpRequest.payloadBody(request, serializationProvider.serializerFor(metadata, requestClass));
+            final GrpcMessageCodec codec = requestCodec(metadata);
+            initRequest(httpRequest, codec, codecs);
+            setTimeout(httpRequest, timeoutNanos);
+            httpRequest.payloadBody(request, limitMessageSize(serializationProvider.serializerFor(metadata,
+                    requestClass, codec), maxOutboundMessageSize));
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            final BlockingStreamingHttpResponse response = strategy == null ? client.request(httpRequest) :
-                    client.request(strategy, httpRequest);
-            return validateResponseAndGetPayload(response.toStreamingResponse(),
-                    serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass))
+            // Same as BlockingStreamingHttpClient#request, but the deadline is enforced locally on the asynchronous
+            // call, first while waiting for the response and then for the remaining response messages.
+            final StreamingHttpResponse response = blockingInvocation(withTimeout(
+                    streamingHttpClient.request(strategy == null ? client.executionContext().executionStrategy() :
+                            strategy, httpRequest.toStreamingRequest()), timeoutNanos, executionContext.executor()));
+            return withTimeout(validateResponseAndGetPayload(response.transformPayloadBody(payload ->
+                            validateMessageSize(payload, maxInboundMessageSize)),
+                    serializationProvider.deserializerFor(readGrpcMessageCodec(response, codecs), responseClass,
+                            maxInboundMessageSize)),
+                    timeoutNanos == NO_TIMEOUT ? NO_TIMEOUT : max(1, timeoutNanos - (nanoTime() - startNanos)),
+                    executionContext.executor())
                     .toIterable();
         };
     }
@@ -195,18 +261,58 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         return streamingHttpClient.onClose();
     }
 
-    private GrpcMessageEncoding getMessageEncoding(@SuppressWarnings("unused") final GrpcClientMetadata metadata) {
-        // compression not yet supported.
-        return None;
+    // A server that does not accept the encoding fails the call with UNIMPLEMENTED and lists the encodings it accepts
+    // in grpc-accept-encoding, the call can then be retried with one of those set on its GrpcClientMetadata.
+    private GrpcMessageCodec requestCodec(final GrpcClientMetadata metadata) {
+        final String encoding = metadata.requestEncoding();
+        if (encoding == null) {
+            return requestCodec;
+        }
+        final GrpcMessageCodec codec = codecs.find(encoding);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown request encoding: " + encoding);
+        }
+        return codec;
+    }
+
+    // Same as HttpClient#request, but the response messages are validated before they are aggregated.
+    private Single<HttpResponse> requestAggregated(final HttpExecutionStrategy strategy, final HttpRequest request) {
+        return streamingHttpClient.request(strategy, request.toStreamingRequest())
+                .flatMap(response -> response.transformPayloadBody(payload ->
+                        validateMessageSize(payload, maxInboundMessageSize)).toResponse());
+    }
+
+    private static <T> T blockingInvocation(final Single<T> source) throws Exception {
+        final Future<T> future = source.toFuture();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            return throwException(e.getCause() != null ? e.getCause() : e);
+        }
     }
 
     private static <Req> HttpRequest newAggregatedRequest(final GrpcClientMetadata metadata, final Req rawReq,
                                                           final HttpRequestFactory requestFactory,
-                                                          final GrpcSerializationProvider serializationProvider,
-                                                          final Class<Req> requestClass) {
+                                                          final HttpSerializer<Req> serializer,
+                                                          final GrpcMessageCodec requestCodec,
+                                                          final GrpcMessageCodecs codecs,
+                                                          final long timeoutNanos) {
         final HttpRequest httpRequest = requestFactory.post(metadata.path());
-        initRequest(httpRequest);
-        return httpRequest.payloadBody(uncheckedCast(rawReq),
-                serializationProvider.serializerFor(metadata, requestClass));
+        initRequest(httpRequest, requestCodec, codecs);
+        setTimeout(httpRequest, timeoutNanos);
+        return httpRequest.payloadBody(uncheckedCast(rawReq), serializer);
+    }
+
+    // Blocking calls throw instead of returning a failed result, so an already expired deadline fails the call here.
+    private static long blockingCallTimeout(final GrpcClientMetadata metadata) {
+        final long timeoutNanos = callTimeout(metadata);
+        if (timeoutNanos <= 0) {
+            throw newDeadlineExceededException(null);
+        }
+        return timeoutNanos;
     }
 }
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.grpc.api;
 
+import java.time.Duration;
 import javax.annotation.Nullable;
 
 import static java.util.Objects.requireNonNull;
@@ -26,6 +27,10 @@ public class DefaultGrpcClientMetadata extends DefaultGrpcMetadata implements Gr
 
     @Nullable
     private final GrpcExecutionStrategy strategy;
+    @Nullable
+    private final Duration timeout;
+    @Nullable
+    private final String requestEncoding;
 
     /**
      * Creates a new instance.
@@ -35,6 +40,8 @@ public class DefaultGrpcClientMetadata extends DefaultGrpcMetadata implements Gr
     protected DefaultGrpcClientMetadata(final String path) {
         super(path);
         strategy = null;
+        timeout = null;
+        requestEncoding = null;
     }
 
     /**
@@ -48,10 +55,85 @@ public class DefaultGrpcClientMetadata extends DefaultGrpcMetadata implements Gr
                                         final GrpcExecutionStrategy strategy) {
         super(path);
         this.strategy = requireNonNull(strategy);
+        timeout = null;
+        requestEncoding = null;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
+     * @param timeout Maximum {@link Duration} the associated <a href="https://www.grpc.io">gRPC</a> call is allowed to
+     * take.
+     */
+    protected DefaultGrpcClientMetadata(final String path, final Duration timeout) {
+        super(path);
+        strategy = null;
+        this.timeout = validateTimeout(timeout);
+        requestEncoding = null;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
+     * @param strategy {@link GrpcExecutionStrategy} to use for the associated <a href="https://www.grpc.io">gRPC</a>
+     * method.
+     * @param timeout Maximum {@link Duration} the associated <a href="https://www.grpc.io">gRPC</a> call is allowed to
+     * take.
+     */
+    protected DefaultGrpcClientMetadata(final String path,
+                                        final GrpcExecutionStrategy strategy,
+                                        final Duration timeout) {
+        super(path);
+        this.strategy = requireNonNull(strategy);
+        this.timeout = validateTimeout(timeout);
+        requestEncoding = null;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
+     * @param strategy {@link GrpcExecutionStrategy} to use for the associated <a href="https://www.grpc.io">gRPC</a>
+     * method or {@code null} to use the client's strategy.
+     * @param timeout Maximum {@link Duration} the associated <a href="https://www.grpc.io">gRPC</a> call is allowed to
+     * take or {@code null} if the call has no timeout of its own.
+     * @param requestEncoding Name of the encoding used to compress the request messages or {@code null} to use the
+     * encoding configured on the client builder.
+     * @see GrpcClientMetadata#requestEncoding()
+     */
+    protected DefaultGrpcClientMetadata(final String path,
+                                        @Nullable final GrpcExecutionStrategy strategy,
+                                        @Nullable final Duration timeout,
+                                        @Nullable final String requestEncoding) {
+        super(path);
+        this.strategy = strategy;
+        this.timeout = timeout == null ? null : validateTimeout(timeout);
+        this.requestEncoding = requestEncoding;
     }
 
     @Override
     public final GrpcExecutionStrategy strategy() {
         return strategy;
     }
+
+    @Nullable
+    @Override
+    public final Duration timeout() {
+        return timeout;
+    }
+
+    @Nullable
+    @Override
+    public final String requestEncoding() {
+        return requestEncoding;
+    }
+
+    private static Duration validateTimeout(final Duration timeout) {
+        if (requireNonNull(timeout).isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout: " + timeout + " (expected > 0)");
+        }
+        return timeout;
+    }
 }
@@ -92,6 +92,62 @@ public abstract class GrpcClientBuilder<U, R>
     @Override
     public abstract GrpcClientBuilder<U, R> loadBalancerFactory(HttpLoadBalancerFactory<R> loadBalancerFactory);
 
+    /**
+     * Sets the {@link GrpcMessageEncoding} used to compress request messages sent by clients created from this
+     * builder. Responses are decompressed according to the encoding chosen by the server, and all
+     * {@link GrpcMessageEncoding}s are advertised as accepted via {@code grpc-accept-encoding}.
+     * <p>
+     * A server that does not accept {@code encoding} fails the call with {@link GrpcStatusCode#UNIMPLEMENTED} and lists
+     * the encodings it accepts in its {@code grpc-accept-encoding} header. Individual calls can use another encoding
+     * via {@link GrpcClientMetadata#requestEncoding()}.
+     *
+     * @param encoding {@link GrpcMessageEncoding} used to compress request messages.
+     * @return {@code this}.
+     */
+    public abstract GrpcClientBuilder<U, R> messageEncoding(GrpcMessageEncoding encoding);
+
+    /**
+     * Sets the name of the encoding used to compress request messages sent by clients created from this builder. The
+     * name must be one of a built-in {@link GrpcMessageEncoding} or of a codec registered via
+     * {@link #registerMessageCodec(GrpcMessageCodec)}.
+     *
+     * @param encoding name of the encoding used to compress request messages.
+     * @return {@code this}.
+     * @see #messageEncoding(GrpcMessageEncoding)
+     */
+    public abstract GrpcClientBuilder<U, R> messageEncoding(String encoding);
+
+    /**
+     * Registers a {@link GrpcMessageCodec} by its {@link GrpcMessageCodec#encoding() encoding name}, in addition to
+     * the built-in {@link GrpcMessageEncoding}s. Responses compressed with the encoding are decompressed and the
+     * encoding is advertised via {@code grpc-accept-encoding}. Registering a codec for the name of a built-in
+     * {@link GrpcMessageEncoding} or of a previously registered codec replaces it.
+     *
+     * @param codec {@link GrpcMessageCodec} to register.
+     * @return {@code this}.
+     */
+    public abstract GrpcClientBuilder<U, R> registerMessageCodec(GrpcMessageCodec codec);
+
+    /**
+     * Sets the maximum size in bytes of a single response message, as announced by its length prefix. A response that
+     * announces a larger message fails the call with {@link GrpcStatusCode#RESOURCE_EXHAUSTED} as soon as the length
+     * prefix is read, without buffering the message. Defaults to 4 MiB.
+     *
+     * @param maxMessageSize maximum size in bytes of a single response message.
+     * @return {@code this}.
+     */
+    public abstract GrpcClientBuilder<U, R> maxInboundMessageSize(int maxMessageSize);
+
+    /**
+     * Sets the maximum size in bytes of a single request message, as announced by its length prefix. A request
+     * message that exceeds this size fails the call with {@link GrpcStatusCode#RESOURCE_EXHAUSTED} instead of being
+     * sent. Unlimited by default.
+     *
+     * @param maxMessageSize maximum size in bytes of a single request message.
+     * @return {@code this}.
+     */
+    public abstract GrpcClientBuilder<U, R> maxOutboundMessageSize(int maxMessageSize);
+
     /**
      * Append the filter to the chain of filters used to decorate the client created by this builder.
      * <p>
@@ -21,6 +21,10 @@ import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.StreamingHttpClient;
 
+import java.util.Collection;
+
+import static java.util.Collections.emptyList;
+
 /**
  * A factory to create <a href="https://www.grpc.io">gRPC</a> client call objects for different
  * programming models.
@@ -156,7 +160,57 @@ public interface GrpcClientCallFactory extends ListenableAsyncCloseable {
      * @return A new {@link GrpcClientCallFactory}.
      */
     static GrpcClientCallFactory from(StreamingHttpClient httpClient) {
-        return new DefaultGrpcClientCallFactory(httpClient);
+        return from(httpClient, GrpcMessageEncoding.None);
+    }
+
+    /**
+     * Creates a new {@link GrpcClientCallFactory} using the passed {@link StreamingHttpClient} that compresses request
+     * messages with the passed {@link GrpcMessageEncoding}.
+     *
+     * @param httpClient {@link StreamingHttpClient} to use. The returned {@link GrpcClientCallFactory} will own the
+     * lifecycle of this {@link StreamingHttpClient}.
+     * @param requestEncoding {@link GrpcMessageEncoding} used to compress request messages.
+     * @return A new {@link GrpcClientCallFactory}.
+     */
+    static GrpcClientCallFactory from(StreamingHttpClient httpClient, GrpcMessageEncoding requestEncoding) {
+        return from(httpClient, requestEncoding, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new {@link GrpcClientCallFactory} using the passed {@link StreamingHttpClient} that compresses request
+     * messages with the passed {@link GrpcMessageEncoding} and limits the size of individual messages.
+     *
+     * @param httpClient {@link StreamingHttpClient} to use. The returned {@link GrpcClientCallFactory} will own the
+     * lifecycle of this {@link StreamingHttpClient}.
+     * @param requestEncoding {@link GrpcMessageEncoding} used to compress request messages.
+     * @param maxInboundMessageSize maximum size in bytes of a single response message.
+     * @param maxOutboundMessageSize maximum size in bytes of a single request message.
+     * @return A new {@link GrpcClientCallFactory}.
+     */
+    static GrpcClientCallFactory from(StreamingHttpClient httpClient, GrpcMessageEncoding requestEncoding,
+                                      int maxInboundMessageSize, int maxOutboundMessageSize) {
+        return from(httpClient, requestEncoding.codec(), emptyList(), maxInboundMessageSize, maxOutboundMessageSize);
+    }
+
+    /**
+     * Creates a new {@link GrpcClientCallFactory} using the passed {@link StreamingHttpClient} that compresses request
+     * messages with the passed {@link GrpcMessageCodec}, decompresses responses with the built-in and the registered
+     * {@link GrpcMessageCodec}s and limits the size of individual messages.
+     *
+     * @param httpClient {@link StreamingHttpClient} to use. The returned {@link GrpcClientCallFactory} will own the
+     * lifecycle of this {@link StreamingHttpClient}.
+     * @param requestCodec {@link GrpcMessageCodec} used to compress request messages.
+     * @param registeredCodecs {@link GrpcMessageCodec}s known in addition to the built-in {@link GrpcMessageEncoding}s.
+     * A registered codec replaces a built-in one with the same {@link GrpcMessageCodec#encoding()}.
+     * @param maxInboundMessageSize maximum size in bytes of a single response message.
+     * @param maxOutboundMessageSize maximum size in bytes of a single request message.
+     * @return A new {@link GrpcClientCallFactory}.
+     */
+    static GrpcClientCallFactory from(StreamingHttpClient httpClient, GrpcMessageCodec requestCodec,
+                                      Collection<GrpcMessageCodec> registeredCodecs,
+                                      int maxInboundMessageSize, int maxOutboundMessageSize) {
+        return new DefaultGrpcClientCallFactory(httpClient, requestCodec, registeredCodecs, maxInboundMessageSize,
+                maxOutboundMessageSize);
     }
 
     /**
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.grpc.api;
 
+import java.time.Duration;
 import javax.annotation.Nullable;
 
 /**
@@ -31,4 +32,38 @@ public interface GrpcClientMetadata extends GrpcMetadata {
      */
     @Nullable
     GrpcExecutionStrategy strategy();
+
+    /**
+     * Maximum {@link Duration} the associated <a href="https://www.grpc.io">gRPC</a> call is allowed to take before it
+     * fails with {@link GrpcStatusCode#DEADLINE_EXCEEDED}. The timeout is sent to the server as the
+     * {@code grpc-timeout} header so that the server can stop processing the call when the client is no longer
+     * interested in the result.
+     * <p>
+     * If the call is made while processing another <a href="https://www.grpc.io">gRPC</a> request that carried a
+     * deadline, the smaller of this timeout and the remaining time of that deadline is used.
+     *
+     * @return Maximum {@link Duration} the associated <a href="https://www.grpc.io">gRPC</a> call is allowed to take or
+     * {@code null} if the call has no timeout of its own.
+     */
+    @Nullable
+    default Duration timeout() {
+        return null;
+    }
+
+    /**
+     * Name of the encoding used to compress the request messages of the associated
+     * <a href="https://www.grpc.io">gRPC</a> call, either a {@link GrpcMessageEncoding} or a {@link GrpcMessageCodec}
+     * registered on the client builder.
+     * <p>
+     * A server that does not accept the encoding fails the call with {@link GrpcStatusCode#UNIMPLEMENTED} and lists
+     * the encodings it accepts in the {@code grpc-accept-encoding} header, so the call can be retried with one of
+     * those.
+     *
+     * @return Name of the encoding used to compress the request messages or {@code null} to use the encoding
+     * configured on the client builder.
+     */
+    @Nullable
+    default String requestEncoding() {
+        return null;
+    }
 }
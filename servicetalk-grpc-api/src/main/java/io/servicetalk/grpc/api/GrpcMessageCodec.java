@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+
+/**
+ * Compresses and decompresses individual length-prefixed
+ * <a href="https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md">gRPC messages</a> for a message encoding.
+ * <p>
+ * The built-in encodings are available from {@link GrpcMessageEncoding#codec()}, other encodings can be registered on
+ * the client and server builders by the name returned from {@link #encoding()}.
+ */
+public interface GrpcMessageCodec {
+
+    /**
+     * The name of the message encoding, as used in the {@code grpc-encoding} and {@code grpc-accept-encoding}
+     * headers.
+     *
+     * @return the name of the message encoding.
+     */
+    String encoding();
+
+    /**
+     * Encodes (compresses) the readable bytes of the passed {@link Buffer} and writes the result to {@code dst}.
+     *
+     * @param src {@link Buffer} containing the uncompressed message. Its readable bytes will be consumed.
+     * @param dst {@link Buffer} to which the compressed message is written, starting at its writer index.
+     */
+    void encode(Buffer src, Buffer dst);
+
+    /**
+     * Decodes (decompresses) the readable bytes of the passed {@link Buffer}.
+     * <p>
+     * Decoding stops as soon as more than {@code maxDecodedSize} bytes would be produced, so a small compressed
+     * message can not expand into an arbitrarily large one.
+     *
+     * @param src {@link Buffer} containing the compressed message. Its readable bytes will be consumed.
+     * @param allocator {@link BufferAllocator} to allocate the returned {@link Buffer}.
+     * @param maxDecodedSize maximum size (in bytes) of the decoded message.
+     * @return {@link Buffer} containing the uncompressed message.
+     * @throws GrpcStatusException with {@link GrpcStatusCode#RESOURCE_EXHAUSTED} if the decoded message is larger than
+     * {@code maxDecodedSize}.
+     */
+    Buffer decode(Buffer src, BufferAllocator allocator, int maxDecodedSize);
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The {@link GrpcMessageCodec}s known to a client or server: the built-in {@link GrpcMessageEncoding}s and the codecs
+ * registered on its builder, which replace a built-in codec with the same {@link GrpcMessageCodec#encoding()}.
+ */
+final class GrpcMessageCodecs {
+
+    /**
+     * Only the built-in {@link GrpcMessageEncoding}s, and responses are not compressed.
+     */
+    static final GrpcMessageCodecs BUILT_IN = new GrpcMessageCodecs(singletonList(GrpcMessageEncoding.None.codec()),
+            emptyList());
+
+    private final List<GrpcMessageCodec> preferred;
+    private final List<GrpcMessageCodec> codecs;
+    private final boolean registered;
+    private final CharSequence acceptEncoding;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param preferred {@link GrpcMessageCodec}s that may be used to compress messages, in the order of preference.
+     * @param registered {@link GrpcMessageCodec}s registered in addition to the built-in ones.
+     */
+    GrpcMessageCodecs(final List<GrpcMessageCodec> preferred, final Collection<GrpcMessageCodec> registered) {
+        this.preferred = unmodifiableList(new ArrayList<>(preferred));
+        final List<GrpcMessageCodec> codecs = new ArrayList<>(registered);
+        for (GrpcMessageEncoding encoding : GrpcMessageEncoding.values()) {
+            if (find(codecs, encoding.encoding()) == null) {
+                codecs.add(encoding.codec());
+            }
+        }
+        this.codecs = unmodifiableList(codecs);
+        this.registered = !registered.isEmpty();
+        final StringBuilder sb = new StringBuilder(32);
+        for (GrpcMessageCodec codec : codecs) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(codec.encoding());
+        }
+        acceptEncoding = newAsciiString(sb.toString());
+    }
+
+    /**
+     * {@link GrpcMessageCodec}s that may be used to compress messages, in the order of preference.
+     *
+     * @return {@link GrpcMessageCodec}s that may be used to compress messages, in the order of preference.
+     */
+    List<GrpcMessageCodec> preferred() {
+        return preferred;
+    }
+
+    /**
+     * Whether any {@link GrpcMessageCodec} was registered in addition to the built-in ones.
+     *
+     * @return {@code true} if any {@link GrpcMessageCodec} was registered in addition to the built-in ones.
+     */
+    boolean hasRegisteredCodecs() {
+        return registered;
+    }
+
+    /**
+     * The value of the {@code grpc-accept-encoding} header, listing all known encodings.
+     *
+     * @return the value of the {@code grpc-accept-encoding} header.
+     */
+    CharSequence acceptEncoding() {
+        return acceptEncoding;
+    }
+
+    /**
+     * Finds the {@link GrpcMessageCodec} for the passed encoding name.
+     *
+     * @param encoding name of the encoding, compared case-insensitively.
+     * @return the {@link GrpcMessageCodec} for {@code encoding} or {@code null} if the encoding is unknown.
+     */
+    @Nullable
+    GrpcMessageCodec find(final CharSequence encoding) {
+        return find(codecs, encoding);
+    }
+
+    @Nullable
+    private static GrpcMessageCodec find(final List<GrpcMessageCodec> codecs, final CharSequence encoding) {
+        for (GrpcMessageCodec codec : codecs) {
+            if (contentEqualsIgnoreCase(encoding, codec.encoding())) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
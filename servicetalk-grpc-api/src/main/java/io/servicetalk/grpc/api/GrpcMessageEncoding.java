@@ -15,18 +15,46 @@
  */
 package io.servicetalk.grpc.api;
 
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+
+import static io.servicetalk.grpc.api.ZipGrpcMessageCodec.newDecodedSizeExceededException;
+
 /**
- * Supported <a href="https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md#message-encoding">
- *     gRPC message encoding schemes</a>.
+ * Built-in <a href="https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md#message-encoding">
+ *     gRPC message encoding schemes</a>. Other encodings are supported by registering a {@link GrpcMessageCodec} on the
+ * client and server builders.
  */
 public enum GrpcMessageEncoding {
 
-    None("identity");
+    None("identity", new GrpcMessageCodec() {
+        @Override
+        public String encoding() {
+            return "identity";
+        }
+
+        @Override
+        public void encode(final Buffer src, final Buffer dst) {
+            dst.writeBytes(src);
+        }
+
+        @Override
+        public Buffer decode(final Buffer src, final BufferAllocator allocator, final int maxDecodedSize) {
+            if (src.readableBytes() > maxDecodedSize) {
+                throw newDecodedSizeExceededException(maxDecodedSize);
+            }
+            return src;
+        }
+    }),
+    Gzip("gzip", ZipGrpcMessageCodec.GZIP),
+    Deflate("deflate", ZipGrpcMessageCodec.DEFLATE);
 
     private final String encoding;
+    private final GrpcMessageCodec codec;
 
-    GrpcMessageEncoding(final String encoding) {
+    GrpcMessageEncoding(final String encoding, final GrpcMessageCodec codec) {
         this.encoding = encoding;
+        this.codec = codec;
     }
 
     /**
@@ -37,4 +65,13 @@ public enum GrpcMessageEncoding {
     public String encoding() {
         return encoding;
     }
+
+    /**
+     * The {@link GrpcMessageCodec} used to compress and decompress messages with this encoding.
+     *
+     * @return the {@link GrpcMessageCodec} used to compress and decompress messages with this encoding.
+     */
+    public GrpcMessageCodec codec() {
+        return codec;
+    }
 }
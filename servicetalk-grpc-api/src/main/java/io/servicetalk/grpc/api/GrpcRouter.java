@@ -61,7 +61,6 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
@@ -73,13 +72,27 @@ import static io.servicetalk.grpc.api.GrpcRouteConversions.toResponseStreamingRo
 import static io.servicetalk.grpc.api.GrpcRouteConversions.toRoute;
 import static io.servicetalk.grpc.api.GrpcRouteConversions.toStreaming;
 import static io.servicetalk.grpc.api.GrpcStatus.fromCodeValue;
+import static io.servicetalk.grpc.api.GrpcStatusCode.DEADLINE_EXCEEDED;
 import static io.servicetalk.grpc.api.GrpcStatusCode.INVALID_ARGUMENT;
+import static io.servicetalk.grpc.api.GrpcStatusCode.RESOURCE_EXHAUSTED;
 import static io.servicetalk.grpc.api.GrpcStatusCode.UNIMPLEMENTED;
+import static io.servicetalk.grpc.api.GrpcUtils.NO_TIMEOUT;
+import static io.servicetalk.grpc.api.GrpcUtils.negotiateAcceptedEncoding;
+import static io.servicetalk.grpc.api.GrpcUtils.newDeadlineExceededException;
 import static io.servicetalk.grpc.api.GrpcUtils.newErrorResponse;
 import static io.servicetalk.grpc.api.GrpcUtils.newResponse;
-import static io.servicetalk.grpc.api.GrpcUtils.readGrpcMessageEncoding;
+import static io.servicetalk.grpc.api.GrpcUtils.readGrpcMessageCodec;
+import static io.servicetalk.grpc.api.GrpcUtils.readTimeout;
+import static io.servicetalk.grpc.api.GrpcUtils.remainingTimeout;
+import static io.servicetalk.grpc.api.GrpcUtils.setAcceptEncoding;
+import static io.servicetalk.grpc.api.GrpcUtils.setDeadline;
+import static io.servicetalk.grpc.api.GrpcUtils.setMessageEncoding;
 import static io.servicetalk.grpc.api.GrpcUtils.setStatus;
 import static io.servicetalk.grpc.api.GrpcUtils.setStatusOk;
+import static io.servicetalk.grpc.api.GrpcUtils.withTimeout;
+import static io.servicetalk.grpc.api.MessageSizeLimitingHttpSerializer.limitMessageSize;
+import static io.servicetalk.grpc.api.MessageSizeValidator.NO_MESSAGE_SIZE_LIMIT;
+import static io.servicetalk.grpc.api.MessageSizeValidator.validateMessageSize;
 import static io.servicetalk.http.api.HttpApiConversions.toStreamingHttpService;
 import static io.servicetalk.http.api.HttpExecutionStrategies.defaultStrategy;
 import static io.servicetalk.http.api.HttpRequestMethod.POST;
@@ -119,10 +132,18 @@ final class GrpcRouter {
     Single<ServerContext> bind(final ServerBinder binder, final ExecutionContext executionContext) {
         final CompositeCloseable closeable = AsyncCloseables.newCompositeCloseable();
         final Map<String, StreamingHttpService> allRoutes = new HashMap<>();
-        populateRoutes(executionContext, allRoutes, routes, closeable);
-        populateRoutes(executionContext, allRoutes, streamingRoutes, closeable);
-        populateRoutes(executionContext, allRoutes, blockingRoutes, closeable);
-        populateRoutes(executionContext, allRoutes, blockingStreamingRoutes, closeable);
+        final GrpcMessageCodecs codecs = new GrpcMessageCodecs(binder.messageCodecs(),
+                binder.registeredMessageCodecs());
+        final int maxInboundMessageSize = binder.maxInboundMessageSize();
+        final int maxOutboundMessageSize = binder.maxOutboundMessageSize();
+        populateRoutes(executionContext, codecs, maxInboundMessageSize, maxOutboundMessageSize, allRoutes, routes,
+                closeable);
+        populateRoutes(executionContext, codecs, maxInboundMessageSize, maxOutboundMessageSize, allRoutes,
+                streamingRoutes, closeable);
+        populateRoutes(executionContext, codecs, maxInboundMessageSize, maxOutboundMessageSize, allRoutes,
+                blockingRoutes, closeable);
+        populateRoutes(executionContext, codecs, maxInboundMessageSize, maxOutboundMessageSize, allRoutes,
+                blockingStreamingRoutes, closeable);
 
         // TODO: Optimize to bind a specific programming model service based on routes
         return binder.bindStreaming(new StreamingHttpService() {
@@ -133,9 +154,38 @@ final class GrpcRouter {
                 final StreamingHttpService service;
                 if (!POST.equals(request.method()) || (service = allRoutes.get(request.path())) == null) {
                     return NOT_FOUND_SERVICE.handle(ctx, request, responseFactory);
-                } else {
-                    return service.handle(ctx, request, responseFactory);
                 }
+                if (codecs.hasRegisteredCodecs()) {
+                    // Responses only advertise the built-in encodings, the registered ones are added here.
+                    return handleRoute(service, ctx, request, responseFactory).map(response -> {
+                        setAcceptEncoding(response, codecs);
+                        return response;
+                    });
+                }
+                return handleRoute(service, ctx, request, responseFactory);
+            }
+
+            private Single<StreamingHttpResponse> handleRoute(final StreamingHttpService service,
+                                                              final HttpServiceContext ctx,
+                                                              final StreamingHttpRequest request,
+                                                              final StreamingHttpResponseFactory responseFactory) {
+                final long timeoutNanos = readTimeout(request);
+                if (timeoutNanos != NO_TIMEOUT && timeoutNanos <= 0) {
+                    return succeeded(newDeadlineExceededResponse(ctx, responseFactory, null));
+                }
+                // Oversized messages are rejected from their length prefix, before the deserializer buffers them.
+                final StreamingHttpRequest guardedRequest = maxInboundMessageSize == NO_MESSAGE_SIZE_LIMIT ? request :
+                        request.transformPayloadBody(payload -> validateMessageSize(payload, maxInboundMessageSize));
+                if (timeoutNanos == NO_TIMEOUT) {
+                    return service.handle(ctx, guardedRequest, responseFactory)
+                            .recoverWith(cause -> recoverFromLimitExceeded(ctx, responseFactory, cause));
+                }
+                // Outgoing calls made by the route inherit the remaining time and streaming routes use it to bound
+                // their response payload.
+                setDeadline(timeoutNanos);
+                return withTimeout(service.handle(ctx, guardedRequest, responseFactory), timeoutNanos,
+                        ctx.executionContext().executor())
+                        .recoverWith(cause -> recoverFromLimitExceeded(ctx, responseFactory, cause));
             }
 
             @Override
@@ -150,13 +200,38 @@ final class GrpcRouter {
         });
     }
 
+    private static Single<StreamingHttpResponse> recoverFromLimitExceeded(
+            final HttpServiceContext ctx, final StreamingHttpResponseFactory responseFactory, final Throwable cause) {
+        if (cause instanceof GrpcStatusException) {
+            final GrpcStatusCode code = ((GrpcStatusException) cause).status().code();
+            if (code == DEADLINE_EXCEEDED) {
+                return succeeded(newDeadlineExceededResponse(ctx, responseFactory, cause));
+            }
+            if (code == RESOURCE_EXHAUSTED) {
+                return succeeded(newErrorResponse(responseFactory, cause, ctx.executionContext().bufferAllocator()));
+            }
+        }
+        return failed(cause);
+    }
+
+    private static StreamingHttpResponse newDeadlineExceededResponse(final HttpServiceContext ctx,
+                                                                     final StreamingHttpResponseFactory factory,
+                                                                     @Nullable final Throwable cause) {
+        return newErrorResponse(factory, cause instanceof GrpcStatusException ? cause :
+                newDeadlineExceededException(cause), ctx.executionContext().bufferAllocator());
+    }
+
     private static void populateRoutes(final ExecutionContext executionContext,
+                                       final GrpcMessageCodecs codecs,
+                                       final int maxInboundMessageSize,
+                                       final int maxOutboundMessageSize,
                                        final Map<String, StreamingHttpService> allRoutes,
                                        final Map<String, RouteProvider> routes,
                                        final CompositeCloseable closeable) {
         for (Map.Entry<String, RouteProvider> entry : routes.entrySet()) {
             final String path = entry.getKey();
-            final ServiceAdapterHolder adapterHolder = entry.getValue().buildRoute(executionContext);
+            final ServiceAdapterHolder adapterHolder = entry.getValue().buildRoute(executionContext, codecs,
+                    maxInboundMessageSize, maxOutboundMessageSize);
             final StreamingHttpService route = closeable.append(adapterHolder.adaptor());
             verifyNoOverrides(allRoutes.put(path, adapterHolder.serviceInvocationStrategy()
                     .offloadService(executionContext.executor(), route)), path, emptyMap());
@@ -243,8 +318,9 @@ final class GrpcRouter {
                 final String path, @Nullable final GrpcExecutionStrategy executionStrategy,
                 final Route<Req, Resp> route, final Class<Req> requestClass,
                 final Class<Resp> responseClass, final GrpcSerializationProvider serializationProvider) {
-            verifyNoOverrides(routes.put(path, new RouteProvider(executionContext -> toStreamingHttpService(
-                    new HttpService() {
+            verifyNoOverrides(routes.put(path, new RouteProvider(
+                    (executionContext, codecs, maxInboundSize, maxOutboundSize) ->
+                    toStreamingHttpService(new HttpService() {
                         @Override
                         public Single<HttpResponse> handle(final HttpServiceContext ctx, final HttpRequest request,
                                                            final HttpResponseFactory responseFactory) {
@@ -252,14 +328,15 @@ final class GrpcRouter {
                                 final GrpcServiceContext serviceContext =
                                         new DefaultGrpcServiceContext(request.path(), ctx);
                                 final HttpDeserializer<Req> deserializer =
-                                        serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                                requestClass);
+                                        serializationProvider.deserializerFor(readGrpcMessageCodec(request, codecs),
+                                                requestClass, maxInboundSize);
+                                final GrpcMessageCodec responseCodec = negotiateAcceptedEncoding(request, codecs);
                                 return route.handle(serviceContext, request.payloadBody(deserializer))
-                                        .map(rawResp -> newResponse(responseFactory,
+                                        .map(rawResp -> newResponse(responseFactory, responseCodec,
                                                 ctx.executionContext().bufferAllocator())
-                                                .payloadBody(rawResp,
+                                                .payloadBody(rawResp, limitMessageSize(
                                                         serializationProvider.serializerFor(serviceContext,
-                                                                responseClass)))
+                                                                responseClass, responseCodec), maxOutboundSize)))
                                         .recoverWith(cause -> {
                                             LOGGER.error("Unexpected exception from route: {}, path: {}.", route, path,
                                                     cause);
@@ -297,7 +374,8 @@ final class GrpcRouter {
                 final String path, @Nullable final GrpcExecutionStrategy executionStrategy,
                 final StreamingRoute<Req, Resp> route, final Class<Req> requestClass,
                 final Class<Resp> responseClass, final GrpcSerializationProvider serializationProvider) {
-            verifyNoOverrides(streamingRoutes.put(path, new RouteProvider(executionContext -> {
+            verifyNoOverrides(streamingRoutes.put(path, new RouteProvider(
+                    (executionContext, codecs, maxInboundSize, maxOutboundSize) -> {
                 final StreamingHttpService service = new StreamingHttpService() {
                     @Override
                     public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
@@ -307,12 +385,16 @@ final class GrpcRouter {
                             final GrpcServiceContext serviceContext =
                                     new DefaultGrpcServiceContext(request.path(), ctx);
                             final HttpDeserializer<Req> deserializer =
-                                    serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                            requestClass);
-                            final Publisher<Resp> response = route.handle(serviceContext,
-                                    request.payloadBody(deserializer));
-                            return succeeded(newResponse(responseFactory, response,
-                                    serializationProvider.serializerFor(serviceContext, responseClass),
+                                    serializationProvider.deserializerFor(readGrpcMessageCodec(request, codecs),
+                                            requestClass, maxInboundSize);
+                            // The route is cancelled if it is still producing the response when the deadline expires.
+                            final Publisher<Resp> response = withTimeout(route.handle(serviceContext,
+                                    request.payloadBody(deserializer)), remainingTimeout(),
+                                    ctx.executionContext().executor());
+                            final GrpcMessageCodec responseCodec = negotiateAcceptedEncoding(request, codecs);
+                            return succeeded(newResponse(responseFactory, responseCodec, response,
+                                    limitMessageSize(serializationProvider.serializerFor(serviceContext,
+                                            responseClass, responseCodec), maxOutboundSize),
                                     ctx.executionContext().bufferAllocator()));
                         } catch (Throwable t) {
                             return succeeded(newErrorResponse(responseFactory, t,
@@ -438,7 +520,8 @@ final class GrpcRouter {
                 final String path, @Nullable final GrpcExecutionStrategy executionStrategy,
                 final BlockingRoute<Req, Resp> route, final Class<Req> requestClass,
                 final Class<Resp> responseClass, final GrpcSerializationProvider serializationProvider) {
-            verifyNoOverrides(blockingRoutes.put(path, new RouteProvider(executionContext ->
+            verifyNoOverrides(blockingRoutes.put(path, new RouteProvider(
+                    (executionContext, codecs, maxInboundSize, maxOutboundSize) ->
                     toStreamingHttpService(new BlockingHttpService() {
                         @Override
                         public HttpResponse handle(final HttpServiceContext ctx, final HttpRequest request,
@@ -447,12 +530,16 @@ final class GrpcRouter {
                                 final GrpcServiceContext serviceContext =
                                         new DefaultGrpcServiceContext(request.path(), ctx);
                                 final HttpDeserializer<Req> deserializer =
-                                        serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                                requestClass);
+                                        serializationProvider.deserializerFor(readGrpcMessageCodec(request, codecs),
+                                                requestClass, maxInboundSize);
                                 final Resp response = route.handle(serviceContext, request.payloadBody(deserializer));
-                                return newResponse(responseFactory, ctx.executionContext().bufferAllocator())
+                                final GrpcMessageCodec responseCodec = negotiateAcceptedEncoding(request, codecs);
+                                return newResponse(responseFactory, responseCodec,
+                                        ctx.executionContext().bufferAllocator())
                                         .payloadBody(response,
-                                                serializationProvider.serializerFor(serviceContext, responseClass));
+                                                limitMessageSize(serializationProvider.serializerFor(
+                                                        serviceContext, responseClass, responseCodec),
+                                                        maxOutboundSize));
                             } catch (Throwable t) {
                                 LOGGER.error("Unexpected exception from route: {}, path: {}.", route, path, t);
                                 return newErrorResponse(responseFactory, t, ctx.executionContext().bufferAllocator());
@@ -495,7 +582,8 @@ final class GrpcRouter {
                 final String path, @Nullable final GrpcExecutionStrategy executionStrategy,
                 final BlockingStreamingRoute<Req, Resp> route, final Class<Req> requestClass,
                 final Class<Resp> responseClass, final GrpcSerializationProvider serializationProvider) {
-            verifyNoOverrides(blockingStreamingRoutes.put(path, new RouteProvider(executionContext ->
+            verifyNoOverrides(blockingStreamingRoutes.put(path, new RouteProvider(
+                    (executionContext, codecs, maxInboundSize, maxOutboundSize) ->
                     toStreamingHttpService(new BlockingStreamingHttpService() {
                         @Override
                         public void handle(final HttpServiceContext ctx, final BlockingStreamingHttpRequest request,
@@ -503,10 +591,13 @@ final class GrpcRouter {
                             final GrpcServiceContext serviceContext =
                                     new DefaultGrpcServiceContext(request.path(), ctx);
                             final HttpDeserializer<Req> deserializer =
-                                    serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                            requestClass);
+                                    serializationProvider.deserializerFor(readGrpcMessageCodec(request, codecs),
+                                            requestClass, maxInboundSize);
+                            final GrpcMessageCodec responseCodec = negotiateAcceptedEncoding(request, codecs);
                             final HttpSerializer<Resp> serializer =
-                                    serializationProvider.serializerFor(serviceContext, responseClass);
+                                    limitMessageSize(serializationProvider.serializerFor(serviceContext,
+                                            responseClass, responseCodec), maxOutboundSize);
+                            setMessageEncoding(response, responseCodec);
                             final DefaultGrpcPayloadWriter<Resp> grpcPayloadWriter =
                                     new DefaultGrpcPayloadWriter<>(response.sendMetaData(serializer));
                             try {
@@ -708,16 +799,35 @@ final class GrpcRouter {
         }
     }
 
+    /**
+     * Creates the {@link ServiceAdapterHolder} for a route once the server configuration is known.
+     */
+    @FunctionalInterface
+    interface RouteFactory {
+
+        /**
+         * Creates a new {@link ServiceAdapterHolder}.
+         *
+         * @param executionContext {@link ExecutionContext} of the server.
+         * @param codecs {@link GrpcMessageCodecs} of the server.
+         * @param maxInboundMessageSize maximum size in bytes of a single decompressed request message.
+         * @param maxOutboundMessageSize maximum size in bytes of a single response message.
+         * @return a new {@link ServiceAdapterHolder}.
+         */
+        ServiceAdapterHolder newRoute(ExecutionContext executionContext, GrpcMessageCodecs codecs,
+                                      int maxInboundMessageSize, int maxOutboundMessageSize);
+    }
+
     static final class RouteProvider implements AsyncCloseable {
 
-        private final Function<ExecutionContext, ServiceAdapterHolder> routeProvider;
+        private final RouteFactory routeProvider;
         private final Supplier<StreamingRoute<?, ?>> toStreamingConverter;
         private final Supplier<RequestStreamingRoute<?, ?>> toRequestStreamingRouteConverter;
         private final Supplier<ResponseStreamingRoute<?, ?>> toResponseStreamingRouteConverter;
         private final Supplier<Route<?, ?>> toRouteConverter;
         private final AsyncCloseable closeable;
 
-        RouteProvider(final Function<ExecutionContext, ServiceAdapterHolder> routeProvider,
+        RouteProvider(final RouteFactory routeProvider,
                       final Supplier<StreamingRoute<?, ?>> toStreamingConverter,
                       final Supplier<RequestStreamingRoute<?, ?>> toRequestStreamingRouteConverter,
                       final Supplier<ResponseStreamingRoute<?, ?>> toResponseStreamingRouteConverter,
@@ -731,7 +841,7 @@ final class GrpcRouter {
             this.closeable = closeable;
         }
 
-        RouteProvider(final Function<ExecutionContext, ServiceAdapterHolder> routeProvider,
+        RouteProvider(final RouteFactory routeProvider,
                       final Supplier<StreamingRoute<?, ?>> toStreamingConverter,
                       final Supplier<RequestStreamingRoute<?, ?>> toRequestStreamingRouteConverter,
                       final Supplier<ResponseStreamingRoute<?, ?>> toResponseStreamingRouteConverter,
@@ -741,8 +851,10 @@ final class GrpcRouter {
                     toResponseStreamingRouteConverter, toRouteConverter, toAsyncCloseable(closeable));
         }
 
-        ServiceAdapterHolder buildRoute(ExecutionContext executionContext) {
-            return routeProvider.apply(executionContext);
+        ServiceAdapterHolder buildRoute(ExecutionContext executionContext, GrpcMessageCodecs codecs,
+                                        int maxInboundMessageSize, int maxOutboundMessageSize) {
+            return routeProvider.newRoute(executionContext, codecs, maxInboundMessageSize,
+                    maxOutboundMessageSize);
         }
 
         <Req, Resp> RequestStreamingRoute<Req, Resp> asRequestStreamingRoute() {
@@ -18,6 +18,8 @@ package io.servicetalk.grpc.api;
 import io.servicetalk.http.api.HttpDeserializer;
 import io.servicetalk.http.api.HttpSerializer;
 
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNIMPLEMENTED;
+
 /**
  * A provider for <a href="https://www.grpc.io">gRPC</a> serialization/deserialization.
  */
@@ -33,6 +35,24 @@ public interface GrpcSerializationProvider {
      */
     <T> HttpSerializer<T> serializerFor(GrpcMetadata metadata, Class<T> type);
 
+    /**
+     * Get a {@link HttpSerializer} for a {@link Class} of type {@link T} that compresses messages with the passed
+     * {@link GrpcMessageCodec}.
+     * <p>
+     * The default implementation returns {@link #serializerFor(GrpcMetadata, Class)}, which selects the
+     * {@link GrpcMessageEncoding} from the {@code grpc-encoding} header and sends messages of other encodings
+     * uncompressed.
+     *
+     * @param metadata {@link GrpcMetadata} for the serializer.
+     * @param type The {@link Class} type that the returned {@link HttpSerializer} can serialize.
+     * @param codec {@link GrpcMessageCodec} used to compress messages.
+     * @param <T> The type of object to serialize.
+     * @return a {@link HttpSerializer} for a {@link Class} of type {@link T}.
+     */
+    default <T> HttpSerializer<T> serializerFor(GrpcMetadata metadata, Class<T> type, GrpcMessageCodec codec) {
+        return serializerFor(metadata, type);
+    }
+
     /**
      * Get a {@link HttpDeserializer} for a {@link Class} of type {@link T}.
      *
@@ -43,4 +63,50 @@ public interface GrpcSerializationProvider {
      * @return a {@link HttpDeserializer} for a {@link Class} of type {@link T}.
      */
     <T> HttpDeserializer<T> deserializerFor(GrpcMessageEncoding messageEncoding, Class<T> type);
+
+    /**
+     * Get a {@link HttpDeserializer} for a {@link Class} of type {@link T} which rejects messages that exceed
+     * {@code maxMessageSize} bytes once decompressed.
+     * <p>
+     * The size of each message on the wire is already validated before it reaches the deserializer, but a compressed
+     * message may inflate to an arbitrary size. Implementations that support a {@link GrpcMessageEncoding} other than
+     * {@link GrpcMessageEncoding#None} are expected to stop decompressing as soon as {@code maxMessageSize} is
+     * exceeded and fail with {@link GrpcStatusCode#RESOURCE_EXHAUSTED}. The default implementation ignores
+     * {@code maxMessageSize}.
+     *
+     * @param messageEncoding {@link GrpcMessageEncoding} for the deserializer.
+     * @param type The {@link Class} type that the return value will deserialize.
+     * @param maxMessageSize the maximum size (in bytes) of a single decompressed message.
+     * @param <T> The type of object to deserialize.
+     *
+     * @return a {@link HttpDeserializer} for a {@link Class} of type {@link T}.
+     */
+    default <T> HttpDeserializer<T> deserializerFor(GrpcMessageEncoding messageEncoding, Class<T> type,
+                                                    int maxMessageSize) {
+        return deserializerFor(messageEncoding, type);
+    }
+
+    /**
+     * Get a {@link HttpDeserializer} for a {@link Class} of type {@link T} that decompresses messages with the passed
+     * {@link GrpcMessageCodec} and rejects messages that exceed {@code maxMessageSize} bytes once decompressed.
+     * <p>
+     * The default implementation supports the {@link GrpcMessageCodec}s of the built-in {@link GrpcMessageEncoding}s
+     * and fails with {@link GrpcStatusCode#UNIMPLEMENTED} for other codecs.
+     *
+     * @param codec {@link GrpcMessageCodec} for the deserializer.
+     * @param type The {@link Class} type that the return value will deserialize.
+     * @param maxMessageSize the maximum size (in bytes) of a single decompressed message.
+     * @param <T> The type of object to deserialize.
+     *
+     * @return a {@link HttpDeserializer} for a {@link Class} of type {@link T}.
+     */
+    default <T> HttpDeserializer<T> deserializerFor(GrpcMessageCodec codec, Class<T> type, int maxMessageSize) {
+        for (GrpcMessageEncoding encoding : GrpcMessageEncoding.values()) {
+            if (encoding.codec() == codec) {
+                return deserializerFor(encoding, type, maxMessageSize);
+            }
+        }
+        throw new GrpcStatus(UNIMPLEMENTED, null, "Compression " + codec.encoding() +
+                " not supported by " + getClass().getName()).asException();
+    }
 }
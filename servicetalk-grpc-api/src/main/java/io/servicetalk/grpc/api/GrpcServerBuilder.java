@@ -20,6 +20,7 @@ import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.HttpExecutionStrategy;
 import io.servicetalk.http.api.HttpProtocolConfig;
 import io.servicetalk.http.api.HttpRequest;
+import io.servicetalk.http.api.HttpServerBuilder;
 import io.servicetalk.http.api.HttpServiceContext;
 import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpResponse;
@@ -119,6 +120,18 @@ public abstract class GrpcServerBuilder {
      */
     public abstract GrpcServerBuilder enableWireLogging(String loggerName);
 
+    /**
+     * Enables adaptive flushing of streaming response writes.
+     * <p>
+     * By default, every message of a server streaming response is flushed as soon as it is written. When adaptive
+     * flushing is enabled, writes are coalesced until the I/O thread has processed the work which is already pending or
+     * a number of bytes are written without a flush. The end of each response is always flushed immediately.
+     *
+     * @return {@code this}.
+     * @see HttpServerBuilder#enableAdaptiveFlush()
+     */
+    public abstract GrpcServerBuilder enableAdaptiveFlush();
+
     /**
      * Disables automatic consumption of request {@link StreamingHttpRequest#payloadBody() payload body} when it is not
      * consumed by the service.
@@ -135,6 +148,60 @@ public abstract class GrpcServerBuilder {
      */
     public abstract GrpcServerBuilder disableDrainingRequestPayloadBody();
 
+    /**
+     * Sets the {@link GrpcMessageEncoding}s that this server may use to compress response messages, in the order of
+     * preference. For each request the first encoding that the client also lists in its {@code grpc-accept-encoding}
+     * header is used, otherwise responses are not compressed. Compressed requests are always accepted for all
+     * {@link GrpcMessageEncoding}s and registered {@link GrpcMessageCodec}s regardless of this setting.
+     *
+     * @param encodings {@link GrpcMessageEncoding}s in the order of preference.
+     * @return {@code this}.
+     */
+    public abstract GrpcServerBuilder supportedMessageEncodings(GrpcMessageEncoding... encodings);
+
+    /**
+     * Sets the names of the encodings that this server may use to compress response messages, in the order of
+     * preference. Each name must be one of a built-in {@link GrpcMessageEncoding} or of a codec registered via
+     * {@link #registerMessageCodec(GrpcMessageCodec)}.
+     *
+     * @param encodings names of the encodings in the order of preference.
+     * @return {@code this}.
+     * @see #supportedMessageEncodings(GrpcMessageEncoding...)
+     */
+    public abstract GrpcServerBuilder supportedMessageEncodings(String... encodings);
+
+    /**
+     * Registers a {@link GrpcMessageCodec} by its {@link GrpcMessageCodec#encoding() encoding name}, in addition to
+     * the built-in {@link GrpcMessageEncoding}s. Requests compressed with the encoding are accepted and the encoding is
+     * advertised via {@code grpc-accept-encoding}. It is only used to compress responses if it is also listed in
+     * {@link #supportedMessageEncodings(String...)}. Registering a codec for the name of a built-in
+     * {@link GrpcMessageEncoding} or of a previously registered codec replaces it.
+     *
+     * @param codec {@link GrpcMessageCodec} to register.
+     * @return {@code this}.
+     */
+    public abstract GrpcServerBuilder registerMessageCodec(GrpcMessageCodec codec);
+
+    /**
+     * Sets the maximum size in bytes of a single request message, as announced by its length prefix. A request that
+     * announces a larger message is failed with {@link GrpcStatusCode#RESOURCE_EXHAUSTED} as soon as the length prefix
+     * is read, without buffering the message. Defaults to 4 MiB.
+     *
+     * @param maxMessageSize maximum size in bytes of a single request message.
+     * @return {@code this}.
+     */
+    public abstract GrpcServerBuilder maxInboundMessageSize(int maxMessageSize);
+
+    /**
+     * Sets the maximum size in bytes of a single response message, as announced by its length prefix. A response
+     * message that exceeds this size fails the call with {@link GrpcStatusCode#RESOURCE_EXHAUSTED} instead of being
+     * sent. Unlimited by default.
+     *
+     * @param maxMessageSize maximum size in bytes of a single response message.
+     * @return {@code this}.
+     */
+    public abstract GrpcServerBuilder maxOutboundMessageSize(int maxMessageSize);
+
     /**
      * Append the filter to the chain of filters used to decorate the {@link ConnectionAcceptor} used by this builder.
      * <p>
@@ -197,6 +264,20 @@ public abstract class GrpcServerBuilder {
         return this;
     }
 
+    /**
+     * Appends a filter, which is invoked on the I/O thread before the configured {@link GrpcExecutionStrategy}
+     * offloads the request processing, to the chain of filters used to decorate the service used by this builder.
+     * <p>
+     * These filters must never block, they are meant for cheap decisions like load shedding. They are invoked before
+     * any filter appended with {@link #appendHttpServiceFilter(StreamingHttpServiceFilterFactory)}, in order of
+     * append.
+     *
+     * @param factory {@link StreamingHttpServiceFilterFactory} to append.
+     * @return {@code this}.
+     * @see HttpServerBuilder#appendNonOffloadingServiceFilter(StreamingHttpServiceFilterFactory)
+     */
+    public abstract GrpcServerBuilder appendNonOffloadingHttpServiceFilter(StreamingHttpServiceFilterFactory factory);
+
     /**
      * Sets the {@link IoExecutor} to be used by this server.
      *
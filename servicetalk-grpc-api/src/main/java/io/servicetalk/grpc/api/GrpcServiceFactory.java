@@ -24,8 +24,12 @@ import io.servicetalk.http.api.StreamingHttpService;
 import io.servicetalk.transport.api.ExecutionContext;
 import io.servicetalk.transport.api.ServerContext;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.annotation.Nullable;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -176,6 +180,63 @@ public abstract class GrpcServiceFactory<Filter extends Service, Service extends
          * if the server could not be started.
          */
         Single<ServerContext> bindBlockingStreaming(BlockingStreamingHttpService service);
+
+        /**
+         * {@link GrpcMessageEncoding}s that the associated server may use to compress response messages, in the
+         * order of preference. The first one also advertised by the client in {@code grpc-accept-encoding} is used.
+         *
+         * @return {@link GrpcMessageEncoding}s that the associated server may use to compress response messages.
+         */
+        default List<GrpcMessageEncoding> messageEncodings() {
+            return singletonList(GrpcMessageEncoding.None);
+        }
+
+        /**
+         * {@link GrpcMessageCodec}s that the associated server may use to compress response messages, in the order of
+         * preference. The first one also advertised by the client in {@code grpc-accept-encoding} is used.
+         * <p>
+         * The default implementation returns the {@link GrpcMessageEncoding#codec() codecs} of
+         * {@link #messageEncodings()}.
+         *
+         * @return {@link GrpcMessageCodec}s that the associated server may use to compress response messages.
+         */
+        default List<GrpcMessageCodec> messageCodecs() {
+            final List<GrpcMessageEncoding> encodings = messageEncodings();
+            final List<GrpcMessageCodec> codecs = new ArrayList<>(encodings.size());
+            for (GrpcMessageEncoding encoding : encodings) {
+                codecs.add(encoding.codec());
+            }
+            return codecs;
+        }
+
+        /**
+         * {@link GrpcMessageCodec}s registered with the associated server in addition to the built-in
+         * {@link GrpcMessageEncoding}s. Requests compressed with any of them are accepted, and a registered codec
+         * replaces a built-in one with the same {@link GrpcMessageCodec#encoding()}.
+         *
+         * @return {@link GrpcMessageCodec}s registered in addition to the built-in {@link GrpcMessageEncoding}s.
+         */
+        default List<GrpcMessageCodec> registeredMessageCodecs() {
+            return emptyList();
+        }
+
+        /**
+         * Maximum size in bytes of a single request message accepted by the associated server.
+         *
+         * @return maximum size in bytes of a single request message.
+         */
+        default int maxInboundMessageSize() {
+            return Integer.MAX_VALUE;
+        }
+
+        /**
+         * Maximum size in bytes of a single response message sent by the associated server.
+         *
+         * @return maximum size in bytes of a single response message.
+         */
+        default int maxOutboundMessageSize() {
+            return Integer.MAX_VALUE;
+        }
     }
 
     private static final class MergedServiceFactory extends GrpcServiceFactory {
@@ -17,7 +17,12 @@ package io.servicetalk.grpc.api;
 
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.AsyncContext;
+import io.servicetalk.concurrent.api.AsyncContextMap;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.HttpDeserializer;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpMetaData;
@@ -25,24 +30,37 @@ import io.servicetalk.http.api.HttpRequestMetaData;
 import io.servicetalk.http.api.HttpResponse;
 import io.servicetalk.http.api.HttpResponseFactory;
 import io.servicetalk.http.api.HttpResponseMetaData;
+import io.servicetalk.http.api.HttpResponseStatus;
 import io.servicetalk.http.api.HttpSerializer;
 import io.servicetalk.http.api.StatelessTrailersTransformer;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
 import io.servicetalk.http.api.TrailersTransformer;
-import io.servicetalk.serialization.api.SerializationException;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
+import static io.servicetalk.concurrent.api.AsyncContextMap.Key.newKey;
 import static io.servicetalk.concurrent.api.Publisher.empty;
 import static io.servicetalk.concurrent.api.Publisher.failed;
 import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.grpc.api.GrpcStatusCode.DEADLINE_EXCEEDED;
 import static io.servicetalk.grpc.api.GrpcStatusCode.INTERNAL;
+import static io.servicetalk.grpc.api.GrpcStatusCode.PERMISSION_DENIED;
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNAUTHENTICATED;
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNAVAILABLE;
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNIMPLEMENTED;
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNKNOWN;
 import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
 import static io.servicetalk.http.api.CharSequences.newAsciiString;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
@@ -51,7 +69,16 @@ import static io.servicetalk.http.api.HttpHeaderNames.TE;
 import static io.servicetalk.http.api.HttpHeaderNames.USER_AGENT;
 import static io.servicetalk.http.api.HttpHeaderValues.TRAILERS;
 import static io.servicetalk.http.api.HttpRequestMethod.POST;
+import static java.lang.Math.min;
 import static java.lang.String.valueOf;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 final class GrpcUtils {
     private static final CharSequence GRPC_CONTENT_TYPE = newAsciiString("application/grpc");
@@ -62,6 +89,22 @@ final class GrpcUtils {
     private static final CharSequence GRPC_USER_AGENT = newAsciiString("grpc-service-talk/");
     private static final CharSequence IDENTITY = newAsciiString(None.encoding());
     private static final CharSequence GRPC_MESSAGE_ENCODING_KEY = newAsciiString("grpc-encoding");
+    private static final CharSequence GRPC_MESSAGE_ACCEPT_ENCODING_KEY = newAsciiString("grpc-accept-encoding");
+    private static final CharSequence GRPC_TIMEOUT_KEY = newAsciiString("grpc-timeout");
+    // The gRPC spec limits the TimeoutValue of grpc-timeout to at most 8 ASCII digits.
+    private static final long MAX_TIMEOUT_VALUE = 99_999_999;
+    private static final TimeUnit[] TIMEOUT_UNITS = {NANOSECONDS, MICROSECONDS, MILLISECONDS, SECONDS, MINUTES, HOURS};
+    private static final char[] TIMEOUT_UNIT_CHARS = {'n', 'u', 'm', 'S', 'M', 'H'};
+    /**
+     * Absolute deadline (as per {@link System#nanoTime()}) of the <a href="https://www.grpc.io">gRPC</a> request
+     * being processed. Outgoing calls made while processing that request inherit the remaining time.
+     */
+    static final AsyncContextMap.Key<Long> GRPC_DEADLINE_KEY = newKey("grpc-deadline");
+    /**
+     * Timeout value that indicates no timeout.
+     */
+    static final long NO_TIMEOUT = Long.MAX_VALUE;
+    private static final GrpcMessageCodec NONE_CODEC = None.codec();
     private static final GrpcStatus STATUS_OK = GrpcStatus.fromCodeValue(GrpcStatusCode.OK.value());
     private static final TrailersTransformer<Object, Object> ENSURE_GRPC_STATUS_RECEIVED =
             new StatelessTrailersTransformer<Object>() {
@@ -76,20 +119,142 @@ final class GrpcUtils {
         // No instances.
     }
 
-    static void initRequest(final HttpRequestMetaData request) {
+    static void initRequest(final HttpRequestMetaData request, final GrpcMessageCodec codec,
+                            final GrpcMessageCodecs codecs) {
         assert POST.equals(request.method());
         final HttpHeaders headers = request.headers();
         headers.set(USER_AGENT, GRPC_USER_AGENT);
         headers.set(TE, TRAILERS);
         headers.set(CONTENT_TYPE, GRPC_CONTENT_TYPE);
+        if (codec != NONE_CODEC) {
+            headers.set(GRPC_MESSAGE_ENCODING_KEY, codec.encoding());
+        }
+        // Responses are decompressed according to their grpc-encoding, so all known encodings are accepted.
+        headers.set(GRPC_MESSAGE_ACCEPT_ENCODING_KEY, codecs.acceptEncoding());
+    }
+
+    static void setTimeout(final HttpRequestMetaData request, final long timeoutNanos) {
+        if (timeoutNanos > 0 && timeoutNanos != NO_TIMEOUT) {
+            request.headers().set(GRPC_TIMEOUT_KEY, encodeTimeout(timeoutNanos));
+        }
+    }
+
+    /**
+     * Reads the {@code grpc-timeout} header of the passed {@link HttpRequestMetaData}.
+     *
+     * @param request {@link HttpRequestMetaData} to read the timeout from.
+     * @return timeout in nanoseconds or {@link #NO_TIMEOUT} if the header is absent or malformed.
+     */
+    static long readTimeout(final HttpRequestMetaData request) {
+        final CharSequence timeout = request.headers().get(GRPC_TIMEOUT_KEY);
+        return timeout == null ? NO_TIMEOUT : parseTimeout(timeout);
+    }
+
+    static CharSequence encodeTimeout(final long timeoutNanos) {
+        assert timeoutNanos > 0;
+        for (int i = 0; i < TIMEOUT_UNITS.length - 1; ++i) {
+            final long value = TIMEOUT_UNITS[i].convert(timeoutNanos, NANOSECONDS);
+            if (value <= MAX_TIMEOUT_VALUE) {
+                return valueOf(value) + TIMEOUT_UNIT_CHARS[i];
+            }
+        }
+        return min(NANOSECONDS.toHours(timeoutNanos), MAX_TIMEOUT_VALUE) + "H";
+    }
+
+    static long parseTimeout(final CharSequence timeout) {
+        final int length = timeout.length();
+        if (length < 2 || length > 9) {
+            return NO_TIMEOUT;
+        }
+        long value = 0;
+        for (int i = 0; i < length - 1; ++i) {
+            final char c = timeout.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_TIMEOUT;
+            }
+            value = value * 10 + (c - '0');
+        }
+        final char unit = timeout.charAt(length - 1);
+        for (int i = 0; i < TIMEOUT_UNIT_CHARS.length; ++i) {
+            if (TIMEOUT_UNIT_CHARS[i] == unit) {
+                return TIMEOUT_UNITS[i].toNanos(value);
+            }
+        }
+        return NO_TIMEOUT;
+    }
+
+    /**
+     * Computes the timeout for an outgoing call, which is the smaller of the
+     * {@link GrpcClientMetadata#timeout() timeout of the call} and the time remaining until the deadline of the
+     * request being processed, if any.
+     *
+     * @param metadata {@link GrpcClientMetadata} of the call.
+     * @return timeout in nanoseconds, a value {@code <= 0} if the deadline has already expired or {@link #NO_TIMEOUT}.
+     */
+    static long callTimeout(final GrpcClientMetadata metadata) {
+        final Duration timeout = metadata.timeout();
+        final long timeoutNanos = timeout == null ? NO_TIMEOUT : timeout.toNanos();
+        final Long deadline = AsyncContext.get(GRPC_DEADLINE_KEY);
+        return deadline == null ? timeoutNanos : min(timeoutNanos, deadline - nanoTime());
+    }
+
+    /**
+     * Records the deadline derived from the passed timeout in {@link AsyncContext} so that outgoing calls made while
+     * processing the current request inherit it.
+     *
+     * @param timeoutNanos timeout in nanoseconds, must not be {@link #NO_TIMEOUT}.
+     */
+    static void setDeadline(final long timeoutNanos) {
+        assert timeoutNanos != NO_TIMEOUT;
+        AsyncContext.put(GRPC_DEADLINE_KEY, nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Returns the time remaining until the deadline stored in {@link AsyncContext}.
+     *
+     * @return remaining time in nanoseconds or {@link #NO_TIMEOUT} if there is no deadline.
+     */
+    static long remainingTimeout() {
+        final Long deadline = AsyncContext.get(GRPC_DEADLINE_KEY);
+        return deadline == null ? NO_TIMEOUT : deadline - nanoTime();
+    }
+
+    static GrpcStatusException newDeadlineExceededException(@Nullable final Throwable cause) {
+        return new GrpcStatus(DEADLINE_EXCEEDED, cause, "Deadline exceeded").asException();
+    }
+
+    static <T> Single<T> withTimeout(final Single<T> single, final long timeoutNanos, final Executor executor) {
+        if (timeoutNanos == NO_TIMEOUT) {
+            return single;
+        }
+        if (timeoutNanos <= 0) {
+            return Single.failed(newDeadlineExceededException(null));
+        }
+        return single.idleTimeout(timeoutNanos, NANOSECONDS, executor).recoverWith(cause ->
+                Single.failed(cause instanceof TimeoutException ? newDeadlineExceededException(cause) : cause));
+    }
+
+    static <T> Publisher<T> withTimeout(final Publisher<T> publisher, final long timeoutNanos,
+                                        final Executor executor) {
+        if (timeoutNanos == NO_TIMEOUT) {
+            return publisher;
+        }
+        if (timeoutNanos <= 0) {
+            return failed(newDeadlineExceededException(null));
+        }
+        // Unlike Publisher#idleTimeout, the timer bounds the entire stream and not the gap between items.
+        return publisher.takeUntil(executor.timer(timeoutNanos, NANOSECONDS)
+                .concat(Completable.defer(() -> Completable.failed(newDeadlineExceededException(null)))));
     }
 
     static <T> StreamingHttpResponse newResponse(final StreamingHttpResponseFactory responseFactory,
+                                                 final GrpcMessageCodec codec,
                                                  final Publisher<T> payload,
                                                  final HttpSerializer<T> serializer,
                                                  final BufferAllocator allocator) {
-        return newStreamingResponse(responseFactory).payloadBody(payload, serializer)
-                .transformRaw(new GrpcStatusUpdater(allocator, STATUS_OK));
+        final StreamingHttpResponse response = newStreamingResponse(responseFactory);
+        setMessageEncoding(response, codec);
+        return response.payloadBody(payload, serializer).transformRaw(new GrpcStatusUpdater(allocator, STATUS_OK));
     }
 
     static StreamingHttpResponse newResponse(final StreamingHttpResponseFactory responseFactory,
@@ -105,6 +270,13 @@ final class GrpcUtils {
         return response;
     }
 
+    static HttpResponse newResponse(final HttpResponseFactory responseFactory, final GrpcMessageCodec codec,
+                                    final BufferAllocator allocator) {
+        final HttpResponse response = newResponse(responseFactory, allocator);
+        setMessageEncoding(response, codec);
+        return response;
+    }
+
     static HttpResponse newErrorResponse(final HttpResponseFactory responseFactory, final Throwable cause,
                                          final BufferAllocator allocator) {
         HttpResponse response = newResponse(responseFactory, allocator);
@@ -161,6 +333,10 @@ final class GrpcUtils {
             return response.payloadBodyAndTrailers().ignoreElements()
                     .concat(grpcStatusException != null ? failed(grpcStatusException) : empty());
         }
+        if (response.status().code() != HttpResponseStatus.OK.code()) {
+            return response.payloadBodyAndTrailers().ignoreElements()
+                    .concat(failed(convertToGrpcStatusException(response)));
+        }
 
         response.transformRaw(ENSURE_GRPC_STATUS_RECEIVED);
         return deserializer.deserialize(headers, response.payloadBodyAndTrailers()
@@ -185,6 +361,10 @@ final class GrpcUtils {
         }
 
         // There was no grpc-status in the trailers, so it must be in headers.
+        if (response.status().code() != HttpResponseStatus.OK.code() &&
+                extractGrpcStatusCodeFromHeaders(response.headers()) == null) {
+            throw convertToGrpcStatusException(response);
+        }
         ensureGrpcStatusReceived(response.headers());
         return response.payloadBody(deserializer);
     }
@@ -202,15 +382,78 @@ final class GrpcUtils {
         }
     }
 
-    static GrpcMessageEncoding readGrpcMessageEncoding(final HttpMetaData httpMetaData) {
+    static GrpcMessageCodec readGrpcMessageCodec(final HttpMetaData httpMetaData, final GrpcMessageCodecs codecs) {
         final CharSequence encoding = httpMetaData.headers().get(GRPC_MESSAGE_ENCODING_KEY);
         // identity is a special header for no compression
-        if (encoding != null && !contentEqualsIgnoreCase(encoding, IDENTITY)) {
-            final String lowercaseEncoding = encoding.toString().toLowerCase();
-            throw new SerializationException("Compression " + lowercaseEncoding + " not supported");
-        } else {
-            return None;
+        if (encoding == null || contentEqualsIgnoreCase(encoding, IDENTITY)) {
+            return NONE_CODEC;
+        }
+        final GrpcMessageCodec codec = codecs.find(encoding);
+        if (codec != null) {
+            return codec;
         }
+        final String lowercaseEncoding = encoding.toString().toLowerCase();
+        throw new GrpcStatus(UNIMPLEMENTED, null, "Compression " + lowercaseEncoding + " not supported")
+                .asException();
+    }
+
+    /**
+     * Selects the first of the {@link GrpcMessageCodecs#preferred() preferred} codecs that the peer advertised in its
+     * {@code grpc-accept-encoding} header.
+     *
+     * @param request {@link HttpRequestMetaData} for the request that will be responded to.
+     * @param codecs {@link GrpcMessageCodecs} of the server.
+     * @return the negotiated {@link GrpcMessageCodec} or the codec of {@link GrpcMessageEncoding#None} if there is no
+     * match.
+     */
+    static GrpcMessageCodec negotiateAcceptedEncoding(final HttpRequestMetaData request,
+                                                      final GrpcMessageCodecs codecs) {
+        final List<GrpcMessageCodec> supported = codecs.preferred();
+        if (supported.isEmpty() || (supported.size() == 1 && supported.get(0) == NONE_CODEC)) {
+            return NONE_CODEC;
+        }
+        final List<CharSequence> accepted = acceptedEncodings(request);
+        if (accepted.isEmpty()) {
+            return NONE_CODEC;
+        }
+        for (GrpcMessageCodec codec : supported) {
+            for (CharSequence acceptedEncoding : accepted) {
+                if (contentEqualsIgnoreCase(acceptedEncoding, codec.encoding())) {
+                    return codec;
+                }
+            }
+        }
+        return NONE_CODEC;
+    }
+
+    private static List<CharSequence> acceptedEncodings(final HttpMetaData metaData) {
+        final Iterator<? extends CharSequence> acceptValues =
+                metaData.headers().valuesIterator(GRPC_MESSAGE_ACCEPT_ENCODING_KEY);
+        if (!acceptValues.hasNext()) {
+            return emptyList();
+        }
+        final List<CharSequence> accepted = new ArrayList<>(4);
+        do {
+            final CharSequence value = acceptValues.next();
+            int start = 0;
+            for (int i = 0; i <= value.length(); ++i) {
+                if (i == value.length() || value.charAt(i) == ',') {
+                    accepted.add(value.subSequence(start, i).toString().trim());
+                    start = i + 1;
+                }
+            }
+        } while (acceptValues.hasNext());
+        return accepted;
+    }
+
+    static void setMessageEncoding(final HttpResponseMetaData response, final GrpcMessageCodec codec) {
+        if (codec != NONE_CODEC) {
+            response.headers().set(GRPC_MESSAGE_ENCODING_KEY, codec.encoding());
+        }
+    }
+
+    static void setAcceptEncoding(final HttpResponseMetaData response, final GrpcMessageCodecs codecs) {
+        response.headers().set(GRPC_MESSAGE_ACCEPT_ENCODING_KEY, codecs.acceptEncoding());
     }
 
     private static void initResponse(final HttpResponseMetaData response) {
@@ -218,6 +461,8 @@ final class GrpcUtils {
         final HttpHeaders headers = response.headers();
         headers.set(SERVER, GRPC_USER_AGENT);
         headers.set(CONTENT_TYPE, GRPC_CONTENT_TYPE);
+        // Requests are decompressed according to their grpc-encoding, so all known encodings are accepted.
+        headers.set(GRPC_MESSAGE_ACCEPT_ENCODING_KEY, GrpcMessageCodecs.BUILT_IN.acceptEncoding());
     }
 
     @Nullable
@@ -239,6 +484,36 @@ final class GrpcUtils {
         return grpcStatus.asException(new StatusSupplier(headers, grpcStatus));
     }
 
+    private static GrpcStatusException convertToGrpcStatusException(final HttpResponseMetaData response) {
+        // A response without grpc-status is not generated by a gRPC service, but by an intermediary or an HTTP filter.
+        // See https://github.com/grpc/grpc/blob/master/doc/http-grpc-status-mapping.md
+        final GrpcStatusCode grpcStatusCode;
+        switch (response.status().code()) {
+            case 400:
+                grpcStatusCode = INTERNAL;
+                break;
+            case 401:
+                grpcStatusCode = UNAUTHENTICATED;
+                break;
+            case 403:
+                grpcStatusCode = PERMISSION_DENIED;
+                break;
+            case 404:
+                grpcStatusCode = UNIMPLEMENTED;
+                break;
+            case 429:
+            case 502:
+            case 503:
+            case 504:
+                grpcStatusCode = UNAVAILABLE;
+                break;
+            default:
+                grpcStatusCode = UNKNOWN;
+                break;
+        }
+        return new GrpcStatus(grpcStatusCode, null, "HTTP status: " + response.status()).asException();
+    }
+
     @Nullable
     private static Status getStatusDetails(final HttpHeaders headers) {
         final CharSequence details = headers.get(GRPC_STATUS_DETAILS_TRAILER);
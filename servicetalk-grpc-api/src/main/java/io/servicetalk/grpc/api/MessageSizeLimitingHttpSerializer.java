@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.BlockingIterable;
+import io.servicetalk.concurrent.BlockingIterator;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpPayloadWriter;
+import io.servicetalk.http.api.HttpSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static io.servicetalk.grpc.api.MessageSizeValidator.NO_MESSAGE_SIZE_LIMIT;
+import static io.servicetalk.grpc.api.MessageSizeValidator.validateMessageSize;
+
+/**
+ * An {@link HttpSerializer} that rejects serialized messages larger than a maximum size before they are written.
+ *
+ * @param <T> Type of object to serialize.
+ */
+final class MessageSizeLimitingHttpSerializer<T> implements HttpSerializer<T> {
+    private final HttpSerializer<T> delegate;
+    private final int maxMessageSize;
+
+    private MessageSizeLimitingHttpSerializer(final HttpSerializer<T> delegate, final int maxMessageSize) {
+        this.delegate = delegate;
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    static <T> HttpSerializer<T> limitMessageSize(final HttpSerializer<T> serializer, final int maxMessageSize) {
+        return maxMessageSize == NO_MESSAGE_SIZE_LIMIT ? serializer :
+                new MessageSizeLimitingHttpSerializer<>(serializer, maxMessageSize);
+    }
+
+    @Override
+    public Buffer serialize(final HttpHeaders headers, final T value, final BufferAllocator allocator) {
+        return new MessageSizeValidator(maxMessageSize).apply(delegate.serialize(headers, value, allocator));
+    }
+
+    @Override
+    public BlockingIterable<Buffer> serialize(final HttpHeaders headers, final BlockingIterable<T> value,
+                                              final BufferAllocator allocator) {
+        final BlockingIterable<Buffer> serialized = delegate.serialize(headers, value, allocator);
+        return () -> new ValidatingBlockingIterator(serialized.iterator(), new MessageSizeValidator(maxMessageSize));
+    }
+
+    @Override
+    public Publisher<Buffer> serialize(final HttpHeaders headers, final Publisher<T> value,
+                                       final BufferAllocator allocator) {
+        return validateMessageSize(delegate.serialize(headers, value, allocator), maxMessageSize);
+    }
+
+    @Override
+    public HttpPayloadWriter<T> serialize(final HttpHeaders headers, final HttpPayloadWriter<Buffer> payloadWriter,
+                                          final BufferAllocator allocator) {
+        return delegate.serialize(headers, new ValidatingPayloadWriter(payloadWriter,
+                new MessageSizeValidator(maxMessageSize)), allocator);
+    }
+
+    private static final class ValidatingBlockingIterator implements BlockingIterator<Buffer> {
+        private final BlockingIterator<Buffer> delegate;
+        private final MessageSizeValidator validator;
+
+        ValidatingBlockingIterator(final BlockingIterator<Buffer> delegate, final MessageSizeValidator validator) {
+            this.delegate = delegate;
+            this.validator = validator;
+        }
+
+        @Override
+        public boolean hasNext(final long timeout, final TimeUnit unit) throws TimeoutException {
+            return delegate.hasNext(timeout, unit);
+        }
+
+        @Override
+        public Buffer next(final long timeout, final TimeUnit unit) throws TimeoutException {
+            return validator.apply(delegate.next(timeout, unit));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Buffer next() {
+            return validator.apply(delegate.next());
+        }
+
+        @Override
+        public void close() throws Exception {
+            delegate.close();
+        }
+    }
+
+    private static final class ValidatingPayloadWriter implements HttpPayloadWriter<Buffer> {
+        private final HttpPayloadWriter<Buffer> delegate;
+        private final MessageSizeValidator validator;
+
+        ValidatingPayloadWriter(final HttpPayloadWriter<Buffer> delegate, final MessageSizeValidator validator) {
+            this.delegate = delegate;
+            this.validator = validator;
+        }
+
+        @Override
+        public void write(final Buffer buffer) throws IOException {
+            delegate.write(validator.apply(buffer));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public HttpHeaders trailers() {
+            return delegate.trailers();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.Publisher;
+
+import java.util.function.UnaryOperator;
+
+import static io.servicetalk.grpc.api.GrpcStatusCode.RESOURCE_EXHAUSTED;
+import static java.lang.Math.min;
+
+/**
+ * Verifies that every <a href="https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md">
+ * Length-Prefixed-Message</a> in a stream of {@link Buffer}s does not exceed a maximum size. Messages are rejected as
+ * soon as their length prefix is seen, so an oversized message is never buffered.
+ * <p>
+ * Only the indexes of the passed {@link Buffer}s are inspected, they are returned unmodified. Instances are stateful
+ * and must be used for a single stream only.
+ */
+final class MessageSizeValidator implements UnaryOperator<Buffer> {
+    static final int NO_MESSAGE_SIZE_LIMIT = Integer.MAX_VALUE;
+    private static final int LENGTH_PREFIXED_MESSAGE_HEADER_BYTES = 5;
+
+    private final int maxMessageSize;
+    private int headerBytesRead;
+    private int messageLength;
+    private long remainingMessageBytes;
+
+    MessageSizeValidator(final int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    static Publisher<Buffer> validateMessageSize(final Publisher<Buffer> messages, final int maxMessageSize) {
+        return maxMessageSize == NO_MESSAGE_SIZE_LIMIT ? messages :
+                Publisher.defer(() -> messages.map(new MessageSizeValidator(maxMessageSize)));
+    }
+
+    static int validateMaxMessageSize(final int maxMessageSize) {
+        if (maxMessageSize <= 0) {
+            throw new IllegalArgumentException("maxMessageSize: " + maxMessageSize + " (expected > 0)");
+        }
+        return maxMessageSize;
+    }
+
+    @Override
+    public Buffer apply(final Buffer buffer) {
+        final int end = buffer.writerIndex();
+        int index = buffer.readerIndex();
+        while (index < end) {
+            if (remainingMessageBytes > 0) {
+                final int skip = (int) min(remainingMessageBytes, end - index);
+                remainingMessageBytes -= skip;
+                index += skip;
+                continue;
+            }
+            final byte b = buffer.getByte(index++);
+            // The first byte of the header is the Compressed-Flag, the following 4 bytes are the Message-Length.
+            if (headerBytesRead != 0) {
+                messageLength = (messageLength << 8) | (b & 0xFF);
+            }
+            if (++headerBytesRead == LENGTH_PREFIXED_MESSAGE_HEADER_BYTES) {
+                final long length = messageLength & 0xFFFFFFFFL;
+                if (length > maxMessageSize) {
+                    throw new GrpcStatus(RESOURCE_EXHAUSTED, null, "Message size " + length +
+                            " exceeds the limit of " + maxMessageSize + " bytes").asException();
+                }
+                remainingMessageBytes = length;
+                headerBytesRead = 0;
+                messageLength = 0;
+            }
+        }
+        return buffer;
+    }
+}
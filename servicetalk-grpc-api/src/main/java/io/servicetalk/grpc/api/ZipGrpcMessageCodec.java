@@ -0,0 +1,299 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.serialization.api.SerializationException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.grpc.api.GrpcStatusCode.RESOURCE_EXHAUSTED;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.zip.Deflater.DEFAULT_COMPRESSION;
+
+/**
+ * {@link GrpcMessageCodec} backed by the JDK zlib implementation, used for both {@code gzip} and {@code deflate}.
+ * <p>
+ * Creating a {@link Deflater} or {@link Inflater} allocates native zlib state, which is much more expensive than
+ * compressing a typical message. Instances are therefore {@link Deflater#reset() reset} and reused from bounded pools
+ * shared by all streams, and instances which do not fit in a pool are {@link Deflater#end() ended} immediately. The
+ * gzip header and trailer are written and parsed here, so that raw instances can be used for both formats.
+ */
+final class ZipGrpcMessageCodec implements GrpcMessageCodec {
+
+    static final GrpcMessageCodec GZIP = new ZipGrpcMessageCodec("gzip", true);
+
+    static final GrpcMessageCodec DEFLATE = new ZipGrpcMessageCodec("deflate", false);
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_POOLED = max(4, Runtime.getRuntime().availableProcessors());
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    private final String encoding;
+    private final boolean gzip;
+    private final Pool<Deflater> deflaters;
+    private final Pool<Inflater> inflaters;
+
+    private ZipGrpcMessageCodec(final String encoding, final boolean gzip) {
+        this.encoding = encoding;
+        this.gzip = gzip;
+        // gzip uses raw deflate data between its own header and trailer, deflate uses the zlib format.
+        deflaters = new Pool<>(() -> new Deflater(DEFAULT_COMPRESSION, gzip), Deflater::reset, Deflater::end);
+        inflaters = new Pool<>(() -> new Inflater(gzip), Inflater::reset, Inflater::end);
+    }
+
+    @Override
+    public String encoding() {
+        return encoding;
+    }
+
+    @Override
+    public void encode(final Buffer src, final Buffer dst) {
+        final int length = src.readableBytes();
+        final CRC32 crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            dst.writeBytes(GZIP_HEADER);
+        }
+        final Deflater deflater = deflaters.acquire();
+        try {
+            @Nullable
+            byte[] scratch = null;
+            if (src.hasArray()) {
+                final int offset = src.arrayOffset() + src.readerIndex();
+                deflater.setInput(src.array(), offset, length);
+                if (crc != null) {
+                    crc.update(src.array(), offset, length);
+                }
+                src.skipBytes(length);
+                scratch = deflateInput(deflater, dst, null);
+            } else {
+                // The input has to be copied to a byte[], which is done in chunks rather than all at once.
+                final byte[] input = new byte[min(CHUNK_SIZE, length)];
+                while (src.readableBytes() > 0) {
+                    final int chunk = min(input.length, src.readableBytes());
+                    src.readBytes(input, 0, chunk);
+                    deflater.setInput(input, 0, chunk);
+                    if (crc != null) {
+                        crc.update(input, 0, chunk);
+                    }
+                    scratch = deflateInput(deflater, dst, scratch);
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                scratch = deflate(deflater, dst, scratch);
+            }
+        } finally {
+            deflaters.release(deflater);
+        }
+        if (crc != null) {
+            dst.writeIntLE((int) crc.getValue());
+            dst.writeIntLE(length);
+        }
+    }
+
+    @Override
+    public Buffer decode(final Buffer src, final BufferAllocator allocator, final int maxDecodedSize) {
+        if (gzip) {
+            skipGzipHeader(src);
+        }
+        final int inputLength = src.readableBytes();
+        final byte[] input;
+        final int inputOffset;
+        if (src.hasArray()) {
+            input = src.array();
+            inputOffset = src.arrayOffset() + src.readerIndex();
+        } else {
+            input = new byte[inputLength];
+            inputOffset = 0;
+            src.getBytes(src.readerIndex(), input);
+        }
+        final CRC32 crc = gzip ? new CRC32() : null;
+        final Buffer dst = allocator.newBuffer((int) min(maxDecodedSize, inputLength * 2L));
+        final Inflater inflater = inflaters.acquire();
+        final int trailerIndex;
+        try {
+            inflater.setInput(input, inputOffset, inputLength);
+            @Nullable
+            byte[] scratch = null;
+            while (!inflater.finished()) {
+                final int remaining = maxDecodedSize - dst.readableBytes();
+                if (remaining == 0) {
+                    // Only the end of the stream is allowed once the limit is reached.
+                    if (inflater.inflate(new byte[1]) > 0) {
+                        throw newDecodedSizeExceededException(maxDecodedSize);
+                    }
+                    if (inflater.finished()) {
+                        break;
+                    }
+                } else {
+                    dst.ensureWritable(min(CHUNK_SIZE, remaining));
+                    final int length = min(remaining, min(CHUNK_SIZE, dst.writableBytes()));
+                    final int produced;
+                    if (dst.hasArray()) {
+                        final int offset = dst.arrayOffset() + dst.writerIndex();
+                        produced = inflater.inflate(dst.array(), offset, length);
+                        if (crc != null) {
+                            crc.update(dst.array(), offset, produced);
+                        }
+                        dst.writerIndex(dst.writerIndex() + produced);
+                    } else {
+                        if (scratch == null) {
+                            scratch = new byte[CHUNK_SIZE];
+                        }
+                        produced = inflater.inflate(scratch, 0, length);
+                        if (crc != null) {
+                            crc.update(scratch, 0, produced);
+                        }
+                        dst.writeBytes(scratch, 0, produced);
+                    }
+                    if (produced > 0 || inflater.finished()) {
+                        continue;
+                    }
+                }
+                if (inflater.needsInput() || inflater.needsDictionary()) {
+                    throw new SerializationException("Failed to decompress gRPC message: truncated or unsupported " +
+                            encoding + " data");
+                }
+            }
+            trailerIndex = src.readerIndex() + inputLength - inflater.getRemaining();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Failed to decompress gRPC message", e);
+        } finally {
+            inflaters.release(inflater);
+        }
+        src.readerIndex(trailerIndex);
+        if (crc != null) {
+            if (src.readableBytes() < GZIP_TRAILER_LENGTH || src.readIntLE() != (int) crc.getValue() ||
+                    src.readIntLE() != dst.readableBytes()) {
+                throw new SerializationException("Failed to decompress gRPC message: invalid gzip trailer");
+            }
+        }
+        // Trailing bytes after the end of the compressed data are ignored.
+        src.skipBytes(src.readableBytes());
+        return dst;
+    }
+
+    static GrpcStatusException newDecodedSizeExceededException(final int maxDecodedSize) {
+        return new GrpcStatus(RESOURCE_EXHAUSTED, null, "Decompressed message size exceeds the limit of " +
+                maxDecodedSize + " bytes").asException();
+    }
+
+    @Nullable
+    private static byte[] deflateInput(final Deflater deflater, final Buffer dst, @Nullable byte[] scratch) {
+        while (!deflater.needsInput()) {
+            scratch = deflate(deflater, dst, scratch);
+        }
+        return scratch;
+    }
+
+    @Nullable
+    private static byte[] deflate(final Deflater deflater, final Buffer dst, @Nullable byte[] scratch) {
+        dst.ensureWritable(CHUNK_SIZE);
+        if (dst.hasArray()) {
+            final int produced = deflater.deflate(dst.array(), dst.arrayOffset() + dst.writerIndex(),
+                    min(CHUNK_SIZE, dst.writableBytes()));
+            dst.writerIndex(dst.writerIndex() + produced);
+            return scratch;
+        }
+        if (scratch == null) {
+            scratch = new byte[CHUNK_SIZE];
+        }
+        dst.writeBytes(scratch, 0, deflater.deflate(scratch));
+        return scratch;
+    }
+
+    private static void skipGzipHeader(final Buffer src) {
+        if (src.readableBytes() < GZIP_HEADER.length || src.readByte() != GZIP_HEADER[0] ||
+                src.readByte() != GZIP_HEADER[1] || src.readByte() != Deflater.DEFLATED) {
+            throw new SerializationException("Failed to decompress gRPC message: invalid gzip header");
+        }
+        final int flags = src.readUnsignedByte();
+        src.skipBytes(6); // MTIME, XFL and OS
+        try {
+            if ((flags & FEXTRA) != 0) {
+                src.skipBytes(src.readUnsignedShortLE());
+            }
+            if ((flags & FNAME) != 0) {
+                skipZeroTerminated(src);
+            }
+            if ((flags & FCOMMENT) != 0) {
+                skipZeroTerminated(src);
+            }
+            if ((flags & FHCRC) != 0) {
+                src.skipBytes(2);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Failed to decompress gRPC message: truncated gzip header", e);
+        }
+    }
+
+    private static void skipZeroTerminated(final Buffer src) {
+        while (src.readByte() != 0) {
+            // Skip the field.
+        }
+    }
+
+    private static final class Pool<T> {
+        private final Queue<T> pooled = new ConcurrentLinkedQueue<>();
+        // Tracked separately because ConcurrentLinkedQueue#size() is O(n).
+        private final AtomicInteger size = new AtomicInteger();
+        private final Supplier<T> factory;
+        private final Consumer<T> reset;
+        private final Consumer<T> end;
+
+        Pool(final Supplier<T> factory, final Consumer<T> reset, final Consumer<T> end) {
+            this.factory = factory;
+            this.reset = reset;
+            this.end = end;
+        }
+
+        T acquire() {
+            final T instance = pooled.poll();
+            if (instance == null) {
+                return factory.get();
+            }
+            size.decrementAndGet();
+            return instance;
+        }
+
+        void release(final T instance) {
+            if (size.incrementAndGet() <= MAX_POOLED) {
+                reset.accept(instance);
+                pooled.offer(instance);
+            } else {
+                size.decrementAndGet();
+                end.accept(instance);
+            }
+        }
+    }
+}
@@ -24,6 +24,8 @@ import io.servicetalk.grpc.api.GrpcClientBuilder;
 import io.servicetalk.grpc.api.GrpcClientCallFactory;
 import io.servicetalk.grpc.api.GrpcClientSecurityConfigurator;
 import io.servicetalk.grpc.api.GrpcExecutionStrategy;
+import io.servicetalk.grpc.api.GrpcMessageCodec;
+import io.servicetalk.grpc.api.GrpcMessageEncoding;
 import io.servicetalk.http.api.FilterableStreamingHttpConnection;
 import io.servicetalk.http.api.HttpLoadBalancerFactory;
 import io.servicetalk.http.api.HttpProtocolConfig;
@@ -38,10 +40,17 @@ import java.net.SocketOption;
 import java.util.function.Predicate;
 
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static java.util.Objects.requireNonNull;
 
 final class DefaultGrpcClientBuilder<U, R> extends GrpcClientBuilder<U, R> {
 
+    private static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = 4 * 1024 * 1024;
+
     private final SingleAddressHttpClientBuilder<U, R> httpClientBuilder;
+    private final MessageCodecRegistry codecRegistry = new MessageCodecRegistry();
+    private String messageEncoding = GrpcMessageEncoding.None.encoding();
+    private int maxInboundMessageSize = DEFAULT_MAX_INBOUND_MESSAGE_SIZE;
+    private int maxOutboundMessageSize = Integer.MAX_VALUE;
 
     DefaultGrpcClientBuilder(final SingleAddressHttpClientBuilder<U, R> httpClientBuilder) {
         this.httpClientBuilder = httpClientBuilder.protocols(h2Default());
@@ -130,9 +139,42 @@ final class DefaultGrpcClientBuilder<U, R> extends GrpcClientBuilder<U, R> {
         return this;
     }
 
+    @Override
+    public GrpcClientBuilder<U, R> messageEncoding(final GrpcMessageEncoding encoding) {
+        messageEncoding = encoding.encoding();
+        return this;
+    }
+
+    @Override
+    public GrpcClientBuilder<U, R> messageEncoding(final String encoding) {
+        messageEncoding = requireNonNull(encoding);
+        return this;
+    }
+
+    @Override
+    public GrpcClientBuilder<U, R> registerMessageCodec(final GrpcMessageCodec codec) {
+        codecRegistry.register(codec);
+        return this;
+    }
+
+    @Override
+    public GrpcClientBuilder<U, R> maxInboundMessageSize(final int maxMessageSize) {
+        maxInboundMessageSize = validateMaxMessageSize(maxMessageSize);
+        return this;
+    }
+
+    @Override
+    public GrpcClientBuilder<U, R> maxOutboundMessageSize(final int maxMessageSize) {
+        maxOutboundMessageSize = validateMaxMessageSize(maxMessageSize);
+        return this;
+    }
+
     @Override
     protected GrpcClientCallFactory newGrpcClientCallFactory() {
-        return GrpcClientCallFactory.from(httpClientBuilder.buildStreaming());
+        // Resolved here, so the encoding may be selected before its codec is registered.
+        final GrpcMessageCodec requestCodec = codecRegistry.codec(messageEncoding);
+        return GrpcClientCallFactory.from(httpClientBuilder.buildStreaming(), requestCodec,
+                codecRegistry.registered(), maxInboundMessageSize, maxOutboundMessageSize);
     }
 
     @Override
@@ -145,4 +187,11 @@ final class DefaultGrpcClientBuilder<U, R> extends GrpcClientBuilder<U, R> {
                                          final StreamingHttpClientFilterFactory factory) {
         httpClientBuilder.appendClientFilter(predicate, factory);
     }
+
+    private static int validateMaxMessageSize(final int maxMessageSize) {
+        if (maxMessageSize <= 0) {
+            throw new IllegalArgumentException("maxMessageSize: " + maxMessageSize + " (expected > 0)");
+        }
+        return maxMessageSize;
+    }
 }
@@ -18,6 +18,8 @@ package io.servicetalk.grpc.netty;
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.grpc.api.GrpcExecutionStrategy;
+import io.servicetalk.grpc.api.GrpcMessageCodec;
+import io.servicetalk.grpc.api.GrpcMessageEncoding;
 import io.servicetalk.grpc.api.GrpcServerBuilder;
 import io.servicetalk.grpc.api.GrpcServerSecurityConfigurator;
 import io.servicetalk.grpc.api.GrpcServiceFactory;
@@ -37,14 +39,25 @@ import io.servicetalk.transport.api.ServerContext;
 import io.servicetalk.transport.netty.internal.ExecutionContextBuilder;
 
 import java.net.SocketOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 import static io.servicetalk.grpc.api.GrpcExecutionStrategies.defaultStrategy;
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
 
 final class DefaultGrpcServerBuilder extends GrpcServerBuilder implements ServerBinder {
 
+    private static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = 4 * 1024 * 1024;
+
     private final HttpServerBuilder httpServerBuilder;
+    private final MessageCodecRegistry codecRegistry = new MessageCodecRegistry();
+    private List<String> messageEncodings = singletonList(GrpcMessageEncoding.None.encoding());
+    private int maxInboundMessageSize = DEFAULT_MAX_INBOUND_MESSAGE_SIZE;
+    private int maxOutboundMessageSize = Integer.MAX_VALUE;
     private final ExecutionContextBuilder contextBuilder = new ExecutionContextBuilder()
             // Make sure we always set a strategy so that ExecutionContextBuilder does not create a strategy which is
             // not compatible with gRPC.
@@ -90,12 +103,52 @@ final class DefaultGrpcServerBuilder extends GrpcServerBuilder implements Server
         return this;
     }
 
+    @Override
+    public GrpcServerBuilder enableAdaptiveFlush() {
+        httpServerBuilder.enableAdaptiveFlush();
+        return this;
+    }
+
     @Override
     public GrpcServerBuilder disableDrainingRequestPayloadBody() {
         httpServerBuilder.disableDrainingRequestPayloadBody();
         return this;
     }
 
+    @Override
+    public GrpcServerBuilder supportedMessageEncodings(final GrpcMessageEncoding... encodings) {
+        final List<String> names = new ArrayList<>(encodings.length);
+        for (GrpcMessageEncoding encoding : encodings) {
+            names.add(encoding.encoding());
+        }
+        messageEncodings = unmodifiableList(names);
+        return this;
+    }
+
+    @Override
+    public GrpcServerBuilder supportedMessageEncodings(final String... encodings) {
+        messageEncodings = unmodifiableList(new ArrayList<>(asList(encodings)));
+        return this;
+    }
+
+    @Override
+    public GrpcServerBuilder registerMessageCodec(final GrpcMessageCodec codec) {
+        codecRegistry.register(codec);
+        return this;
+    }
+
+    @Override
+    public GrpcServerBuilder maxInboundMessageSize(final int maxMessageSize) {
+        maxInboundMessageSize = validateMaxMessageSize(maxMessageSize);
+        return this;
+    }
+
+    @Override
+    public GrpcServerBuilder maxOutboundMessageSize(final int maxMessageSize) {
+        maxOutboundMessageSize = validateMaxMessageSize(maxMessageSize);
+        return this;
+    }
+
     @Override
     public GrpcServerBuilder appendConnectionAcceptorFilter(final ConnectionAcceptorFactory factory) {
         httpServerBuilder.appendConnectionAcceptorFilter(factory);
@@ -128,6 +181,12 @@ final class DefaultGrpcServerBuilder extends GrpcServerBuilder implements Server
         return serviceFactory.bind(this, contextBuilder.build());
     }
 
+    @Override
+    public GrpcServerBuilder appendNonOffloadingHttpServiceFilter(final StreamingHttpServiceFilterFactory factory) {
+        httpServerBuilder.appendNonOffloadingServiceFilter(factory);
+        return this;
+    }
+
     @Override
     protected void doAppendHttpServiceFilter(final StreamingHttpServiceFilterFactory factory) {
         httpServerBuilder.appendServiceFilter(factory);
@@ -158,4 +217,36 @@ final class DefaultGrpcServerBuilder extends GrpcServerBuilder implements Server
     public Single<ServerContext> bindBlockingStreaming(final BlockingStreamingHttpService service) {
         return httpServerBuilder.listenBlockingStreaming(service);
     }
+
+    @Override
+    public List<GrpcMessageCodec> messageCodecs() {
+        // Resolved here, so the encodings may be selected before their codecs are registered.
+        final List<GrpcMessageCodec> codecs = new ArrayList<>(messageEncodings.size());
+        for (String encoding : messageEncodings) {
+            codecs.add(codecRegistry.codec(encoding));
+        }
+        return codecs;
+    }
+
+    @Override
+    public List<GrpcMessageCodec> registeredMessageCodecs() {
+        return codecRegistry.registered();
+    }
+
+    @Override
+    public int maxInboundMessageSize() {
+        return maxInboundMessageSize;
+    }
+
+    @Override
+    public int maxOutboundMessageSize() {
+        return maxOutboundMessageSize;
+    }
+
+    private static int validateMaxMessageSize(final int maxMessageSize) {
+        if (maxMessageSize <= 0) {
+            throw new IllegalArgumentException("maxMessageSize: " + maxMessageSize + " (expected > 0)");
+        }
+        return maxMessageSize;
+    }
 }
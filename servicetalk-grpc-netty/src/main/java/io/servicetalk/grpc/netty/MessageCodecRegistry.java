@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.netty;
+
+import io.servicetalk.grpc.api.GrpcMessageCodec;
+import io.servicetalk.grpc.api.GrpcMessageEncoding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Locale.ROOT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link GrpcMessageCodec}s registered on a builder, keyed by their {@link GrpcMessageCodec#encoding() encoding name}.
+ */
+final class MessageCodecRegistry {
+
+    private final Map<String, GrpcMessageCodec> codecs = new LinkedHashMap<>(4);
+
+    void register(final GrpcMessageCodec codec) {
+        codecs.put(requireNonNull(codec.encoding()).toLowerCase(ROOT), codec);
+    }
+
+    /**
+     * Resolves an encoding name to the registered {@link GrpcMessageCodec} or the one of a built-in
+     * {@link GrpcMessageEncoding}, in that order.
+     *
+     * @param encoding name of the encoding, compared case-insensitively.
+     * @return {@link GrpcMessageCodec} for {@code encoding}.
+     * @throws IllegalArgumentException if {@code encoding} is unknown.
+     */
+    GrpcMessageCodec codec(final String encoding) {
+        final GrpcMessageCodec codec = codecs.get(encoding.toLowerCase(ROOT));
+        if (codec != null) {
+            return codec;
+        }
+        for (GrpcMessageEncoding messageEncoding : GrpcMessageEncoding.values()) {
+            if (messageEncoding.encoding().equalsIgnoreCase(encoding)) {
+                return messageEncoding.codec();
+            }
+        }
+        throw new IllegalArgumentException("Unknown message encoding: " + encoding +
+                " (expected a built-in or registered encoding)");
+    }
+
+    List<GrpcMessageCodec> registered() {
+        return new ArrayList<>(codecs.values());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.netty;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.grpc.api.GrpcStatusException;
+import io.servicetalk.grpc.netty.TesterProto.TestRequest;
+import io.servicetalk.grpc.netty.TesterProto.Tester.BlockingTesterClient;
+import io.servicetalk.http.netty.HttpServers;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.ExecutionException;
+
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.grpc.api.GrpcExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNAVAILABLE;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderValues.ZERO;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class GrpcClientHttpStatusMappingTest {
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final ServerContext serverContext;
+    private final BlockingTesterClient client;
+
+    public GrpcClientHttpStatusMappingTest() throws Exception {
+        // Emulate an HTTP filter in front of the gRPC service which sheds load without adding grpc-status:
+        serverContext = HttpServers.forAddress(localAddress(0))
+                .protocols(h2Default())
+                .listenStreamingAndAwait((ctx, request, responseFactory) ->
+                        succeeded(responseFactory.serviceUnavailable().setHeader(CONTENT_LENGTH, ZERO)));
+        client = GrpcClients.forAddress(serverHostAndPort(serverContext))
+                .executionStrategy(noOffloadsStrategy())
+                .buildBlocking(new TesterProto.Tester.ClientFactory());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            client.close();
+        } finally {
+            serverContext.close();
+        }
+    }
+
+    @Test
+    public void aggregatedServiceUnavailableIsMappedToUnavailable() {
+        GrpcStatusException e = assertThrows(GrpcStatusException.class, () -> client.test(request()));
+        assertThat(e.status().code(), is(UNAVAILABLE));
+    }
+
+    @Test
+    public void streamingServiceUnavailableIsMappedToUnavailable() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client.asClient().testResponseStream(request()).toFuture().get());
+        assertThat(e.getCause(), is(instanceOf(GrpcStatusException.class)));
+        assertThat(((GrpcStatusException) e.getCause()).status().code(), is(UNAVAILABLE));
+    }
+
+    private static TestRequest request() {
+        return TestRequest.newBuilder().setName("request").build();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.netty;
+
+import io.servicetalk.concurrent.BlockingIterator;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.grpc.api.GrpcClientBuilder;
+import io.servicetalk.grpc.api.GrpcSerializationProvider;
+import io.servicetalk.grpc.api.GrpcStatusException;
+import io.servicetalk.grpc.netty.TesterProto.TestRequest;
+import io.servicetalk.grpc.netty.TesterProto.TestResponse;
+import io.servicetalk.grpc.netty.TesterProto.Tester.BlockingTesterClient;
+import io.servicetalk.grpc.netty.TesterProto.Tester.ClientFactory;
+import io.servicetalk.grpc.netty.TesterProto.Tester.ServiceFactory;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TestMetadata;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TestRequestStreamRpc;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TestResponseStreamMetadata;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TestRpc;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TesterClient;
+import io.servicetalk.grpc.protobuf.ProtoBufSerializationProviderBuilder;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.http.netty.HttpClients;
+import io.servicetalk.http.netty.HttpServers;
+import io.servicetalk.transport.api.HostAndPort;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.grpc.api.GrpcStatusCode.DEADLINE_EXCEEDED;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThrows;
+
+public class GrpcDeadlineTest {
+    private static final TestRequest REQUEST = TestRequest.newBuilder().setName("request").build();
+    private static final GrpcSerializationProvider SERIALIZATION_PROVIDER = new ProtoBufSerializationProviderBuilder()
+            .registerMessageType(TestRequest.class, TestRequest.parser())
+            .registerMessageType(TestResponse.class, TestResponse.parser())
+            .build();
+    private static final CharSequence GRPC_TIMEOUT = "grpc-timeout";
+    private static final CharSequence GRPC_STATUS = "grpc-status";
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final CountDownLatch handlerCancelled = new CountDownLatch(1);
+    private final CompletableFuture<CharSequence> downstreamTimeout = new CompletableFuture<>();
+    private final CompletableFuture<Throwable> downstreamError = new CompletableFuture<>();
+    private final ServerContext downstreamServerContext;
+    private final TesterClient downstreamClient;
+    private final ServerContext serverContext;
+    private final TesterClient client;
+    private final BlockingTesterClient blockingClient;
+    private final BlockingHttpClient httpClient;
+
+    public GrpcDeadlineTest() throws Exception {
+        // Never responds, so that only the deadline propagated by the calling route can end the call.
+        downstreamServerContext = HttpServers.forAddress(localAddress(0)).protocols(h2Default())
+                .listenStreamingAndAwait((ctx, request, responseFactory) -> {
+                    downstreamTimeout.complete(request.headers().get(GRPC_TIMEOUT));
+                    return Single.never();
+                });
+        downstreamClient = GrpcClients.forAddress(serverHostAndPort(downstreamServerContext))
+                .build(new ClientFactory());
+        serverContext = GrpcServers.forAddress(localAddress(0)).listenAndAwait(new ServiceFactory.Builder()
+                .test((ctx, request) -> Single.<TestResponse>never().beforeCancel(handlerCancelled::countDown))
+                .testResponseStream((ctx, request) ->
+                        Publisher.<TestResponse>never().beforeCancel(handlerCancelled::countDown))
+                .testRequestStream((ctx, request) -> {
+                    // The outgoing call has no timeout of its own and is not cancelled together with this route, so
+                    // it can only fail because it inherited the deadline of the incoming request.
+                    downstreamClient.test(REQUEST).whenOnError(downstreamError::complete).subscribe(__ -> { });
+                    return Single.never();
+                })
+                .build());
+        final GrpcClientBuilder<HostAndPort, InetSocketAddress> clientBuilder =
+                GrpcClients.forAddress(serverHostAndPort(serverContext));
+        client = clientBuilder.build(new ClientFactory());
+        blockingClient = clientBuilder.buildBlocking(new ClientFactory());
+        httpClient = HttpClients.forSingleAddress(serverHostAndPort(serverContext)).protocols(h2Default())
+                .buildBlocking();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            client.close();
+            blockingClient.close();
+            httpClient.close();
+            downstreamClient.close();
+        } finally {
+            newCompositeCloseable().appendAll(serverContext, downstreamServerContext).close();
+        }
+    }
+
+    @Test
+    public void aggregatedCallExceedsDeadline() throws Exception {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> client.test(new TestMetadata(ofMillis(100)), REQUEST).toFuture().get());
+        assertDeadlineExceeded(ex.getCause());
+        handlerCancelled.await();
+    }
+
+    @Test
+    public void responseStreamingCallExceedsDeadline() throws Exception {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> client.testResponseStream(new TestResponseStreamMetadata(ofMillis(100)), REQUEST)
+                        .toFuture().get());
+        assertDeadlineExceeded(ex.getCause());
+        handlerCancelled.await();
+    }
+
+    @Test
+    public void blockingCallExceedsDeadline() throws Exception {
+        assertDeadlineExceeded(assertThrows(GrpcStatusException.class,
+                () -> blockingClient.test(new TestMetadata(ofMillis(100)), REQUEST)));
+        handlerCancelled.await();
+    }
+
+    @Test
+    public void blockingResponseStreamingCallExceedsDeadline() throws Exception {
+        BlockingIterator<TestResponse> iterator = blockingClient.testResponseStream(
+                new TestResponseStreamMetadata(ofMillis(100)), REQUEST).iterator();
+        assertDeadlineExceeded(assertThrows(GrpcStatusException.class, iterator::hasNext));
+        handlerCancelled.await();
+    }
+
+    @Test
+    public void serverEnforcesDeadlineOfRequest() throws Exception {
+        // The plain HTTP client has no timeout, so the response can only come from the server enforcing grpc-timeout.
+        HttpResponse response = httpClient.request(httpClient.post(TestRpc.PATH).setHeader(GRPC_TIMEOUT, "100m")
+                .payloadBody(REQUEST, SERIALIZATION_PROVIDER.serializerFor(null, TestRequest.class)));
+        assertThat(grpcStatus(response), is(String.valueOf(DEADLINE_EXCEEDED.value())));
+        handlerCancelled.await();
+    }
+
+    @Test
+    public void outgoingCallInheritsDeadlineOfRequest() throws Exception {
+        HttpResponse response = httpClient.request(httpClient.post(TestRequestStreamRpc.PATH)
+                .setHeader(GRPC_TIMEOUT, "100m")
+                .payloadBody(REQUEST, SERIALIZATION_PROVIDER.serializerFor(null, TestRequest.class)));
+        assertThat(grpcStatus(response), is(String.valueOf(DEADLINE_EXCEEDED.value())));
+
+        CharSequence propagatedTimeout = downstreamTimeout.get();
+        assertThat(propagatedTimeout, is(notNullValue()));
+        assertThat(timeoutNanos(propagatedTimeout), is(greaterThan(0L)));
+        assertThat(timeoutNanos(propagatedTimeout), is(lessThanOrEqualTo(ofMillis(100).toNanos())));
+        assertDeadlineExceeded(downstreamError.get());
+    }
+
+    @Nullable
+    private static String grpcStatus(HttpResponse response) {
+        // A response without messages may carry the status in its headers instead of its trailers.
+        CharSequence status = response.trailers().get(GRPC_STATUS);
+        if (status == null) {
+            status = response.headers().get(GRPC_STATUS);
+        }
+        return status == null ? null : status.toString();
+    }
+
+    private static long timeoutNanos(CharSequence timeout) {
+        final long value = Long.parseLong(timeout.subSequence(0, timeout.length() - 1).toString());
+        switch (timeout.charAt(timeout.length() - 1)) {
+            case 'H':
+                return HOURS.toNanos(value);
+            case 'M':
+                return MINUTES.toNanos(value);
+            case 'S':
+                return SECONDS.toNanos(value);
+            case 'm':
+                return MILLISECONDS.toNanos(value);
+            case 'u':
+                return MICROSECONDS.toNanos(value);
+            case 'n':
+                return value;
+            default:
+                throw new IllegalArgumentException("Invalid grpc-timeout: " + timeout);
+        }
+    }
+
+    private static void assertDeadlineExceeded(Throwable cause) {
+        assertThat(cause, is(instanceOf(GrpcStatusException.class)));
+        assertThat(((GrpcStatusException) cause).status().code(), is(DEADLINE_EXCEEDED));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.netty;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.grpc.api.GrpcClientBuilder;
+import io.servicetalk.grpc.api.GrpcStatusException;
+import io.servicetalk.grpc.netty.TesterProto.TestRequest;
+import io.servicetalk.grpc.netty.TesterProto.TestResponse;
+import io.servicetalk.grpc.netty.TesterProto.Tester.BlockingTesterClient;
+import io.servicetalk.grpc.netty.TesterProto.Tester.ClientFactory;
+import io.servicetalk.grpc.netty.TesterProto.Tester.ServiceFactory;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TesterClient;
+import io.servicetalk.transport.api.HostAndPort;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import static io.servicetalk.grpc.api.GrpcStatusCode.RESOURCE_EXHAUSTED;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class GrpcMessageSizeTest {
+    private static final int MAX_MESSAGE_SIZE = 64;
+    private static final String LARGE_PAYLOAD = newString(MAX_MESSAGE_SIZE * 2);
+    private static final TestRequest SMALL_REQUEST = TestRequest.newBuilder().setName("small").build();
+    private static final TestRequest LARGE_REQUEST = TestRequest.newBuilder().setName(LARGE_PAYLOAD).build();
+    private static final TestRequest LARGE_RESPONSE_REQUEST =
+            TestRequest.newBuilder().setName("large-response").build();
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final ServerContext serverContext;
+    private final TesterClient client;
+    private final TesterClient limitedClient;
+    private final BlockingTesterClient limitedBlockingClient;
+
+    public GrpcMessageSizeTest() throws Exception {
+        serverContext = GrpcServers.forAddress(localAddress(0))
+                .maxInboundMessageSize(MAX_MESSAGE_SIZE)
+                .listenAndAwait(new ServiceFactory.Builder()
+                        .test((ctx, request) -> Single.succeeded(TestResponse.newBuilder()
+                                .setMessage(LARGE_RESPONSE_REQUEST.equals(request) ? LARGE_PAYLOAD : request.getName())
+                                .build()))
+                        .build());
+        client = GrpcClients.forAddress(serverHostAndPort(serverContext)).build(new ClientFactory());
+        final GrpcClientBuilder<HostAndPort, InetSocketAddress> limitedClientBuilder =
+                GrpcClients.forAddress(serverHostAndPort(serverContext))
+                        .maxInboundMessageSize(MAX_MESSAGE_SIZE)
+                        .maxOutboundMessageSize(MAX_MESSAGE_SIZE);
+        limitedClient = limitedClientBuilder.build(new ClientFactory());
+        limitedBlockingClient = limitedClientBuilder.buildBlocking(new ClientFactory());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            client.close();
+            limitedClient.close();
+            limitedBlockingClient.close();
+        } finally {
+            serverContext.close();
+        }
+    }
+
+    @Test
+    public void messagesWithinLimitsAreAccepted() throws Exception {
+        assertThat(limitedClient.test(SMALL_REQUEST).toFuture().get().getMessage(), is(SMALL_REQUEST.getName()));
+        assertThat(limitedBlockingClient.test(SMALL_REQUEST).getMessage(), is(SMALL_REQUEST.getName()));
+    }
+
+    @Test
+    public void serverRejectsLargeRequest() {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> client.test(LARGE_REQUEST).toFuture().get());
+        assertResourceExhausted(ex.getCause());
+    }
+
+    @Test
+    public void clientRejectsLargeResponse() {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> limitedClient.test(LARGE_RESPONSE_REQUEST).toFuture().get());
+        assertResourceExhausted(ex.getCause());
+        assertResourceExhausted(assertThrows(GrpcStatusException.class,
+                () -> limitedBlockingClient.test(LARGE_RESPONSE_REQUEST)));
+    }
+
+    @Test
+    public void clientRejectsLargeRequest() {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> limitedClient.test(LARGE_REQUEST).toFuture().get());
+        assertResourceExhausted(ex.getCause());
+        assertResourceExhausted(assertThrows(GrpcStatusException.class,
+                () -> limitedBlockingClient.test(LARGE_REQUEST)));
+    }
+
+    private static void assertResourceExhausted(Throwable cause) {
+        assertThat(cause, is(instanceOf(GrpcStatusException.class)));
+        assertThat(((GrpcStatusException) cause).status().code(), is(RESOURCE_EXHAUSTED));
+    }
+
+    private static String newString(int length) {
+        final char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+}
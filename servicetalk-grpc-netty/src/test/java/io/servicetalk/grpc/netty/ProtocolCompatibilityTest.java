@@ -25,6 +25,7 @@ import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
 import io.servicetalk.grpc.api.GrpcClientBuilder;
 import io.servicetalk.grpc.api.GrpcExecutionContext;
 import io.servicetalk.grpc.api.GrpcExecutionStrategy;
+import io.servicetalk.grpc.api.GrpcMessageEncoding;
 import io.servicetalk.grpc.api.GrpcPayloadWriter;
 import io.servicetalk.grpc.api.GrpcServerBuilder;
 import io.servicetalk.grpc.api.GrpcServiceContext;
@@ -64,7 +65,6 @@ import io.grpc.protobuf.StatusProto;
 import io.grpc.stub.StreamObserver;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.FromDataPoints;
@@ -92,6 +92,8 @@ import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
 import static io.servicetalk.concurrent.internal.ServiceTalkTestTimeout.DEFAULT_TIMEOUT_SECONDS;
 import static io.servicetalk.grpc.api.GrpcExecutionStrategies.defaultStrategy;
 import static io.servicetalk.grpc.api.GrpcExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Gzip;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
 import static io.servicetalk.test.resources.DefaultTestCerts.loadServerKey;
 import static io.servicetalk.test.resources.DefaultTestCerts.loadServerPem;
 import static io.servicetalk.transport.api.SecurityConfigurator.SslProvider.OPENSSL;
@@ -190,7 +192,6 @@ public class ProtocolCompatibilityTest {
         testRequestResponse(client, server, streaming);
     }
 
-    @Ignore("gRPC compression not supported by ServiceTalk yet")
     @Theory
     public void grpcJavaToServiceTalkCompressedGzip(@FromDataPoints("ssl") final boolean ssl,
                                                     @FromDataPoints("streaming") final boolean streaming)
@@ -201,6 +202,15 @@ public class ProtocolCompatibilityTest {
         testRequestResponse(client, server, streaming);
     }
 
+    @Theory
+    public void serviceTalkToGrpcJavaCompressedGzip(@FromDataPoints("ssl") final boolean ssl,
+                                                    @FromDataPoints("streaming") final boolean streaming)
+            throws Exception {
+        final TestServerContext server = grpcJavaServer(ErrorMode.NONE, ssl);
+        final CompatClient client = serviceTalkClient(server.listenAddress(), ssl, Gzip);
+        testRequestResponse(client, server, streaming);
+    }
+
     @Theory
     public void serviceTalkToServiceTalk(@FromDataPoints("ssl") final boolean ssl,
                                          @FromDataPoints("streaming") final boolean streaming) throws Exception {
@@ -685,8 +695,13 @@ public class ProtocolCompatibilityTest {
     }
 
     private static CompatClient serviceTalkClient(final SocketAddress serverAddress, final boolean ssl) {
+        return serviceTalkClient(serverAddress, ssl, None);
+    }
+
+    private static CompatClient serviceTalkClient(final SocketAddress serverAddress, final boolean ssl,
+                                                  final GrpcMessageEncoding encoding) {
         final GrpcClientBuilder<InetSocketAddress, InetSocketAddress> builder =
-                GrpcClients.forResolvedAddress((InetSocketAddress) serverAddress);
+                GrpcClients.forResolvedAddress((InetSocketAddress) serverAddress).messageEncoding(encoding);
         if (ssl) {
             builder.secure().disableHostnameVerification().provider(OPENSSL)
                     .trustManager(DefaultTestCerts::loadServerPem).commit();
@@ -17,7 +17,8 @@ package io.servicetalk.grpc.protobuf;
 
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.CompositeBuffer;
-import io.servicetalk.grpc.api.GrpcMessageEncoding;
+import io.servicetalk.grpc.api.GrpcMessageCodec;
+import io.servicetalk.grpc.api.GrpcStatus;
 import io.servicetalk.serialization.api.SerializationException;
 import io.servicetalk.serialization.api.SerializationProvider;
 import io.servicetalk.serialization.api.StreamingDeserializer;
@@ -39,23 +40,33 @@ import javax.annotation.Nullable;
 import static com.google.protobuf.CodedOutputStream.newInstance;
 import static com.google.protobuf.UnsafeByteOperations.unsafeWrap;
 import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.grpc.api.GrpcStatusCode.INTERNAL;
 import static java.lang.Math.max;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 
 final class ProtoBufSerializationProvider<T extends MessageLite> implements SerializationProvider {
     private static final int LENGTH_PREFIXED_MESSAGE_HEADER_BYTES = 5;
+    private static final GrpcMessageCodec NONE_CODEC = None.codec();
     private final Class<T> targetClass;
-    private final GrpcMessageEncoding messageEncoding;
+    private final GrpcMessageCodec codec;
     private final ProtoSerializer serializer;
     private final Parser<T> parser;
+    private final int maxMessageSize;
 
-    ProtoBufSerializationProvider(final Class<T> targetClass, final GrpcMessageEncoding messageEncoding,
-                                  final Parser<T> parser) {
+    ProtoBufSerializationProvider(final Class<T> targetClass, final GrpcMessageCodec codec,
+                                  final Parser<T> parser, final int minCompressionSize) {
+        this(targetClass, codec, parser, minCompressionSize, Integer.MAX_VALUE);
+    }
+
+    ProtoBufSerializationProvider(final Class<T> targetClass, final GrpcMessageCodec codec,
+                                  final Parser<T> parser, final int minCompressionSize, final int maxMessageSize) {
         this.targetClass = targetClass;
-        this.messageEncoding = messageEncoding;
-        this.serializer = new ProtoSerializer(messageEncoding);
+        this.codec = codec;
+        this.serializer = new ProtoSerializer(codec, minCompressionSize);
         this.parser = parser;
+        this.maxMessageSize = maxMessageSize;
     }
 
     @Override
@@ -79,7 +90,7 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
         }
         @SuppressWarnings("unchecked")
         Parser<X> parser = (Parser<X>) this.parser;
-        return new ProtoDeserializer<>(parser, messageEncoding);
+        return new ProtoDeserializer<>(parser, codec, maxMessageSize);
     }
 
     @Override
@@ -100,6 +111,8 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
 
     private static final class ProtoDeserializer<T> implements StreamingDeserializer<T> {
         private final Parser<T> parser;
+        private final GrpcMessageCodec codec;
+        private final int maxMessageSize;
         private final CompositeBuffer accumulate;
         /**
          * <ul>
@@ -110,9 +123,10 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
         private int lengthOfData = -1;
         private boolean compressed;
 
-        ProtoDeserializer(final Parser<T> parser,
-                          @SuppressWarnings("unused") final GrpcMessageEncoding grpcMessageEncoding) {
+        ProtoDeserializer(final Parser<T> parser, final GrpcMessageCodec codec, final int maxMessageSize) {
             this.parser = parser;
+            this.codec = codec;
+            this.maxMessageSize = maxMessageSize;
             accumulate = DEFAULT_ALLOCATOR.newCompositeBuffer(Integer.MAX_VALUE);
         }
 
@@ -132,8 +146,11 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
                     }
 
                     compressed = isCompressed(toDeserialize);
-                    // TODO (nkant) : handle compression
-                    assert !compressed;
+                    if (compressed && codec == NONE_CODEC) {
+                        // https://github.com/grpc/grpc/blob/master/doc/compression.md requires INTERNAL for this case.
+                        throw new GrpcStatus(INTERNAL, null,
+                                "Compressed message received without a grpc-encoding to decompress it").asException();
+                    }
 
                     // https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md specifies size as 4 bytes
                     // unsigned int However netty buffers only support up to Integer.MAX_VALUE, and even
@@ -149,30 +166,19 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
                     }
 
                     final T t;
-                    try {
-                        final CodedInputStream in;
-                        if (toDeserialize.nioBufferCount() == 1) {
-                            in = CodedInputStream.newInstance(toDeserialize.toNioBuffer(toDeserialize.readerIndex(),
-                                    lengthOfData));
-                        } else {
-                            // Aggregated payload body may consist of multiple Buffers. In this case,
-                            // CompositeBuffer.toNioBuffer(idx, length) may return a single ByteBuffer (when requested
-                            // length < components[0].length) or create a new ByteBuffer and copy multiple components
-                            // into it. Later, proto parser will copy data from this temporary ByteBuffer again.
-                            // To avoid unnecessary copying, we use newCodedInputStream(buffers, lengthOfData).
-                            final ByteBuffer[] buffers = toDeserialize.toNioBuffers(toDeserialize.readerIndex(),
-                                    lengthOfData);
-                            in = buffers.length == 1 ? CodedInputStream.newInstance(buffers[0]) :
-                                    newCodedInputStream(buffers, lengthOfData);
-                        }
-                        t = parser.parseFrom(in);
-                    } catch (InvalidProtocolBufferException e) {
-                        throw new SerializationException(e);
+                    if (compressed) {
+                        // readSlice advances the reader index of toDeserialize past the compressed message. The
+                        // length prefix only bounds the compressed size, so inflation is bounded separately.
+                        final Buffer decompressed = codec.decode(
+                                toDeserialize.readSlice(lengthOfData), DEFAULT_ALLOCATOR, maxMessageSize);
+                        t = parse(decompressed, decompressed.readableBytes());
+                    } else {
+                        t = parse(toDeserialize, lengthOfData);
+                        // The NIO buffer indexes are not connected to the Buffer indexes, so we need to update
+                        // our indexes.
+                        toDeserialize.skipBytes(lengthOfData);
                     }
-
-                    // The NIO buffer indexes are not connected to the Buffer indexes, so we need to update
-                    // our indexes and discard any bytes if necessary.
-                    toDeserialize.skipBytes(lengthOfData);
+                    // Discard any bytes if necessary.
                     if (toDeserialize == accumulate) {
                         accumulate.discardSomeReadBytes();
                     }
@@ -205,6 +211,27 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
             }
         }
 
+        private T parse(final Buffer buffer, final int length) {
+            try {
+                final CodedInputStream in;
+                if (buffer.nioBufferCount() == 1) {
+                    in = CodedInputStream.newInstance(buffer.toNioBuffer(buffer.readerIndex(), length));
+                } else {
+                    // Aggregated payload body may consist of multiple Buffers. In this case,
+                    // CompositeBuffer.toNioBuffer(idx, length) may return a single ByteBuffer (when requested
+                    // length < components[0].length) or create a new ByteBuffer and copy multiple components
+                    // into it. Later, proto parser will copy data from this temporary ByteBuffer again.
+                    // To avoid unnecessary copying, we use newCodedInputStream(buffers, length).
+                    final ByteBuffer[] buffers = buffer.toNioBuffers(buffer.readerIndex(), length);
+                    in = buffers.length == 1 ? CodedInputStream.newInstance(buffers[0]) :
+                            newCodedInputStream(buffers, length);
+                }
+                return parser.parseFrom(in);
+            } catch (InvalidProtocolBufferException e) {
+                throw new SerializationException(e);
+            }
+        }
+
         private static CodedInputStream newCodedInputStream(final ByteBuffer[] buffers, final int lengthOfData) {
             // Because we allocated a new internal ByteBuffer that will never be mutated we may just wrap it and
             // enable aliasing to avoid an extra copying inside parser for a deserialized message.
@@ -252,8 +279,12 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
     }
 
     private static final class ProtoSerializer implements StreamingSerializer {
+        private final GrpcMessageCodec codec;
+        private final int minCompressionSize;
 
-        ProtoSerializer(@SuppressWarnings("unused") final GrpcMessageEncoding encoding) {
+        ProtoSerializer(final GrpcMessageCodec codec, final int minCompressionSize) {
+            this.codec = codec;
+            this.minCompressionSize = minCompressionSize;
         }
 
         @Override
@@ -264,7 +295,16 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
             }
             final MessageLite msg = (MessageLite) toSerialize;
             final int size = msg.getSerializedSize();
-            // TODO (nkant) : handle compression
+            if (codec != NONE_CODEC && size >= minCompressionSize) {
+                destination.writeByte(1);
+                final int lengthIdx = destination.writerIndex();
+                destination.writeInt(0); // Placeholder for the length, which is known after compression.
+                // Compress straight into the destination, there is no intermediate buffer for the compressed bytes.
+                codec.encode(DEFAULT_ALLOCATOR.wrap(msg.toByteArray()), destination);
+                destination.setInt(lengthIdx, destination.writerIndex() - lengthIdx - Integer.BYTES);
+                return;
+            }
+            // Messages smaller than minCompressionSize are sent uncompressed, even if an encoding was negotiated.
             destination.writeByte(0);
             destination.writeInt(size);
             destination.ensureWritable(size);
@@ -19,6 +19,7 @@ import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.concurrent.BlockingIterable;
 import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.grpc.api.GrpcMessageCodec;
 import io.servicetalk.grpc.api.GrpcMessageEncoding;
 import io.servicetalk.grpc.api.GrpcMetadata;
 import io.servicetalk.grpc.api.GrpcSerializationProvider;
@@ -37,8 +38,11 @@ import java.io.IOException;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
 import static io.servicetalk.http.api.CharSequences.newAsciiString;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
 import static java.util.Collections.unmodifiableMap;
@@ -52,9 +56,10 @@ import static java.util.Collections.unmodifiableMap;
 public final class ProtoBufSerializationProviderBuilder {
     private static final CharSequence GRPC_MESSAGE_ENCODING_KEY = newAsciiString("grpc-encoding");
     private static final CharSequence APPLICATION_GRPC_PROTO = newAsciiString("application/grpc+proto");
+    private static final int DEFAULT_MIN_COMPRESSION_SIZE = 1024;
 
-    private final Map<Class, EnumMap<GrpcMessageEncoding, HttpSerializer>> serializers = new HashMap<>();
-    private final Map<Class, EnumMap<GrpcMessageEncoding, HttpDeserializer>> deserializers = new HashMap<>();
+    private final Map<Class, Parser> parsers = new HashMap<>();
+    private int minCompressionSize = DEFAULT_MIN_COMPRESSION_SIZE;
 
     /**
      * Register the passed {@code messageType} with the provided {@link Parser}.
@@ -66,34 +71,23 @@ public final class ProtoBufSerializationProviderBuilder {
      */
     public <T extends MessageLite> ProtoBufSerializationProviderBuilder
     registerMessageType(Class<T> messageType, Parser<T> parser) {
-        EnumMap<GrpcMessageEncoding, HttpSerializer> serializersForType = new EnumMap<>(GrpcMessageEncoding.class);
-        EnumMap<GrpcMessageEncoding, HttpDeserializer> deserializersForType = new EnumMap<>(GrpcMessageEncoding.class);
-        for (GrpcMessageEncoding grpcMessageEncoding : GrpcMessageEncoding.values()) {
-            DefaultSerializer serializer = new DefaultSerializer(
-                    new ProtoBufSerializationProvider<>(messageType, grpcMessageEncoding, parser));
-            HttpSerializer<T> httpSerializer = new ProtoHttpSerializer<>(serializer, grpcMessageEncoding, messageType);
-            serializersForType.put(grpcMessageEncoding, httpSerializer);
-            deserializersForType.put(grpcMessageEncoding, new HttpDeserializer<T>() {
-                @Override
-                public T deserialize(final HttpHeaders headers, final Buffer payload) {
-                    return serializer.deserializeAggregatedSingle(payload, messageType);
-                }
-
-                @Override
-                public BlockingIterable<T> deserialize(final HttpHeaders headers,
-                                                       final BlockingIterable<Buffer> payload) {
-                    return serializer.deserialize(payload, messageType);
-                }
+        parsers.put(messageType, parser);
+        return this;
+    }
 
-                @Override
-                public Publisher<T> deserialize(final HttpHeaders headers, final Publisher<Buffer> payload) {
-                    return serializer.deserialize(payload, messageType);
-                }
-            });
+    /**
+     * Sets the minimum serialized size (in bytes) of a message for it to be compressed when a {@link GrpcMessageCodec}
+     * other than the one of {@link GrpcMessageEncoding#None} is used. Smaller messages are sent uncompressed, because
+     * the compression overhead outweighs the savings.
+     *
+     * @param minCompressionSize minimum serialized size (in bytes) of a message for it to be compressed.
+     * @return {@code this}
+     */
+    public ProtoBufSerializationProviderBuilder minCompressionSize(int minCompressionSize) {
+        if (minCompressionSize < 0) {
+            throw new IllegalArgumentException("minCompressionSize: " + minCompressionSize + " (expected >=0)");
         }
-
-        serializers.put(messageType, serializersForType);
-        deserializers.put(messageType, deserializersForType);
+        this.minCompressionSize = minCompressionSize;
         return this;
     }
 
@@ -104,53 +98,211 @@ public final class ProtoBufSerializationProviderBuilder {
      * registered to this builder.
      */
     public GrpcSerializationProvider build() {
-        return new ProtoSerializationProvider(serializers, deserializers);
+        return new ProtoSerializationProvider(new HashMap<>(parsers), minCompressionSize);
+    }
+
+    private static Map<Class, HttpSerializer> newSerializers(final Map<Class, Parser> parsers,
+                                                             final GrpcMessageCodec codec,
+                                                             final int minCompressionSize) {
+        final Map<Class, HttpSerializer> serializers = new HashMap<>();
+        for (Map.Entry<Class, Parser> entry : parsers.entrySet()) {
+            @SuppressWarnings("unchecked")
+            final Class<MessageLite> messageType = entry.getKey();
+            @SuppressWarnings("unchecked")
+            final Parser<MessageLite> parser = entry.getValue();
+            DefaultSerializer serializer = new DefaultSerializer(new ProtoBufSerializationProvider<>(messageType,
+                    codec, parser, minCompressionSize));
+            serializers.put(messageType, new ProtoHttpSerializer<>(serializer, codec, messageType));
+        }
+        return serializers;
+    }
+
+    private static Map<Class, HttpDeserializer> newDeserializers(final Map<Class, Parser> parsers,
+                                                                 final GrpcMessageCodec codec,
+                                                                 final int maxMessageSize) {
+        final Map<Class, HttpDeserializer> deserializers = new HashMap<>();
+        for (Map.Entry<Class, Parser> entry : parsers.entrySet()) {
+            @SuppressWarnings("unchecked")
+            final Class<MessageLite> messageType = entry.getKey();
+            @SuppressWarnings("unchecked")
+            final Parser<MessageLite> parser = entry.getValue();
+            deserializers.put(messageType, newDeserializer(messageType, parser, codec, maxMessageSize));
+        }
+        return deserializers;
+    }
+
+    private static <T extends MessageLite> HttpDeserializer<T> newDeserializer(
+            final Class<T> messageType, final Parser<T> parser, final GrpcMessageCodec codec,
+            final int maxMessageSize) {
+        // The compression size is only relevant for serialization.
+        DefaultSerializer serializer = new DefaultSerializer(new ProtoBufSerializationProvider<>(messageType, codec,
+                parser, DEFAULT_MIN_COMPRESSION_SIZE, maxMessageSize));
+        return new HttpDeserializer<T>() {
+            @Override
+            public T deserialize(final HttpHeaders headers, final Buffer payload) {
+                return serializer.deserializeAggregatedSingle(payload, messageType);
+            }
+
+            @Override
+            public BlockingIterable<T> deserialize(final HttpHeaders headers, final BlockingIterable<Buffer> payload) {
+                return serializer.deserialize(payload, messageType);
+            }
+
+            @Override
+            public Publisher<T> deserialize(final HttpHeaders headers, final Publisher<Buffer> payload) {
+                return serializer.deserialize(payload, messageType);
+            }
+        };
     }
 
     private static class ProtoSerializationProvider implements GrpcSerializationProvider {
-        private final Map<Class, EnumMap<GrpcMessageEncoding, HttpSerializer>> serializers;
-        private final Map<Class, EnumMap<GrpcMessageEncoding, HttpDeserializer>> deserializers;
+        private final Map<Class, Parser> parsers;
+        private final int minCompressionSize;
+        /**
+         * Serializers that select the built-in {@link GrpcMessageEncoding} from the {@code grpc-encoding} header.
+         */
+        private final Map<Class, HttpSerializer> serializers;
+        /**
+         * Serializers per {@link GrpcMessageCodec}. Codecs other than the built-in ones are registered on the client
+         * and server builders, so only a handful of them are expected and they are built once and then shared.
+         */
+        private final ConcurrentMap<GrpcMessageCodec, Map<Class, HttpSerializer>> codecSerializers =
+                new ConcurrentHashMap<>(4);
+        /**
+         * Deserializers per maximum decompressed message size and {@link GrpcMessageCodec}. Only a handful of
+         * distinct limits are expected (one per client or server), so they are built once and then shared.
+         */
+        private final ConcurrentMap<Integer, ConcurrentMap<GrpcMessageCodec, Map<Class, HttpDeserializer>>>
+                deserializers = new ConcurrentHashMap<>(2);
 
-        ProtoSerializationProvider(final Map<Class, EnumMap<GrpcMessageEncoding, HttpSerializer>> serializers,
-                                   final Map<Class, EnumMap<GrpcMessageEncoding, HttpDeserializer>> deserializers) {
+        ProtoSerializationProvider(final Map<Class, Parser> parsers, final int minCompressionSize) {
+            this.parsers = unmodifiableMap(parsers);
+            this.minCompressionSize = minCompressionSize;
+            final Map<Class, HttpSerializer> serializers = new HashMap<>();
+            for (Class<?> messageType : parsers.keySet()) {
+                serializers.put(messageType, newEncodingSelectingSerializer(messageType));
+            }
             this.serializers = unmodifiableMap(serializers);
-            this.deserializers = unmodifiableMap(deserializers);
+        }
+
+        private <T> HttpSerializer<T> newEncodingSelectingSerializer(final Class<T> messageType) {
+            final EnumMap<GrpcMessageEncoding, HttpSerializer<T>> serializersForType =
+                    new EnumMap<>(GrpcMessageEncoding.class);
+            for (GrpcMessageEncoding grpcMessageEncoding : GrpcMessageEncoding.values()) {
+                serializersForType.put(grpcMessageEncoding, codecSerializer(grpcMessageEncoding.codec(),
+                        messageType));
+            }
+            return new EncodingSelectingHttpSerializer<>(serializersForType);
         }
 
         @Override
         public <T> HttpSerializer<T> serializerFor(final GrpcMetadata metadata, final Class<T> type) {
-            EnumMap<GrpcMessageEncoding, HttpSerializer> serializersForType = serializers.get(type);
-            if (serializersForType == null) {
+            @SuppressWarnings("unchecked")
+            HttpSerializer<T> httpSerializer = serializers.get(type);
+            if (httpSerializer == null) {
                 throw new SerializationException("Unknown class to serialize: " + type.getName());
             }
+            return httpSerializer;
+        }
+
+        @Override
+        public <T> HttpSerializer<T> serializerFor(final GrpcMetadata metadata, final Class<T> type,
+                                                   final GrpcMessageCodec codec) {
+            if (!parsers.containsKey(type)) {
+                throw new SerializationException("Unknown class to serialize: " + type.getName());
+            }
+            return codecSerializer(codec, type);
+        }
+
+        private <T> HttpSerializer<T> codecSerializer(final GrpcMessageCodec codec, final Class<T> type) {
             @SuppressWarnings("unchecked")
-            HttpSerializer<T> httpSerializer = serializersForType.get(None); // compression not yet supported.
+            HttpSerializer<T> httpSerializer = codecSerializers.computeIfAbsent(codec,
+                    c -> newSerializers(parsers, c, minCompressionSize)).get(type);
             return httpSerializer;
         }
 
         @Override
         public <T> HttpDeserializer<T> deserializerFor(final GrpcMessageEncoding messageEncoding, final Class<T> type) {
-            EnumMap<GrpcMessageEncoding, HttpDeserializer> deserializersForType = deserializers.get(type);
-            if (deserializersForType == null) {
+            return deserializerFor(messageEncoding.codec(), type, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public <T> HttpDeserializer<T> deserializerFor(final GrpcMessageEncoding messageEncoding, final Class<T> type,
+                                                       final int maxMessageSize) {
+            return deserializerFor(messageEncoding.codec(), type, maxMessageSize);
+        }
+
+        @Override
+        public <T> HttpDeserializer<T> deserializerFor(final GrpcMessageCodec codec, final Class<T> type,
+                                                       final int maxMessageSize) {
+            if (!parsers.containsKey(type)) {
                 throw new SerializationException("Unknown class to deserialize: " + type.getName());
             }
             @SuppressWarnings("unchecked")
-            HttpDeserializer<T> httpSerializer = deserializersForType.get(messageEncoding);
+            HttpDeserializer<T> httpSerializer = deserializers.computeIfAbsent(maxMessageSize,
+                    max -> new ConcurrentHashMap<>(4))
+                    .computeIfAbsent(codec, c -> newDeserializers(parsers, c, maxMessageSize)).get(type);
             return httpSerializer;
         }
     }
 
+    /**
+     * Selects the {@link HttpSerializer} for the {@link GrpcMessageEncoding} already set in the {@code grpc-encoding}
+     * header of the message being serialized, falling back to {@link GrpcMessageEncoding#None}.
+     */
+    private static final class EncodingSelectingHttpSerializer<T> implements HttpSerializer<T> {
+        private final EnumMap<GrpcMessageEncoding, HttpSerializer<T>> serializers;
+
+        EncodingSelectingHttpSerializer(final EnumMap<GrpcMessageEncoding, HttpSerializer<T>> serializers) {
+            this.serializers = serializers;
+        }
+
+        @Override
+        public Buffer serialize(final HttpHeaders headers, final T value, final BufferAllocator allocator) {
+            return serializerFor(headers).serialize(headers, value, allocator);
+        }
+
+        @Override
+        public BlockingIterable<Buffer> serialize(final HttpHeaders headers, final BlockingIterable<T> value,
+                                                  final BufferAllocator allocator) {
+            return serializerFor(headers).serialize(headers, value, allocator);
+        }
+
+        @Override
+        public Publisher<Buffer> serialize(final HttpHeaders headers, final Publisher<T> value,
+                                           final BufferAllocator allocator) {
+            return serializerFor(headers).serialize(headers, value, allocator);
+        }
+
+        @Override
+        public HttpPayloadWriter<T> serialize(final HttpHeaders headers, final HttpPayloadWriter<Buffer> payloadWriter,
+                                              final BufferAllocator allocator) {
+            return serializerFor(headers).serialize(headers, payloadWriter, allocator);
+        }
+
+        private HttpSerializer<T> serializerFor(final HttpHeaders headers) {
+            final CharSequence encoding = headers.get(GRPC_MESSAGE_ENCODING_KEY);
+            if (encoding != null) {
+                for (GrpcMessageEncoding messageEncoding : GrpcMessageEncoding.values()) {
+                    if (contentEqualsIgnoreCase(encoding, messageEncoding.encoding())) {
+                        return serializers.get(messageEncoding);
+                    }
+                }
+            }
+            return serializers.get(None);
+        }
+    }
+
     private static final class ProtoHttpSerializer<T extends MessageLite> implements HttpSerializer<T> {
         private static final int METADATA_SIZE = 5; // 1 byte for compression flag and 4 bytes for length of data
 
         private final Serializer serializer;
-        private final GrpcMessageEncoding grpcMessageEncoding;
+        private final GrpcMessageCodec codec;
         private final Class<T> type;
 
-        ProtoHttpSerializer(final Serializer serializer, final GrpcMessageEncoding grpcMessageEncoding,
-                            final Class<T> type) {
+        ProtoHttpSerializer(final Serializer serializer, final GrpcMessageCodec codec, final Class<T> type) {
             this.serializer = serializer;
-            this.grpcMessageEncoding = grpcMessageEncoding;
+            this.codec = codec;
             this.type = type;
         }
 
@@ -205,7 +357,7 @@ public final class ProtoBufSerializationProviderBuilder {
 
         private void addContentHeaders(final HttpHeaders headers) {
             headers.set(CONTENT_TYPE, APPLICATION_GRPC_PROTO);
-            headers.set(GRPC_MESSAGE_ENCODING_KEY, grpcMessageEncoding.encoding());
+            headers.set(GRPC_MESSAGE_ENCODING_KEY, codec.encoding());
         }
     }
 }
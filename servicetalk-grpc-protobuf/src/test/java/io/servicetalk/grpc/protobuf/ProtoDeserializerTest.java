@@ -16,7 +16,12 @@
 package io.servicetalk.grpc.protobuf;
 
 import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.grpc.api.GrpcMessageCodec;
+import io.servicetalk.grpc.api.GrpcStatusException;
+import io.servicetalk.serialization.api.SerializationException;
 import io.servicetalk.serialization.api.StreamingDeserializer;
+import io.servicetalk.serialization.api.StreamingSerializer;
 
 import com.google.protobuf.Parser;
 import org.junit.Test;
@@ -24,23 +29,31 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Deflate;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Gzip;
 import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.grpc.api.GrpcStatusCode.INTERNAL;
+import static io.servicetalk.grpc.api.GrpcStatusCode.RESOURCE_EXHAUSTED;
 import static io.servicetalk.grpc.protobuf.test.TestProtos.DummyMessage;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
 
 public class ProtoDeserializerTest {
 
     private final Parser<DummyMessage> parser = DummyMessage.parser();
     private final ProtoBufSerializationProvider<DummyMessage> serializationProvider =
-            new ProtoBufSerializationProvider<>(DummyMessage.class, None, parser);
+            new ProtoBufSerializationProvider<>(DummyMessage.class, None.codec(), parser, 0);
 
     @Test
     public void zeroLengthMessageAligned() throws IOException {
@@ -101,6 +114,119 @@ public class ProtoDeserializerTest {
         assertThat("Unexpected messages deserialized.", deserialized, contains("Hello"));
     }
 
+    @Test
+    public void compressedMessagesGzip() {
+        assertCompressedRoundTrip(Gzip.codec());
+    }
+
+    @Test
+    public void compressedMessagesDeflate() {
+        assertCompressedRoundTrip(Deflate.codec());
+    }
+
+    @Test
+    public void compressedMessagesRegisteredCodec() {
+        AtomicInteger encoded = new AtomicInteger();
+        AtomicInteger decoded = new AtomicInteger();
+        assertCompressedRoundTrip(new GrpcMessageCodec() {
+            @Override
+            public String encoding() {
+                return "x-test";
+            }
+
+            @Override
+            public void encode(final Buffer src, final Buffer dst) {
+                encoded.incrementAndGet();
+                Deflate.codec().encode(src, dst);
+            }
+
+            @Override
+            public Buffer decode(final Buffer src, final BufferAllocator allocator, final int maxDecodedSize) {
+                decoded.incrementAndGet();
+                return Deflate.codec().decode(src, allocator, maxDecodedSize);
+            }
+        });
+        assertThat("Unexpected number of encoded messages.", encoded.get(), is(2));
+        assertThat("Unexpected number of decoded messages.", decoded.get(), is(2));
+    }
+
+    @Test
+    public void compressedMessageSplitInBuffers() {
+        ProtoBufSerializationProvider<DummyMessage> provider =
+                new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip.codec(), parser, 0);
+        Buffer msg = serialize(provider, "Hello");
+        List<Buffer> buffers = new ArrayList<>();
+        while (msg.readableBytes() > 0) {
+            buffers.add(msg.readSlice(1));
+        }
+        List<String> deserialized = deserialize(provider,
+                deserializer -> deserializer.deserialize(buffers));
+        assertThat("Unexpected messages deserialized.", deserialized, contains("Hello"));
+    }
+
+    @Test
+    public void messagesBelowMinCompressionSizeAreNotCompressed() {
+        ProtoBufSerializationProvider<DummyMessage> provider =
+                new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip.codec(), parser, 1024);
+        Buffer msg = serialize(provider, "Hello");
+        assertThat("Unexpected compressed flag.", msg.getByte(msg.readerIndex()), is((byte) 0));
+        List<String> deserialized = deserialize(provider, deserializer -> deserializer.deserialize(msg));
+        assertThat("Unexpected messages deserialized.", deserialized, contains("Hello"));
+    }
+
+    @Test
+    public void compressedMessageWithoutEncodingFails() {
+        Buffer msg = serialize(new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip.codec(), parser, 0),
+                "Hello");
+        GrpcStatusException e = assertThrows(GrpcStatusException.class, () -> deserialize(msg));
+        assertThat("Unexpected status.", e.status().code(), is(INTERNAL));
+    }
+
+    @Test
+    public void compressedMessageWithCorruptedGzipTrailerFails() {
+        ProtoBufSerializationProvider<DummyMessage> provider =
+                new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip.codec(), parser, 0);
+        Buffer msg = serialize(provider, "Hello");
+        // The gzip trailer ends with the CRC32 and the size of the uncompressed data, 4 bytes each.
+        int crcIndex = msg.writerIndex() - 8;
+        msg.setByte(crcIndex, msg.getByte(crcIndex) ^ 1);
+        assertThrows(SerializationException.class,
+                () -> deserialize(provider, deserializer -> deserializer.deserialize(msg)));
+    }
+
+    @Test
+    public void compressedMessageInflatingBeyondMaxSizeFails() {
+        char[] chars = new char[64 * 1024];
+        Arrays.fill(chars, 'a');
+        Buffer msg = serialize(new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip.codec(), parser, 0),
+                new String(chars));
+        assertThat("Unexpected compressed size.", msg.readableBytes() < 1024, is(true));
+        ProtoBufSerializationProvider<DummyMessage> provider =
+                new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip.codec(), parser, 0, 1024);
+        GrpcStatusException e = assertThrows(GrpcStatusException.class,
+                () -> deserialize(provider, deserializer -> deserializer.deserialize(msg)));
+        assertThat("Unexpected status.", e.status().code(), is(RESOURCE_EXHAUSTED));
+    }
+
+    private void assertCompressedRoundTrip(final GrpcMessageCodec codec) {
+        ProtoBufSerializationProvider<DummyMessage> provider =
+                new ProtoBufSerializationProvider<>(DummyMessage.class, codec, parser, 0);
+        Buffer msg = serialize(provider, "Hello1", "Hello2");
+        assertThat("Unexpected compressed flag.", msg.getByte(msg.readerIndex()), is((byte) 1));
+        List<String> deserialized = deserialize(provider, deserializer -> deserializer.deserialize(msg));
+        assertThat("Unexpected messages deserialized.", deserialized, contains("Hello1", "Hello2"));
+    }
+
+    private static Buffer serialize(final ProtoBufSerializationProvider<DummyMessage> provider,
+                                    final String... messages) {
+        Buffer buffer = DEFAULT_ALLOCATOR.newBuffer();
+        StreamingSerializer serializer = provider.getSerializer(DummyMessage.class);
+        for (String message : messages) {
+            serializer.serialize(DummyMessage.newBuilder().setMessage(message).build(), buffer);
+        }
+        return buffer;
+    }
+
     private List<String> deserialize(Buffer buffer) {
         return deserialize(deserializer -> deserializer.deserialize(buffer));
     }
@@ -111,7 +237,13 @@ public class ProtoDeserializerTest {
 
     private List<String> deserialize(
             final Function<StreamingDeserializer<DummyMessage>, Iterable<DummyMessage>> deserializeFunction) {
-        StreamingDeserializer<DummyMessage> deserializer = serializationProvider.getDeserializer(DummyMessage.class);
+        return deserialize(serializationProvider, deserializeFunction);
+    }
+
+    private static List<String> deserialize(
+            final ProtoBufSerializationProvider<DummyMessage> provider,
+            final Function<StreamingDeserializer<DummyMessage>, Iterable<DummyMessage>> deserializeFunction) {
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
         return stream(deserializeFunction.apply(deserializer).spliterator(), false)
                 .map(DummyMessage::getMessage).collect(toList());
     }
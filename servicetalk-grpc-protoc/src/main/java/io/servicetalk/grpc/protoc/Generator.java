@@ -56,6 +56,7 @@ import static io.servicetalk.grpc.protoc.Types.BlockingStreamingRoute;
 import static io.servicetalk.grpc.protoc.Types.ClientCall;
 import static io.servicetalk.grpc.protoc.Types.Completable;
 import static io.servicetalk.grpc.protoc.Types.DefaultGrpcClientMetadata;
+import static io.servicetalk.grpc.protoc.Types.Duration;
 import static io.servicetalk.grpc.protoc.Types.FilterableGrpcClient;
 import static io.servicetalk.grpc.protoc.Types.GrpcClient;
 import static io.servicetalk.grpc.protoc.Types.GrpcClientCallFactory;
@@ -109,12 +110,14 @@ import static io.servicetalk.grpc.protoc.Words.factory;
 import static io.servicetalk.grpc.protoc.Words.metadata;
 import static io.servicetalk.grpc.protoc.Words.onClose;
 import static io.servicetalk.grpc.protoc.Words.request;
+import static io.servicetalk.grpc.protoc.Words.requestEncoding;
 import static io.servicetalk.grpc.protoc.Words.routes;
 import static io.servicetalk.grpc.protoc.Words.rpc;
 import static io.servicetalk.grpc.protoc.Words.serializationProvider;
 import static io.servicetalk.grpc.protoc.Words.service;
 import static io.servicetalk.grpc.protoc.Words.strategy;
 import static io.servicetalk.grpc.protoc.Words.strategyFactory;
+import static io.servicetalk.grpc.protoc.Words.timeout;
 import static java.util.EnumSet.noneOf;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Stream.concat;
@@ -464,6 +467,26 @@ final class Generator {
                             .addParameter(GrpcExecutionStrategy, strategy, FINAL)
                             .addStatement("super($T.$L, $L)", rpcInterface.className, RPC_PATH, strategy)
                             .build())
+                    .addMethod(constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .addParameter(Duration, timeout, FINAL)
+                            .addStatement("super($T.$L, $L)", rpcInterface.className, RPC_PATH, timeout)
+                            .build())
+                    .addMethod(constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .addParameter(GrpcExecutionStrategy, strategy, FINAL)
+                            .addParameter(Duration, timeout, FINAL)
+                            .addStatement("super($T.$L, $L, $L)", rpcInterface.className, RPC_PATH, strategy,
+                                    timeout)
+                            .build())
+                    .addMethod(constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .addParameter(GrpcExecutionStrategy, strategy, FINAL)
+                            .addParameter(Duration, timeout, FINAL)
+                            .addParameter(String.class, requestEncoding, FINAL)
+                            .addStatement("super($T.$L, $L, $L, $L)", rpcInterface.className, RPC_PATH, strategy,
+                                    timeout, requestEncoding)
+                            .build())
                     .build();
 
             state.clientMetaDatas.add(new ClientMetaData(methodProto, metaDataClassName));
@@ -34,6 +34,8 @@ final class Types {
     private static final ClassName RouteExecutionStrategyFactory =
             bestGuess(routerApiPkg + ".RouteExecutionStrategyFactory");
 
+    static final ClassName Duration = bestGuess("java.time.Duration");
+
     static final ClassName BlockingIterable = bestGuess(concurrentPkg + ".BlockingIterable");
 
     static final ClassName AsyncCloseable = bestGuess(concurrentApiPkg + ".AsyncCloseable");
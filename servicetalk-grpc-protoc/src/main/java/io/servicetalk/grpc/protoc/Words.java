@@ -34,12 +34,14 @@ final class Words {
     static final String metadata = "metadata";
     static final String path = "path";
     static final String request = "request";
+    static final String requestEncoding = "requestEncoding";
     static final String routes = "routes";
     static final String rpc = "rpc";
     static final String serializationProvider = "serializationProvider";
     static final String service = "service";
     static final String strategy = "strategy";
     static final String strategyFactory = strategy + "Factory";
+    static final String timeout = "timeout";
 
     static final String Blocking = "Blocking";
     static final String Builder = "Builder";
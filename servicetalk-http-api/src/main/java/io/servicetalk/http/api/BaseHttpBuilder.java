@@ -18,6 +18,7 @@ package io.servicetalk.http.api;
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.transport.api.IoExecutor;
 import io.servicetalk.transport.api.ServiceTalkSocketOptions;
+import io.servicetalk.transport.api.TransportObserver;
 
 import org.slf4j.event.Level;
 
@@ -81,6 +82,15 @@ abstract class BaseHttpBuilder<ResolvedAddress> {
      */
     public abstract BaseHttpBuilder<ResolvedAddress> enableWireLogging(String loggerName);
 
+    /**
+     * Sets a {@link TransportObserver} that provides visibility into transport events of connections created by this
+     * builder.
+     *
+     * @param transportObserver A {@link TransportObserver} that provides visibility into transport events.
+     * @return {@code this}.
+     */
+    public abstract BaseHttpBuilder<ResolvedAddress> transportObserver(TransportObserver transportObserver);
+
     /**
      * Configurations of various HTTP protocol versions.
      * <p>
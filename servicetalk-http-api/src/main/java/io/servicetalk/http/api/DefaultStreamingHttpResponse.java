@@ -66,6 +66,12 @@ final class DefaultStreamingHttpResponse extends DefaultHttpResponseMetaData
         return this;
     }
 
+    @Override
+    public StreamingHttpResponse payloadBody(final HttpFileRegion fileRegion) {
+        payloadHolder.payloadBody(fileRegion);
+        return this;
+    }
+
     @Override
     public <T> StreamingHttpResponse payloadBody(final Publisher<T> payloadBody,
                                                       final HttpSerializer<T> serializer) {
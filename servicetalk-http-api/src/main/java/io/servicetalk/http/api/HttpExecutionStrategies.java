@@ -16,9 +16,12 @@
 package io.servicetalk.http.api;
 
 import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Executors;
 
 import javax.annotation.Nullable;
 
+import static io.servicetalk.concurrent.api.Executors.isVirtualThreadExecutorSupported;
+import static io.servicetalk.concurrent.api.Executors.newVirtualThreadExecutor;
 import static io.servicetalk.http.api.DefaultHttpExecutionStrategy.OFFLOAD_RECEIVE_DATA;
 import static io.servicetalk.http.api.DefaultHttpExecutionStrategy.OFFLOAD_RECEIVE_META;
 import static io.servicetalk.http.api.DefaultHttpExecutionStrategy.OFFLOAD_SEND;
@@ -69,6 +72,20 @@ public final class HttpExecutionStrategies {
         return customStrategyBuilder().offloadAll().executor(executor).mergeStrategy(ReturnOther).build();
     }
 
+    /**
+     * The default {@link HttpExecutionStrategy} using a shared {@link Executor} that runs each task on a new virtual
+     * thread, see {@link Executors#newVirtualThreadExecutor()}. This is useful for blocking programming models, which
+     * otherwise require a platform thread for every request in flight.
+     * <p>
+     * If the current runtime does not support virtual threads (JDK 21+ is required) this method returns
+     * {@link #defaultStrategy()}.
+     *
+     * @return Default {@link HttpExecutionStrategy} that offloads to virtual threads if they are supported.
+     */
+    public static HttpExecutionStrategy virtualThreadStrategy() {
+        return VirtualThreadStrategyHolder.STRATEGY;
+    }
+
     /**
      * A {@link HttpExecutionStrategy} that disables all offloads.
      *
@@ -283,4 +300,15 @@ public final class HttpExecutionStrategies {
             Merge
         }
     }
+
+    private static final class VirtualThreadStrategyHolder {
+        // Lazily initialized to avoid creating the shared Executor unless it is used. Virtual threads are not pooled,
+        // so the shared Executor does not hold any threads while it is idle.
+        static final HttpExecutionStrategy STRATEGY = isVirtualThreadExecutorSupported() ?
+                defaultStrategy(newVirtualThreadExecutor()) : defaultStrategy();
+
+        private VirtualThreadStrategyHolder() {
+            // No instances.
+        }
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.api;
+
+import io.servicetalk.buffer.api.Buffer;
+
+import java.nio.file.Path;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A region of a file which is written as part of a payload body without copying its content into a {@link Buffer}.
+ * <p>
+ * Instances are set as the payload body with {@link StreamingHttpResponse#payloadBody(HttpFileRegion)}. The HTTP/1.x
+ * transport transfers the region directly from the file to the socket where the operating system supports it (e.g.
+ * {@code sendfile}), and falls back to reading the file in chunks when the content has to be processed before it is
+ * written, for example to be encrypted by TLS. Other protocols and operators which expect a payload of
+ * {@link Buffer}s do not support file regions.
+ * <p>
+ * The file is only opened when the region is written, so the same instance can be written multiple times.
+ */
+public final class HttpFileRegion {
+    private final Path path;
+    private final long position;
+    private final long count;
+
+    /**
+     * Create a new instance.
+     *
+     * @param path the file to write.
+     * @param position the offset in the file of the first byte to write.
+     * @param count the number of bytes to write.
+     */
+    public HttpFileRegion(final Path path, final long position, final long count) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position: " + position + " (expected >=0)");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count: " + count + " (expected >=0)");
+        }
+        this.path = requireNonNull(path);
+        this.position = position;
+        this.count = count;
+    }
+
+    /**
+     * Returns the file to write.
+     *
+     * @return the file to write.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Returns the offset in the file of the first byte to write.
+     *
+     * @return the offset in the file of the first byte to write.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns the number of bytes to write.
+     *
+     * @return the number of bytes to write.
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final HttpFileRegion that = (HttpFileRegion) o;
+        return position == that.position && count == that.count && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = path.hashCode();
+        result = 31 * result + Long.hashCode(position);
+        result = 31 * result + Long.hashCode(count);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + path + ", position=" + position + ", count=" + count + "]";
+    }
+}
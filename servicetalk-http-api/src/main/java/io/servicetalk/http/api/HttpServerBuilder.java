@@ -16,6 +16,7 @@
 package io.servicetalk.http.api;
 
 import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.HttpApiConversions.ServiceAdapterHolder;
 import io.servicetalk.transport.api.ConnectionAcceptor;
@@ -23,6 +24,7 @@ import io.servicetalk.transport.api.ConnectionAcceptorFactory;
 import io.servicetalk.transport.api.IoExecutor;
 import io.servicetalk.transport.api.ServerContext;
 import io.servicetalk.transport.api.ServiceTalkSocketOptions;
+import io.servicetalk.transport.api.TransportObserver;
 
 import org.slf4j.event.Level;
 
@@ -34,6 +36,7 @@ import javax.annotation.Nullable;
 import static io.servicetalk.http.api.BlockingUtils.blockingInvocation;
 import static io.servicetalk.http.api.HttpApiConversions.toStreamingHttpService;
 import static io.servicetalk.http.api.HttpExecutionStrategies.defaultStrategy;
+import static io.servicetalk.http.api.HttpExecutionStrategies.noOffloadsStrategy;
 import static io.servicetalk.http.api.HttpExecutionStrategyInfluencer.defaultStreamingInfluencer;
 import static io.servicetalk.http.api.StrategyInfluencerAwareConversions.toConditionalServiceFilterFactory;
 import static io.servicetalk.transport.api.ConnectionAcceptor.ACCEPT_ALL;
@@ -47,6 +50,8 @@ public abstract class HttpServerBuilder {
     private ConnectionAcceptorFactory connectionAcceptorFactory;
     @Nullable
     private StreamingHttpServiceFilterFactory serviceFilter;
+    @Nullable
+    private StreamingHttpServiceFilterFactory nonOffloadingServiceFilter;
     private HttpExecutionStrategy strategy = defaultStrategy();
     private final StrategyInfluencerChainBuilder influencerChainBuilder = new StrategyInfluencerChainBuilder();
     private boolean drainRequestPayloadBody = true;
@@ -122,6 +127,27 @@ public abstract class HttpServerBuilder {
      */
     public abstract HttpServerBuilder enableWireLogging(String loggerName);
 
+    /**
+     * Sets a {@link TransportObserver} that provides visibility into transport events of connections accepted by this
+     * server.
+     *
+     * @param transportObserver A {@link TransportObserver} that provides visibility into transport events.
+     * @return {@code this}.
+     */
+    public abstract HttpServerBuilder transportObserver(TransportObserver transportObserver);
+
+    /**
+     * Enables adaptive flushing of streaming response writes.
+     * <p>
+     * By default, every item of a streaming response is flushed as soon as it is written. When adaptive flushing is
+     * enabled, writes are coalesced until the I/O thread has processed the work which is already pending or a number
+     * of bytes are written without a flush, which reduces the number of system calls for responses with many small
+     * chunks. The end of each response is always flushed immediately.
+     *
+     * @return {@code this}.
+     */
+    public abstract HttpServerBuilder enableAdaptiveFlush();
+
     /**
      * Disables automatic consumption of request {@link StreamingHttpRequest#payloadBody() payload body} when it is not
      * consumed by the service.
@@ -225,6 +251,38 @@ public abstract class HttpServerBuilder {
         return this;
     }
 
+    /**
+     * Appends a filter, which is invoked before the configured {@link HttpExecutionStrategy} offloads the request
+     * processing, to the chain of filters used to decorate the {@link StreamingHttpService} used by this builder.
+     * <p>
+     * These filters are invoked on the I/O thread that read the request, so they must never block. This allows
+     * cheap decisions, like load shedding, to be taken without paying the cost of offloading and without being
+     * queued behind other requests waiting for an offloading thread.
+     * <p>
+     * All filters appended using this method are invoked before any filter appended using
+     * {@link #appendServiceFilter(StreamingHttpServiceFilterFactory)}, in order of append. If 3 filters are added as
+     * follows:
+     * <pre>
+     *     builder.appendNonOffloadingServiceFilter(filter1).appendServiceFilter(filter2)
+     *     .appendNonOffloadingServiceFilter(filter3)
+     * </pre>
+     * accepting a request by a service wrapped by this filter chain, the order of invocation of these filters will be:
+     * <pre>
+     *     filter1 =&gt; filter3 =&gt; (offloading) =&gt; filter2 =&gt; service
+     * </pre>
+     *
+     * @param factory {@link StreamingHttpServiceFilterFactory} to append.
+     * @return {@code this}.
+     */
+    public final HttpServerBuilder appendNonOffloadingServiceFilter(final StreamingHttpServiceFilterFactory factory) {
+        if (nonOffloadingServiceFilter == null) {
+            nonOffloadingServiceFilter = factory;
+        } else {
+            nonOffloadingServiceFilter = nonOffloadingServiceFilter.append(factory);
+        }
+        return this;
+    }
+
     /**
      * Sets the {@link IoExecutor} to be used by this server.
      *
@@ -398,6 +456,48 @@ public abstract class HttpServerBuilder {
         ConnectionAcceptor connectionAcceptor = connectionAcceptorFactory == null ? null :
                 connectionAcceptorFactory.create(ACCEPT_ALL);
         StreamingHttpService filteredService = serviceFilter != null ? serviceFilter.create(rawService) : rawService;
-        return doListen(connectionAcceptor, filteredService, strategy, drainRequestPayloadBody);
+        if (nonOffloadingServiceFilter == null) {
+            return doListen(connectionAcceptor, filteredService, strategy, drainRequestPayloadBody);
+        }
+        // The server itself must not offload, the strategy is instead applied between the non-offloading filters and
+        // the rest of the chain.
+        return doListen(connectionAcceptor,
+                nonOffloadingServiceFilter.create(new OffloadingService(strategy, filteredService)),
+                noOffloadsStrategy(), drainRequestPayloadBody);
+    }
+
+    private static final class OffloadingService implements StreamingHttpService {
+        private final HttpExecutionStrategy strategy;
+        private final StreamingHttpService service;
+        @Nullable
+        private volatile StreamingHttpService offloadedService;
+
+        OffloadingService(final HttpExecutionStrategy strategy, final StreamingHttpService service) {
+            this.strategy = strategy;
+            this.service = service;
+        }
+
+        @Override
+        public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx, final StreamingHttpRequest request,
+                                                    final StreamingHttpResponseFactory responseFactory) {
+            StreamingHttpService offloadedService = this.offloadedService;
+            if (offloadedService == null) {
+                // The fallback Executor is only known once the server is running, all connections share it so a
+                // racing initialization creates an equivalent instance.
+                offloadedService = strategy.offloadService(ctx.executionContext().executor(), service);
+                this.offloadedService = offloadedService;
+            }
+            return offloadedService.handle(ctx, request, responseFactory);
+        }
+
+        @Override
+        public Completable closeAsync() {
+            return service.closeAsync();
+        }
+
+        @Override
+        public Completable closeAsyncGracefully() {
+            return service.closeAsyncGracefully();
+        }
     }
 }
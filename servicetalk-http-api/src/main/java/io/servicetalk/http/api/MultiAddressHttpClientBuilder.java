@@ -25,8 +25,10 @@ import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.transport.api.ClientSecurityConfigurator;
 import io.servicetalk.transport.api.HostAndPort;
 import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.TransportObserver;
 
 import java.net.SocketOption;
+import java.time.Duration;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -62,6 +64,9 @@ public abstract class MultiAddressHttpClientBuilder<U, R>
     @Override
     public abstract MultiAddressHttpClientBuilder<U, R> enableWireLogging(String loggerName);
 
+    @Override
+    public abstract MultiAddressHttpClientBuilder<U, R> transportObserver(TransportObserver transportObserver);
+
     @Override
     public abstract MultiAddressHttpClientBuilder<U, R> disableHostHeaderFallback();
 
@@ -177,4 +182,69 @@ public abstract class MultiAddressHttpClientBuilder<U, R>
      * @return {@code this}.
      */
     public abstract MultiAddressHttpClientBuilder<U, R> maxRedirects(int maxRedirects);
+
+    /**
+     * Sets the maximum number of clients for individual addresses that are kept open. When a client for a new address
+     * is needed and this number is exceeded, the least recently used idle client is closed gracefully. Clients with
+     * requests in flight are never evicted, so the limit may be exceeded temporarily. Unlimited by default.
+     *
+     * @param maxClients the maximum number of clients for individual addresses that are kept open.
+     * @return {@code this}.
+     */
+    public abstract MultiAddressHttpClientBuilder<U, R> maxClients(int maxClients);
+
+    /**
+     * Sets the duration after which a client for an individual address without requests in flight is closed
+     * gracefully. A later request to the same address creates a new client. Idle clients are not closed by default.
+     *
+     * @param idleTimeout the duration after which a client without requests in flight is closed.
+     * @return {@code this}.
+     */
+    public abstract MultiAddressHttpClientBuilder<U, R> clientIdleTimeout(Duration idleTimeout);
+
+    /**
+     * Sets a {@link ClientCacheObserver} that is notified about the use and the eviction of clients for individual
+     * addresses.
+     *
+     * @param observer {@link ClientCacheObserver} to notify.
+     * @return {@code this}.
+     */
+    public abstract MultiAddressHttpClientBuilder<U, R> clientCacheObserver(ClientCacheObserver<U> observer);
+
+    /**
+     * An observer of the clients for individual addresses that are created, reused and evicted by the client built by
+     * a {@link MultiAddressHttpClientBuilder}. Callbacks can be used to maintain hit, miss and eviction counters.
+     * <p>
+     * Callbacks are invoked on the thread that selects or evicts the client and must not block.
+     *
+     * @param <U> the type of address before resolution (unresolved address)
+     */
+    public interface ClientCacheObserver<U> {
+
+        /**
+         * Notifies that an existing client for the {@code address} was used for a request.
+         *
+         * @param address the address of the client.
+         */
+        default void onHit(U address) {
+        }
+
+        /**
+         * Notifies that a new client for the {@code address} was created for a request.
+         *
+         * @param address the address of the client.
+         */
+        default void onMiss(U address) {
+        }
+
+        /**
+         * Notifies that the client for the {@code address} was evicted and is being closed gracefully.
+         *
+         * @param address the address of the client.
+         * @param idle {@code true} if the client exceeded the idle timeout, {@code false} if it was evicted to respect
+         * the maximum number of clients.
+         */
+        default void onEviction(U address, boolean idle) {
+        }
+    }
 }
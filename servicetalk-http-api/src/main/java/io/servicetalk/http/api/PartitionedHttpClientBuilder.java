@@ -27,6 +27,7 @@ import io.servicetalk.concurrent.PublisherSource.Subscriber;
 import io.servicetalk.concurrent.api.BiIntFunction;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.TransportObserver;
 
 import java.net.SocketOption;
 import java.util.function.BiFunction;
@@ -61,6 +62,9 @@ public abstract class PartitionedHttpClientBuilder<U, R>
     @Override
     public abstract PartitionedHttpClientBuilder<U, R> enableWireLogging(String loggerName);
 
+    @Override
+    public abstract PartitionedHttpClientBuilder<U, R> transportObserver(TransportObserver transportObserver);
+
     @Override
     public abstract PartitionedHttpClientBuilder<U, R> protocols(HttpProtocolConfig... protocols);
 
@@ -127,6 +127,13 @@ final class StreamingHttpPayloadHolder implements PayloadInfo {
         payloadBody = transformer.apply(emptyOrRawPayload());
     }
 
+    public void payloadBody(final HttpFileRegion fileRegion) {
+        requireNonNull(fileRegion);
+        payloadBody = payloadBody == null ? from(fileRegion) : payloadBody().ignoreElements().concat(from(fileRegion));
+        // Only cleared for file regions, operators which expect Buffers are added to every other payload body.
+        payloadInfo.setOnlyEmitsBuffer(false);
+    }
+
     public <T> void transform(final TrailersTransformer<T, Buffer> trailersTransformer) {
         transformWithTrailersUnchecked(false, trailersTransformer);
     }
@@ -63,6 +63,17 @@ public interface StreamingHttpResponse extends HttpResponseMetaData {
      */
     StreamingHttpResponse payloadBody(Publisher<Buffer> payloadBody);
 
+    /**
+     * Returns a {@link StreamingHttpResponse} with its underlying payload set to a single {@link HttpFileRegion}, which
+     * the transport may write without copying the content of the file into {@link Buffer}s.
+     * <p>
+     * The existing {@link Publisher} payload body is discarded. The payload body no longer only consists of
+     * {@link Buffer}s, so operators which access it through {@link #payloadBody()} fail for this response.
+     * @param fileRegion The {@link HttpFileRegion} to write as the payload body.
+     * @return {@code this}
+     */
+    StreamingHttpResponse payloadBody(HttpFileRegion fileRegion);
+
     /**
      * Returns a {@link StreamingHttpResponse} with its underlying payload set to the result of serialization.
      * <p>
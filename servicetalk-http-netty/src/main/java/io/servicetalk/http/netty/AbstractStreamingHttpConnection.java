@@ -35,11 +35,14 @@ import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.transport.api.TransportObserver.ConnectionObserver;
 import io.servicetalk.transport.netty.internal.FlushStrategy;
 import io.servicetalk.transport.netty.internal.NettyConnectionContext;
+import io.servicetalk.transport.netty.internal.NoopTransportObserver.NoopConnectionObserver;
 
 import javax.annotation.Nullable;
 
+import static io.servicetalk.concurrent.api.Publisher.defer;
 import static io.servicetalk.concurrent.api.Publisher.failed;
 import static io.servicetalk.concurrent.api.Publisher.from;
 import static io.servicetalk.concurrent.api.Single.succeeded;
@@ -49,6 +52,7 @@ import static io.servicetalk.http.api.StreamingHttpResponses.newTransportRespons
 import static io.servicetalk.http.netty.HeaderUtils.addRequestTransferEncodingIfNecessary;
 import static io.servicetalk.http.netty.HeaderUtils.canAddRequestContentLength;
 import static io.servicetalk.http.netty.HeaderUtils.setRequestContentLength;
+import static io.servicetalk.transport.netty.internal.ConnectionObserverInitializer.connectionObserver;
 import static io.servicetalk.transport.netty.internal.FlushStrategies.flushOnEnd;
 import static java.util.Objects.requireNonNull;
 
@@ -63,6 +67,7 @@ abstract class AbstractStreamingHttpConnection<CC extends NettyConnectionContext
     private final Publisher<? extends ConsumableEvent<Integer>> maxConcurrencySetting;
     private final StreamingHttpRequestResponseFactory reqRespFactory;
     private final HttpHeadersFactory headersFactory;
+    private final ConnectionObserver connectionObserver;
 
     AbstractStreamingHttpConnection(final CC conn, final int maxPipelinedRequests,
                                     final HttpExecutionContext executionContext,
@@ -75,6 +80,8 @@ abstract class AbstractStreamingHttpConnection<CC extends NettyConnectionContext
         maxConcurrencySetting = from(new IgnoreConsumedEvent<>(maxPipelinedRequests))
                 .concat(connection.onClosing()).concat(succeeded(ZERO_MAX_CONCURRECNY_EVENT));
         this.headersFactory = headersFactory;
+        // HTTP/2 streams are observed by the parent connection, their child channels resolve a no-op observer.
+        connectionObserver = connectionObserver(conn.nettyChannel());
     }
 
     @Override
@@ -92,8 +99,11 @@ abstract class AbstractStreamingHttpConnection<CC extends NettyConnectionContext
     @Override
     public final Single<StreamingHttpResponse> invokeClient(final Publisher<Object> flattenedRequest,
                                                             @Nullable final FlushStrategy flushStrategy) {
-        return writeAndRead(flattenedRequest, flushStrategy).liftSyncToSingle(new SpliceFlatStreamToMetaSingle<>(
-                this::newSplicedResponse));
+        final Publisher<Object> flatResponse = connectionObserver == NoopConnectionObserver.INSTANCE ?
+                writeAndRead(flattenedRequest, flushStrategy) :
+                defer(() -> writeAndRead(flattenedRequest, flushStrategy).beforeFinally(
+                        new StreamObserverSignalConsumer(connectionObserver.onNewStream())));
+        return flatResponse.liftSyncToSingle(new SpliceFlatStreamToMetaSingle<>(this::newSplicedResponse));
     }
 
     @Override
@@ -34,8 +34,11 @@ import io.servicetalk.http.api.HttpRequestMethod;
 import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.loadbalancer.P2CLoadBalancer.P2CLoadBalancerFactory;
 import io.servicetalk.loadbalancer.RoundRobinLoadBalancer.RoundRobinLoadBalancerFactory;
 
+import java.util.Collection;
+
 import static io.servicetalk.http.api.HttpExecutionStrategyInfluencer.defaultStreamingInfluencer;
 import static io.servicetalk.loadbalancer.RoundRobinLoadBalancer.newRoundRobinFactory;
 import static java.lang.Integer.MAX_VALUE;
@@ -65,6 +68,13 @@ public final class DefaultHttpLoadBalancerFactory<ResolvedAddress>
         return rawFactory.newLoadBalancer(eventPublisher, cf);
     }
 
+    @Override
+    public <T extends FilterableStreamingHttpLoadBalancedConnection> LoadBalancer<T> newLoadBalancerFromBatches(
+            final Publisher<? extends Collection<? extends ServiceDiscovererEvent<ResolvedAddress>>> eventPublisher,
+            final ConnectionFactory<ResolvedAddress, T> cf) {
+        return rawFactory.newLoadBalancerFromBatches(eventPublisher, cf);
+    }
+
     @Override
     public FilterableStreamingHttpLoadBalancedConnection toLoadBalancedConnection(
             final FilterableStreamingHttpConnection connection) {
@@ -127,8 +137,10 @@ public final class DefaultHttpLoadBalancerFactory<ResolvedAddress>
             final HttpExecutionStrategyInfluencer strategyInfluencer;
             if (rawFactory instanceof HttpExecutionStrategyInfluencer) {
                 strategyInfluencer = (HttpExecutionStrategyInfluencer) rawFactory;
-            } else if (rawFactory instanceof RoundRobinLoadBalancerFactory) {
-                strategyInfluencer = strategy -> strategy; // RoundRobinLoadBalancer is non-blocking.
+            } else if (rawFactory instanceof RoundRobinLoadBalancerFactory ||
+                    rawFactory instanceof P2CLoadBalancerFactory) {
+                // RoundRobinLoadBalancer and P2CLoadBalancer are non-blocking.
+                strategyInfluencer = strategy -> strategy;
             } else {
                 // user provided load balancer assumed to be blocking unless it implements
                 // HttpExecutionStrategyInfluencer
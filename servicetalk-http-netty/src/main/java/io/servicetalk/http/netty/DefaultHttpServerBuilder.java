@@ -26,11 +26,14 @@ import io.servicetalk.http.api.StreamingHttpService;
 import io.servicetalk.transport.api.ConnectionAcceptor;
 import io.servicetalk.transport.api.IoExecutor;
 import io.servicetalk.transport.api.ServerContext;
+import io.servicetalk.transport.api.TransportObserver;
 
 import java.net.SocketAddress;
 import java.net.SocketOption;
 import javax.annotation.Nullable;
 
+import static io.servicetalk.transport.netty.internal.FlushStrategies.adaptiveFlush;
+
 final class DefaultHttpServerBuilder extends HttpServerBuilder {
 
     private final HttpServerConfig config = new HttpServerConfig();
@@ -81,6 +84,18 @@ final class DefaultHttpServerBuilder extends HttpServerBuilder {
         return this;
     }
 
+    @Override
+    public HttpServerBuilder transportObserver(final TransportObserver transportObserver) {
+        config.tcpConfig().transportObserver(transportObserver);
+        return this;
+    }
+
+    @Override
+    public HttpServerBuilder enableAdaptiveFlush() {
+        config.tcpConfig().flushStrategy(adaptiveFlush());
+        return this;
+    }
+
     @Override
     public HttpServerBuilder ioExecutor(final IoExecutor ioExecutor) {
         executionContextBuilder.ioExecutor(ioExecutor);
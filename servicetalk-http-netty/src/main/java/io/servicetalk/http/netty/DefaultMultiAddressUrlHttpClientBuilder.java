@@ -17,14 +17,15 @@ package io.servicetalk.http.netty;
 
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.client.api.AutoRetryStrategyProvider;
-import io.servicetalk.client.api.ClientGroup;
 import io.servicetalk.client.api.ConnectionFactoryFilter;
 import io.servicetalk.client.api.ServiceDiscoverer;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.Cancellable;
 import io.servicetalk.concurrent.api.AsyncCloseable;
 import io.servicetalk.concurrent.api.BiIntFunction;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.concurrent.api.internal.SubscribableCompletable;
@@ -38,6 +39,7 @@ import io.servicetalk.http.api.HttpProtocolConfig;
 import io.servicetalk.http.api.HttpRequestMetaData;
 import io.servicetalk.http.api.HttpRequestMethod;
 import io.servicetalk.http.api.MultiAddressHttpClientBuilder;
+import io.servicetalk.http.api.MultiAddressHttpClientBuilder.ClientCacheObserver;
 import io.servicetalk.http.api.MultiAddressHttpClientFilterFactory;
 import io.servicetalk.http.api.SingleAddressHttpClientSecurityConfigurator;
 import io.servicetalk.http.api.StreamingHttpClient;
@@ -48,16 +50,22 @@ import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
 import io.servicetalk.http.netty.DefaultSingleAddressHttpClientBuilder.HttpClientBuildContext;
+import io.servicetalk.http.utils.BeforeFinallyHttpOperator;
 import io.servicetalk.http.utils.RedirectingHttpRequesterFilter;
 import io.servicetalk.transport.api.ClientSecurityConfigurator;
 import io.servicetalk.transport.api.HostAndPort;
 import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.TransportObserver;
 
 import java.net.InetSocketAddress;
 import java.net.SocketOption;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import javax.annotation.Nullable;
@@ -65,10 +73,16 @@ import javax.annotation.Nullable;
 import static io.netty.handler.codec.http.HttpScheme.HTTP;
 import static io.netty.handler.codec.http.HttpScheme.HTTPS;
 import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.concurrent.api.AsyncCloseables.toAsyncCloseable;
 import static io.servicetalk.concurrent.api.AsyncCloseables.toListenableAsyncCloseable;
+import static io.servicetalk.concurrent.api.Completable.completed;
 import static io.servicetalk.concurrent.api.Single.defer;
 import static io.servicetalk.concurrent.internal.SubscriberUtils.deliverCompleteFromSource;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static java.util.stream.Collectors.toList;
 
 /**
  * A builder of {@link StreamingHttpClient} instances which have a capacity to call any server based on the parsed
@@ -87,6 +101,8 @@ final class DefaultMultiAddressUrlHttpClientBuilder
     private static final int DEFAULT_MAX_REDIRECTS = 5;
 
     private static final String HTTPS_SCHEME = HTTPS.toString();
+    private static final ClientCacheObserver<HostAndPort> NOOP_CLIENT_CACHE_OBSERVER =
+            new ClientCacheObserver<HostAndPort>() { };
 
     private final DefaultSingleAddressHttpClientBuilder<HostAndPort, InetSocketAddress> builderTemplate;
 
@@ -97,6 +113,10 @@ final class DefaultMultiAddressUrlHttpClientBuilder
     private Function<HostAndPort, CharSequence> unresolvedAddressToHostFunction;
     @Nullable
     private BiConsumer<HostAndPort, ClientSecurityConfigurator> sslConfigFunction;
+    private int maxClients = Integer.MAX_VALUE;
+    @Nullable
+    private Duration clientIdleTimeout;
+    private ClientCacheObserver<HostAndPort> clientCacheObserver = NOOP_CLIENT_CACHE_OBSERVER;
 
     DefaultMultiAddressUrlHttpClientBuilder(
             final DefaultSingleAddressHttpClientBuilder<HostAndPort, InetSocketAddress> builderTemplate) {
@@ -113,9 +133,11 @@ final class DefaultMultiAddressUrlHttpClientBuilder
                     clientFilterFactory, unresolvedAddressToHostFunction, sslConfigFunction);
 
             final CachingKeyFactory keyFactory = closeables.prepend(new CachingKeyFactory());
+            final ClientCache clientCache = closeables.prepend(new ClientCache(clientFactory, keyFactory,
+                    maxClients, clientIdleTimeout, clientCacheObserver, buildContext.executionContext.executor()));
 
             FilterableStreamingHttpClient urlClient = closeables.prepend(
-                    new StreamingUrlHttpClient(buildContext.executionContext, clientFactory, keyFactory,
+                    new StreamingUrlHttpClient(buildContext.executionContext, clientCache, keyFactory,
                             buildContext.reqRespFactory));
 
             // Need to wrap the top level client (group) in order for non-relative redirects to work
@@ -159,12 +181,22 @@ final class DefaultMultiAddressUrlHttpClientBuilder
 
             metaData.requestTarget(absoluteToRelativeFormRequestTarget(metaData.requestTarget(), scheme, host));
 
-            final String key = scheme + ':' + host + ':' + port;
+            final String key = cacheKey(scheme, host, port);
             final UrlKey urlKey = urlKeyCache.get(key);
             return urlKey != null ? urlKey : urlKeyCache.computeIfAbsent(key, ignore ->
                     new UrlKey(scheme, HostAndPort.of(host, port)));
         }
 
+        void remove(final UrlKey urlKey) {
+            assert urlKey.scheme != null;
+            urlKeyCache.remove(cacheKey(urlKey.scheme, urlKey.hostAndPort.hostName(), urlKey.hostAndPort.port()),
+                    urlKey);
+        }
+
+        private static String cacheKey(final String scheme, final String host, final int port) {
+            return scheme + ':' + host + ':' + port;
+        }
+
         // This code is similar to io.servicetalk.http.utils.RedirectSingle#absoluteToRelativeFormRequestTarget
         // but cannot be shared because we don't have an internal module for http
         private static String absoluteToRelativeFormRequestTarget(final String requestTarget,
@@ -189,6 +221,272 @@ final class DefaultMultiAddressUrlHttpClientBuilder
         }
     }
 
+    /**
+     * Keeps a client per {@link UrlKey}. A client without requests in flight is closed gracefully when it stays unused
+     * for longer than the idle timeout, or when it is among the least recently used ones and there are too many
+     * clients.
+     */
+    private static final class ClientCache implements AsyncCloseable {
+        private static final String CLOSED_EXCEPTION_MSG = "This client has been closed";
+        private static final int EVICTION_SAMPLES = 8;
+        private static final int MAX_EVICTION_VISITS = 4 * EVICTION_SAMPLES;
+
+        private final ConcurrentMap<UrlKey, CachedClient> clients = new ConcurrentHashMap<>();
+        private final Function<UrlKey, FilterableStreamingHttpClient> clientFactory;
+        private final CachingKeyFactory keyFactory;
+        private final int maxClients;
+        private final long idleTimeoutNanos;
+        private final ClientCacheObserver<HostAndPort> observer;
+        private final Executor executor;
+        @Nullable
+        private volatile Cancellable idleCheck;
+        private volatile boolean closed;
+        // Guarded by this.
+        @Nullable
+        private Iterator<CachedClient> evictionCursor;
+        private final ListenableAsyncCloseable closeable = toAsyncCloseable(graceful -> {
+            closed = true;
+            final Cancellable idleCheck = this.idleCheck;
+            if (idleCheck != null) {
+                idleCheck.cancel();
+            }
+            return completed().mergeDelayError(clients.values().stream()
+                    .filter(cached -> clients.remove(cached.key, cached))
+                    .map(CachedClient::closeNow)
+                    .filter(Objects::nonNull)
+                    .map(client -> graceful ? client.closeAsyncGracefully() : client.closeAsync())
+                    .collect(toList()));
+        });
+
+        ClientCache(final Function<UrlKey, FilterableStreamingHttpClient> clientFactory,
+                    final CachingKeyFactory keyFactory, final int maxClients, @Nullable final Duration idleTimeout,
+                    final ClientCacheObserver<HostAndPort> observer, final Executor executor) {
+            this.clientFactory = clientFactory;
+            this.keyFactory = keyFactory;
+            this.maxClients = maxClients;
+            this.idleTimeoutNanos = idleTimeout == null ? 0 : idleTimeout.toNanos();
+            this.observer = observer;
+            this.executor = executor;
+            scheduleIdleCheck();
+        }
+
+        /**
+         * Returns the {@link CachedClient} for the passed {@link UrlKey}, creating a new client if necessary. The
+         * returned {@link CachedClient} can not be evicted until it is {@link CachedClient#release() released}.
+         */
+        CachedClient acquire(final UrlKey key) {
+            for (;;) {
+                CachedClient cached = clients.get(key);
+                boolean created = false;
+                if (cached == null) {
+                    if (closed) {
+                        throw new IllegalStateException(CLOSED_EXCEPTION_MSG);
+                    }
+                    final CachedClient newCached = new CachedClient(key, clientFactory);
+                    cached = clients.putIfAbsent(key, newCached);
+                    if (cached == null) {
+                        cached = newCached;
+                        created = true;
+                    }
+                }
+                if (!cached.tryAcquire()) {
+                    // Lost the race against an eviction, the evicted client is about to be removed.
+                    clients.remove(key, cached);
+                    continue;
+                }
+                try {
+                    cached.client();
+                } catch (Throwable t) {
+                    cached.release();
+                    clients.remove(key, cached);
+                    throw t;
+                }
+                if (created) {
+                    observer.onMiss(key.hostAndPort);
+                    if (closed) {
+                        // The cache has been closed while the client was created.
+                        if (clients.remove(key, cached)) {
+                            closeClient(cached.closeNow(), false);
+                        }
+                        cached.release();
+                        throw new IllegalStateException(CLOSED_EXCEPTION_MSG);
+                    }
+                    if (clients.size() > maxClients) {
+                        evictLeastRecentlyUsed();
+                    }
+                } else {
+                    observer.onHit(key.hostAndPort);
+                }
+                return cached;
+            }
+        }
+
+        private synchronized void evictLeastRecentlyUsed() {
+            // Every miss over the limit evicts, so scanning all clients would make misses O(maxClients). Instead the
+            // least recently used idle client among a few samples is evicted, like a sampled LRU cache. The samples
+            // are taken by a cursor that keeps walking the clients across evictions, so all of them get checked.
+            int visits = 0;
+            while (clients.size() > maxClients && visits < MAX_EVICTION_VISITS) {
+                CachedClient lru = null;
+                for (int i = 0; i < EVICTION_SAMPLES; ++i, ++visits) {
+                    final CachedClient cached = nextEvictionCandidate();
+                    if (cached == null) {
+                        return;
+                    }
+                    if (cached.isIdle() && (lru == null || cached.lastUsedNanos - lru.lastUsedNanos < 0)) {
+                        lru = cached;
+                    }
+                }
+                // If all samples have requests in flight, the limit is exceeded until the next miss evicts.
+                if (lru != null && lru.tryEvict()) {
+                    evict(lru, false);
+                }
+            }
+        }
+
+        @Nullable
+        private CachedClient nextEvictionCandidate() {
+            Iterator<CachedClient> cursor = evictionCursor;
+            if (cursor == null || !cursor.hasNext()) {
+                // Iterators of a ConcurrentHashMap tolerate concurrent updates, the cursor only restarts at the end.
+                cursor = clients.values().iterator();
+                evictionCursor = cursor;
+                if (!cursor.hasNext()) {
+                    return null;
+                }
+            }
+            return cursor.next();
+        }
+
+        private void evictIdleClients() {
+            final long now = nanoTime();
+            for (CachedClient cached : clients.values()) {
+                if (now - cached.lastUsedNanos >= idleTimeoutNanos && cached.tryEvict()) {
+                    evict(cached, true);
+                }
+            }
+            scheduleIdleCheck();
+        }
+
+        private void scheduleIdleCheck() {
+            if (idleTimeoutNanos <= 0 || closed) {
+                return;
+            }
+            try {
+                // Checking twice per timeout closes idle clients at most half of the timeout late.
+                idleCheck = executor.schedule(this::evictIdleClients, idleTimeoutNanos / 2, NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // The executor is shutting down, idle clients are closed together with this client.
+            }
+        }
+
+        private void evict(final CachedClient cached, final boolean idle) {
+            if (clients.remove(cached.key, cached)) {
+                keyFactory.remove(cached.key);
+                observer.onEviction(cached.key.hostAndPort, idle);
+                closeClient(cached.closeNow(), true);
+            }
+        }
+
+        private static void closeClient(@Nullable final FilterableStreamingHttpClient client, final boolean graceful) {
+            if (client != null) {
+                (graceful ? client.closeAsyncGracefully() : client.closeAsync()).subscribe();
+            }
+        }
+
+        @Override
+        public Completable onClose() {
+            return closeable.onClose();
+        }
+
+        @Override
+        public Completable closeAsync() {
+            return closeable.closeAsync();
+        }
+
+        @Override
+        public Completable closeAsyncGracefully() {
+            return closeable.closeAsyncGracefully();
+        }
+    }
+
+    private static final class CachedClient {
+        private static final int EVICTED = -1;
+        private static final AtomicIntegerFieldUpdater<CachedClient> usersUpdater =
+                newUpdater(CachedClient.class, "users");
+
+        final UrlKey key;
+        private final Function<UrlKey, FilterableStreamingHttpClient> clientFactory;
+        @Nullable
+        private volatile FilterableStreamingHttpClient client;
+        @Nullable
+        private Throwable creationFailure;
+        volatile long lastUsedNanos = nanoTime();
+        private volatile int users;
+
+        CachedClient(final UrlKey key, final Function<UrlKey, FilterableStreamingHttpClient> clientFactory) {
+            this.key = key;
+            this.clientFactory = clientFactory;
+        }
+
+        FilterableStreamingHttpClient client() {
+            final FilterableStreamingHttpClient client = this.client;
+            return client != null ? client : createClient();
+        }
+
+        private synchronized FilterableStreamingHttpClient createClient() {
+            // Concurrent requests to a new address wait for the first one to create the client, instead of creating
+            // duplicate clients.
+            FilterableStreamingHttpClient client = this.client;
+            if (client == null) {
+                if (creationFailure != null) {
+                    throw new IllegalArgumentException("Failed to create new client", creationFailure);
+                }
+                try {
+                    client = requireNonNull(clientFactory.apply(key), "Newly created client can not be null");
+                } catch (Throwable t) {
+                    creationFailure = t;
+                    throw new IllegalArgumentException("Failed to create new client", t);
+                }
+                this.client = client;
+            }
+            return client;
+        }
+
+        boolean tryAcquire() {
+            for (;;) {
+                final int users = this.users;
+                if (users == EVICTED) {
+                    return false;
+                }
+                if (usersUpdater.compareAndSet(this, users, users + 1)) {
+                    lastUsedNanos = nanoTime();
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            // Update the last use before the client becomes idle, so it is not evicted for having been idle before.
+            lastUsedNanos = nanoTime();
+            usersUpdater.decrementAndGet(this);
+        }
+
+        boolean isIdle() {
+            return users == 0;
+        }
+
+        boolean tryEvict() {
+            return usersUpdater.compareAndSet(this, 0, EVICTED);
+        }
+
+        @Nullable
+        FilterableStreamingHttpClient closeNow() {
+            users = EVICTED;
+            return client;
+        }
+    }
+
     private static class UrlKey {
 
         @Nullable
@@ -270,39 +568,48 @@ final class DefaultMultiAddressUrlHttpClientBuilder
     private static final class StreamingUrlHttpClient implements FilterableStreamingHttpClient {
         private final HttpExecutionContext executionContext;
         private final StreamingHttpRequestResponseFactory reqRespFactory;
-        private final ClientGroup<UrlKey, FilterableStreamingHttpClient> group;
+        private final ClientCache clientCache;
         private final CachingKeyFactory keyFactory;
         private final ListenableAsyncCloseable closeable;
 
         StreamingUrlHttpClient(final HttpExecutionContext executionContext,
-                               final Function<UrlKey, FilterableStreamingHttpClient> clientFactory,
+                               final ClientCache clientCache,
                                final CachingKeyFactory keyFactory,
                                final StreamingHttpRequestResponseFactory reqRespFactory) {
             this.reqRespFactory = requireNonNull(reqRespFactory);
-            this.group = ClientGroup.from(clientFactory);
+            this.clientCache = clientCache;
             this.keyFactory = keyFactory;
             CompositeCloseable compositeCloseable = newCompositeCloseable();
-            compositeCloseable.append(group);
+            compositeCloseable.append(clientCache);
             compositeCloseable.append(keyFactory);
             closeable = toListenableAsyncCloseable(compositeCloseable);
             this.executionContext = requireNonNull(executionContext);
         }
 
-        private FilterableStreamingHttpClient selectClient(
-                HttpRequestMetaData metaData) {
-            return group.get(keyFactory.apply(metaData));
+        private CachedClient selectClient(final HttpRequestMetaData metaData) {
+            return clientCache.acquire(keyFactory.apply(metaData));
         }
 
         @Override
         public Single<? extends FilterableReservedStreamingHttpConnection> reserveConnection(
                 final HttpExecutionStrategy strategy, final HttpRequestMetaData metaData) {
-            return defer(() -> selectClient(metaData).reserveConnection(strategy, metaData).subscribeShareContext());
+            return defer(() -> {
+                final CachedClient cached = selectClient(metaData);
+                // The client is only protected from eviction until the connection is reserved, evicting it later
+                // closes it gracefully and so waits for the reserved connection to be released.
+                return cached.client().reserveConnection(strategy, metaData).beforeFinally(cached::release)
+                        .subscribeShareContext();
+            });
         }
 
         @Override
         public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
                                                      final StreamingHttpRequest request) {
-            return defer(() -> selectClient(request).request(strategy, request).subscribeShareContext());
+            return defer(() -> {
+                final CachedClient cached = selectClient(request);
+                return cached.client().request(strategy, request)
+                        .liftSync(new BeforeFinallyHttpOperator(cached::release)).subscribeShareContext();
+            });
         }
 
         @Override
@@ -362,6 +669,13 @@ final class DefaultMultiAddressUrlHttpClientBuilder
         return this;
     }
 
+    @Override
+    public MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> transportObserver(
+            final TransportObserver transportObserver) {
+        builderTemplate.transportObserver(transportObserver);
+        return this;
+    }
+
     @Override
     public MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> protocols(HttpProtocolConfig... protocols) {
         builderTemplate.protocols(protocols);
@@ -419,6 +733,32 @@ final class DefaultMultiAddressUrlHttpClientBuilder
         return this;
     }
 
+    @Override
+    public MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> maxClients(final int maxClients) {
+        if (maxClients <= 0) {
+            throw new IllegalArgumentException("maxClients: " + maxClients + " (expected > 0)");
+        }
+        this.maxClients = maxClients;
+        return this;
+    }
+
+    @Override
+    public MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> clientIdleTimeout(
+            final Duration idleTimeout) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout: " + idleTimeout + " (expected > 0)");
+        }
+        this.clientIdleTimeout = idleTimeout;
+        return this;
+    }
+
+    @Override
+    public MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> clientCacheObserver(
+            final ClientCacheObserver<HostAndPort> observer) {
+        this.clientCacheObserver = requireNonNull(observer);
+        return this;
+    }
+
     @Override
     public MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> unresolvedAddressToHost(
             Function<HostAndPort, CharSequence> unresolvedAddressToHostFunction) {
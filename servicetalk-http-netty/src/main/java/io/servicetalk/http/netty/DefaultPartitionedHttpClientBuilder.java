@@ -56,6 +56,7 @@ import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
 import io.servicetalk.http.netty.DefaultSingleAddressHttpClientBuilder.HttpClientBuildContext;
 import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.TransportObserver;
 
 import java.net.SocketOption;
 import java.util.function.Function;
@@ -253,6 +254,12 @@ class DefaultPartitionedHttpClientBuilder<U, R> extends PartitionedHttpClientBui
         return this;
     }
 
+    @Override
+    public PartitionedHttpClientBuilder<U, R> transportObserver(final TransportObserver transportObserver) {
+        builderTemplate.transportObserver(transportObserver);
+        return this;
+    }
+
     @Override
     public PartitionedHttpClientBuilder<U, R> protocols(HttpProtocolConfig... protocols) {
         builderTemplate.protocols(protocols);
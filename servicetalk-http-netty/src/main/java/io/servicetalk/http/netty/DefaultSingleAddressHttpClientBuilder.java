@@ -49,12 +49,14 @@ import io.servicetalk.http.api.StreamingHttpConnectionFilterFactory;
 import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
 import io.servicetalk.transport.api.HostAndPort;
 import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.TransportObserver;
 
 import io.netty.handler.ssl.SslContext;
 import io.netty.util.NetUtil;
 
 import java.net.InetSocketAddress;
 import java.net.SocketOption;
+import java.util.Collection;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 
@@ -232,10 +234,11 @@ final class DefaultSingleAddressHttpClientBuilder<U, R> extends SingleAddressHtt
                     proxyAddress != null ? proxyAddress : builder.address);
         }
 
-        Publisher<? extends ServiceDiscovererEvent<R>> discover(final SdStatusCompletable sdStatus) {
+        Publisher<? extends Collection<? extends ServiceDiscovererEvent<R>>> discoverBatches(
+                final SdStatusCompletable sdStatus) {
             assert builder.address != null : "Attempted to buildStreaming with an unknown address";
             final BiIntFunction<Throwable, ? extends Completable> retryWhen = builder.serviceDiscovererRetryStrategy;
-            return builder.serviceDiscoverer.discover(proxyAddress != null ? proxyAddress : builder.address)
+            return builder.serviceDiscoverer.discoverBatches(proxyAddress != null ? proxyAddress : builder.address)
                     .retryWhen((i, t) -> {
                         sdStatus.nextError(t);
                         return retryWhen.apply(i, t);
@@ -264,7 +267,8 @@ final class DefaultSingleAddressHttpClientBuilder<U, R> extends SingleAddressHtt
         final CompositeCloseable closeOnException = newCompositeCloseable();
         try {
             final SdStatusCompletable sdStatus = new SdStatusCompletable();
-            final Publisher<? extends ServiceDiscovererEvent<R>> sdEvents = ctx.discover(sdStatus);
+            final Publisher<? extends Collection<? extends ServiceDiscovererEvent<R>>> sdEvents =
+                    ctx.discoverBatches(sdStatus);
 
             final StreamingHttpRequestResponseFactory reqRespFactory = ctx.reqRespFactory;
 
@@ -299,8 +303,8 @@ final class DefaultSingleAddressHttpClientBuilder<U, R> extends SingleAddressHtt
             }
 
             final LoadBalancer<LoadBalancedStreamingHttpConnection> lb =
-                    closeOnException.prepend(ctx.builder.loadBalancerFactory.newLoadBalancer(sdEvents,
-                            connectionFactory));
+                    closeOnException.prepend(ctx.builder.loadBalancerFactory.newLoadBalancerFromBatches(
+                            sdEvents, connectionFactory));
 
             StreamingHttpClientFilterFactory currClientFilterFactory = ctx.builder.clientFilterFactory;
             if (roConfig.hasProxy() && sslContext == null) {
@@ -406,6 +410,12 @@ final class DefaultSingleAddressHttpClientBuilder<U, R> extends SingleAddressHtt
         return this;
     }
 
+    @Override
+    public DefaultSingleAddressHttpClientBuilder<U, R> transportObserver(final TransportObserver transportObserver) {
+        config.tcpConfig().transportObserver(transportObserver);
+        return this;
+    }
+
     @Override
     public DefaultSingleAddressHttpClientBuilder<U, R> protocols(final HttpProtocolConfig... protocols) {
         config.protocolConfigs().protocols(protocols);
@@ -94,4 +94,17 @@ public interface H1ProtocolConfig extends HttpProtocolConfig {
      * @return exceptions for <a href="https://tools.ietf.org/html/rfc7230">HTTP/1.1</a> specification
      */
     H1SpecExceptions specExceptions();
+
+    /**
+     * Whether inbound data is accumulated in pooled memory while it is decoded.
+     * <p>
+     * If {@code true}, memory read from the socket is decoded without being copied first, and the decoder draws its
+     * accumulation memory from a pooled allocator with thread-local caches on each I/O thread. This memory is released
+     * as soon as it is decoded. Header fields and payload body chunks which are passed to the user are copied.
+     * Otherwise, all inbound data is copied to unpooled memory before decoding, and the user-visible data is sliced
+     * from it.
+     *
+     * @return {@code true} if inbound data is accumulated in pooled memory while it is decoded
+     */
+    boolean pooledDecoderBuffers();
 }
@@ -38,6 +38,7 @@ public final class H1ProtocolConfigBuilder {
     private int headersEncodedSizeEstimate = 256;
     private int trailersEncodedSizeEstimate = 256;
     private H1SpecExceptions specExceptions = DEFAULT_H1_SPEC_EXCEPTIONS;
+    private boolean pooledDecoderBuffers;
 
     H1ProtocolConfigBuilder() {
     }
@@ -144,6 +145,21 @@ public final class H1ProtocolConfigBuilder {
         return this;
     }
 
+    /**
+     * Sets whether inbound data is accumulated in pooled memory while it is decoded.
+     * <p>
+     * This reduces allocation of unpooled memory for every read from the socket, at the expense of copying header
+     * fields and payload body chunks which are passed to the user.
+     *
+     * @param pooledDecoderBuffers {@code true} to accumulate inbound data in pooled memory while it is decoded
+     * @return {@code this}
+     * @see H1ProtocolConfig#pooledDecoderBuffers()
+     */
+    public H1ProtocolConfigBuilder pooledDecoderBuffers(final boolean pooledDecoderBuffers) {
+        this.pooledDecoderBuffers = pooledDecoderBuffers;
+        return this;
+    }
+
     /**
      * Builds {@link H1ProtocolConfig}.
      *
@@ -151,7 +167,8 @@ public final class H1ProtocolConfigBuilder {
      */
     public H1ProtocolConfig build() {
         return new DefaultH1ProtocolConfig(headersFactory, maxPipelinedRequests, maxStartLineLength,
-                maxHeaderFieldLength, headersEncodedSizeEstimate, trailersEncodedSizeEstimate, specExceptions);
+                maxHeaderFieldLength, headersEncodedSizeEstimate, trailersEncodedSizeEstimate, specExceptions,
+                pooledDecoderBuffers);
     }
 
     private static final class DefaultH1ProtocolConfig implements H1ProtocolConfig {
@@ -163,11 +180,12 @@ public final class H1ProtocolConfigBuilder {
         private final int headersEncodedSizeEstimate;
         private final int trailersEncodedSizeEstimate;
         private final H1SpecExceptions specExceptions;
+        private final boolean pooledDecoderBuffers;
 
         DefaultH1ProtocolConfig(final HttpHeadersFactory headersFactory, final int maxPipelinedRequests,
                                 final int maxStartLineLength, final int maxHeaderFieldLength,
                                 final int headersEncodedSizeEstimate, final int trailersEncodedSizeEstimate,
-                                final H1SpecExceptions specExceptions) {
+                                final H1SpecExceptions specExceptions, final boolean pooledDecoderBuffers) {
             this.headersFactory = headersFactory;
             this.maxPipelinedRequests = maxPipelinedRequests;
             this.maxStartLineLength = maxStartLineLength;
@@ -175,6 +193,7 @@ public final class H1ProtocolConfigBuilder {
             this.headersEncodedSizeEstimate = headersEncodedSizeEstimate;
             this.trailersEncodedSizeEstimate = trailersEncodedSizeEstimate;
             this.specExceptions = specExceptions;
+            this.pooledDecoderBuffers = pooledDecoderBuffers;
         }
 
         @Override
@@ -211,5 +230,10 @@ public final class H1ProtocolConfigBuilder {
         public H1SpecExceptions specExceptions() {
             return specExceptions;
         }
+
+        @Override
+        public boolean pooledDecoderBuffers() {
+            return pooledDecoderBuffers;
+        }
     }
 }
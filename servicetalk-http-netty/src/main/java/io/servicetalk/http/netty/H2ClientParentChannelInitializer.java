@@ -25,12 +25,16 @@ import io.netty.handler.codec.http2.DefaultHttp2GoAwayFrame;
 import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
 import io.netty.handler.codec.http2.Http2FrameLogger;
 import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2Settings;
 
 import java.util.function.BiPredicate;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
 import static io.netty.handler.codec.http2.Http2Error.PROTOCOL_ERROR;
 import static io.netty.handler.codec.http2.Http2FrameCodecBuilder.forClient;
 import static io.netty.handler.logging.LogLevel.TRACE;
+import static io.servicetalk.http.netty.H2ConnectionWindowUpdateHandler.newHandlerIfRequired;
 
 final class H2ClientParentChannelInitializer implements ChannelInitializer {
 
@@ -55,6 +59,13 @@ final class H2ClientParentChannelInitializer implements ChannelInitializer {
 
         // Notify server that this client does not support server push and request it to be disabled.
         multiplexCodecBuilder.initialSettings().pushEnabled(false).maxConcurrentStreams(0L);
+        final Http2Settings initialSettings = multiplexCodecBuilder.initialSettings();
+        if (config.initialStreamWindowSize() != DEFAULT_WINDOW_SIZE) {
+            initialSettings.initialWindowSize(config.initialStreamWindowSize());
+        }
+        if (config.headerTableSize() != DEFAULT_HEADER_TABLE_SIZE) {
+            initialSettings.headerTableSize(config.headerTableSize());
+        }
 
         final BiPredicate<CharSequence, CharSequence> headersSensitivityDetector =
                 config.headersSensitivityDetector();
@@ -67,8 +78,12 @@ final class H2ClientParentChannelInitializer implements ChannelInitializer {
 
         // TODO(scott): more configuration. header validation, settings stream, etc...
 
-        channel.pipeline().addLast(multiplexCodecBuilder.build(),
-                new Http2MultiplexHandler(H2PushStreamHandler.INSTANCE));
+        channel.pipeline().addLast(multiplexCodecBuilder.build());
+        final H2ConnectionWindowUpdateHandler windowUpdateHandler = newHandlerIfRequired(config);
+        if (windowUpdateHandler != null) {
+            channel.pipeline().addLast(windowUpdateHandler);
+        }
+        channel.pipeline().addLast(new Http2MultiplexHandler(H2PushStreamHandler.INSTANCE));
     }
 
     @ChannelHandler.Sharable
@@ -76,6 +76,7 @@ import static io.servicetalk.http.netty.HeaderUtils.LAST_CHUNK_PREDICATE;
 import static io.servicetalk.http.netty.HttpDebugUtils.showPipeline;
 import static io.servicetalk.transport.netty.internal.ChannelSet.CHANNEL_CLOSEABLE_KEY;
 import static io.servicetalk.transport.netty.internal.CloseHandler.PROTOCOL_OUTBOUND_CLOSE_HANDLER;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 final class H2ClientParentConnectionContext extends H2ParentConnectionContext {
@@ -193,8 +194,10 @@ final class H2ClientParentConnectionContext extends H2ParentConnectionContext {
                 return true;
             }
 
+            // SETTINGS_MAX_CONCURRENT_STREAMS is an unsigned 32 bit value, values beyond Integer.MAX_VALUE mean
+            // "no practical limit" and must not overflow into a negative concurrency.
             maxConcurrencyProcessor.onNext(new MaxConcurrencyConsumableEvent(
-                    maxConcurrentStreams.intValue(), ctx.channel()));
+                    (int) min(maxConcurrentStreams, Integer.MAX_VALUE), ctx.channel()));
             return false;
         }
 
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http2.DefaultHttp2WindowUpdateFrame;
+
+import javax.annotation.Nullable;
+
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+
+/**
+ * Grows the <a href="https://tools.ietf.org/html/rfc7540#section-6.9">connection flow-control window</a> beyond the
+ * protocol default once the HTTP/2 connection preface has been sent, then removes itself from the pipeline.
+ * <p>
+ * Must be added right after the {@link io.netty.handler.codec.http2.Http2FrameCodec}.
+ */
+final class H2ConnectionWindowUpdateHandler extends ChannelInboundHandlerAdapter {
+    private final int windowSizeIncrement;
+
+    private H2ConnectionWindowUpdateHandler(final int windowSizeIncrement) {
+        this.windowSizeIncrement = windowSizeIncrement;
+    }
+
+    /**
+     * Creates a {@link H2ConnectionWindowUpdateHandler} if the configured connection window is larger than the
+     * protocol default.
+     *
+     * @param config {@link H2ProtocolConfig} for the connection.
+     * @return a new handler or {@code null} if the connection window does not need to be updated.
+     */
+    @Nullable
+    static H2ConnectionWindowUpdateHandler newHandlerIfRequired(final H2ProtocolConfig config) {
+        final int increment = config.connectionWindowSize() - DEFAULT_WINDOW_SIZE;
+        return increment > 0 ? new H2ConnectionWindowUpdateHandler(increment) : null;
+    }
+
+    @Override
+    public void handlerAdded(final ChannelHandlerContext ctx) {
+        if (ctx.channel().isActive()) {
+            // The preface was already sent by the codec when it was added to an active channel.
+            updateWindowAndRemove(ctx);
+        }
+    }
+
+    @Override
+    public void channelActive(final ChannelHandlerContext ctx) {
+        // The codec is before this handler and sends the preface when it sees channelActive.
+        updateWindowAndRemove(ctx);
+        ctx.fireChannelActive();
+    }
+
+    private void updateWindowAndRemove(final ChannelHandlerContext ctx) {
+        // A WINDOW_UPDATE without a stream is applied by Http2FrameCodec to the connection window.
+        ctx.writeAndFlush(new DefaultHttp2WindowUpdateFrame(windowSizeIncrement));
+        ctx.pipeline().remove(this);
+    }
+}
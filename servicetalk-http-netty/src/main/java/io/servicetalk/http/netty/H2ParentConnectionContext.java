@@ -27,10 +27,13 @@ import io.servicetalk.http.api.DefaultHttpExecutionContext;
 import io.servicetalk.http.api.HttpConnectionContext;
 import io.servicetalk.http.api.HttpExecutionContext;
 import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.transport.api.TransportObserver.ConnectionObserver;
+import io.servicetalk.transport.api.TransportObserver.StreamObserver;
 import io.servicetalk.transport.netty.internal.FlushStrategy;
 import io.servicetalk.transport.netty.internal.FlushStrategyHolder;
 import io.servicetalk.transport.netty.internal.NettyChannelListenableAsyncCloseable;
 import io.servicetalk.transport.netty.internal.NettyConnectionContext;
+import io.servicetalk.transport.netty.internal.NoopTransportObserver.NoopConnectionObserver;
 import io.servicetalk.transport.netty.internal.StacklessClosedChannelException;
 
 import io.netty.channel.Channel;
@@ -52,6 +55,7 @@ import static io.servicetalk.concurrent.api.Processors.newCompletableProcessor;
 import static io.servicetalk.concurrent.api.Processors.newSingleProcessor;
 import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
 import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_2_0;
+import static io.servicetalk.transport.netty.internal.ConnectionObserverInitializer.connectionObserver;
 import static io.servicetalk.transport.netty.internal.NettyIoExecutors.fromNettyEventLoop;
 import static io.servicetalk.transport.netty.internal.NettyPipelineSslUtils.extractSslSession;
 import static io.servicetalk.transport.netty.internal.SocketOptionUtils.getOption;
@@ -146,6 +150,11 @@ class H2ParentConnectionContext extends NettyChannelListenableAsyncCloseable imp
 
     final void trackActiveStream(Channel streamChannel) {
         keepAliveManager.trackActiveStream(streamChannel);
+        final ConnectionObserver observer = connectionObserver(channel());
+        if (observer != NoopConnectionObserver.INSTANCE) {
+            final StreamObserver streamObserver = observer.onNewStream();
+            streamChannel.closeFuture().addListener(f -> streamObserver.streamClosed());
+        }
     }
 
     abstract static class AbstractH2ParentConnection extends ChannelInboundHandlerAdapter {
@@ -23,6 +23,10 @@ import java.time.Duration;
 import java.util.function.BiPredicate;
 import javax.annotation.Nullable;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_CONCURRENT_STREAMS;
+
 /**
  * Configuration for <a href="https://tools.ietf.org/html/rfc7540">HTTP/2</a> protocol.
  *
@@ -63,6 +67,55 @@ public interface H2ProtocolConfig extends HttpProtocolConfig {
     @Nullable
     KeepAlivePolicy keepAlivePolicy();
 
+    /**
+     * Initial <a href="https://tools.ietf.org/html/rfc7540#section-6.9.2">flow-control window size</a> for each stream,
+     * advertised to the peer as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_INITIAL_WINDOW_SIZE</a>.
+     *
+     * @return initial flow-control window size (in bytes) for each stream, defaults to the protocol default of
+     * {@code 65535}.
+     */
+    default int initialStreamWindowSize() {
+        return DEFAULT_WINDOW_SIZE;
+    }
+
+    /**
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.9">Flow-control window size</a> for the whole connection.
+     * Values greater than the protocol default of {@code 65535} bytes are announced to the peer with a
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.9">WINDOW_UPDATE</a> frame once the connection is
+     * established.
+     *
+     * @return flow-control window size (in bytes) for the whole connection, defaults to the protocol default of
+     * {@code 65535}.
+     */
+    default int connectionWindowSize() {
+        return DEFAULT_WINDOW_SIZE;
+    }
+
+    /**
+     * Maximum number of concurrent streams the peer is allowed to open, advertised as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_MAX_CONCURRENT_STREAMS</a>.
+     * <p>
+     * Only applies to servers. Clients do not support server push and always advertise {@code 0}.
+     *
+     * @return maximum number of concurrent streams the peer is allowed to open, unlimited by default.
+     */
+    default long maxConcurrentStreams() {
+        return MAX_CONCURRENT_STREAMS;
+    }
+
+    /**
+     * Maximum size of the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a> used to
+     * decode headers, advertised as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_HEADER_TABLE_SIZE</a>.
+     *
+     * @return maximum size (in bytes) of the HPACK dynamic table used to decode headers, defaults to the protocol
+     * default of {@code 4096}.
+     */
+    default long headerTableSize() {
+        return DEFAULT_HEADER_TABLE_SIZE;
+    }
+
     /**
      * A policy for sending <a href="https://tools.ietf.org/html/rfc7540#section-6.7">PING frames</a> to the peer.
      */
@@ -24,6 +24,11 @@ import org.slf4j.event.Level;
 import java.util.function.BiPredicate;
 import javax.annotation.Nullable;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_CONCURRENT_STREAMS;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_INITIAL_WINDOW_SIZE;
 import static io.servicetalk.http.netty.H2HeadersFactory.DEFAULT_SENSITIVITY_DETECTOR;
 import static io.servicetalk.http.netty.H2KeepAlivePolicies.DISABLE_KEEP_ALIVE;
 import static java.util.Objects.requireNonNull;
@@ -41,6 +46,10 @@ public final class H2ProtocolConfigBuilder {
     private String frameLoggerName;
     @Nullable
     private KeepAlivePolicy keepAlivePolicy;
+    private int initialStreamWindowSize = DEFAULT_WINDOW_SIZE;
+    private int connectionWindowSize = DEFAULT_WINDOW_SIZE;
+    private long maxConcurrentStreams = MAX_CONCURRENT_STREAMS;
+    private long headerTableSize = DEFAULT_HEADER_TABLE_SIZE;
 
     H2ProtocolConfigBuilder() {
     }
@@ -97,6 +106,77 @@ public final class H2ProtocolConfigBuilder {
         return this;
     }
 
+    /**
+     * Sets the initial <a href="https://tools.ietf.org/html/rfc7540#section-6.9.2">flow-control window size</a> for
+     * each stream. Larger windows allow more data in flight per stream on high bandwidth-delay product links.
+     *
+     * @param initialStreamWindowSize initial flow-control window size (in bytes) for each stream, between {@code 0}
+     * and {@code 2^31-1}. Defaults to {@code 65535}.
+     * @return {@code this}
+     */
+    public H2ProtocolConfigBuilder initialStreamWindowSize(final int initialStreamWindowSize) {
+        if (initialStreamWindowSize < 0) {
+            throw new IllegalArgumentException("initialStreamWindowSize: " + initialStreamWindowSize +
+                    " (expected 0-" + MAX_INITIAL_WINDOW_SIZE + ")");
+        }
+        this.initialStreamWindowSize = initialStreamWindowSize;
+        return this;
+    }
+
+    /**
+     * Sets the <a href="https://tools.ietf.org/html/rfc7540#section-6.9">flow-control window size</a> for the whole
+     * connection.
+     *
+     * @param connectionWindowSize flow-control window size (in bytes) for the whole connection, between {@code 65535}
+     * and {@code 2^31-1}. Defaults to {@code 65535}.
+     * @return {@code this}
+     */
+    public H2ProtocolConfigBuilder connectionWindowSize(final int connectionWindowSize) {
+        if (connectionWindowSize < DEFAULT_WINDOW_SIZE) {
+            throw new IllegalArgumentException("connectionWindowSize: " + connectionWindowSize +
+                    " (expected " + DEFAULT_WINDOW_SIZE + "-" + MAX_INITIAL_WINDOW_SIZE + ")");
+        }
+        this.connectionWindowSize = connectionWindowSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of concurrent streams the peer is allowed to open, advertised as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_MAX_CONCURRENT_STREAMS</a>.
+     * <p>
+     * Only applies to servers. Clients do not support server push and always advertise {@code 0}.
+     *
+     * @param maxConcurrentStreams maximum number of concurrent streams the peer is allowed to open, between {@code 0}
+     * and {@code 2^32-1}. Defaults to {@code 2^32-1} (no limit).
+     * @return {@code this}
+     */
+    public H2ProtocolConfigBuilder maxConcurrentStreams(final long maxConcurrentStreams) {
+        if (maxConcurrentStreams < 0 || maxConcurrentStreams > MAX_CONCURRENT_STREAMS) {
+            throw new IllegalArgumentException("maxConcurrentStreams: " + maxConcurrentStreams +
+                    " (expected 0-" + MAX_CONCURRENT_STREAMS + ")");
+        }
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        return this;
+    }
+
+    /**
+     * Sets the maximum size of the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a>
+     * used to decode headers, advertised as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_HEADER_TABLE_SIZE</a>.
+     *
+     * @param headerTableSize maximum size (in bytes) of the HPACK dynamic table, between {@code 0} and
+     * {@code 2^32-1}. Defaults to {@code 4096}.
+     * @return {@code this}
+     */
+    public H2ProtocolConfigBuilder headerTableSize(final long headerTableSize) {
+        if (headerTableSize < 0 || headerTableSize > MAX_HEADER_TABLE_SIZE) {
+            throw new IllegalArgumentException("headerTableSize: " + headerTableSize +
+                    " (expected 0-" + MAX_HEADER_TABLE_SIZE + ")");
+        }
+        this.headerTableSize = headerTableSize;
+        return this;
+    }
+
     /**
      * Builds {@link H2ProtocolConfig}.
      *
@@ -104,7 +184,8 @@ public final class H2ProtocolConfigBuilder {
      */
     public H2ProtocolConfig build() {
         return new DefaultH2ProtocolConfig(headersFactory, headersSensitivityDetector, frameLoggerName,
-                keepAlivePolicy);
+                keepAlivePolicy, initialStreamWindowSize, connectionWindowSize, maxConcurrentStreams,
+                headerTableSize);
     }
 
     private static final class DefaultH2ProtocolConfig implements H2ProtocolConfig {
@@ -115,14 +196,24 @@ public final class H2ProtocolConfigBuilder {
         private final String frameLoggerName;
         @Nullable
         private final KeepAlivePolicy keepAlivePolicy;
+        private final int initialStreamWindowSize;
+        private final int connectionWindowSize;
+        private final long maxConcurrentStreams;
+        private final long headerTableSize;
 
         DefaultH2ProtocolConfig(final HttpHeadersFactory headersFactory,
                                 final BiPredicate<CharSequence, CharSequence> headersSensitivityDetector,
-                                @Nullable final String frameLogger, @Nullable final KeepAlivePolicy keepAlivePolicy) {
+                                @Nullable final String frameLogger, @Nullable final KeepAlivePolicy keepAlivePolicy,
+                                final int initialStreamWindowSize, final int connectionWindowSize,
+                                final long maxConcurrentStreams, final long headerTableSize) {
             this.headersFactory = headersFactory;
             this.headersSensitivityDetector = headersSensitivityDetector;
             this.frameLoggerName = frameLogger;
             this.keepAlivePolicy = keepAlivePolicy;
+            this.initialStreamWindowSize = initialStreamWindowSize;
+            this.connectionWindowSize = connectionWindowSize;
+            this.maxConcurrentStreams = maxConcurrentStreams;
+            this.headerTableSize = headerTableSize;
         }
 
         @Override
@@ -146,5 +237,25 @@ public final class H2ProtocolConfigBuilder {
         public KeepAlivePolicy keepAlivePolicy() {
             return keepAlivePolicy;
         }
+
+        @Override
+        public int initialStreamWindowSize() {
+            return initialStreamWindowSize;
+        }
+
+        @Override
+        public int connectionWindowSize() {
+            return connectionWindowSize;
+        }
+
+        @Override
+        public long maxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        @Override
+        public long headerTableSize() {
+            return headerTableSize;
+        }
    }
 }
@@ -21,11 +21,16 @@ import io.netty.channel.Channel;
 import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
 import io.netty.handler.codec.http2.Http2FrameLogger;
 import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2Settings;
 
 import java.util.function.BiPredicate;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_CONCURRENT_STREAMS;
 import static io.netty.handler.codec.http2.Http2FrameCodecBuilder.forServer;
 import static io.netty.handler.logging.LogLevel.TRACE;
+import static io.servicetalk.http.netty.H2ConnectionWindowUpdateHandler.newHandlerIfRequired;
 
 final class H2ServerParentChannelInitializer implements ChannelInitializer {
     private final H2ProtocolConfig config;
@@ -47,6 +52,17 @@ final class H2ServerParentChannelInitializer implements ChannelInitializer {
                 // the user to apply their own timeout at the call site.
                 .gracefulShutdownTimeoutMillis(-1);
 
+        final Http2Settings initialSettings = multiplexCodecBuilder.initialSettings();
+        if (config.initialStreamWindowSize() != DEFAULT_WINDOW_SIZE) {
+            initialSettings.initialWindowSize(config.initialStreamWindowSize());
+        }
+        if (config.headerTableSize() != DEFAULT_HEADER_TABLE_SIZE) {
+            initialSettings.headerTableSize(config.headerTableSize());
+        }
+        if (config.maxConcurrentStreams() != MAX_CONCURRENT_STREAMS) {
+            initialSettings.maxConcurrentStreams(config.maxConcurrentStreams());
+        }
+
         final BiPredicate<CharSequence, CharSequence> headersSensitivityDetector =
                 config.headersSensitivityDetector();
         multiplexCodecBuilder.headerSensitivityDetector(headersSensitivityDetector::test);
@@ -58,6 +74,11 @@ final class H2ServerParentChannelInitializer implements ChannelInitializer {
 
         // TODO(scott): more configuration. header validation, settings stream, etc...
 
-        channel.pipeline().addLast(multiplexCodecBuilder.build(), new Http2MultiplexHandler(streamChannelInitializer));
+        channel.pipeline().addLast(multiplexCodecBuilder.build());
+        final H2ConnectionWindowUpdateHandler windowUpdateHandler = newHandlerIfRequired(config);
+        if (windowUpdateHandler != null) {
+            channel.pipeline().addLast(windowUpdateHandler);
+        }
+        channel.pipeline().addLast(new Http2MultiplexHandler(streamChannelInitializer));
     }
 }
@@ -19,6 +19,7 @@ import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.http.api.CharSequences;
 import io.servicetalk.http.api.EmptyHttpHeaders;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpMetaData;
 import io.servicetalk.http.api.HttpRequestMethod;
@@ -190,6 +191,9 @@ final class HeaderUtils {
                 final Buffer buffer = (Buffer) reduction;
                 contentLength = buffer.readableBytes();
                 flatRequest = from(metadata, buffer, EmptyHttpHeaders.INSTANCE);
+            } else if (reduction instanceof HttpFileRegion) {
+                contentLength = calculateContentLength(reduction);
+                flatRequest = from(metadata, reduction, EmptyHttpHeaders.INSTANCE);
             } else if (reduction instanceof HttpHeaders) {
                 flatRequest = from(metadata, reduction);
             } else {
@@ -201,10 +205,17 @@ final class HeaderUtils {
     }
 
     static int calculateContentLength(Object item) {
-        // TODO(scott): add support for file region
         if (item instanceof Buffer) {
             return calculateContentLength((Buffer) item);
         }
+        if (item instanceof HttpFileRegion) {
+            final long count = ((HttpFileRegion) item).count();
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File region " + item +
+                        " is too large to calculate content-length, set the content-length header explicitly");
+            }
+            return (int) count;
+        }
         throw new IllegalArgumentException("Unknown object " + item + " found as payload");
     }
 
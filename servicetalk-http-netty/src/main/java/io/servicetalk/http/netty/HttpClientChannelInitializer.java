@@ -40,17 +40,21 @@ final class HttpClientChannelInitializer implements ChannelInitializer {
      */
     HttpClientChannelInitializer(final ByteBufAllocator alloc, final H1ProtocolConfig config,
                                  final CloseHandler closeHandler) {
-        // H1 slices passed memory chunks into headers and payload body without copying and will emit them to the
-        // user-code. Therefore, ByteBufs must be copied to unpooled memory before HttpObjectDecoder.
-        this.delegate = new CopyByteBufHandlerChannelInitializer(alloc).andThen(channel -> {
+        final ChannelInitializer h1Initializer = channel -> {
             final Queue<HttpRequestMethod> methodQueue = new ArrayDeque<>(min(8, config.maxPipelinedRequests()));
             final ChannelPipeline pipeline = channel.pipeline();
             pipeline.addLast(new HttpResponseDecoder(methodQueue, alloc, config.headersFactory(),
                     config.maxStartLineLength(), config.maxHeaderFieldLength(),
-                    config.specExceptions().allowPrematureClosureBeforePayloadBody(), closeHandler));
+                    config.specExceptions().allowPrematureClosureBeforePayloadBody(), closeHandler,
+                    config.pooledDecoderBuffers()));
             pipeline.addLast(new HttpRequestEncoder(methodQueue,
                     config.headersEncodedSizeEstimate(), config.trailersEncodedSizeEstimate(), closeHandler));
-        });
+        };
+        // H1 slices passed memory chunks into headers and payload body without copying and will emit them to the
+        // user-code. Therefore, ByteBufs must be copied to unpooled memory before HttpObjectDecoder, unless the decoder
+        // copies user-visible data itself.
+        this.delegate = config.pooledDecoderBuffers() ? h1Initializer :
+                new CopyByteBufHandlerChannelInitializer(alloc).andThen(h1Initializer);
     }
 
     @Override
@@ -75,9 +75,8 @@ import static io.servicetalk.http.api.HttpRequestMethod.GET;
 import static io.servicetalk.http.api.HttpResponseStatus.SWITCHING_PROTOCOLS;
 import static io.servicetalk.http.netty.HeaderUtils.removeTransferEncodingChunked;
 import static io.servicetalk.http.netty.HttpKeepAlive.shouldClose;
-import static java.lang.Character.isISOControl;
-import static java.lang.Character.isWhitespace;
-import static java.lang.Long.parseUnsignedLong;
+import static io.servicetalk.http.netty.KnownHeaderNames.knownHeaderName;
+import static io.servicetalk.transport.netty.internal.CopyByteBufHandlerChannelInitializer.POOLED_ALLOCATOR;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.US_ASCII;
@@ -127,6 +126,8 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
     private final HttpHeadersFactory headersFactory;
     private final CloseHandler closeHandler;
     private final boolean allowPrematureClosureBeforePayloadBody;
+    private final ByteBufAllocator alloc;
+    private final boolean pooledCumulation;
     @Nullable
     private T message;
     @Nullable
@@ -156,11 +157,18 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
 
     /**
      * Creates a new instance with the specified parameters.
+     * <p>
+     * If {@code pooledCumulation} is {@code true} the inbound data is accumulated in pooled memory which is released as
+     * soon as it is decoded, and data which is passed to the user (header fields and payload body) is copied to memory
+     * allocated by {@code alloc}. Otherwise the inbound data is expected to be unpooled and it is sliced without copy.
      */
     protected HttpObjectDecoder(final ByteBufAllocator alloc, final HttpHeadersFactory headersFactory,
                                 final int maxStartLineLength, final int maxHeaderFieldLength,
-                                final boolean allowPrematureClosureBeforePayloadBody, final CloseHandler closeHandler) {
-        super(alloc);
+                                final boolean allowPrematureClosureBeforePayloadBody, final CloseHandler closeHandler,
+                                final boolean pooledCumulation) {
+        super(pooledCumulation ? POOLED_ALLOCATOR : alloc, pooledCumulation);
+        this.alloc = alloc;
+        this.pooledCumulation = pooledCumulation;
         this.closeHandler = closeHandler;
         if (maxStartLineLength <= 0) {
             throw new IllegalArgumentException("maxStartLineLength: " + maxStartLineLength + " (expected >0)");
@@ -317,7 +325,7 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
                 // Keep reading data as a chunk until the end of connection is reached.
                 int toRead = buffer.readableBytes();
                 if (toRead > 0) {
-                    ByteBuf content = buffer.readRetainedSlice(toRead);
+                    ByteBuf content = readContent(buffer, toRead);
                     cumulationIndex = buffer.readerIndex();
                     ctx.fireChannelRead(newBufferFrom(content));
                 }
@@ -339,7 +347,7 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
                 if (toRead > chunkSize) {
                     toRead = (int) chunkSize;
                 }
-                ByteBuf content = buffer.readRetainedSlice(toRead);
+                ByteBuf content = readContent(buffer, toRead);
                 chunkSize -= toRead;
                 cumulationIndex = buffer.readerIndex();
 
@@ -379,7 +387,7 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
                 if (toRead == 0) {
                     return;
                 }
-                Buffer chunk = newBufferFrom(buffer.readRetainedSlice(toRead));
+                Buffer chunk = newBufferFrom(readContent(buffer, toRead));
                 chunkSize -= toRead;
                 cumulationIndex = buffer.readerIndex();
 
@@ -418,7 +426,9 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
                     // other handler will replace this codec with the upgraded protocol codec to
                     // take the traffic over at some point then.
                     // See https://github.com/netty/netty/issues/2173
-                    ByteBuf opaquePayload = buffer.readBytes(readableBytes);
+                    ByteBuf opaquePayload = pooledCumulation ?
+                            alloc.buffer(readableBytes).writeBytes(buffer, readableBytes) :
+                            buffer.readBytes(readableBytes);
                     cumulationIndex = buffer.readerIndex();
                     // TODO(scott): revisit how upgrades are going to be done. Do we use Netty buffers or not?
                     ctx.fireChannelRead(opaquePayload);
@@ -598,22 +608,42 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
             throw new IllegalArgumentException("Empty header name");
         }
 
-        // We assume the allocator will not leak memory, and so we retain + slice to avoid copying data.
-        final CharSequence name = newAsciiString(newBufferFrom(buffer.retainedSlice(nameStart, nameEnd - nameStart)));
+        final CharSequence knownName = knownHeaderName(buffer, nameStart, nameEnd - nameStart);
+        final CharSequence name = knownName != null ? knownName :
+                newAsciiString(newBufferFrom(headerSlice(buffer, nameStart, nameEnd - nameStart)));
         final int valueStart;
         if (nameEnd >= nonControlIndex || (valueStart =
                 buffer.forEachByte(nameEnd + 1, nonControlIndex - nameEnd, FIND_FIELD_VALUE)) < 0) {
             headers.add(name, emptyAsciiString());
         } else {
             final int valueEnd = buffer.forEachByteDesc(valueStart, nonControlIndex - valueStart + 1, FIND_FIELD_VALUE);
-            // We assume the allocator will not leak memory, and so we retain + slice to avoid copying data.
-            headers.add(name, newAsciiString(newBufferFrom(buffer.retainedSlice(valueStart,
+            headers.add(name, newAsciiString(newBufferFrom(headerSlice(buffer, valueStart,
                     valueEnd - valueStart + 1))));
         }
         // Consume the header line bytes from the buffer.
         consumeCRLF(buffer, lfIndex);
     }
 
+    /**
+     * Reads {@code length} bytes of payload body from the {@code buffer} into a {@link ByteBuf} that can be passed to
+     * the user.
+     */
+    private ByteBuf readContent(final ByteBuf buffer, final int length) {
+        // A pooled cumulation is released after decoding, so data that escapes to the user has to be copied. Otherwise
+        // we assume the allocator will not leak memory, and so we retain + slice to avoid copying data.
+        return pooledCumulation ? alloc.buffer(length).writeBytes(buffer, length) : buffer.readRetainedSlice(length);
+    }
+
+    /**
+     * Returns a {@link ByteBuf} with {@code length} bytes of a header field starting at {@code index} of the
+     * {@code buffer} that can be passed to the user.
+     */
+    private ByteBuf headerSlice(final ByteBuf buffer, final int index, final int length) {
+        // See readContent(...) for why pooled memory is copied.
+        return pooledCumulation ? alloc.heapBuffer(length).writeBytes(buffer, index, length) :
+                buffer.retainedSlice(index, length);
+    }
+
     @Nullable
     private State readHeaders(final ByteBuf buffer) {
         int lfIndex = findCRLF(buffer, maxHeaderFieldLength);
@@ -691,21 +721,52 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
         if (lfIndex - 2 < buffer.readerIndex()) {
             throw new DecoderException("Chunked encoding specified but chunk-size not found");
         }
-        return getChunkSize(buffer.toString(buffer.readerIndex(),
-                lfIndex - 1 - buffer.readerIndex(), US_ASCII));
-    }
-
-    private static long getChunkSize(String hex) {
-        hex = hex.trim();
-        for (int i = 0; i < hex.length(); ++i) {
-            char c = hex.charAt(i);
-            if (c == ';' || isWhitespace(c) || isISOControl(c)) {
-                hex = hex.substring(0, i);
+        // chunk-size is parsed directly from the bytes preceding the CRLF, ignoring leading whitespace and anything
+        // after the first whitespace, control character or chunk-ext delimiter ";".
+        final int end = lfIndex - 1;
+        int i = buffer.readerIndex();
+        while (i < end && isWhitespaceOrControl(buffer.getByte(i))) {
+            ++i;
+        }
+        final int start = i;
+        long chunkSize = 0;
+        for (; i < end; ++i) {
+            final byte value = buffer.getByte(i);
+            if (value == ';' || isWhitespaceOrControl(value)) {
                 break;
             }
+            final int digit = hexDigit(value);
+            if (digit < 0 || i - start == MAX_HEX_CHARS_FOR_LONG) {
+                throw newInvalidChunkSize(buffer, start, end);
+            }
+            chunkSize = (chunkSize << 4) | digit;
         }
+        if (i == start) {
+            throw newInvalidChunkSize(buffer, start, end);
+        }
+        return chunkSize;
+    }
+
+    private static boolean isWhitespaceOrControl(final byte value) {
+        return (value >= 0 && value <= SP) || value == 0x7F;
+    }
+
+    private static int hexDigit(final byte value) {
+        if (value >= '0' && value <= '9') {
+            return value - '0';
+        }
+        if (value >= 'a' && value <= 'f') {
+            return value - 'a' + 10;
+        }
+        if (value >= 'A' && value <= 'F') {
+            return value - 'A' + 10;
+        }
+        return -1;
+    }
 
-        return parseUnsignedLong(hex, 16);
+    private static NumberFormatException newInvalidChunkSize(final ByteBuf buffer, final int start, final int end) {
+        return new NumberFormatException("Invalid chunk-size: \"" +
+                buffer.toString(start, end - start, US_ASCII) + '"');
     }
 
     private void consumeCRLF(final ByteBuf buffer, final int lfIndex) {
@@ -31,6 +31,7 @@
 package io.servicetalk.http.netty;
 
 import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpMetaData;
 import io.servicetalk.transport.netty.internal.CloseHandler;
@@ -40,8 +41,14 @@ import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.concurrent.PromiseCombiner;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Map;
 
 import static io.netty.buffer.ByteBufUtil.writeMediumBE;
@@ -64,6 +71,7 @@ import static io.servicetalk.http.netty.HttpKeepAlive.shouldClose;
 import static java.lang.Long.toHexString;
 import static java.lang.Math.max;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
 
 abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutboundHandlerAdapter {
     static final int CRLF_SHORT = (CR << 8) | LF;
@@ -81,6 +89,7 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
     private static final int ST_CONTENT_NON_CHUNK = 1;
     private static final int ST_CONTENT_CHUNK = 2;
     private static final int ST_CONTENT_ALWAYS_EMPTY = 3;
+    private static final int FILE_CHUNK_SIZE = 8192;
 
     @SuppressWarnings("RedundantFieldInitialization")
     private int state = ST_INIT;
@@ -183,6 +192,33 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
                         throw new Error();
                 }
             }
+        } else if (msg instanceof HttpFileRegion) {
+            final HttpFileRegion region = (HttpFileRegion) msg;
+            switch (state) {
+                case ST_INIT:
+                    throw new IllegalStateException("unexpected message type: " + simpleClassName(msg));
+                case ST_CONTENT_NON_CHUNK:
+                    if (region.count() > 0) {
+                        writeFileRegion(ctx, region, promise);
+                        break;
+                    }
+
+                    // fall-through!
+                case ST_CONTENT_ALWAYS_EMPTY:
+                    ctx.write(EMPTY_BUFFER, promise);
+                    break;
+                case ST_CONTENT_CHUNK:
+                    if (region.count() > 0) {
+                        PromiseCombiner promiseCombiner = new PromiseCombiner();
+                        encodeChunkedFileRegion(ctx, region, promiseCombiner);
+                        promiseCombiner.finish(promise);
+                    } else {
+                        ctx.write(EMPTY_BUFFER, promise);
+                    }
+                    break;
+                default:
+                    throw new Error();
+            }
         } else if (msg instanceof HttpHeaders) {
             closeHandler.protocolPayloadEndOutbound(ctx);
             promise.addListener(f -> {
@@ -269,6 +305,44 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
         }
     }
 
+    private static void encodeChunkedFileRegion(ChannelHandlerContext ctx, HttpFileRegion region,
+                                                PromiseCombiner promiseCombiner) {
+        String lengthHex = toHexString(region.count());
+        ByteBuf buf = ctx.alloc().directBuffer(lengthHex.length() + 2);
+        buf.writeCharSequence(lengthHex, US_ASCII);
+        writeShortBE(buf, CRLF_SHORT);
+        promiseCombiner.add(ctx.write(buf));
+        ChannelPromise regionPromise = ctx.newPromise();
+        promiseCombiner.add(regionPromise);
+        writeFileRegion(ctx, region, regionPromise);
+        promiseCombiner.add(ctx.write(CRLF_BUF.duplicate()));
+    }
+
+    /**
+     * Writes a {@link HttpFileRegion} as a zero-copy {@link DefaultFileRegion} if nothing in the pipeline needs to
+     * process the content, or reads it in chunks if the content has to be encrypted.
+     */
+    private static void writeFileRegion(ChannelHandlerContext ctx, HttpFileRegion region, ChannelPromise promise) {
+        if (ctx.pipeline().get(SslHandler.class) == null) {
+            ctx.write(new DefaultFileRegion(region.path().toFile(), region.position(), region.count()), promise);
+            return;
+        }
+        if (ctx.pipeline().get(ChunkedWriteHandler.class) == null) {
+            // Only connections writing file regions over TLS pay for the ChunkedWriteHandler. It queues writes until
+            // the next flush, which does not change the order or the outcome of writes that are already pending.
+            ctx.pipeline().addBefore(ctx.name(), null, new ChunkedWriteHandler());
+        }
+        final ChunkedNioFile chunkedFile;
+        try {
+            chunkedFile = new ChunkedNioFile(FileChannel.open(region.path(), READ), region.position(),
+                    region.count(), FILE_CHUNK_SIZE);
+        } catch (IOException e) {
+            promise.setFailure(e);
+            return;
+        }
+        ctx.write(chunkedFile, promise);
+    }
+
     private void encodeAndWriteTrailers(ChannelHandlerContext ctx, HttpHeaders headers, ChannelPromise promise) {
         if (headers.isEmpty()) {
             ctx.write(ZERO_CRLF_CRLF_BUF.duplicate(), promise);
@@ -52,15 +52,15 @@ final class HttpRequestDecoder extends HttpObjectDecoder<HttpRequestMetaData> {
                        final HttpHeadersFactory headersFactory, final int maxStartLineLength,
                        final int maxHeaderFieldLength) {
         this(methodQueue, alloc, headersFactory, maxStartLineLength, maxHeaderFieldLength,
-                false, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER);
+                false, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER, false);
     }
 
     HttpRequestDecoder(final Queue<HttpRequestMethod> methodQueue, final ByteBufAllocator alloc,
                        final HttpHeadersFactory headersFactory, final int maxStartLineLength,
                        final int maxHeaderFieldLength, final boolean allowPrematureClosureBeforePayloadBody,
-                       final CloseHandler closeHandler) {
+                       final CloseHandler closeHandler, final boolean pooledCumulation) {
         super(alloc, headersFactory, maxStartLineLength, maxHeaderFieldLength, allowPrematureClosureBeforePayloadBody,
-                closeHandler);
+                closeHandler, pooledCumulation);
         this.methodQueue = requireNonNull(methodQueue);
     }
 
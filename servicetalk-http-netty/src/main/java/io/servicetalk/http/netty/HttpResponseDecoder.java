@@ -61,14 +61,15 @@ final class HttpResponseDecoder extends HttpObjectDecoder<HttpResponseMetaData>
     HttpResponseDecoder(final Queue<HttpRequestMethod> methodQueue, final ByteBufAllocator alloc,
                         final HttpHeadersFactory headersFactory, int maxStartLineLength, int maxHeaderFieldLength) {
         this(methodQueue, alloc, headersFactory, maxStartLineLength, maxHeaderFieldLength,
-                false, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER);
+                false, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER, false);
     }
 
     HttpResponseDecoder(final Queue<HttpRequestMethod> methodQueue, final ByteBufAllocator alloc,
                         final HttpHeadersFactory headersFactory, final int maxStartLineLength, int maxHeaderFieldLength,
-                        final boolean allowPrematureClosureBeforePayloadBody, final CloseHandler closeHandler) {
+                        final boolean allowPrematureClosureBeforePayloadBody, final CloseHandler closeHandler,
+                        final boolean pooledCumulation) {
         super(alloc, headersFactory, maxStartLineLength, maxHeaderFieldLength, allowPrematureClosureBeforePayloadBody,
-                closeHandler);
+                closeHandler, pooledCumulation);
         this.methodQueue = requireNonNull(methodQueue);
     }
 
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.HttpHeaderNames;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Resolves well-known {@link HttpHeaderNames} to shared {@link CharSequence} instances, so that decoding them does
+ * not allocate.
+ * <p>
+ * Both the lower-case form and the capitalized form (e.g. {@code content-length} and {@code Content-Length}) are
+ * recognized, other spellings are not matched and have to be decoded as usual. Candidates are bucketed by length and
+ * compared by their first byte before comparing all bytes.
+ */
+final class KnownHeaderNames {
+    private static final KnownHeaderName[][] NAMES_BY_LENGTH;
+
+    static {
+        final CharSequence[] names = {
+                HttpHeaderNames.ACCEPT,
+                HttpHeaderNames.ACCEPT_CHARSET,
+                HttpHeaderNames.ACCEPT_ENCODING,
+                HttpHeaderNames.ACCEPT_LANGUAGE,
+                HttpHeaderNames.ACCEPT_RANGES,
+                HttpHeaderNames.ACCEPT_PATCH,
+                HttpHeaderNames.ACCESS_CONTROL_ALLOW_CREDENTIALS,
+                HttpHeaderNames.ACCESS_CONTROL_ALLOW_HEADERS,
+                HttpHeaderNames.ACCESS_CONTROL_ALLOW_METHODS,
+                HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN,
+                HttpHeaderNames.ACCESS_CONTROL_EXPOSE_HEADERS,
+                HttpHeaderNames.ACCESS_CONTROL_MAX_AGE,
+                HttpHeaderNames.ACCESS_CONTROL_REQUEST_HEADERS,
+                HttpHeaderNames.ACCESS_CONTROL_REQUEST_METHOD,
+                HttpHeaderNames.AGE,
+                HttpHeaderNames.ALLOW,
+                HttpHeaderNames.AUTHORIZATION,
+                HttpHeaderNames.CACHE_CONTROL,
+                HttpHeaderNames.CONNECTION,
+                HttpHeaderNames.CONTENT_BASE,
+                HttpHeaderNames.CONTENT_ENCODING,
+                HttpHeaderNames.CONTENT_LANGUAGE,
+                HttpHeaderNames.CONTENT_LENGTH,
+                HttpHeaderNames.CONTENT_LOCATION,
+                HttpHeaderNames.CONTENT_TRANSFER_ENCODING,
+                HttpHeaderNames.CONTENT_DISPOSITION,
+                HttpHeaderNames.CONTENT_MD5,
+                HttpHeaderNames.CONTENT_RANGE,
+                HttpHeaderNames.CONTENT_SECURITY_POLICY,
+                HttpHeaderNames.CONTENT_TYPE,
+                HttpHeaderNames.COOKIE,
+                HttpHeaderNames.DATE,
+                HttpHeaderNames.ETAG,
+                HttpHeaderNames.EXPECT,
+                HttpHeaderNames.EXPIRES,
+                HttpHeaderNames.FORWARDED,
+                HttpHeaderNames.FROM,
+                HttpHeaderNames.HOST,
+                HttpHeaderNames.IF_MATCH,
+                HttpHeaderNames.IF_MODIFIED_SINCE,
+                HttpHeaderNames.IF_NONE_MATCH,
+                HttpHeaderNames.IF_RANGE,
+                HttpHeaderNames.IF_UNMODIFIED_SINCE,
+                HttpHeaderNames.LAST_MODIFIED,
+                HttpHeaderNames.LOCATION,
+                HttpHeaderNames.MAX_FORWARDS,
+                HttpHeaderNames.ORIGIN,
+                HttpHeaderNames.PRAGMA,
+                HttpHeaderNames.PROXY_AUTHENTICATE,
+                HttpHeaderNames.PROXY_AUTHORIZATION,
+                HttpHeaderNames.RANGE,
+                HttpHeaderNames.REFERER,
+                HttpHeaderNames.RETRY_AFTER,
+                HttpHeaderNames.SEC_WEBSOCKET_KEY1,
+                HttpHeaderNames.SEC_WEBSOCKET_KEY2,
+                HttpHeaderNames.SEC_WEBSOCKET_LOCATION,
+                HttpHeaderNames.SEC_WEBSOCKET_ORIGIN,
+                HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL,
+                HttpHeaderNames.SEC_WEBSOCKET_VERSION,
+                HttpHeaderNames.SEC_WEBSOCKET_KEY,
+                HttpHeaderNames.SEC_WEBSOCKET_ACCEPT,
+                HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS,
+                HttpHeaderNames.SERVER,
+                HttpHeaderNames.SET_COOKIE,
+                HttpHeaderNames.SET_COOKIE2,
+                HttpHeaderNames.TE,
+                HttpHeaderNames.TRAILER,
+                HttpHeaderNames.TRANSFER_ENCODING,
+                HttpHeaderNames.UPGRADE,
+                HttpHeaderNames.USER_AGENT,
+                HttpHeaderNames.VARY,
+                HttpHeaderNames.VIA,
+                HttpHeaderNames.WARNING,
+                HttpHeaderNames.WEBSOCKET_LOCATION,
+                HttpHeaderNames.WEBSOCKET_ORIGIN,
+                HttpHeaderNames.WEBSOCKET_PROTOCOL,
+                HttpHeaderNames.WWW_AUTHENTICATE,
+                HttpHeaderNames.X_FORWARDED_FOR,
+                HttpHeaderNames.X_FORWARDED_HOST,
+                HttpHeaderNames.X_FORWARDED_PROTO,
+                HttpHeaderNames.X_REQUESTED_WITH
+        };
+        final List<List<KnownHeaderName>> byLength = new ArrayList<>();
+        for (CharSequence name : names) {
+            final String lowerCase = name.toString();
+            add(byLength, new KnownHeaderName(lowerCase, name));
+            final String capitalized = capitalize(lowerCase);
+            add(byLength, new KnownHeaderName(capitalized, newAsciiString(capitalized)));
+        }
+        NAMES_BY_LENGTH = new KnownHeaderName[byLength.size()][];
+        for (int i = 0; i < NAMES_BY_LENGTH.length; ++i) {
+            final List<KnownHeaderName> bucket = byLength.get(i);
+            NAMES_BY_LENGTH[i] = bucket == null ? new KnownHeaderName[0] : bucket.toArray(new KnownHeaderName[0]);
+        }
+    }
+
+    private KnownHeaderNames() {
+        // no instances
+    }
+
+    /**
+     * Finds a well-known header name that matches exactly {@code length} bytes of {@code buffer} starting at
+     * {@code index}.
+     *
+     * @param buffer {@link ByteBuf} that contains the header name.
+     * @param index index of the first byte of the header name.
+     * @param length number of bytes of the header name.
+     * @return shared {@link CharSequence} for the header name, or {@code null} if it is not well-known.
+     */
+    @Nullable
+    static CharSequence knownHeaderName(final ByteBuf buffer, final int index, final int length) {
+        if (length >= NAMES_BY_LENGTH.length) {
+            return null;
+        }
+        final byte first = buffer.getByte(index);
+        for (KnownHeaderName candidate : NAMES_BY_LENGTH[length]) {
+            if (candidate.bytes[0] == first && candidate.matches(buffer, index)) {
+                return candidate.name;
+            }
+        }
+        return null;
+    }
+
+    private static void add(final List<List<KnownHeaderName>> byLength, final KnownHeaderName name) {
+        final int length = name.bytes.length;
+        while (byLength.size() <= length) {
+            byLength.add(null);
+        }
+        List<KnownHeaderName> bucket = byLength.get(length);
+        if (bucket == null) {
+            bucket = new ArrayList<>(2);
+            byLength.set(length, bucket);
+        }
+        for (KnownHeaderName existing : bucket) {
+            if (existing.value.equals(name.value)) {
+                return;
+            }
+        }
+        bucket.add(name);
+    }
+
+    private static String capitalize(final String lowerCase) {
+        final char[] chars = lowerCase.toCharArray();
+        boolean upper = true;
+        for (int i = 0; i < chars.length; ++i) {
+            if (upper) {
+                chars[i] = Character.toUpperCase(chars[i]);
+            }
+            upper = chars[i] == '-';
+        }
+        return new String(chars);
+    }
+
+    private static final class KnownHeaderName {
+        final String value;
+        final byte[] bytes;
+        final CharSequence name;
+
+        KnownHeaderName(final String value, final CharSequence name) {
+            this.value = value;
+            this.bytes = value.getBytes(US_ASCII);
+            this.name = name;
+        }
+
+        boolean matches(final ByteBuf buffer, final int index) {
+            for (int i = 1; i < bytes.length; ++i) {
+                if (bytes[i] != buffer.getByte(index + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.servicetalk.http.netty;
 
 import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.internal.RequestTracker;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.concurrent.api.TerminalSignalConsumer;
@@ -65,39 +66,53 @@ final class LoadBalancedStreamingHttpClient implements FilterableStreamingHttpCl
         // following the LoadBalancer API which this Client depends upon to ensure the concurrent request count state is
         // correct.
         return loadBalancer.selectConnection(SELECTOR_FOR_REQUEST)
-                .flatMap(c -> c.request(strategy, request)
-                        .liftSync(new BeforeFinallyHttpOperator(new TerminalSignalConsumer() {
-                            @Override
-                            public void onComplete() {
-                                c.requestFinished();
-                            }
-
-                            @Override
-                            public void onError(final Throwable throwable) {
-                                c.requestFinished();
-                            }
-
-                            @Override
-                            public void cancel() {
-                                // If the request gets cancelled, we pessimistically assume that the transport will
-                                // close the connection since the Subscriber did not read the entire response and
-                                // cancelled. This reduces the time window during which a connection is eligible for
-                                // selection by the load balancer post cancel and the connection being closed by the
-                                // transport.
-                                // Transport MAY not close the connection if cancel raced with completion and completion
-                                // was seen by the transport before cancel. We have no way of knowing at this layer
-                                // if this indeed happen.
-                                // For H2, closing connection (stream) is cheaper but for H1 this may create more churn
-                                // if we are always hitting the above mentioned race and the connection otherwise is
-                                // good to be reused. As the debugging of why a closed connection was selected is much
-                                // more difficult for users, we decide to be pessimistic here.
-                                c.closeAsync().subscribe();
-                            }
-                        }))
-                        // subscribeShareContext is used because otherwise the AsyncContext modified during response
-                        // meta data processing will not be visible during processing of the response payload for
-                        // ConnectionFilters (it already is visible on ClientFilters).
-                        .subscribeShareContext());
+                .flatMap(c -> {
+                    // The load balancer may track requests of the connection's host to account for its load.
+                    final RequestTracker tracker = c.requestTracker();
+                    final long startTimeNs = tracker == null ? 0 : tracker.beforeRequestStart();
+                    return c.request(strategy, request)
+                            .liftSync(new BeforeFinallyHttpOperator(new TerminalSignalConsumer() {
+                                @Override
+                                public void onComplete() {
+                                    c.requestFinished();
+                                    if (tracker != null) {
+                                        tracker.onRequestSuccess(startTimeNs);
+                                    }
+                                }
+
+                                @Override
+                                public void onError(final Throwable throwable) {
+                                    c.requestFinished();
+                                    if (tracker != null) {
+                                        tracker.onRequestError(startTimeNs);
+                                    }
+                                }
+
+                                @Override
+                                public void cancel() {
+                                    if (tracker != null) {
+                                        tracker.onRequestCancel(startTimeNs);
+                                    }
+                                    // If the request gets cancelled, we pessimistically assume that the transport will
+                                    // close the connection since the Subscriber did not read the entire response and
+                                    // cancelled. This reduces the time window during which a connection is eligible for
+                                    // selection by the load balancer post cancel and the connection being closed by the
+                                    // transport.
+                                    // Transport MAY not close the connection if cancel raced with completion and
+                                    // completion was seen by the transport before cancel. We have no way of knowing at
+                                    // this layer if this indeed happen.
+                                    // For H2, closing connection (stream) is cheaper but for H1 this may create more
+                                    // churn if we are always hitting the above mentioned race and the connection
+                                    // otherwise is good to be reused. As the debugging of why a closed connection was
+                                    // selected is much more difficult for users, we decide to be pessimistic here.
+                                    c.closeAsync().subscribe();
+                                }
+                            }))
+                            // subscribeShareContext is used because otherwise the AsyncContext modified during response
+                            // meta data processing will not be visible during processing of the response payload for
+                            // ConnectionFilters (it already is visible on ClientFilters).
+                            .subscribeShareContext();
+                });
     }
 
     @Override
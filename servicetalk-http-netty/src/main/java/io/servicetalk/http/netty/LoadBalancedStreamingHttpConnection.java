@@ -16,6 +16,9 @@
 package io.servicetalk.http.netty;
 
 import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.internal.RequestConcurrencyController;
+import io.servicetalk.client.api.internal.RequestTracker;
+import io.servicetalk.client.api.internal.RequestTrackerAware;
 import io.servicetalk.client.api.internal.ReservableRequestConcurrencyController;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Publisher;
@@ -36,16 +39,19 @@ import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
 
+import javax.annotation.Nullable;
+
 import static io.servicetalk.http.api.HttpApiConversions.toReservedBlockingConnection;
 import static io.servicetalk.http.api.HttpApiConversions.toReservedBlockingStreamingConnection;
 import static io.servicetalk.http.api.HttpApiConversions.toReservedConnection;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Makes the wrapped {@link StreamingHttpConnection} aware of the {@link LoadBalancer}.
  */
 final class LoadBalancedStreamingHttpConnection implements FilterableStreamingHttpLoadBalancedConnection,
-                   ReservedStreamingHttpConnection, ReservableRequestConcurrencyController,
+                   ReservedStreamingHttpConnection, ReservableRequestConcurrencyController, RequestTrackerAware,
                    // Since we do not have filters for reserved connection, we rely on the original implementation to
                    // be an influencer hence we can try to correctly delegate when possible.
                    // Reserved connection given to the user will use the correct strategy and influencer chain since
@@ -55,6 +61,8 @@ final class LoadBalancedStreamingHttpConnection implements FilterableStreamingHt
     private final FilterableStreamingHttpLoadBalancedConnection filteredConnection;
     private final HttpExecutionStrategy streamingStrategy;
     private final HttpExecutionStrategyInfluencer strategyInfluencer;
+    @Nullable
+    private volatile RequestTracker requestTracker;
 
     LoadBalancedStreamingHttpConnection(FilterableStreamingHttpLoadBalancedConnection filteredConnection,
                                         ReservableRequestConcurrencyController limiter,
@@ -86,6 +94,29 @@ final class LoadBalancedStreamingHttpConnection implements FilterableStreamingHt
         return limiter.releaseAsync();
     }
 
+    @Override
+    public int availableCapacity() {
+        final int capacity = limiter.availableCapacity();
+        // The protocol binding of the HttpLoadBalancerFactory may further limit the requests, e.g. per host.
+        return filteredConnection instanceof RequestConcurrencyController ?
+                min(capacity, ((RequestConcurrencyController) filteredConnection).availableCapacity()) : capacity;
+    }
+
+    @Override
+    public boolean hasPendingRequests() {
+        return limiter.hasPendingRequests();
+    }
+
+    @Override
+    public void requestTracker(final RequestTracker tracker) {
+        this.requestTracker = requireNonNull(tracker);
+    }
+
+    @Nullable
+    RequestTracker requestTracker() {
+        return requestTracker;
+    }
+
     @Override
     public Single<StreamingHttpResponse> request(final StreamingHttpRequest request) {
         return filteredConnection.request(streamingStrategy, request);
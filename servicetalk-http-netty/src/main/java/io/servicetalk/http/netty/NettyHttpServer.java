@@ -50,6 +50,7 @@ import io.servicetalk.tcp.netty.internal.TcpServerChannelInitializer;
 import io.servicetalk.transport.api.ConnectionAcceptor;
 import io.servicetalk.transport.api.ExecutionContext;
 import io.servicetalk.transport.api.ServerContext;
+import io.servicetalk.transport.api.TransportObserver.ConnectionObserver;
 import io.servicetalk.transport.netty.internal.ChannelInitializer;
 import io.servicetalk.transport.netty.internal.CloseHandler;
 import io.servicetalk.transport.netty.internal.CloseHandler.CloseEventObservedException;
@@ -58,6 +59,7 @@ import io.servicetalk.transport.netty.internal.DefaultNettyConnection;
 import io.servicetalk.transport.netty.internal.FlushStrategy;
 import io.servicetalk.transport.netty.internal.NettyConnection;
 import io.servicetalk.transport.netty.internal.NettyConnectionContext;
+import io.servicetalk.transport.netty.internal.NoopTransportObserver.NoopConnectionObserver;
 import io.servicetalk.transport.netty.internal.SplittingFlushStrategy;
 
 import io.netty.buffer.ByteBufAllocator;
@@ -100,6 +102,7 @@ import static io.servicetalk.http.netty.HeaderUtils.setResponseContentLength;
 import static io.servicetalk.http.netty.HttpDebugUtils.showPipeline;
 import static io.servicetalk.transport.netty.internal.CloseHandler.CloseEvent.CHANNEL_CLOSED_INBOUND;
 import static io.servicetalk.transport.netty.internal.CloseHandler.forPipelinedRequestResponse;
+import static io.servicetalk.transport.netty.internal.ConnectionObserverInitializer.connectionObserver;
 import static io.servicetalk.transport.netty.internal.SplittingFlushStrategy.FlushBoundaryProvider.FlushBoundary.End;
 import static io.servicetalk.transport.netty.internal.SplittingFlushStrategy.FlushBoundaryProvider.FlushBoundary.InProgress;
 import static io.servicetalk.transport.netty.internal.SplittingFlushStrategy.FlushBoundaryProvider.FlushBoundary.Start;
@@ -163,17 +166,21 @@ final class NettyHttpServer {
 
     private static ChannelInitializer getChannelInitializer(final ByteBufAllocator alloc, final H1ProtocolConfig config,
                                                             final CloseHandler closeHandler) {
-        // H1 slices passed memory chunks into headers and payload body without copying and will emit them to the
-        // user-code. Therefore, ByteBufs must be copied to unpooled memory before HttpObjectDecoder.
-        return new CopyByteBufHandlerChannelInitializer(alloc).andThen(channel -> {
+        final ChannelInitializer h1Initializer = channel -> {
             Queue<HttpRequestMethod> methodQueue = new ArrayDeque<>(2);
             final ChannelPipeline pipeline = channel.pipeline();
             pipeline.addLast(new HttpRequestDecoder(methodQueue, alloc, config.headersFactory(),
                     config.maxStartLineLength(), config.maxHeaderFieldLength(),
-                    config.specExceptions().allowPrematureClosureBeforePayloadBody(), closeHandler));
+                    config.specExceptions().allowPrematureClosureBeforePayloadBody(), closeHandler,
+                    config.pooledDecoderBuffers()));
             pipeline.addLast(new HttpResponseEncoder(methodQueue, config.headersEncodedSizeEstimate(),
                     config.trailersEncodedSizeEstimate(), closeHandler));
-        });
+        };
+        // H1 slices passed memory chunks into headers and payload body without copying and will emit them to the
+        // user-code. Therefore, ByteBufs must be copied to unpooled memory before HttpObjectDecoder, unless the decoder
+        // copies user-visible data itself.
+        return config.pooledDecoderBuffers() ? h1Initializer :
+                new CopyByteBufHandlerChannelInitializer(alloc).andThen(h1Initializer);
     }
 
     static final class NettyHttpServerContext implements ServerContext {
@@ -226,6 +233,7 @@ final class NettyHttpServer {
         private final HttpExecutionContext executionContext;
         private final SplittingFlushStrategy splittingFlushStrategy;
         private final boolean drainRequestPayloadBody;
+        private final ConnectionObserver connectionObserver;
 
         NettyHttpServerConnection(final NettyConnection<Object, Object> connection,
                                   final StreamingHttpService service,
@@ -257,6 +265,8 @@ final class NettyHttpServer {
                     });
             connection.updateFlushStrategy((current, isCurrentOriginal) -> splittingFlushStrategy);
             this.drainRequestPayloadBody = drainRequestPayloadBody;
+            // HTTP/2 streams are observed by the parent connection, their child channels resolve a no-op observer.
+            connectionObserver = connectionObserver(connection.nettyChannel());
         }
 
         void process(final boolean handleMultipleRequests) {
@@ -353,6 +363,10 @@ final class NettyHttpServer {
                             // ST may introduce RejectedSubscribeError if user already consumed the request payload body
                             .onErrorResume(t -> completed())));
                 }
+                if (connectionObserver != NoopConnectionObserver.INSTANCE) {
+                    responsePublisher = responsePublisher.beforeFinally(
+                            new StreamObserverSignalConsumer(connectionObserver.onNewStream()));
+                }
 
                 return responsePublisher.concat(requestCompletion);
             });
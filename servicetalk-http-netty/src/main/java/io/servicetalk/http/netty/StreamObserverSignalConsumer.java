@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.api.TerminalSignalConsumer;
+import io.servicetalk.transport.api.TransportObserver.StreamObserver;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A {@link TerminalSignalConsumer} that reports termination of a request-response exchange to a
+ * {@link StreamObserver}.
+ */
+final class StreamObserverSignalConsumer implements TerminalSignalConsumer {
+
+    private final StreamObserver streamObserver;
+
+    StreamObserverSignalConsumer(final StreamObserver streamObserver) {
+        this.streamObserver = streamObserver;
+    }
+
+    @Override
+    public void onComplete() {
+        streamObserver.streamClosed();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        streamObserver.streamClosed(throwable);
+    }
+
+    @Override
+    public void cancel() {
+        streamObserver.streamClosed(new CancellationException("Stream cancelled"));
+    }
+}
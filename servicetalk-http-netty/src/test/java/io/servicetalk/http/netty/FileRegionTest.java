@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpRequest;
+import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.http.api.HttpServerBuilder;
+import io.servicetalk.http.api.SingleAddressHttpClientBuilder;
+import io.servicetalk.http.utils.StaticFileHttpService;
+import io.servicetalk.test.resources.DefaultTestCerts;
+import io.servicetalk.transport.api.HostAndPort;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_RANGE;
+import static io.servicetalk.http.api.HttpHeaderNames.RANGE;
+import static io.servicetalk.http.api.HttpResponseStatus.NOT_FOUND;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static io.servicetalk.http.api.HttpResponseStatus.RANGE_NOT_SATISFIABLE;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static java.util.Arrays.copyOfRange;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(Parameterized.class)
+public class FileRegionTest {
+    private static final int FILE_SIZE = 100_000;
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final boolean secure;
+    private final byte[] content = new byte[FILE_SIZE];
+    private ServerContext serverContext;
+    private BlockingHttpClient client;
+
+    public FileRegionTest(final boolean secure) {
+        this.secure = secure;
+    }
+
+    @Parameters(name = "secure={0}")
+    public static Collection<Boolean> data() {
+        return Arrays.asList(false, true);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        ThreadLocalRandom.current().nextBytes(content);
+        File file = folder.newFile("file.bin");
+        Files.write(file.toPath(), content);
+
+        HttpServerBuilder serverBuilder = HttpServers.forAddress(localAddress(0));
+        if (secure) {
+            serverBuilder.secure().commit(DefaultTestCerts::loadServerPem, DefaultTestCerts::loadServerKey);
+        }
+        serverContext = serverBuilder.listenStreamingAndAwait(new StaticFileHttpService(folder.getRoot().toPath()));
+
+        SingleAddressHttpClientBuilder<HostAndPort, InetSocketAddress> clientBuilder =
+                HttpClients.forSingleAddress(serverHostAndPort(serverContext));
+        if (secure) {
+            clientBuilder.secure().disableHostnameVerification()
+                    .trustManager(DefaultTestCerts::loadMutualAuthCaPem).commit();
+        }
+        client = clientBuilder.buildBlocking();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            client.close();
+        } finally {
+            serverContext.close();
+        }
+    }
+
+    @Test
+    public void wholeFile() throws Exception {
+        HttpResponse response = client.request(client.get("/file.bin"));
+        assertThat(response.status(), is(OK));
+        assertThat(toBytes(response), equalTo(content));
+    }
+
+    @Test
+    public void multipleRequestsOnTheSameConnection() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            assertThat(toBytes(client.request(client.get("/file.bin"))), equalTo(content));
+        }
+    }
+
+    @Test
+    public void range() throws Exception {
+        HttpRequest request = client.get("/file.bin");
+        request.headers().set(RANGE, "bytes=1000-1999");
+        HttpResponse response = client.request(request);
+        assertThat(response.status(), is(PARTIAL_CONTENT));
+        assertThat(response.headers().get(CONTENT_RANGE).toString(), equalTo("bytes 1000-1999/" + FILE_SIZE));
+        assertThat(toBytes(response), equalTo(copyOfRange(content, 1000, 2000)));
+    }
+
+    @Test
+    public void suffixRange() throws Exception {
+        HttpRequest request = client.get("/file.bin");
+        request.headers().set(RANGE, "bytes=-10");
+        HttpResponse response = client.request(request);
+        assertThat(response.status(), is(PARTIAL_CONTENT));
+        assertThat(toBytes(response), equalTo(copyOfRange(content, FILE_SIZE - 10, FILE_SIZE)));
+    }
+
+    @Test
+    public void unsatisfiableRange() throws Exception {
+        HttpRequest request = client.get("/file.bin");
+        request.headers().set(RANGE, "bytes=" + FILE_SIZE + '-');
+        HttpResponse response = client.request(request);
+        assertThat(response.status(), is(RANGE_NOT_SATISFIABLE));
+        assertThat(response.headers().get(CONTENT_RANGE).toString(), equalTo("bytes */" + FILE_SIZE));
+    }
+
+    @Test
+    public void pathOutsideOfRoot() throws Exception {
+        assertThat(client.request(client.get("/../file.bin")).status(), is(NOT_FOUND));
+    }
+
+    private static byte[] toBytes(final HttpResponse response) {
+        byte[] bytes = new byte[response.payloadBody().readableBytes()];
+        response.payloadBody().readBytes(bytes);
+        return bytes;
+    }
+}
@@ -33,6 +33,7 @@ import io.servicetalk.http.api.HttpCookiePair;
 import io.servicetalk.http.api.HttpEventKey;
 import io.servicetalk.http.api.HttpExecutionStrategy;
 import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpProtocolConfig;
 import io.servicetalk.http.api.HttpRequest;
 import io.servicetalk.http.api.HttpRequestMethod;
 import io.servicetalk.http.api.HttpResponse;
@@ -55,6 +56,7 @@ import io.servicetalk.http.api.StreamingHttpServiceFilterFactory;
 import io.servicetalk.transport.api.HostAndPort;
 import io.servicetalk.transport.api.ServerContext;
 
+import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
@@ -71,11 +73,13 @@ import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
 import io.netty.handler.codec.http2.DefaultHttp2SettingsFrame;
 import io.netty.handler.codec.http2.Http2DataFrame;
 import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2FrameLogger;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2HeadersFrame;
 import io.netty.handler.codec.http2.Http2MultiplexHandler;
 import io.netty.handler.codec.http2.Http2Settings;
 import io.netty.handler.codec.http2.Http2SettingsAckFrame;
+import io.netty.handler.logging.LogLevel;
 import org.junit.After;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -106,7 +110,9 @@ import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
 import static io.netty.handler.codec.http2.Http2CodecUtil.SMALLEST_MAX_CONCURRENT_STREAMS;
+import static io.netty.handler.codec.http2.Http2FrameLogger.Direction.INBOUND;
 import static io.servicetalk.buffer.api.EmptyBuffer.EMPTY_BUFFER;
 import static io.servicetalk.concurrent.api.Processors.newPublisherProcessor;
 import static io.servicetalk.concurrent.api.Publisher.from;
@@ -127,12 +133,14 @@ import static io.servicetalk.http.api.HttpSerializationProviders.textDeserialize
 import static io.servicetalk.http.api.HttpSerializationProviders.textSerializer;
 import static io.servicetalk.http.netty.HttpClients.forSingleAddress;
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h1Default;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2;
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
 import static io.servicetalk.http.netty.HttpTestExecutionStrategy.CACHED;
 import static io.servicetalk.http.netty.HttpTestExecutionStrategy.NO_OFFLOAD;
 import static io.servicetalk.transport.api.ServiceTalkSocketOptions.CONNECT_TIMEOUT;
 import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
 import static io.servicetalk.transport.netty.internal.BuilderUtils.serverChannel;
+import static io.servicetalk.transport.netty.internal.BuilderUtils.socketChannel;
 import static io.servicetalk.transport.netty.internal.NettyIoExecutors.createEventLoopGroup;
 import static java.lang.Thread.NORM_PRIORITY;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -827,6 +835,91 @@ public class H2PriorKnowledgeFeatureParityTest {
         }
     }
 
+    @Test
+    public void clientRespectsServerMaxConcurrentStreamsConfig() throws Exception {
+        assumeTrue(h2PriorKnowledge);   // only h2 supports settings frames
+
+        final H2ProtocolConfig serverConfig = h2().maxConcurrentStreams(1)
+                .initialStreamWindowSize(1 << 20).connectionWindowSize(1 << 23).headerTableSize(8192).build();
+        final H2ProtocolConfig clientConfig = h2()
+                .initialStreamWindowSize(1 << 20).connectionWindowSize(1 << 23).headerTableSize(8192).build();
+        BlockingQueue<FilterableStreamingHttpConnection> connectionQueue = new LinkedBlockingQueue<>();
+        BlockingQueue<Publisher<? extends ConsumableEvent<Integer>>> maxConcurrentPubQueue =
+                new LinkedBlockingQueue<>();
+        InetSocketAddress serverAddress = bindHttpEchoServer(null, serverConfig);
+        try (StreamingHttpClient client = forSingleAddress(HostAndPort.of(serverAddress))
+                .protocols(clientConfig)
+                .executionStrategy(clientExecutionStrategy)
+                .appendConnectionFilter(conn -> new TestConnectionFilter(conn, connectionQueue, maxConcurrentPubQueue))
+                .buildStreaming()) {
+
+            // Intentionally don't complete the request body, so the stream stays active.
+            Processor<Buffer, Buffer> requestPayload = newProcessor();
+            client.request(client.post("/0").payloadBody(fromSource(requestPayload))).toFuture().get();
+
+            Iterator<? extends ConsumableEvent<Integer>> maxItr = maxConcurrentPubQueue.take().toIterable().iterator();
+            ConsumableEvent<Integer> next;
+            do {
+                assertThat("No maxConcurrency value received", maxItr.hasNext(), is(true));
+                next = maxItr.next();
+                assertThat(next, is(notNullValue()));
+            } while (next.event() != 1);
+
+            // The only stream of the first connection is in use, so the client is expected to open a new connection.
+            Processor<Buffer, Buffer> requestPayload2 = newProcessor();
+            client.request(client.post("/1").payloadBody(fromSource(requestPayload2))).toFuture().get();
+
+            assertNotSame(connectionQueue.take(), connectionQueue.take());
+
+            requestPayload.onComplete();
+            requestPayload2.onComplete();
+        }
+
+        // The rest of the server configuration is only visible in the frames a peer receives.
+        final H2FrameRecorder recorder = new H2FrameRecorder();
+        final Channel channel = connectH2Client(serverAddress, recorder);
+        try {
+            final Http2Settings settings = recorder.settings.take();
+            assertThat(settings.maxConcurrentStreams(), is(1L));
+            assertThat(settings.initialWindowSize(), is(1 << 20));
+            assertThat(settings.headerTableSize(), is(8192L));
+            assertThat(recorder.connectionWindowUpdates.take(), is((1 << 23) - DEFAULT_WINDOW_SIZE));
+        } finally {
+            channel.close().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void clientAdvertisesConfiguredSettings() throws Exception {
+        assumeTrue(h2PriorKnowledge);   // only h2 supports settings frames
+
+        final H2ProtocolConfig clientConfig = h2()
+                .initialStreamWindowSize(1 << 20).connectionWindowSize(1 << 23).headerTableSize(8192).build();
+        final H2FrameRecorder recorder = new H2FrameRecorder();
+        InetSocketAddress serverAddress = bindH2Server(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(final Channel ch) {
+                ch.pipeline().addLast(EchoHttp2Handler.INSTANCE);
+            }
+        }, parentPipeline -> { }, recorder);
+        try (BlockingHttpClient client = forSingleAddress(HostAndPort.of(serverAddress))
+                .protocols(clientConfig)
+                .executionStrategy(clientExecutionStrategy).buildBlocking()) {
+            // Establishing the connection is enough for the client to send its SETTINGS and WINDOW_UPDATE frames.
+            ReservedBlockingHttpConnection connection = client.reserveConnection(client.get("/"));
+            try {
+                final Http2Settings settings = recorder.settings.take();
+                // Clients do not support server push.
+                assertThat(settings.maxConcurrentStreams(), is(0L));
+                assertThat(settings.initialWindowSize(), is(1 << 20));
+                assertThat(settings.headerTableSize(), is(8192L));
+                assertThat(recorder.connectionWindowUpdates.take(), is((1 << 23) - DEFAULT_WINDOW_SIZE));
+            } finally {
+                connection.release();
+            }
+        }
+    }
+
     @Test
     public void serverThrowsFromHandler() throws Exception {
         InetSocketAddress serverAddress = bindHttpEchoServer(service -> new StreamingHttpServiceFilter(service) {
@@ -894,14 +987,24 @@ public class H2PriorKnowledgeFeatureParityTest {
 
     private InetSocketAddress bindH2Server(ChannelHandler childChannelHandler,
                                            Consumer<ChannelPipeline> parentChannelInitializer) {
+        return bindH2Server(childChannelHandler, parentChannelInitializer, null);
+    }
+
+    private InetSocketAddress bindH2Server(ChannelHandler childChannelHandler,
+                                           Consumer<ChannelPipeline> parentChannelInitializer,
+                                           @Nullable Http2FrameLogger frameLogger) {
         ServerBootstrap sb = new ServerBootstrap();
         sb.group(serverEventLoopGroup);
         sb.channel(serverChannel(serverEventLoopGroup, InetSocketAddress.class));
         sb.childHandler(new ChannelInitializer<Channel>() {
             @Override
             protected void initChannel(final Channel ch) {
+                final Http2FrameCodecBuilder codecBuilder = Http2FrameCodecBuilder.forServer();
+                if (frameLogger != null) {
+                    codecBuilder.frameLogger(frameLogger);
+                }
                 ch.pipeline().addLast(
-                        Http2FrameCodecBuilder.forServer().build(),
+                        codecBuilder.build(),
                         new Http2MultiplexHandler(childChannelHandler));
                 parentChannelInitializer.accept(ch.pipeline());
             }
@@ -910,14 +1013,63 @@ public class H2PriorKnowledgeFeatureParityTest {
         return (InetSocketAddress) serverAcceptorChannel.localAddress();
     }
 
+    private Channel connectH2Client(InetSocketAddress serverAddress, Http2FrameLogger frameLogger) {
+        Bootstrap b = new Bootstrap();
+        b.group(serverEventLoopGroup);
+        b.channel(socketChannel(serverEventLoopGroup, InetSocketAddress.class));
+        b.handler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(final Channel ch) {
+                ch.pipeline().addLast(
+                        Http2FrameCodecBuilder.forClient().frameLogger(frameLogger).build(),
+                        new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()));
+            }
+        });
+        return b.connect(serverAddress).syncUninterruptibly().channel();
+    }
+
+    /**
+     * Records the SETTINGS and connection WINDOW_UPDATE frames received from the peer. Netty does not propagate
+     * connection WINDOW_UPDATE frames through the pipeline, so they are captured by the frame logger instead.
+     */
+    private static final class H2FrameRecorder extends Http2FrameLogger {
+        final BlockingQueue<Http2Settings> settings = new LinkedBlockingQueue<>();
+        final BlockingQueue<Integer> connectionWindowUpdates = new LinkedBlockingQueue<>();
+
+        H2FrameRecorder() {
+            super(LogLevel.TRACE);
+        }
+
+        @Override
+        public void logSettings(final Direction direction, final ChannelHandlerContext ctx,
+                                final Http2Settings settings) {
+            if (direction == INBOUND) {
+                this.settings.add(settings);
+            }
+        }
+
+        @Override
+        public void logWindowsUpdate(final Direction direction, final ChannelHandlerContext ctx, final int streamId,
+                                     final int windowSizeIncrement) {
+            if (direction == INBOUND && streamId == 0) {
+                connectionWindowUpdates.add(windowSizeIncrement);
+            }
+        }
+    }
+
     private InetSocketAddress bindHttpEchoServer() throws Exception {
         return bindHttpEchoServer(null);
     }
 
     private InetSocketAddress bindHttpEchoServer(@Nullable StreamingHttpServiceFilterFactory filterFactory)
             throws Exception {
+        return bindHttpEchoServer(filterFactory, h2PriorKnowledge ? h2Default() : h1Default());
+    }
+
+    private InetSocketAddress bindHttpEchoServer(@Nullable StreamingHttpServiceFilterFactory filterFactory,
+                                                 HttpProtocolConfig protocolConfig) throws Exception {
         HttpServerBuilder serverBuilder = HttpServers.forAddress(localAddress(0))
-                .protocols(h2PriorKnowledge ? h2Default() : h1Default());
+                .protocols(protocolConfig);
         if (filterFactory != null) {
             serverBuilder.appendServiceFilter(filterFactory);
         }
@@ -27,8 +27,10 @@ import org.junit.After;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nullable;
 
@@ -50,6 +52,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertFalse;
@@ -352,6 +355,23 @@ abstract class HttpObjectDecoderTest {
         assertFalse(channel().finishAndReleaseAll());
     }
 
+    @Test
+    public void wellKnownHeaderNamesAreShared() {
+        writeMsg(startLine() + "\r\n" +
+                "host: servicetalk.io" + "\r\n" +
+                "Accept-Encoding: gzip" + "\r\n" +
+                "X-Custom: value" + "\r\n" + "\r\n");
+        HttpMetaData metaData = assertStartLine();
+        Map<String, CharSequence> names = new HashMap<>();
+        for (Map.Entry<CharSequence, CharSequence> header : metaData.headers()) {
+            names.put(header.getKey().toString(), header.getKey());
+        }
+        assertThat(names.keySet(), containsInAnyOrder("host", "Accept-Encoding", "X-Custom"));
+        assertThat(names.get("host"), is(sameInstance(HOST)));
+        assertEmptyTrailers(channel());
+        assertFalse(channel().finishAndReleaseAll());
+    }
+
     @Test
     public void zeroContentLength() {
         writeMsg(startLineForContent() + "\r\n" +
@@ -395,6 +415,32 @@ abstract class HttpObjectDecoderTest {
         validateWithContent(-chunkLength, false);
     }
 
+    @Test
+    public void chunkedNoTrailersUpperCaseChunkSizeWithExtension() {
+        int chunkLength = 0xAB;
+        writeMsg(startLineForContent() + "\r\n" +
+                "Host: servicetalk.io" + "\r\n" +
+                "Connection: keep-alive" + "\r\n" +
+                "Transfer-Encoding: chunked" + "\r\n" + "\r\n");
+        writeMsg("AB ;name=value" + "\r\n");
+        writeContent(chunkLength);
+        writeMsg("\r\n");
+        writeLastChunk();
+        validateWithContent(-chunkLength, false);
+    }
+
+    @Test
+    public void chunkedNoTrailersTooLongChunkSize() {
+        writeMsg(startLineForContent() + "\r\n" +
+                "Host: servicetalk.io" + "\r\n" +
+                "Connection: keep-alive" + "\r\n" +
+                "Transfer-Encoding: chunked" + "\r\n" + "\r\n");
+        // 17 hex digits do not fit into a long
+        DecoderException e = assertThrows(DecoderException.class, () -> writeMsg("10000000000000000\r\n"));
+        assertThat(e.getCause(), is(instanceOf(NumberFormatException.class)));
+        assertThat(channel().inboundMessages(), is(not(empty())));
+    }
+
     @Test
     public void chunkedNoTrailersMultipleLargeContent() {
         int chunkLength = 4096;
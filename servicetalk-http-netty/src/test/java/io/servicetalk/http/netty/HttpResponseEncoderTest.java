@@ -18,13 +18,16 @@ package io.servicetalk.http.netty;
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.http.api.DefaultHttpHeadersFactory;
 import io.servicetalk.http.api.EmptyHttpHeaders;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpResponseMetaData;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.FileRegion;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
 
+import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -306,6 +309,60 @@ public class HttpResponseEncoderTest {
         }
     }
 
+    @Test
+    public void fileRegionContentLength() {
+        EmbeddedChannel channel = newEmbeddedChannel();
+        HttpFileRegion region = new HttpFileRegion(Paths.get("file.bin"), 10, 100);
+        HttpResponseMetaData response = newResponseMetaData(HTTP_1_1, OK, INSTANCE.newHeaders());
+        response.headers()
+                .add(SERVER, "unit-test")
+                .add(CONTENT_LENGTH, valueOf(region.count()));
+        channel.writeOutbound(response);
+        channel.writeOutbound(region);
+        channel.writeOutbound(EmptyHttpHeaders.INSTANCE);
+
+        ByteBuf byteBuf = channel.readOutbound();
+        byteBuf.release();
+        verifyFileRegion(channel.readOutbound(), region);
+        consumeEmptyBufferFromTrailers(channel);
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    @Test
+    public void fileRegionChunked() {
+        EmbeddedChannel channel = newEmbeddedChannel();
+        HttpFileRegion region = new HttpFileRegion(Paths.get("file.bin"), 10, 100);
+        HttpResponseMetaData response = newResponseMetaData(HTTP_1_1, OK, INSTANCE.newHeaders());
+        response.headers()
+                .add(SERVER, "unit-test")
+                .add(TRANSFER_ENCODING, CHUNKED);
+        channel.writeOutbound(response);
+        channel.writeOutbound(region);
+        channel.writeOutbound(EmptyHttpHeaders.INSTANCE);
+
+        ByteBuf byteBuf = channel.readOutbound();
+        byteBuf.release();
+        byteBuf = channel.readOutbound();
+        assertEquals(toHexString(100) + "\r\n", byteBuf.toString(US_ASCII));
+        byteBuf.release();
+        verifyFileRegion(channel.readOutbound(), region);
+        byteBuf = channel.readOutbound();
+        assertEquals("\r\n", byteBuf.toString(US_ASCII));
+        byteBuf.release();
+        byteBuf = channel.readOutbound();
+        assertEquals("0\r\n\r\n", byteBuf.toString(US_ASCII));
+        byteBuf.release();
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    private static void verifyFileRegion(Object msg, HttpFileRegion expected) {
+        assertTrue("unexpected message: " + msg, msg instanceof FileRegion);
+        FileRegion region = (FileRegion) msg;
+        assertEquals(expected.position(), region.position());
+        assertEquals(expected.count(), region.count());
+        region.release();
+    }
+
     private static void consumeEmptyBufferFromTrailers(EmbeddedChannel channel) {
         // Empty buffer is written when trailers are seen to indicate the end of the request
         ByteBuf byteBuf = channel.readOutbound();
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.MultiAddressHttpClientBuilder;
+import io.servicetalk.http.api.MultiAddressHttpClientBuilder.ClientCacheObserver;
+import io.servicetalk.transport.api.HostAndPort;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.transport.netty.internal.AddressUtils.hostHeader;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static java.time.Duration.ofMillis;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class MultiAddressUrlHttpClientCacheTest {
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final CompositeCloseable closeables = newCompositeCloseable();
+    private final CountingObserver observer = new CountingObserver();
+    private String hostHeader1;
+    private String hostHeader2;
+
+    @Before
+    public void setUp() throws Exception {
+        hostHeader1 = startNewLocalServer();
+        hostHeader2 = startNewLocalServer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        closeables.close();
+    }
+
+    @Test
+    public void clientIsReusedForSameAddress() throws Exception {
+        BlockingHttpClient client = newClient(HttpClients.forMultiAddressUrl());
+        makeRequest(client, hostHeader1);
+        makeRequest(client, hostHeader1);
+        makeRequest(client, hostHeader2);
+        assertThat(observer.misses.get(), is(2));
+        assertThat(observer.hits.get(), is(1));
+        assertThat(observer.evictions.isEmpty(), is(true));
+    }
+
+    @Test
+    public void leastRecentlyUsedClientIsEvictedOverMaxClients() throws Exception {
+        BlockingHttpClient client = newClient(HttpClients.forMultiAddressUrl().maxClients(1));
+        makeRequest(client, hostHeader1);
+        makeRequest(client, hostHeader2);
+        assertThat(observer.evictions.take(), is(false));
+
+        makeRequest(client, hostHeader1);
+        assertThat(observer.evictions.take(), is(false));
+        assertThat(observer.misses.get(), is(3));
+        assertThat(observer.hits.get(), is(0));
+    }
+
+    @Test
+    public void idleClientIsEvicted() throws Exception {
+        BlockingHttpClient client = newClient(HttpClients.forMultiAddressUrl().clientIdleTimeout(ofMillis(100)));
+        makeRequest(client, hostHeader1);
+        assertThat(observer.evictions.take(), is(true));
+
+        makeRequest(client, hostHeader1);
+        assertThat(observer.misses.get(), is(2));
+    }
+
+    @Test
+    public void invalidMaxClients() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClients.forMultiAddressUrl().maxClients(0));
+    }
+
+    @Test
+    public void invalidClientIdleTimeout() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HttpClients.forMultiAddressUrl().clientIdleTimeout(ofMillis(0)));
+    }
+
+    private BlockingHttpClient newClient(final MultiAddressHttpClientBuilder<HostAndPort, InetSocketAddress> builder) {
+        return closeables.prepend(builder.clientCacheObserver(observer).buildStreaming()).asBlockingClient();
+    }
+
+    private static void makeRequest(final BlockingHttpClient client, final String hostHeader) throws Exception {
+        assertThat(client.request(client.get("http://" + hostHeader + "/")).status(), is(OK));
+    }
+
+    private String startNewLocalServer() throws Exception {
+        final ServerContext serverContext = closeables.append(HttpServers.forAddress(localAddress(0))
+                .listenBlockingAndAwait((ctx, request, responseFactory) -> responseFactory.ok()));
+        return hostHeader(serverHostAndPort(serverContext));
+    }
+
+    private static final class CountingObserver implements ClientCacheObserver<HostAndPort> {
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicInteger misses = new AtomicInteger();
+        final BlockingQueue<Boolean> evictions = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onHit(final HostAndPort address) {
+            hits.incrementAndGet();
+        }
+
+        @Override
+        public void onMiss(final HostAndPort address) {
+            misses.incrementAndGet();
+        }
+
+        @Override
+        public void onEviction(final HostAndPort address, final boolean idle) {
+            evictions.add(idle);
+        }
+    }
+}
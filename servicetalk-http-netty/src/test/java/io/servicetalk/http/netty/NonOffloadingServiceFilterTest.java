@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.DefaultThreadFactory;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpServerBuilder;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static io.servicetalk.transport.netty.NettyIoExecutors.createIoExecutor;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static java.lang.Thread.NORM_PRIORITY;
+import static java.lang.Thread.currentThread;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class NonOffloadingServiceFilterTest {
+
+    private static final String IO_EXECUTOR_NAME = "io-executor";
+    private final IoExecutor ioExecutor = createIoExecutor(new DefaultThreadFactory(IO_EXECUTOR_NAME, true,
+            NORM_PRIORITY));
+    private final HttpServerBuilder serverBuilder = HttpServers.forAddress(localAddress(0)).ioExecutor(ioExecutor);
+    private final AtomicReference<Thread> filterThread = new AtomicReference<>();
+    private final AtomicReference<Thread> offloadedFilterThread = new AtomicReference<>();
+    private final AtomicReference<Thread> serviceThread = new AtomicReference<>();
+    @Nullable
+    private ServerContext context;
+    @Nullable
+    private BlockingHttpClient client;
+
+    @After
+    public void tearDown() throws Exception {
+        CompositeCloseable closeables = newCompositeCloseable();
+        if (client != null) {
+            client.close();
+        }
+        if (context != null) {
+            closeables.append(context);
+        }
+        closeables.append(ioExecutor).closeAsync().toFuture().get();
+    }
+
+    @Test
+    public void filterRunsBeforeOffloading() throws Exception {
+        serverBuilder.appendServiceFilter(service -> new StreamingHttpServiceFilter(service) {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory responseFactory) {
+                offloadedFilterThread.set(currentThread());
+                return delegate().handle(ctx, request, responseFactory);
+            }
+        }).appendNonOffloadingServiceFilter(service -> new StreamingHttpServiceFilter(service) {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory responseFactory) {
+                filterThread.set(currentThread());
+                return "/reject".equals(request.path()) ? succeeded(responseFactory.serviceUnavailable()) :
+                        delegate().handle(ctx, request, responseFactory);
+            }
+        });
+        BlockingHttpClient client = initServerAndClient();
+
+        assertThat(client.request(client.get("/")).status(), is(OK));
+        assertThat("Unexpected thread for the non-offloading filter.", filterThread.get().getName(),
+                startsWith(IO_EXECUTOR_NAME));
+        assertThat("Unexpected thread for the filter.", offloadedFilterThread.get().getName(),
+                not(startsWith(IO_EXECUTOR_NAME)));
+        assertThat("Unexpected thread for the service.", serviceThread.get().getName(),
+                not(startsWith(IO_EXECUTOR_NAME)));
+
+        serviceThread.set(null);
+        assertThat(client.request(client.get("/reject")).status(), is(SERVICE_UNAVAILABLE));
+        assertThat("Service invoked for a rejected request.", serviceThread.get(), is(nullValue()));
+    }
+
+    private BlockingHttpClient initServerAndClient() throws Exception {
+        context = serverBuilder.listenAndAwait((ctx, request, responseFactory) -> {
+            serviceThread.set(currentThread());
+            return succeeded(responseFactory.ok());
+        });
+        client = HttpClients.forSingleAddress(serverHostAndPort(context)).buildBlocking();
+        return client;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.HttpMetaData;
+import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.http.api.HttpRequestMethod;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+
+import static io.netty.buffer.ByteBufUtil.writeAscii;
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferUtils.getByteBufAllocator;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpRequestMethod.GET;
+import static io.servicetalk.http.api.HttpRequestMethod.POST;
+import static io.servicetalk.transport.netty.internal.CloseHandler.UNSUPPORTED_PROTOCOL_CLOSE_HANDLER;
+import static io.servicetalk.transport.netty.internal.CopyByteBufHandlerChannelInitializer.POOLED_ALLOCATOR;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PooledHttpRequestDecoderTest extends HttpObjectDecoderTest {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder(new ArrayDeque<>(),
+            getByteBufAllocator(DEFAULT_ALLOCATOR), DefaultHttpHeadersFactory.INSTANCE, 8192, 8192, false,
+            UNSUPPORTED_PROTOCOL_CLOSE_HANDLER, true));
+
+    @Override
+    EmbeddedChannel channel() {
+        return channel;
+    }
+
+    @Override
+    String startLine() {
+        return "GET / HTTP/1.1";
+    }
+
+    @Override
+    HttpMetaData assertStartLine() {
+        return assertRequestLine(GET, "/");
+    }
+
+    @Override
+    String startLineForContent() {
+        return "POST /some/path HTTP/1.1";
+    }
+
+    @Override
+    HttpMetaData assertStartLineForContent() {
+        return assertRequestLine(POST, "/some/path");
+    }
+
+    @Test
+    public void pooledInputIsReleasedAfterDecode() {
+        final ByteBuf msg = pooledAscii(startLineForContent() + "\r\n" +
+                "Host: servicetalk.io" + "\r\n" +
+                "Content-Length: 5" + "\r\n" + "\r\n" +
+                "hello");
+        assertTrue(channel.writeInbound(msg));
+        assertThat(msg.refCnt(), is(0));
+
+        HttpMetaData metaData = assertStartLineForContent();
+        assertSingleHeaderValue(metaData.headers(), "Host", "servicetalk.io");
+        assertSingleHeaderValue(metaData.headers(), CONTENT_LENGTH, "5");
+        Buffer content = channel.readInbound();
+        assertThat(content.toString(US_ASCII), equalTo("hello"));
+        assertEmptyTrailers(channel);
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    @Test
+    public void pooledInputSplitAcrossReadsIsReleased() {
+        final ByteBuf first = pooledAscii(startLineForContent() + "\r\n" + "Content-Le");
+        final ByteBuf second = pooledAscii("ngth: 5" + "\r\n" + "\r\n" + "hel");
+        final ByteBuf third = pooledAscii("lo");
+        assertFalse(channel.writeInbound(first));
+        assertTrue(channel.writeInbound(second));
+        assertTrue(channel.writeInbound(third));
+        assertThat(first.refCnt(), is(0));
+        assertThat(second.refCnt(), is(0));
+        assertThat(third.refCnt(), is(0));
+
+        HttpMetaData metaData = assertStartLineForContent();
+        assertSingleHeaderValue(metaData.headers(), CONTENT_LENGTH, "5");
+        Buffer content = channel.readInbound();
+        assertThat(content.toString(US_ASCII), equalTo("hel"));
+        content = channel.readInbound();
+        assertThat(content.toString(US_ASCII), equalTo("lo"));
+        assertEmptyTrailers(channel);
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    private static ByteBuf pooledAscii(String msg) {
+        final ByteBuf buf = POOLED_ALLOCATOR.directBuffer(msg.length());
+        writeAscii(buf, msg);
+        return buf;
+    }
+
+    private HttpRequestMetaData assertRequestLine(HttpRequestMethod expectedMethod, String expectedRequestTarget) {
+        HttpRequestMetaData request = channel.readInbound();
+        assertThat(request.method(), equalTo(expectedMethod));
+        assertThat(request.requestTarget(), equalTo(expectedRequestTarget));
+        assertThat(request.version(), equalTo(HTTP_1_1));
+        return request;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpServerBuilder;
+import io.servicetalk.http.api.SingleAddressHttpClientBuilder;
+import io.servicetalk.test.resources.DefaultTestCerts;
+import io.servicetalk.transport.api.HostAndPort;
+import io.servicetalk.transport.api.ServerContext;
+import io.servicetalk.transport.api.TransportObserver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLSession;
+
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpSerializationProviders.textSerializer;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h1Default;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(Parameterized.class)
+public class TransportObserverTest {
+    private static final int REQUESTS = 3;
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final boolean secure;
+    private final boolean h2;
+    private final RecordingTransportObserver serverObserver = new RecordingTransportObserver();
+    private final RecordingTransportObserver clientObserver = new RecordingTransportObserver();
+    private ServerContext serverContext;
+    private BlockingHttpClient client;
+
+    public TransportObserverTest(final boolean secure, final boolean h2) {
+        this.secure = secure;
+        this.h2 = h2;
+    }
+
+    @Parameters(name = "secure={0} h2={1}")
+    public static Collection<Boolean[]> data() {
+        List<Boolean[]> params = new ArrayList<>();
+        params.add(new Boolean[] {false, false});
+        params.add(new Boolean[] {false, true});
+        params.add(new Boolean[] {true, false});
+        params.add(new Boolean[] {true, true});
+        return params;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        HttpServerBuilder serverBuilder = HttpServers.forAddress(localAddress(0))
+                .protocols(h2 ? h2Default() : h1Default())
+                .transportObserver(serverObserver);
+        if (secure) {
+            serverBuilder.secure().commit(DefaultTestCerts::loadServerPem, DefaultTestCerts::loadServerKey);
+        }
+        serverContext = serverBuilder.listenBlockingAndAwait((ctx, request, responseFactory) ->
+                responseFactory.ok().payloadBody(request.payloadBody(textSerializer()), textSerializer()));
+
+        SingleAddressHttpClientBuilder<HostAndPort, InetSocketAddress> clientBuilder =
+                HttpClients.forSingleAddress(serverHostAndPort(serverContext))
+                        .protocols(h2 ? h2Default() : h1Default())
+                        .transportObserver(clientObserver);
+        if (secure) {
+            clientBuilder.secure().disableHostnameVerification()
+                    .trustManager(DefaultTestCerts::loadMutualAuthCaPem).commit();
+        }
+        client = clientBuilder.buildBlocking();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            client.close();
+        } finally {
+            serverContext.close();
+        }
+    }
+
+    @Test
+    public void observesConnectionAndStreams() throws Exception {
+        for (int i = 0; i < REQUESTS; ++i) {
+            assertThat(client.request(client.post("/").payloadBody("hello", textSerializer())).status(), is(OK));
+        }
+        serverObserver.streamsClosed.await();
+        clientObserver.streamsClosed.await();
+        client.close();
+        serverObserver.connectionClosed.await();
+        clientObserver.connectionClosed.await();
+
+        for (RecordingTransportObserver observer : new RecordingTransportObserver[] {serverObserver, clientObserver}) {
+            assertThat(observer.connections.get(), is(1));
+            assertThat(observer.transportHandshakes.get(), is(1));
+            assertThat(observer.securityHandshakes.get(), is(secure ? 1 : 0));
+            assertThat(observer.streams.get(), is(REQUESTS));
+            assertThat(observer.bytesRead.get(), is(greaterThan(0L)));
+            assertThat(observer.bytesWritten.get(), is(greaterThan(0L)));
+            assertThat(observer.flushes.get(), is(greaterThan(0)));
+        }
+    }
+
+    private static final class RecordingTransportObserver implements TransportObserver,
+                                                                    TransportObserver.ConnectionObserver {
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger transportHandshakes = new AtomicInteger();
+        final AtomicInteger securityHandshakes = new AtomicInteger();
+        final AtomicInteger streams = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong bytesWritten = new AtomicLong();
+        final CountDownLatch streamsClosed = new CountDownLatch(REQUESTS);
+        final CountDownLatch connectionClosed = new CountDownLatch(1);
+
+        @Override
+        public ConnectionObserver onNewConnection() {
+            connections.incrementAndGet();
+            return this;
+        }
+
+        @Override
+        public void onTransportHandshakeComplete() {
+            transportHandshakes.incrementAndGet();
+        }
+
+        @Override
+        public void onDataRead(final long size) {
+            bytesRead.addAndGet(size);
+        }
+
+        @Override
+        public void onDataWrite(final long size) {
+            bytesWritten.addAndGet(size);
+        }
+
+        @Override
+        public void onFlush() {
+            flushes.incrementAndGet();
+        }
+
+        @Override
+        public SecurityHandshakeObserver onSecurityHandshake() {
+            return new SecurityHandshakeObserver() {
+                @Override
+                public void handshakeFailed(final Throwable cause) {
+                }
+
+                @Override
+                public void handshakeComplete(final SSLSession sslSession) {
+                    securityHandshakes.incrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public StreamObserver onNewStream() {
+            streams.incrementAndGet();
+            return new StreamObserver() {
+                @Override
+                public void streamClosed(final Throwable error) {
+                    streamsClosed.countDown();
+                }
+
+                @Override
+                public void streamClosed() {
+                    streamsClosed.countDown();
+                }
+            };
+        }
+
+        @Override
+        public void connectionClosed(final Throwable error) {
+            connectionClosed.countDown();
+        }
+
+        @Override
+        public void connectionClosed() {
+            connectionClosed.countDown();
+        }
+    }
+}
@@ -33,8 +33,10 @@ import io.servicetalk.http.router.predicate.dsl.StringMultiValueMatcher;
 import io.servicetalk.transport.api.ConnectionContext;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -43,13 +45,12 @@ import javax.annotation.Nullable;
 
 import static io.servicetalk.http.api.HttpApiConversions.toStreamingHttpService;
 import static io.servicetalk.http.api.HttpExecutionStrategies.defaultStrategy;
-import static io.servicetalk.http.router.predicate.Predicates.method;
 import static io.servicetalk.http.router.predicate.Predicates.methodIsOneOf;
-import static io.servicetalk.http.router.predicate.Predicates.pathEquals;
 import static io.servicetalk.http.router.predicate.Predicates.pathIsOneOf;
 import static io.servicetalk.http.router.predicate.Predicates.pathRegex;
 import static io.servicetalk.http.router.predicate.Predicates.pathStartsWith;
 import static io.servicetalk.http.router.predicate.Predicates.regex;
+import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -70,36 +71,49 @@ import static java.util.Objects.requireNonNull;
 public final class HttpPredicateRouterBuilder implements RouteStarter {
     private final List<Route> routes = new ArrayList<>();
     private final RouteContinuationImpl continuation = new RouteContinuationImpl();
+    // Path and method criteria of the current route are kept apart from other predicates, so that routes can be
+    // indexed by path. Only the first path and method criteria are kept this way, subsequent ones become predicates.
+    @Nullable
+    private Set<String> paths;
+    @Nullable
+    private String pathPrefix;
+    @Nullable
+    private HttpRequestMethod[] methods;
     @Nullable
     private BiPredicate<ConnectionContext, StreamingHttpRequest> predicate;
 
     @Override
     public RouteContinuation whenMethod(final HttpRequestMethod method) {
-        andPredicate(method(method));
+        andMethods(method);
         return continuation;
     }
 
     @Override
     public RouteContinuation whenMethodIsOneOf(final HttpRequestMethod... methods) {
-        andPredicate(methodIsOneOf(methods));
+        andMethods(methods);
         return continuation;
     }
 
     @Override
     public RouteContinuation whenPathEquals(final String path) {
-        andPredicate(pathEquals(path));
+        andPaths(path);
         return continuation;
     }
 
     @Override
     public RouteContinuation whenPathIsOneOf(final String... paths) {
-        andPredicate(pathIsOneOf(paths));
+        andPaths(paths);
         return continuation;
     }
 
     @Override
     public RouteContinuation whenPathStartsWith(final String pathPrefix) {
-        andPredicate(pathStartsWith(pathPrefix));
+        requireNonNull(pathPrefix);
+        if (paths == null && this.pathPrefix == null) {
+            this.pathPrefix = pathPrefix;
+        } else {
+            andPredicate(pathStartsWith(pathPrefix));
+        }
         return continuation;
     }
 
@@ -163,6 +177,34 @@ public final class HttpPredicateRouterBuilder implements RouteStarter {
         return new InOrderRouter(DefaultFallbackServiceStreaming.instance(), routes);
     }
 
+    private void andMethods(final HttpRequestMethod... newMethods) {
+        for (HttpRequestMethod method : newMethods) {
+            requireNonNull(method);
+        }
+        if (newMethods.length == 0) {
+            return; // matches any method
+        }
+        if (methods == null) {
+            methods = newMethods.clone();
+        } else {
+            andPredicate(methodIsOneOf(newMethods));
+        }
+    }
+
+    private void andPaths(final String... newPaths) {
+        for (String path : newPaths) {
+            requireNonNull(path);
+        }
+        if (newPaths.length == 0) {
+            return; // matches any path
+        }
+        if (paths == null && pathPrefix == null) {
+            paths = new HashSet<>(asList(newPaths));
+        } else {
+            andPredicate(pathIsOneOf(newPaths));
+        }
+    }
+
     private void andPredicate(final BiPredicate<ConnectionContext, StreamingHttpRequest> newPredicate) {
         if (predicate == null) {
             predicate = newPredicate;
@@ -289,9 +331,11 @@ public final class HttpPredicateRouterBuilder implements RouteStarter {
 
         private RouteStarter thenRouteTo0(final StreamingHttpService route,
                                           @Nullable final HttpExecutionStrategy routeStrategy) {
-            assert predicate != null;
-            routes.add(new Route(predicate, route, routeStrategy));
+            routes.add(new Route(paths, pathPrefix, methods, predicate, route, routeStrategy));
             // Reset shared state since we have finished current route construction
+            paths = null;
+            pathPrefix = null;
+            methods = null;
             predicate = null;
             influencerChainBuilder = new StrategyInfluencerChainBuilder();
             strategy = null;
@@ -18,14 +18,18 @@ package io.servicetalk.http.router.predicate;
 import io.servicetalk.concurrent.api.AsyncCloseable;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Single;
-import io.servicetalk.http.api.HttpExecutionStrategy;
 import io.servicetalk.http.api.HttpServiceContext;
 import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
 import io.servicetalk.http.api.StreamingHttpService;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
 import static java.util.Objects.requireNonNull;
@@ -38,11 +42,27 @@ import static java.util.stream.Collectors.toList;
  * The predicates from the specified {@link Route}s are evaluated in order, and the service from the
  * first one which returns {@code true} is used to handle the request. If no predicates match, the fallback service
  * specified is used.
+ * <p>
+ * To avoid evaluating every route for every request, routes with exact paths are indexed in a hash table and routes
+ * with path prefixes in a trie, so only routes whose path can match the request path, and routes without path
+ * criteria, are evaluated. The first matching route in the original order still wins, but predicates of routes that
+ * can not match are never evaluated, so predicates should be free of side effects.
  */
 final class InOrderRouter implements StreamingHttpService {
 
+    private static final int[] EMPTY_ROUTES = new int[0];
+
     private final StreamingHttpService fallbackService;
     private final Route[] routes;
+    /**
+     * Exact path to the indexes of the routes matching that path, in ascending order.
+     */
+    private final Map<String, int[]> exactPathRoutes;
+    private final PrefixNode pathPrefixRoutes;
+    /**
+     * Indexes of the routes without path criteria, in ascending order.
+     */
+    private final int[] anyPathRoutes;
     private final AsyncCloseable closeable;
 
     /**
@@ -53,6 +73,30 @@ final class InOrderRouter implements StreamingHttpService {
     InOrderRouter(final StreamingHttpService fallbackService, final List<Route> routes) {
         this.fallbackService = requireNonNull(fallbackService);
         this.routes = routes.toArray(new Route[0]);
+        final Map<String, int[]> exactPathRoutes = new HashMap<>();
+        final PrefixNode pathPrefixRoutes = new PrefixNode();
+        int[] anyPathRoutes = EMPTY_ROUTES;
+        for (int i = 0; i < this.routes.length; ++i) {
+            final Route route = this.routes[i];
+            final Set<String> paths = route.paths();
+            final String pathPrefix = route.pathPrefix();
+            if (paths != null) {
+                for (String path : paths) {
+                    exactPathRoutes.put(path, append(exactPathRoutes.getOrDefault(path, EMPTY_ROUTES), i));
+                }
+            } else if (pathPrefix != null) {
+                PrefixNode node = pathPrefixRoutes;
+                for (int j = 0; j < pathPrefix.length(); ++j) {
+                    node = node.childOrCreate(pathPrefix.charAt(j));
+                }
+                node.routes = append(node.routes, i);
+            } else {
+                anyPathRoutes = append(anyPathRoutes, i);
+            }
+        }
+        this.exactPathRoutes = exactPathRoutes;
+        this.pathPrefixRoutes = pathPrefixRoutes;
+        this.anyPathRoutes = anyPathRoutes;
         this.closeable = newCompositeCloseable()
                 .mergeAll(fallbackService)
                 .mergeAll(routes.stream().map(Route::service).collect(toList()));
@@ -62,17 +106,48 @@ final class InOrderRouter implements StreamingHttpService {
     public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
                                                 final StreamingHttpRequest request,
                                                 final StreamingHttpResponseFactory factory) {
-        for (final Route pair : routes) {
-            if (pair.predicate().test(ctx, request)) {
-                StreamingHttpService service = pair.service();
-                final HttpExecutionStrategy strategy = pair.routeStrategy();
-                if (strategy != null) {
-                    service = strategy.offloadService(ctx.executionContext().executor(), service);
+        int match = routes.length;
+        if (anyPathRoutes.length < routes.length) {
+            final String path = request.path();
+            match = firstMatch(exactPathRoutes.getOrDefault(path, EMPTY_ROUTES), match, ctx, request);
+            PrefixNode node = pathPrefixRoutes;
+            for (int i = 0; ; ++i) {
+                match = firstMatch(node.routes, match, ctx, request);
+                if (i == path.length()) {
+                    break;
+                }
+                node = node.child(path.charAt(i));
+                if (node == null) {
+                    break;
                 }
-                return service.handle(ctx, request, factory);
             }
         }
-        return fallbackService.handle(ctx, request, factory);
+        match = firstMatch(anyPathRoutes, match, ctx, request);
+        return match < routes.length ? routes[match].service(ctx).handle(ctx, request, factory) :
+                fallbackService.handle(ctx, request, factory);
+    }
+
+    /**
+     * Finds the first route from {@code candidates} matching the request, only considering routes before
+     * {@code matchSoFar}.
+     *
+     * @param candidates indexes of the routes to evaluate, in ascending order.
+     * @param matchSoFar the index of the first route matching the request found so far.
+     * @param ctx the {@link HttpServiceContext} of the request.
+     * @param request the request to match.
+     * @return the index of the first route matching the request.
+     */
+    private int firstMatch(final int[] candidates, final int matchSoFar, final HttpServiceContext ctx,
+                           final StreamingHttpRequest request) {
+        for (final int candidate : candidates) {
+            if (candidate >= matchSoFar) {
+                break;
+            }
+            if (routes[candidate].matchesIgnoringPath(ctx, request)) {
+                return candidate;
+            }
+        }
+        return matchSoFar;
     }
 
     @Override
@@ -84,4 +159,48 @@ final class InOrderRouter implements StreamingHttpService {
     public Completable closeAsyncGracefully() {
         return closeable.closeAsyncGracefully();
     }
+
+    private static int[] append(final int[] array, final int value) {
+        final int[] newArray = Arrays.copyOf(array, array.length + 1);
+        newArray[array.length] = value;
+        return newArray;
+    }
+
+    /**
+     * A node of a character trie of path prefixes, only modified while the {@link InOrderRouter} is constructed.
+     */
+    private static final class PrefixNode {
+        private char[] chars = new char[0];
+        private PrefixNode[] children = new PrefixNode[0];
+        /**
+         * Indexes of the routes whose path prefix ends at this node, in ascending order.
+         */
+        int[] routes = EMPTY_ROUTES;
+
+        @Nullable
+        PrefixNode child(final char c) {
+            final int i = Arrays.binarySearch(chars, c);
+            return i < 0 ? null : children[i];
+        }
+
+        PrefixNode childOrCreate(final char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -(i + 1);
+            final char[] newChars = new char[chars.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, i);
+            System.arraycopy(chars, i, newChars, i + 1, chars.length - i);
+            newChars[i] = c;
+            final PrefixNode[] newChildren = new PrefixNode[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            final PrefixNode child = new PrefixNode();
+            newChildren[i] = child;
+            chars = newChars;
+            children = newChildren;
+            return child;
+        }
+    }
 }
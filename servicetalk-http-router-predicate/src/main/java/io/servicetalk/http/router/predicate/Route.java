@@ -15,40 +15,133 @@
  */
 package io.servicetalk.http.router.predicate;
 
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpRequestMethod;
+import io.servicetalk.http.api.HttpServiceContext;
 import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpService;
 import io.servicetalk.transport.api.ConnectionContext;
 
+import java.util.Set;
 import java.util.function.BiPredicate;
 import javax.annotation.Nullable;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * A route of {@link InOrderRouter}.
+ * <p>
+ * Exact path, path prefix and method criteria are kept separately from the remaining predicate, so that
+ * {@link InOrderRouter} can index routes by path and avoid evaluating routes that can not match.
+ */
 final class Route {
 
+    @Nullable
+    private final Set<String> paths;
+    @Nullable
+    private final String pathPrefix;
+    @Nullable
+    private final HttpRequestMethod[] methods;
+    @Nullable
     private final BiPredicate<ConnectionContext, StreamingHttpRequest> predicate;
     private final StreamingHttpService service;
     @Nullable
     private final HttpExecutionStrategy routeStrategy;
+    @Nullable
+    private volatile OffloadedService offloadedService;
 
-    Route(final BiPredicate<ConnectionContext, StreamingHttpRequest> predicate,
+    /**
+     * Creates a new instance.
+     *
+     * @param paths the request path must be one of these paths, {@code null} if the path is not constrained this way.
+     * @param pathPrefix the request path must start with this prefix, {@code null} if the path is not constrained this
+     * way. Mutually exclusive with {@code paths}.
+     * @param methods the request method must be one of these methods, {@code null} if the method is not constrained.
+     * @param predicate the remaining criteria for the request, {@code null} if there are none.
+     * @param service the {@link StreamingHttpService} to route matching requests to.
+     * @param strategy the {@link HttpExecutionStrategy} for the route, {@code null} if there is none.
+     */
+    Route(@Nullable final Set<String> paths, @Nullable final String pathPrefix,
+          @Nullable final HttpRequestMethod[] methods,
+          @Nullable final BiPredicate<ConnectionContext, StreamingHttpRequest> predicate,
           final StreamingHttpService service, @Nullable final HttpExecutionStrategy strategy) {
-        this.predicate = requireNonNull(predicate);
+        assert paths == null || pathPrefix == null;
+        this.paths = paths;
+        this.pathPrefix = pathPrefix;
+        this.methods = methods;
+        this.predicate = predicate;
         this.service = requireNonNull(service);
         routeStrategy = strategy;
     }
 
-    BiPredicate<ConnectionContext, StreamingHttpRequest> predicate() {
-        return predicate;
+    @Nullable
+    Set<String> paths() {
+        return paths;
+    }
+
+    @Nullable
+    String pathPrefix() {
+        return pathPrefix;
+    }
+
+    /**
+     * Evaluates the criteria of this route apart from its {@link #paths() paths} or {@link #pathPrefix() path prefix},
+     * which are expected to be already matched by the caller.
+     *
+     * @param ctx the {@link ConnectionContext} of the request.
+     * @param request the request to evaluate.
+     * @return {@code true} if the request matches this route.
+     */
+    boolean matchesIgnoringPath(final ConnectionContext ctx, final StreamingHttpRequest request) {
+        if (methods != null && !matchesMethod(request.method())) {
+            return false;
+        }
+        return predicate == null || predicate.test(ctx, request);
+    }
+
+    private boolean matchesMethod(final HttpRequestMethod method) {
+        for (HttpRequestMethod m : methods) {
+            if (m.equals(method)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     StreamingHttpService service() {
         return service;
     }
 
-    @Nullable
-    HttpExecutionStrategy routeStrategy() {
-        return routeStrategy;
+    /**
+     * Returns the {@link StreamingHttpService} to handle a request, offloaded according to the route
+     * {@link HttpExecutionStrategy} if any. The offloaded service only depends on the fallback
+     * {@link Executor}, so it is computed once and reused for as long as the fallback {@link Executor} is the same.
+     *
+     * @param ctx the {@link HttpServiceContext} of the request.
+     * @return the {@link StreamingHttpService} to handle a request.
+     */
+    StreamingHttpService service(final HttpServiceContext ctx) {
+        if (routeStrategy == null) {
+            return service;
+        }
+        final Executor executor = ctx.executionContext().executor();
+        OffloadedService offloaded = offloadedService;
+        if (offloaded == null || offloaded.executor != executor) {
+            // Racing threads may compute it concurrently, which is harmless because offloaded services are stateless.
+            offloaded = new OffloadedService(executor, routeStrategy.offloadService(executor, service));
+            offloadedService = offloaded;
+        }
+        return offloaded.service;
+    }
+
+    private static final class OffloadedService {
+        final Executor executor;
+        final StreamingHttpService service;
+
+        OffloadedService(final Executor executor, final StreamingHttpService service) {
+            this.executor = executor;
+            this.service = service;
+        }
     }
 }
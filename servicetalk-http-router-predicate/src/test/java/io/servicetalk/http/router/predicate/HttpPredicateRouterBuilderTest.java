@@ -186,6 +186,37 @@ public class HttpPredicateRouterBuilderTest extends BaseHttpPredicateRouterBuild
         assertSame(fallbackResponse, service.handle(ctx, request, reqRespFactory));
     }
 
+    @Test
+    public void testMixedPathRoutesMatchInOrder() {
+        final StreamingHttpService service = new HttpPredicateRouterBuilder()
+                .whenPathStartsWith("/a/").andMethod(POST).thenRouteTo(serviceA)
+                .whenPathEquals("/a/b").thenRouteTo(serviceB)
+                .whenPathMatches(".*/c").thenRouteTo(serviceC)
+                .whenPathStartsWith("/a").thenRouteTo(serviceD)
+                .whenPathIsOneOf("/a/c", "/e").andPathStartsWith("/e").thenRouteTo(serviceE)
+                .when((ctx, req) -> true).thenRouteTo(fallbackService)
+                .buildStreaming();
+
+        when(request.method()).thenReturn(POST);
+        when(request.path()).thenReturn("/a/b");
+        assertSame(responseA, service.handle(ctx, request, reqRespFactory));
+
+        when(request.method()).thenReturn(GET);
+        assertSame(responseB, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/a/c");
+        assertSame(responseC, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/a/d");
+        assertSame(responseD, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/e");
+        assertSame(responseE, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/f");
+        assertSame(fallbackResponse, service.handle(ctx, request, reqRespFactory));
+    }
+
     @Test
     public void testWhenIsSsl() {
         final StreamingHttpService service = new HttpPredicateRouterBuilder()
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpServerBuilder;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpService;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+import io.servicetalk.http.api.StreamingHttpServiceFilterFactory;
+import io.servicetalk.http.utils.AdaptiveLimiter.Permit;
+
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderValues.ZERO;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link StreamingHttpServiceFilter} that sheds load by limiting the number of concurrently processed requests.
+ * <p>
+ * The limit is not static, it adapts to the latency of processed requests: it grows while latency is stable and
+ * shrinks when latency increases, which indicates that requests are queueing somewhere. Requests exceeding the
+ * limit are rejected immediately with {@code 503 Service Unavailable}.
+ * <p>
+ * A request is considered in flight until its response payload terminates. Rejecting requests is only useful if it
+ * is cheap, so this filter should be appended with
+ * {@link HttpServerBuilder#appendNonOffloadingServiceFilter(StreamingHttpServiceFilterFactory)} (or the gRPC
+ * equivalent), so that excess requests are rejected on the I/O thread before they are queued for offloading.
+ * <p>
+ * This filter only speaks HTTP: gRPC requests are rejected with the same {@code 503} response, without a
+ * {@code grpc-status}. gRPC clients map this response to the status {@code UNAVAILABLE}, as specified by the
+ * <a href="https://github.com/grpc/grpc/blob/master/doc/http-grpc-status-mapping.md">HTTP to gRPC status mapping</a>.
+ * <p>
+ * All services created by the same instance share the same limit.
+ *
+ * @see Builder
+ */
+public final class AdaptiveConcurrencyLimitHttpServiceFilter implements StreamingHttpServiceFilterFactory,
+                                                                        HttpExecutionStrategyInfluencer {
+    private final AdaptiveLimiter limiter;
+
+    private AdaptiveConcurrencyLimitHttpServiceFilter(final AdaptiveLimit limit) {
+        this.limiter = new AdaptiveLimiter(limit);
+    }
+
+    /**
+     * A builder for {@link AdaptiveConcurrencyLimitHttpServiceFilter}.
+     */
+    public static final class Builder extends AdaptiveLimitBuilder<Builder> {
+        @Override
+        Builder self() {
+            return this;
+        }
+
+        /**
+         * Builds a new {@link AdaptiveConcurrencyLimitHttpServiceFilter}.
+         *
+         * @return a new {@link AdaptiveConcurrencyLimitHttpServiceFilter}.
+         */
+        public AdaptiveConcurrencyLimitHttpServiceFilter build() {
+            return new AdaptiveConcurrencyLimitHttpServiceFilter(limitFactory().get());
+        }
+    }
+
+    @Override
+    public StreamingHttpServiceFilter create(final StreamingHttpService service) {
+        return new StreamingHttpServiceFilter(requireNonNull(service)) {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory responseFactory) {
+                return Single.defer(() -> {
+                    final Permit permit = limiter.tryAcquire();
+                    if (permit == null) {
+                        return succeeded(rejectedResponse(responseFactory));
+                    }
+                    final Single<StreamingHttpResponse> response;
+                    try {
+                        response = delegate().handle(ctx, request, responseFactory);
+                    } catch (Throwable cause) {
+                        permit.onError(cause);
+                        return failed(cause);
+                    }
+                    return permit.track(response).subscribeShareContext();
+                });
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return the current concurrency limit.
+     */
+    int limit() {
+        return limiter.limit();
+    }
+
+    private static StreamingHttpResponse rejectedResponse(final StreamingHttpResponseFactory responseFactory) {
+        final StreamingHttpResponse response = responseFactory.serviceUnavailable();
+        response.headers().set(CONTENT_LENGTH, ZERO);
+        return response;
+    }
+}
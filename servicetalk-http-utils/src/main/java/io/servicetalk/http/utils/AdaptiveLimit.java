@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+/**
+ * A concurrency limit, which adapts to the observed latency of requests.
+ */
+abstract class AdaptiveLimit {
+    /**
+     * Returns the current limit.
+     *
+     * @return the current limit.
+     */
+    abstract int limit();
+
+    /**
+     * Updates the limit with the outcome of a request.
+     *
+     * @param rttNanos the time it took to process the request, in nanoseconds.
+     * @param inFlight the number of requests in flight when the request started, including itself.
+     * @param dropped {@code true} if the request failed in a way that indicates overload.
+     */
+    abstract void onSample(long rttNanos, int inFlight, boolean dropped);
+}
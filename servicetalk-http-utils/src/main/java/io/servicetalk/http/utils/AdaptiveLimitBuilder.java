@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Configures the {@link AdaptiveLimit} of the adaptive limiting filters.
+ *
+ * @param <B> the type of the builder.
+ */
+abstract class AdaptiveLimitBuilder<B extends AdaptiveLimitBuilder<B>> {
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private double rttTolerance = 1.5;
+    @Nullable
+    private Duration aimdLatencyThreshold;
+
+    /**
+     * Sets the limit used before any request completes.
+     *
+     * @param initialLimit the limit used before any request completes.
+     * @return {@code this}.
+     */
+    public B initialLimit(final int initialLimit) {
+        if (initialLimit <= 0) {
+            throw new IllegalArgumentException("initialLimit: " + initialLimit + " (expected >0)");
+        }
+        this.initialLimit = initialLimit;
+        return self();
+    }
+
+    /**
+     * Sets the lower bound of the limit.
+     *
+     * @param minLimit the lower bound of the limit.
+     * @return {@code this}.
+     */
+    public B minLimit(final int minLimit) {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("minLimit: " + minLimit + " (expected >0)");
+        }
+        this.minLimit = minLimit;
+        return self();
+    }
+
+    /**
+     * Sets the upper bound of the limit.
+     *
+     * @param maxLimit the upper bound of the limit.
+     * @return {@code this}.
+     */
+    public B maxLimit(final int maxLimit) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("maxLimit: " + maxLimit + " (expected >0)");
+        }
+        this.maxLimit = maxLimit;
+        return self();
+    }
+
+    /**
+     * Adapts the limit using the gradient between the long term average latency and the latency of each request.
+     * This is the default.
+     *
+     * @param rttTolerance how much the latency of a request may exceed the long term average before the limit is
+     * reduced, for example {@code 1.5} tolerates 50% higher latency.
+     * @return {@code this}.
+     */
+    public B gradient(final double rttTolerance) {
+        if (rttTolerance < 1) {
+            throw new IllegalArgumentException("rttTolerance: " + rttTolerance + " (expected >=1)");
+        }
+        this.rttTolerance = rttTolerance;
+        this.aimdLatencyThreshold = null;
+        return self();
+    }
+
+    /**
+     * Adapts the limit using additive increase, multiplicative decrease: the limit grows by one for every request
+     * completing within {@code latencyThreshold} and shrinks by 10% for every request that is slower, that fails
+     * or that responds with a {@code 5xx} status.
+     *
+     * @param latencyThreshold the latency above which a request is considered a sign of overload.
+     * @return {@code this}.
+     */
+    public B aimd(final Duration latencyThreshold) {
+        if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+            throw new IllegalArgumentException("latencyThreshold: " + latencyThreshold + " (expected >0)");
+        }
+        this.aimdLatencyThreshold = latencyThreshold;
+        return self();
+    }
+
+    /**
+     * Returns {@code this} as the concrete builder type.
+     *
+     * @return {@code this}.
+     */
+    abstract B self();
+
+    /**
+     * Validates the configuration and returns a factory of {@link AdaptiveLimit}s using it.
+     *
+     * @return a factory of {@link AdaptiveLimit}s using the configuration of this builder.
+     */
+    final Supplier<AdaptiveLimit> limitFactory() {
+        if (minLimit > maxLimit) {
+            throw new IllegalArgumentException("minLimit: " + minLimit + " (expected <= maxLimit: " +
+                    maxLimit + ")");
+        }
+        final int initial = max(minLimit, min(maxLimit, initialLimit));
+        final int min = minLimit;
+        final int max = maxLimit;
+        if (aimdLatencyThreshold == null) {
+            final double tolerance = rttTolerance;
+            return () -> new GradientLimit(initial, min, max, tolerance);
+        }
+        final long thresholdNanos = aimdLatencyThreshold.toNanos();
+        return () -> new AimdLimit(initial, min, max, thresholdNanos);
+    }
+}
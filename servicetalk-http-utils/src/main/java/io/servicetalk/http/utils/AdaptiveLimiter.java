@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TerminalSignalConsumer;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.HttpResponseStatus.StatusClass.SERVER_ERROR_5XX;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * Admits requests up to an {@link AdaptiveLimit} and feeds the outcome of every admitted request back to the limit.
+ */
+final class AdaptiveLimiter {
+    private static final AtomicIntegerFieldUpdater<AdaptiveLimiter> inFlightUpdater =
+            newUpdater(AdaptiveLimiter.class, "inFlight");
+
+    private final AdaptiveLimit limit;
+    private volatile int inFlight;
+
+    AdaptiveLimiter(final AdaptiveLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the current limit.
+     */
+    int limit() {
+        return limit.limit();
+    }
+
+    /**
+     * Reserves a slot for a new request.
+     *
+     * @return a {@link Permit} which must be terminated exactly once, or {@code null} if the limit is reached.
+     */
+    @Nullable
+    Permit tryAcquire() {
+        for (;;) {
+            final int current = inFlight;
+            if (current >= limit.limit()) {
+                return null;
+            }
+            if (inFlightUpdater.compareAndSet(this, current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of requests which can currently be admitted.
+     *
+     * @return the number of requests which can currently be admitted.
+     */
+    int availableCapacity() {
+        return max(0, limit.limit() - inFlight);
+    }
+
+    /**
+     * Scales the passed score by the remaining capacity of this limiter.
+     *
+     * @param score the score to scale.
+     * @return {@code score} scaled by the fraction of the limit which is not in use.
+     */
+    int scale(final int score) {
+        final int currentLimit = limit.limit();
+        final int available = currentLimit - inFlight;
+        return available <= 0 ? 0 : (int) ((long) score * available / currentLimit);
+    }
+
+    /**
+     * A slot reserved by {@link #tryAcquire()}, released when the request it was reserved for terminates.
+     */
+    final class Permit implements TerminalSignalConsumer {
+        private final long startNanos = nanoTime();
+        private final int inFlightAtStart;
+        // Written before the response is emitted, hence visible to the terminal callbacks.
+        private boolean serverError;
+
+        private Permit(final int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases this {@link Permit} when the passed response, including its payload, terminates.
+         *
+         * @param response the response of the request this {@link Permit} was reserved for.
+         * @return {@code response} which releases this {@link Permit} when it terminates.
+         */
+        Single<StreamingHttpResponse> track(final Single<StreamingHttpResponse> response) {
+            return response.map(resp -> {
+                serverError = SERVER_ERROR_5XX.contains(resp.status());
+                return resp;
+            }).liftSync(new BeforeFinallyHttpOperator(this));
+        }
+
+        @Override
+        public void onComplete() {
+            release(serverError);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            release(true);
+        }
+
+        @Override
+        public void cancel() {
+            // The request did not run to completion, so its latency says nothing about the limit.
+            inFlightUpdater.decrementAndGet(AdaptiveLimiter.this);
+        }
+
+        private void release(final boolean dropped) {
+            inFlightUpdater.decrementAndGet(AdaptiveLimiter.this);
+            limit.onSample(nanoTime() - startNanos, inFlightAtStart, dropped);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.DelegatingConnectionFactory;
+import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.MaxRequestLimitExceededException;
+import io.servicetalk.client.api.ScoreSupplier;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.client.api.internal.RequestConcurrencyController;
+import io.servicetalk.client.api.internal.RequestTracker;
+import io.servicetalk.client.api.internal.RequestTrackerAware;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.DelegatingHttpConnectionContext;
+import io.servicetalk.http.api.FilterableStreamingHttpConnection;
+import io.servicetalk.http.api.FilterableStreamingHttpLoadBalancedConnection;
+import io.servicetalk.http.api.HttpConnectionContext;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpLoadBalancerFactory;
+import io.servicetalk.http.api.StreamingHttpConnectionFilter;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.utils.AdaptiveLimiter.Permit;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.client.api.internal.RequestConcurrencyController.Result.Accepted;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.http.api.HttpExecutionStrategyInfluencer.defaultStreamingInfluencer;
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link HttpLoadBalancerFactory} that limits the number of concurrent requests sent to each host.
+ * <p>
+ * Every resolved address of a {@link LoadBalancer} gets its own limit, shared by all connections of that
+ * {@link LoadBalancer} to that address. The limit adapts to the latency and the errors observed for the address: it
+ * grows while latency is stable and shrinks when latency increases, requests fail or the host responds with a
+ * {@code 5xx} status. Requests that would exceed the limit fail immediately with
+ * {@link MaxRequestLimitExceededException} rather than queueing behind a degraded host.
+ * <p>
+ * The remaining capacity of a host is reflected in {@link ScoreSupplier#score()} of its connections, used by a
+ * {@link LoadBalancer} that compares connections by their score like {@code P2CLoadBalancer}, and in the
+ * {@link RequestConcurrencyController#availableCapacity() available capacity} of its connections, which is never more
+ * than the number of requests the host admits. A {@link LoadBalancer} that skips connections without capacity, like
+ * {@code RoundRobinLoadBalancer}, therefore does not select the existing connections of a saturated host.
+ *
+ * @param <ResolvedAddress> The type of address after resolution.
+ * @see Builder
+ */
+public final class AdaptiveRequestLimitHttpLoadBalancerFactory<ResolvedAddress>
+        implements HttpLoadBalancerFactory<ResolvedAddress>, HttpExecutionStrategyInfluencer {
+    private final HttpLoadBalancerFactory<ResolvedAddress> delegate;
+    private final HttpExecutionStrategyInfluencer strategyInfluencer;
+    private final Supplier<AdaptiveLimit> limitFactory;
+
+    private AdaptiveRequestLimitHttpLoadBalancerFactory(final HttpLoadBalancerFactory<ResolvedAddress> delegate,
+                                                        final Supplier<AdaptiveLimit> limitFactory) {
+        this.delegate = delegate;
+        this.limitFactory = limitFactory;
+        strategyInfluencer = delegate instanceof HttpExecutionStrategyInfluencer ?
+                (HttpExecutionStrategyInfluencer) delegate : defaultStreamingInfluencer();
+    }
+
+    @Override
+    public <T extends FilterableStreamingHttpLoadBalancedConnection> LoadBalancer<T> newLoadBalancer(
+            final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+            final ConnectionFactory<ResolvedAddress, T> cf) {
+        return delegate.newLoadBalancer(eventPublisher, new LimitingConnectionFactory<>(cf, limitFactory));
+    }
+
+    @Override
+    public <T extends FilterableStreamingHttpLoadBalancedConnection> LoadBalancer<T> newLoadBalancerFromBatches(
+            final Publisher<? extends Collection<? extends ServiceDiscovererEvent<ResolvedAddress>>> eventPublisher,
+            final ConnectionFactory<ResolvedAddress, T> cf) {
+        return delegate.newLoadBalancerFromBatches(eventPublisher,
+                new LimitingConnectionFactory<>(cf, limitFactory));
+    }
+
+    @Override
+    public FilterableStreamingHttpLoadBalancedConnection toLoadBalancedConnection(
+            final FilterableStreamingHttpConnection connection) {
+        // The LimitingConnectionFactory which created the connection binds it to its host once the connection is
+        // established. A connection which is not created through a LoadBalancer of this factory is not limited.
+        return new LimitedConnection(delegate.toLoadBalancedConnection(connection));
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        return strategyInfluencer.influenceStrategy(strategy);
+    }
+
+    /**
+     * A builder for {@link AdaptiveRequestLimitHttpLoadBalancerFactory}.
+     * <p>
+     * The limits configured by this builder apply to each host individually.
+     *
+     * @param <ResolvedAddress> The type of address after resolution.
+     */
+    public static final class Builder<ResolvedAddress> extends AdaptiveLimitBuilder<Builder<ResolvedAddress>> {
+        private final HttpLoadBalancerFactory<ResolvedAddress> delegate;
+
+        private Builder(final HttpLoadBalancerFactory<ResolvedAddress> delegate) {
+            this.delegate = requireNonNull(delegate);
+        }
+
+        /**
+         * Creates a new {@link Builder} which limits the requests on connections created by the passed
+         * {@link HttpLoadBalancerFactory}.
+         *
+         * @param delegate {@link HttpLoadBalancerFactory} which creates the {@link LoadBalancer}.
+         * @param <ResolvedAddress> The type of address after resolution.
+         * @return A new {@link Builder}.
+         */
+        public static <ResolvedAddress> Builder<ResolvedAddress> from(
+                final HttpLoadBalancerFactory<ResolvedAddress> delegate) {
+            return new Builder<>(delegate);
+        }
+
+        @Override
+        Builder<ResolvedAddress> self() {
+            return this;
+        }
+
+        /**
+         * Builds a new {@link AdaptiveRequestLimitHttpLoadBalancerFactory}.
+         *
+         * @return a new {@link AdaptiveRequestLimitHttpLoadBalancerFactory}.
+         */
+        public AdaptiveRequestLimitHttpLoadBalancerFactory<ResolvedAddress> build() {
+            return new AdaptiveRequestLimitHttpLoadBalancerFactory<>(delegate, limitFactory());
+        }
+    }
+
+    /**
+     * The {@link ConnectionFactory} of a single {@link LoadBalancer}, which owns the limits of its hosts.
+     *
+     * @param <ResolvedAddress> The type of address after resolution.
+     * @param <C> The type of connections created by this factory.
+     */
+    static final class LimitingConnectionFactory<ResolvedAddress,
+            C extends FilterableStreamingHttpLoadBalancedConnection>
+            extends DelegatingConnectionFactory<ResolvedAddress, C> {
+        private final Supplier<AdaptiveLimit> limitFactory;
+        private final ConcurrentMap<ResolvedAddress, Host> hosts = new ConcurrentHashMap<>();
+
+        LimitingConnectionFactory(final ConnectionFactory<ResolvedAddress, C> delegate,
+                                  final Supplier<AdaptiveLimit> limitFactory) {
+            super(delegate);
+            this.limitFactory = limitFactory;
+        }
+
+        @Override
+        public Single<C> newConnection(final ResolvedAddress resolvedAddress) {
+            return delegate().newConnection(resolvedAddress).map(connection -> {
+                // The connection of the LoadBalancer wraps the LimitedConnection, which is reachable through the
+                // HttpConnectionContext it exposes.
+                final HttpConnectionContext ctx = connection.connectionContext();
+                if (ctx instanceof LimitedConnectionContext) {
+                    ((LimitedConnectionContext) ctx).connection.host = acquire(resolvedAddress);
+                    connection.onClose().whenFinally(() -> release(resolvedAddress)).subscribe();
+                }
+                return connection;
+            });
+        }
+
+        /**
+         * Returns the current limit for the passed address.
+         *
+         * @param address the resolved address of a host.
+         * @return the current limit for the passed address, or {@code -1} if there are no connections to it.
+         */
+        int limit(final ResolvedAddress address) {
+            final Host host = hosts.get(address);
+            return host == null ? -1 : host.limiter.limit();
+        }
+
+        private Host acquire(final ResolvedAddress address) {
+            return hosts.compute(address, (__, existing) -> {
+                final Host h = existing == null ? new Host(address, new AdaptiveLimiter(limitFactory.get())) :
+                        existing;
+                ++h.connections;
+                return h;
+            });
+        }
+
+        private void release(final ResolvedAddress address) {
+            hosts.computeIfPresent(address, (__, existing) -> --existing.connections == 0 ? null : existing);
+        }
+    }
+
+    private static final class Host {
+        private final Object address;
+        final AdaptiveLimiter limiter;
+        // Guarded by the hosts map.
+        int connections;
+
+        Host(final Object address, final AdaptiveLimiter limiter) {
+            this.address = address;
+            this.limiter = limiter;
+        }
+
+        MaxRequestLimitExceededException limitExceeded() {
+            return new MaxRequestLimitExceededException("Adaptive request limit reached for " + address +
+                    ", limit: " + limiter.limit());
+        }
+    }
+
+    private static final class LimitedConnection extends StreamingHttpConnectionFilter
+            implements FilterableStreamingHttpLoadBalancedConnection, RequestConcurrencyController,
+                       RequestTrackerAware {
+        private final FilterableStreamingHttpLoadBalancedConnection connection;
+        private final LimitedConnectionContext context;
+        @Nullable
+        volatile Host host;
+
+        LimitedConnection(final FilterableStreamingHttpLoadBalancedConnection connection) {
+            super(connection);
+            this.connection = connection;
+            context = new LimitedConnectionContext(connection.connectionContext(), this);
+        }
+
+        @Override
+        public HttpConnectionContext connectionContext() {
+            return context;
+        }
+
+        @Override
+        public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
+                                                     final StreamingHttpRequest request) {
+            return Single.defer(() -> {
+                final Host host = this.host;
+                if (host == null) {
+                    return delegate().request(strategy, request).subscribeShareContext();
+                }
+                final Permit permit = host.limiter.tryAcquire();
+                if (permit == null) {
+                    return failed(host.limitExceeded());
+                }
+                return permit.track(delegate().request(strategy, request)).subscribeShareContext();
+            });
+        }
+
+        @Override
+        public int score() {
+            final Host host = this.host;
+            return host == null ? connection.score() : host.limiter.scale(connection.score());
+        }
+
+        @Override
+        public Result tryRequest() {
+            return connection instanceof RequestConcurrencyController ?
+                    ((RequestConcurrencyController) connection).tryRequest() : Accepted;
+        }
+
+        @Override
+        public void requestFinished() {
+            if (connection instanceof RequestConcurrencyController) {
+                ((RequestConcurrencyController) connection).requestFinished();
+            }
+        }
+
+        @Override
+        public int availableCapacity() {
+            final int capacity = connection instanceof RequestConcurrencyController ?
+                    ((RequestConcurrencyController) connection).availableCapacity() : MAX_VALUE;
+            final Host host = this.host;
+            return host == null ? capacity : min(capacity, host.limiter.availableCapacity());
+        }
+
+        @Override
+        public boolean hasPendingRequests() {
+            return connection instanceof RequestConcurrencyController &&
+                    ((RequestConcurrencyController) connection).hasPendingRequests();
+        }
+
+        @Override
+        public void requestTracker(final RequestTracker tracker) {
+            if (connection instanceof RequestTrackerAware) {
+                ((RequestTrackerAware) connection).requestTracker(tracker);
+            }
+        }
+    }
+
+    private static final class LimitedConnectionContext extends DelegatingHttpConnectionContext {
+        final LimitedConnection connection;
+
+        LimitedConnectionContext(final HttpConnectionContext delegate, final LimitedConnection connection) {
+            super(delegate);
+            this.connection = connection;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * An {@link AdaptiveLimit} which grows additively while requests succeed within a latency threshold and shrinks
+ * multiplicatively otherwise.
+ */
+final class AimdLimit extends AdaptiveLimit {
+    private static final AtomicIntegerFieldUpdater<AimdLimit> limitUpdater = newUpdater(AimdLimit.class, "limit");
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private volatile int limit;
+
+    AimdLimit(final int initialLimit, final int minLimit, final int maxLimit, final long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    int limit() {
+        return limit;
+    }
+
+    @Override
+    void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        for (;;) {
+            final int currentLimit = limit;
+            final int newLimit;
+            if (dropped || rttNanos > latencyThresholdNanos) {
+                newLimit = max(minLimit, (int) (currentLimit * BACKOFF_RATIO));
+            } else if (inFlight * 2 >= currentLimit) {
+                // Only grow if the application uses at least half of the current limit.
+                newLimit = min(maxLimit, currentLimit + 1);
+            } else {
+                return;
+            }
+            if (newLimit == currentLimit || limitUpdater.compareAndSet(this, currentLimit, newLimit)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Completable.completed;
+import static io.servicetalk.concurrent.api.Completable.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.HttpHeaderValues.DEFLATE;
+import static io.servicetalk.http.api.HttpHeaderValues.GZIP;
+
+/**
+ * <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2.1">Content codings</a> supported by
+ * {@link ContentCodingHttpServiceFilter} and {@link ContentCodingHttpRequesterFilter}.
+ */
+public enum ContentCoding {
+    /**
+     * The {@code gzip} content coding, as described in <a href="https://tools.ietf.org/html/rfc1952">RFC 1952</a>.
+     */
+    GZIP_CODING(GZIP, true),
+    /**
+     * The {@code deflate} content coding, a zlib data format as described in
+     * <a href="https://tools.ietf.org/html/rfc1950">RFC 1950</a>.
+     */
+    DEFLATE_CODING(DEFLATE, false);
+
+    private final CharSequence headerValue;
+    private final boolean gzip;
+
+    ContentCoding(final CharSequence headerValue, final boolean gzip) {
+        this.headerValue = headerValue;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Returns the value used to identify this coding in {@code content-encoding} and {@code accept-encoding}
+     * headers.
+     *
+     * @return the value used to identify this coding in {@code content-encoding} and {@code accept-encoding}
+     * headers.
+     */
+    public CharSequence headerValue() {
+        return headerValue;
+    }
+
+    /**
+     * Compresses the passed {@code payload} incrementally, without aggregating it.
+     * <p>
+     * Each {@link Buffer} emitted by {@code payload} is flushed through the compressor, so data is never held back
+     * waiting for more input, which keeps the coding usable for long-lived streams.
+     *
+     * @param payload the uncompressed payload.
+     * @param allocator the {@link BufferAllocator} to use for compressed buffers.
+     * @return a {@link Publisher} of the compressed payload.
+     */
+    public Publisher<Buffer> encode(final Publisher<Buffer> payload, final BufferAllocator allocator) {
+        return Publisher.defer(() -> {
+            final ContentEncoder encoder = new ContentEncoder(gzip, allocator);
+            return payload.map(encoder::encode)
+                    .concat(Single.defer(() -> succeeded(encoder.finish())))
+                    .filter(buffer -> buffer.readableBytes() > 0)
+                    .beforeFinally(encoder::release);
+        });
+    }
+
+    /**
+     * Decompresses the passed {@code payload} incrementally, without aggregating it.
+     *
+     * @param payload the compressed payload.
+     * @param allocator the {@link BufferAllocator} to use for decompressed buffers.
+     * @return a {@link Publisher} of the decompressed payload, which fails if {@code payload} is not a valid or
+     * complete encoding.
+     */
+    public Publisher<Buffer> decode(final Publisher<Buffer> payload, final BufferAllocator allocator) {
+        return decode(payload, allocator, Long.MAX_VALUE);
+    }
+
+    /**
+     * Decompresses the passed {@code payload} incrementally, without aggregating it.
+     * <p>
+     * Each compressed {@link Buffer} is decompressed in bounded chunks as they are requested, so a highly compressed
+     * payload does not inflate into a single large {@link Buffer}.
+     *
+     * @param payload the compressed payload.
+     * @param allocator the {@link BufferAllocator} to use for decompressed buffers.
+     * @param maxDecodedSize the maximum size in bytes of the decompressed payload.
+     * @return a {@link Publisher} of the decompressed payload, which fails if {@code payload} is not a valid or
+     * complete encoding, or with a {@link DecodedPayloadTooLargeException} if it decompresses to more than
+     * {@code maxDecodedSize} bytes.
+     */
+    public Publisher<Buffer> decode(final Publisher<Buffer> payload, final BufferAllocator allocator,
+                                    final long maxDecodedSize) {
+        if (maxDecodedSize <= 0) {
+            throw new IllegalArgumentException("maxDecodedSize: " + maxDecodedSize + " (expected >0)");
+        }
+        return Publisher.defer(() -> {
+            final ContentDecoder decoder = new ContentDecoder(gzip, allocator, maxDecodedSize);
+            return payload.flatMapConcatIterable(decoder::decode)
+                    .concat(Completable.defer(() -> decoder.isFinished() ? completed() :
+                            failed(new IllegalStateException("Payload ended before the end of the " + headerValue +
+                                    " stream"))))
+                    .filter(buffer -> buffer.readableBytes() > 0)
+                    .beforeFinally(decoder::release);
+        });
+    }
+
+    /**
+     * Finds the {@link ContentCoding} identified by a {@code content-encoding} header value.
+     *
+     * @param headerValue the {@code content-encoding} header value.
+     * @param supported the codings to choose from.
+     * @return the matching {@link ContentCoding} or {@code null} if {@code headerValue} does not identify exactly one
+     * of the {@code supported} codings.
+     */
+    @Nullable
+    static ContentCoding find(final CharSequence headerValue, final List<ContentCoding> supported) {
+        final CharSequence trimmed = trim(headerValue);
+        for (ContentCoding coding : supported) {
+            if (contentEqualsIgnoreCase(coding.headerValue, trimmed)) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    static CharSequence acceptEncodingValue(final List<ContentCoding> supported) {
+        final StringBuilder sb = new StringBuilder();
+        for (ContentCoding coding : supported) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(coding.headerValue);
+        }
+        return newAsciiString(sb.toString());
+    }
+
+    static CharSequence trim(final CharSequence value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            ++start;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            --end;
+        }
+        return start == 0 && end == value.length() ? value : value.subSequence(start, end);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.FilterableStreamingHttpClient;
+import io.servicetalk.http.api.FilterableStreamingHttpConnection;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpConnectionFilter;
+import io.servicetalk.http.api.StreamingHttpConnectionFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.util.List;
+
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.utils.ContentCoding.DEFLATE_CODING;
+import static io.servicetalk.http.utils.ContentCoding.GZIP_CODING;
+import static io.servicetalk.http.utils.ContentCoding.acceptEncodingValue;
+import static io.servicetalk.http.utils.ContentCoding.find;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A filter that advertises the supported HTTP
+ * <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2.2">content codings</a> via the
+ * {@code accept-encoding} request header and incrementally decompresses response payloads encoded with one of them.
+ * <p>
+ * An {@code accept-encoding} header that is already present on a request is left untouched. Decompressed response
+ * payloads can be limited to a maximum size, in which case a larger payload fails with a
+ * {@link DecodedPayloadTooLargeException}.
+ */
+public final class ContentCodingHttpRequesterFilter implements StreamingHttpClientFilterFactory,
+                                                               StreamingHttpConnectionFilterFactory,
+                                                               HttpExecutionStrategyInfluencer {
+    private final List<ContentCoding> supportedCodings;
+    private final CharSequence acceptEncoding;
+    private final long maxDecodedResponseSize;
+
+    /**
+     * Creates a new instance, which supports {@link ContentCoding#GZIP_CODING} and
+     * {@link ContentCoding#DEFLATE_CODING}.
+     */
+    public ContentCodingHttpRequesterFilter() {
+        this(asList(GZIP_CODING, DEFLATE_CODING));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param supportedCodings the supported {@link ContentCoding}s, in order of preference.
+     */
+    public ContentCodingHttpRequesterFilter(final List<ContentCoding> supportedCodings) {
+        this(supportedCodings, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param supportedCodings the supported {@link ContentCoding}s, in order of preference.
+     * @param maxDecodedResponseSize the maximum size in bytes of a decompressed response payload.
+     */
+    public ContentCodingHttpRequesterFilter(final List<ContentCoding> supportedCodings,
+                                            final long maxDecodedResponseSize) {
+        if (supportedCodings.isEmpty()) {
+            throw new IllegalArgumentException("supportedCodings: empty (expected at least one coding)");
+        }
+        if (maxDecodedResponseSize <= 0) {
+            throw new IllegalArgumentException("maxDecodedResponseSize: " + maxDecodedResponseSize +
+                    " (expected >0)");
+        }
+        this.supportedCodings = unmodifiableList(asList(supportedCodings.toArray(new ContentCoding[0])));
+        this.acceptEncoding = acceptEncodingValue(this.supportedCodings);
+        this.maxDecodedResponseSize = maxDecodedResponseSize;
+    }
+
+    private Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                  final HttpExecutionStrategy strategy,
+                                                  final StreamingHttpRequest request) {
+        if (!request.headers().contains(ACCEPT_ENCODING)) {
+            request.headers().set(ACCEPT_ENCODING, acceptEncoding);
+        }
+        final BufferAllocator allocator = delegate.executionContext().bufferAllocator();
+        return delegate.request(strategy, request).map(response -> {
+            final CharSequence contentEncoding = response.headers().get(CONTENT_ENCODING);
+            if (contentEncoding == null) {
+                return response;
+            }
+            final ContentCoding coding = find(contentEncoding, supportedCodings);
+            if (coding == null) {
+                return response;
+            }
+            response.headers().remove(CONTENT_ENCODING);
+            response.headers().remove(CONTENT_LENGTH);
+            return response.transformPayloadBody(payload -> coding.decode(payload, allocator, maxDecodedResponseSize));
+        });
+    }
+
+    @Override
+    public StreamingHttpClientFilter create(final FilterableStreamingHttpClient client) {
+        return new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return ContentCodingHttpRequesterFilter.this.request(delegate, strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public StreamingHttpConnectionFilter create(final FilterableStreamingHttpConnection connection) {
+        return new StreamingHttpConnectionFilter(connection) {
+            @Override
+            public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
+                                                         final StreamingHttpRequest request) {
+                return ContentCodingHttpRequesterFilter.this.request(delegate(), strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpFileRegion;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpService;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+import io.servicetalk.http.api.StreamingHttpServiceFilterFactory;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.http.api.CharSequences.regionMatches;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_RANGE;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.VARY;
+import static io.servicetalk.http.api.HttpHeaderValues.IDENTITY;
+import static io.servicetalk.http.api.HttpHeaderValues.ZERO;
+import static io.servicetalk.http.api.HttpRequestMethod.HEAD;
+import static io.servicetalk.http.api.HttpResponseStatus.NOT_MODIFIED;
+import static io.servicetalk.http.api.HttpResponseStatus.NO_CONTENT;
+import static io.servicetalk.http.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static io.servicetalk.http.api.HttpResponseStatus.StatusClass.INFORMATIONAL_1XX;
+import static io.servicetalk.http.utils.ContentCoding.DEFLATE_CODING;
+import static io.servicetalk.http.utils.ContentCoding.GZIP_CODING;
+import static io.servicetalk.http.utils.ContentCoding.acceptEncodingValue;
+import static io.servicetalk.http.utils.ContentCoding.find;
+import static io.servicetalk.http.utils.ContentCoding.trim;
+import static io.servicetalk.http.utils.StaticFileHttpService.readFileRegion;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.fill;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A {@link StreamingHttpServiceFilter} that applies HTTP
+ * <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2.2">content codings</a>.
+ * <p>
+ * Request payloads with a supported {@code content-encoding} are decompressed before they reach the service,
+ * requests with any other coding are rejected with {@code 415 Unsupported Media Type}. Response payloads are
+ * compressed with the coding preferred by the {@code accept-encoding} request header. Payloads are transformed
+ * incrementally and never aggregated.
+ * <p>
+ * Responses are sent uncompressed if they already have a {@code content-encoding}, carry a media type that is
+ * typically already compressed (images, audio, video and archives), have no content, are a range of the content
+ * ({@code 206 Partial Content} or {@code content-range}), or declare a {@code content-length} smaller than the
+ * configured minimum. Responses of unknown length are always compressed. The content of a compressed
+ * {@link HttpFileRegion} is read from the file instead of being transferred directly.
+ * <p>
+ * Decompressed request payloads are limited to a configurable size. A request that exceeds it fails with a
+ * {@link DecodedPayloadTooLargeException}, which is converted to a {@code 413 Payload Too Large} response if the
+ * service did not respond before consuming the payload. A limit of {@code 0} disables request decompression, so
+ * that all encoded requests are rejected.
+ */
+public final class ContentCodingHttpServiceFilter implements StreamingHttpServiceFilterFactory,
+                                                             HttpExecutionStrategyInfluencer {
+    private static final int DEFAULT_MIN_COMPRESSION_SIZE = 1024;
+    private static final long DEFAULT_MAX_DECODED_REQUEST_SIZE = 16 * 1024 * 1024;
+
+    private final List<ContentCoding> supportedCodings;
+    private final CharSequence acceptEncoding;
+    private final int minCompressionSize;
+    private final long maxDecodedRequestSize;
+
+    /**
+     * Creates a new instance, which supports {@link ContentCoding#GZIP_CODING} and
+     * {@link ContentCoding#DEFLATE_CODING}, does not compress responses smaller than 1024 bytes and rejects requests
+     * that decompress to more than 16 MiB.
+     */
+    public ContentCodingHttpServiceFilter() {
+        this(asList(GZIP_CODING, DEFLATE_CODING), DEFAULT_MIN_COMPRESSION_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param supportedCodings the supported {@link ContentCoding}s, in order of preference.
+     * @param minCompressionSize responses with a {@code content-length} smaller than this value are not compressed.
+     */
+    public ContentCodingHttpServiceFilter(final List<ContentCoding> supportedCodings, final int minCompressionSize) {
+        this(supportedCodings, minCompressionSize, DEFAULT_MAX_DECODED_REQUEST_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param supportedCodings the supported {@link ContentCoding}s, in order of preference.
+     * @param minCompressionSize responses with a {@code content-length} smaller than this value are not compressed.
+     * @param maxDecodedRequestSize the maximum size in bytes of a decompressed request payload, or {@code 0} to
+     * reject all encoded requests.
+     */
+    public ContentCodingHttpServiceFilter(final List<ContentCoding> supportedCodings, final int minCompressionSize,
+                                          final long maxDecodedRequestSize) {
+        if (supportedCodings.isEmpty()) {
+            throw new IllegalArgumentException("supportedCodings: empty (expected at least one coding)");
+        }
+        if (minCompressionSize < 0) {
+            throw new IllegalArgumentException("minCompressionSize: " + minCompressionSize + " (expected >=0)");
+        }
+        this.supportedCodings = unmodifiableList(asList(supportedCodings.toArray(new ContentCoding[0])));
+        this.acceptEncoding = acceptEncodingValue(this.supportedCodings);
+        if (maxDecodedRequestSize < 0) {
+            throw new IllegalArgumentException("maxDecodedRequestSize: " + maxDecodedRequestSize +
+                    " (expected >=0)");
+        }
+        this.minCompressionSize = minCompressionSize;
+        this.maxDecodedRequestSize = maxDecodedRequestSize;
+    }
+
+    @Override
+    public StreamingHttpServiceFilter create(final StreamingHttpService service) {
+        return new StreamingHttpServiceFilter(service) {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory responseFactory) {
+                final BufferAllocator allocator = ctx.executionContext().bufferAllocator();
+                final CharSequence requestEncoding = request.headers().get(CONTENT_ENCODING);
+                final boolean decodeRequest = requestEncoding != null &&
+                        !contentEqualsIgnoreCase(trim(requestEncoding), IDENTITY);
+                if (decodeRequest) {
+                    final ContentCoding coding = maxDecodedRequestSize == 0 ? null :
+                            find(requestEncoding, supportedCodings);
+                    if (coding == null) {
+                        final StreamingHttpResponse response = responseFactory.unsupportedMediaType();
+                        response.headers().set(ACCEPT_ENCODING, acceptEncoding).set(CONTENT_LENGTH, ZERO);
+                        return succeeded(response);
+                    }
+                    request.headers().remove(CONTENT_ENCODING);
+                    request.headers().remove(CONTENT_LENGTH);
+                    request.transformPayloadBody(payload -> coding.decode(payload, allocator, maxDecodedRequestSize));
+                }
+
+                final ContentCoding responseCoding = HEAD.equals(request.method()) ? null :
+                        negotiate(request.headers(), supportedCodings);
+                Single<StreamingHttpResponse> response = delegate().handle(ctx, request, responseFactory);
+                if (decodeRequest) {
+                    response = response.recoverWith(cause -> {
+                        if (cause instanceof DecodedPayloadTooLargeException) {
+                            final StreamingHttpResponse tooLarge = responseFactory.payloadTooLarge();
+                            tooLarge.headers().set(CONTENT_LENGTH, ZERO);
+                            return succeeded(tooLarge);
+                        }
+                        return failed(cause);
+                    });
+                }
+                return responseCoding == null ? response :
+                        response.map(resp -> encodeIfRequired(resp, responseCoding, allocator));
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+
+    private StreamingHttpResponse encodeIfRequired(final StreamingHttpResponse response, final ContentCoding coding,
+                                                   final BufferAllocator allocator) {
+        if (!isCompressible(response)) {
+            return response;
+        }
+        final HttpHeaders headers = response.headers();
+        headers.set(CONTENT_ENCODING, coding.headerValue());
+        headers.remove(CONTENT_LENGTH);
+        if (!headers.containsIgnoreCase(VARY, ACCEPT_ENCODING)) {
+            headers.add(VARY, ACCEPT_ENCODING);
+        }
+        // The raw payload body is used because it may contain a HttpFileRegion, which can not be compressed by the
+        // transport and is read into Buffers instead.
+        return response.transformRawPayloadBody(payload -> coding.encode(
+                payload.flatMapConcatIterable(item -> toBuffers(item, allocator)), allocator));
+    }
+
+    private static Iterable<Buffer> toBuffers(final Object item, final BufferAllocator allocator) {
+        if (item instanceof Buffer) {
+            return singletonList((Buffer) item);
+        }
+        if (item instanceof HttpFileRegion) {
+            return readFileRegion((HttpFileRegion) item, allocator);
+        }
+        throw new IllegalArgumentException("Unsupported payload body element: " + item.getClass().getName());
+    }
+
+    private boolean isCompressible(final StreamingHttpResponse response) {
+        if (INFORMATIONAL_1XX.contains(response.status()) || NO_CONTENT.equals(response.status()) ||
+                NOT_MODIFIED.equals(response.status()) || PARTIAL_CONTENT.equals(response.status())) {
+            return false;
+        }
+        final HttpHeaders headers = response.headers();
+        // Ranges refer to the unencoded content, compressing them would make the content-range invalid.
+        if (headers.contains(CONTENT_ENCODING) || headers.contains(CONTENT_RANGE)) {
+            return false;
+        }
+        final CharSequence contentLength = headers.get(CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.toString()) < minCompressionSize) {
+                    return false;
+                }
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        final CharSequence contentType = headers.get(CONTENT_TYPE);
+        return contentType == null || !isCompressedMediaType(contentType);
+    }
+
+    private static boolean isCompressedMediaType(final CharSequence contentType) {
+        if (startsWithIgnoreCase(contentType, "image/")) {
+            return !startsWithIgnoreCase(contentType, "image/svg+xml");
+        }
+        return startsWithIgnoreCase(contentType, "video/") || startsWithIgnoreCase(contentType, "audio/") ||
+                startsWithIgnoreCase(contentType, "application/zip") ||
+                startsWithIgnoreCase(contentType, "application/gzip") ||
+                startsWithIgnoreCase(contentType, "application/x-gzip");
+    }
+
+    private static boolean startsWithIgnoreCase(final CharSequence value, final String prefix) {
+        return value.length() >= prefix.length() && regionMatches(value, true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Selects the supported coding with the highest {@code q} value in the {@code accept-encoding} header. Ties are
+     * resolved using the order of {@code supported}.
+     *
+     * @param headers the request headers.
+     * @param supported the supported codings, in order of preference.
+     * @return the selected {@link ContentCoding} or {@code null} if the response should not be compressed.
+     */
+    @Nullable
+    static ContentCoding negotiate(final HttpHeaders headers, final List<ContentCoding> supported) {
+        if (!headers.contains(ACCEPT_ENCODING)) {
+            return null;
+        }
+        final float[] weights = new float[supported.size()];
+        fill(weights, -1);
+        float wildcardWeight = -1;
+        for (CharSequence value : headers.values(ACCEPT_ENCODING)) {
+            final String acceptEncoding = value.toString();
+            int start = 0;
+            while (start < acceptEncoding.length()) {
+                int end = acceptEncoding.indexOf(',', start);
+                if (end < 0) {
+                    end = acceptEncoding.length();
+                }
+                final int paramsStart = acceptEncoding.indexOf(';', start);
+                final int tokenEnd = paramsStart < 0 || paramsStart > end ? end : paramsStart;
+                final String token = acceptEncoding.substring(start, tokenEnd).trim();
+                final float weight = tokenEnd == end ? 1 : parseWeight(acceptEncoding.substring(tokenEnd + 1, end));
+                if ("*".equals(token)) {
+                    wildcardWeight = weight;
+                } else {
+                    for (int i = 0; i < weights.length; ++i) {
+                        if (supported.get(i).headerValue().toString().equalsIgnoreCase(token)) {
+                            weights[i] = weight;
+                            break;
+                        }
+                    }
+                }
+                start = end + 1;
+            }
+        }
+        ContentCoding selected = null;
+        float selectedWeight = 0;
+        for (int i = 0; i < weights.length; ++i) {
+            final float weight = weights[i] >= 0 ? weights[i] : wildcardWeight;
+            if (weight > selectedWeight) {
+                selected = supported.get(i);
+                selectedWeight = weight;
+            }
+        }
+        return selected;
+    }
+
+    private static float parseWeight(final String params) {
+        for (String param : params.split(";")) {
+            final String trimmed = param.trim();
+            if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q') &&
+                    trimmed.charAt(1) == '=') {
+                try {
+                    return Float.parseFloat(trimmed.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.utils.ZipPools.acquireInflater;
+import static io.servicetalk.http.utils.ZipPools.releaseInflater;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Collections.emptyList;
+
+/**
+ * Decompresses a stream of {@link Buffer}s using either the gzip or the zlib format.
+ * <p>
+ * The gzip header and trailer are parsed here, so that a raw {@link Inflater} can be used and input can be split at
+ * arbitrary boundaries. Methods are {@code synchronized} because cancellation may release the {@link Inflater}
+ * concurrently with the processing of a {@link Buffer}, the lock is otherwise uncontended.
+ */
+final class ContentDecoder {
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+    private static final int GZIP_HEADER_LENGTH = 10;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int MIN_OUTPUT_CAPACITY = 256;
+    private static final int MAX_OUTPUT_CHUNK = 16 * 1024;
+    private static final byte[] EMPTY_INPUT = new byte[0];
+
+    private enum State {
+        HEADER,
+        FEXTRA_LENGTH,
+        FEXTRA,
+        FNAME,
+        FCOMMENT,
+        FHCRC,
+        BODY,
+        TRAILER,
+        DONE
+    }
+
+    private final boolean gzip;
+    private final BufferAllocator allocator;
+    private final long maxDecodedSize;
+    @Nullable
+    private final CRC32 crc;
+    @Nullable
+    private Inflater inflater;
+    private State state;
+    private int flags;
+    // Number of bytes still to be consumed by the current header/trailer state.
+    private int remaining;
+    // Accumulates multi-byte header/trailer fields, least significant byte first.
+    private long value;
+    private int valueBytes;
+    private boolean receivedInput;
+    private boolean released;
+    // The input which is being decompressed, between offset and end.
+    private byte[] input = EMPTY_INPUT;
+    private int offset;
+    private int end;
+    // The Inflater may hold decompressed data which did not fit in the last output chunk.
+    private boolean pendingOutput;
+
+    ContentDecoder(final boolean gzip, final BufferAllocator allocator, final long maxDecodedSize) {
+        this.gzip = gzip;
+        this.allocator = allocator;
+        this.maxDecodedSize = maxDecodedSize;
+        if (gzip) {
+            crc = new CRC32();
+            state = State.HEADER;
+            remaining = GZIP_HEADER_LENGTH;
+        } else {
+            crc = null;
+            state = State.BODY;
+        }
+    }
+
+    /**
+     * Decompresses the passed {@link Buffer}.
+     * <p>
+     * The returned {@link Iterable} decompresses lazily, each call to {@link Iterator#next()} produces at most
+     * {@value #MAX_OUTPUT_CHUNK} bytes, so the decompressed data held in memory is bounded regardless of the
+     * compression ratio. It must be fully consumed before the next {@link Buffer} is passed.
+     *
+     * @param src the compressed data.
+     * @return the decompressed data.
+     * @throws DecodedPayloadTooLargeException if more than the configured maximum has been decompressed.
+     */
+    Iterable<Buffer> decode(final Buffer src) {
+        final int length = src.readableBytes();
+        if (length == 0) {
+            return emptyList();
+        }
+        synchronized (this) {
+            if (released) {
+                return emptyList();
+            }
+            receivedInput = true;
+            if (src.hasArray()) {
+                input = src.array();
+                offset = src.arrayOffset() + src.readerIndex();
+            } else {
+                input = new byte[length];
+                src.getBytes(src.readerIndex(), input);
+                offset = 0;
+            }
+            end = offset + length;
+        }
+        return () -> new Iterator<Buffer>() {
+            @Nullable
+            private Buffer next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = nextChunk();
+                }
+                return next != null;
+            }
+
+            @Override
+            public Buffer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Buffer chunk = next;
+                assert chunk != null;
+                next = null;
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * Processes the current input until up to {@value #MAX_OUTPUT_CHUNK} bytes have been decompressed or the input
+     * is consumed.
+     *
+     * @return the decompressed bytes or {@code null} if the input has been consumed without producing any.
+     */
+    @Nullable
+    private synchronized Buffer nextChunk() {
+        Buffer out = null;
+        while ((offset < end || pendingOutput) && !released) {
+            switch (state) {
+                case HEADER:
+                    offset = readHeader(input, offset, end);
+                    break;
+                case FEXTRA_LENGTH:
+                    offset = readValue(input, offset, end);
+                    if (remaining == 0) {
+                        remaining = (int) value;
+                        state = State.FEXTRA;
+                    }
+                    break;
+                case FEXTRA:
+                    final int skip = min(remaining, end - offset);
+                    offset += skip;
+                    remaining -= skip;
+                    if (remaining == 0) {
+                        nextHeaderState();
+                    }
+                    break;
+                case FNAME:
+                case FCOMMENT:
+                    // Zero-terminated fields.
+                    while (offset < end) {
+                        if (input[offset++] == 0) {
+                            nextHeaderState();
+                            break;
+                        }
+                    }
+                    break;
+                case FHCRC:
+                    offset = readValue(input, offset, end);
+                    if (remaining == 0) {
+                        nextHeaderState();
+                    }
+                    break;
+                case BODY:
+                    if (out == null) {
+                        out = allocator.newBuffer(min(MAX_OUTPUT_CHUNK, max(MIN_OUTPUT_CAPACITY,
+                                (end - offset) << 1)), false);
+                    }
+                    offset = inflate(input, offset, end, out);
+                    if (out.readableBytes() >= MAX_OUTPUT_CHUNK) {
+                        return out;
+                    }
+                    break;
+                case TRAILER:
+                    offset = readTrailer(input, offset, end);
+                    break;
+                case DONE:
+                    throw new IllegalStateException("Unexpected data after the end of the compressed payload");
+                default:
+                    throw new IllegalStateException("Unknown state: " + state);
+            }
+        }
+        return out == null || out.readableBytes() == 0 ? null : out;
+    }
+
+    /**
+     * Returns {@code true} if the whole compressed payload has been consumed.
+     * <p>
+     * An empty payload is considered complete, which tolerates peers that send a {@code content-encoding} header
+     * for responses without content.
+     *
+     * @return {@code true} if the whole compressed payload has been consumed.
+     */
+    synchronized boolean isFinished() {
+        return state == State.DONE || !receivedInput;
+    }
+
+    synchronized void release() {
+        if (inflater != null) {
+            releaseInflater(inflater, gzip);
+            inflater = null;
+        }
+        released = true;
+    }
+
+    private int readHeader(final byte[] input, int offset, final int end) {
+        while (offset < end && remaining > 0) {
+            final int b = input[offset++] & 0xff;
+            switch (GZIP_HEADER_LENGTH - remaining) {
+                case 0:
+                    if (b != 0x1f) {
+                        throw new IllegalStateException("Invalid gzip magic number");
+                    }
+                    break;
+                case 1:
+                    if (b != 0x8b) {
+                        throw new IllegalStateException("Invalid gzip magic number");
+                    }
+                    break;
+                case 2:
+                    if (b != 8) {
+                        throw new IllegalStateException("Unsupported gzip compression method: " + b);
+                    }
+                    break;
+                case 3:
+                    flags = b;
+                    break;
+                default:
+                    // MTIME, XFL and OS are ignored.
+                    break;
+            }
+            --remaining;
+        }
+        if (remaining == 0) {
+            if ((flags & FEXTRA) != 0) {
+                state = State.FEXTRA_LENGTH;
+                startValue(2);
+            } else {
+                nextHeaderState();
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Advances to the next optional header field after the current state, or to {@link State#BODY}.
+     */
+    private void nextHeaderState() {
+        if (state.ordinal() < State.FNAME.ordinal() && (flags & FNAME) != 0) {
+            state = State.FNAME;
+        } else if (state.ordinal() < State.FCOMMENT.ordinal() && (flags & FCOMMENT) != 0) {
+            state = State.FCOMMENT;
+        } else if (state.ordinal() < State.FHCRC.ordinal() && (flags & FHCRC) != 0) {
+            state = State.FHCRC;
+            startValue(2);
+        } else {
+            state = State.BODY;
+        }
+    }
+
+    private void startValue(final int length) {
+        remaining = length;
+        value = 0;
+        valueBytes = 0;
+    }
+
+    private int readValue(final byte[] input, int offset, final int end) {
+        while (offset < end && remaining > 0) {
+            value |= (input[offset++] & 0xffL) << (valueBytes++ << 3);
+            --remaining;
+        }
+        return offset;
+    }
+
+    private int readTrailer(final byte[] input, int offset, final int end) {
+        // Little-endian CRC32 followed by little-endian ISIZE.
+        offset = readValue(input, offset, end);
+        if (remaining == 0) {
+            assert crc != null;
+            final Inflater inflater = inflater();
+            if ((value & 0xffff_ffffL) != crc.getValue()) {
+                throw new IllegalStateException("gzip CRC32 mismatch");
+            }
+            if ((value >>> 32) != (inflater.getBytesWritten() & 0xffff_ffffL)) {
+                throw new IllegalStateException("gzip ISIZE mismatch");
+            }
+            state = State.DONE;
+        }
+        return offset;
+    }
+
+    private int inflate(final byte[] input, final int offset, final int end, final Buffer out) {
+        final Inflater inflater = inflater();
+        inflater.setInput(input, offset, end - offset);
+        pendingOutput = false;
+        try {
+            for (;;) {
+                if (out.readableBytes() >= MAX_OUTPUT_CHUNK) {
+                    // Resumed by the next call with the input which has not been consumed yet.
+                    pendingOutput = true;
+                    return end - inflater.getRemaining();
+                }
+                if (out.writableBytes() == 0) {
+                    out.ensureWritable(min(MAX_OUTPUT_CHUNK - out.readableBytes(),
+                            max(MIN_OUTPUT_CAPACITY, out.capacity())));
+                }
+                final int written;
+                if (out.hasArray()) {
+                    final int writerIndex = out.writerIndex();
+                    written = inflater.inflate(out.array(), out.arrayOffset() + writerIndex,
+                            min(out.writableBytes(), MAX_OUTPUT_CHUNK - out.readableBytes()));
+                    if (crc != null) {
+                        crc.update(out.array(), out.arrayOffset() + writerIndex, written);
+                    }
+                    out.writerIndex(writerIndex + written);
+                } else {
+                    final byte[] chunk = new byte[min(out.writableBytes(), MAX_OUTPUT_CHUNK - out.readableBytes())];
+                    written = inflater.inflate(chunk);
+                    if (crc != null) {
+                        crc.update(chunk, 0, written);
+                    }
+                    out.writeBytes(chunk, 0, written);
+                }
+                if (inflater.getBytesWritten() > maxDecodedSize) {
+                    throw new DecodedPayloadTooLargeException("Decoded payload exceeds the maximum size: " +
+                            maxDecodedSize);
+                }
+                if (inflater.finished()) {
+                    if (gzip) {
+                        state = State.TRAILER;
+                        startValue(GZIP_TRAILER_LENGTH);
+                    } else {
+                        state = State.DONE;
+                    }
+                    return end - inflater.getRemaining();
+                }
+                if (inflater.needsDictionary()) {
+                    throw new IllegalStateException("Preset dictionaries are not supported");
+                }
+                if (written == 0 && inflater.needsInput()) {
+                    return end;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Invalid compressed payload", e);
+        }
+    }
+
+    private Inflater inflater() {
+        if (inflater == null) {
+            inflater = acquireInflater(gzip);
+        }
+        return inflater;
+    }
+}
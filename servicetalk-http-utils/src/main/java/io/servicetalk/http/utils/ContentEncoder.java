@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.buffer.api.EmptyBuffer.EMPTY_BUFFER;
+import static io.servicetalk.http.utils.ZipPools.acquireDeflater;
+import static io.servicetalk.http.utils.ZipPools.releaseDeflater;
+import static java.lang.Math.max;
+import static java.util.zip.Deflater.NO_FLUSH;
+import static java.util.zip.Deflater.SYNC_FLUSH;
+
+/**
+ * Compresses a stream of {@link Buffer}s using either the gzip or the zlib format.
+ * <p>
+ * Methods are {@code synchronized} because cancellation may release the {@link Deflater} concurrently with the
+ * processing of a {@link Buffer}, the lock is otherwise uncontended.
+ */
+final class ContentEncoder {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    // Room for the sync flush marker and block headers when the input is not compressible.
+    private static final int OUTPUT_OVERHEAD = 64;
+
+    private final boolean gzip;
+    private final BufferAllocator allocator;
+    @Nullable
+    private final CRC32 crc;
+    @Nullable
+    private Deflater deflater;
+    @Nullable
+    private byte[] scratch;
+    private boolean headerWritten;
+    private boolean released;
+
+    ContentEncoder(final boolean gzip, final BufferAllocator allocator) {
+        this.gzip = gzip;
+        this.allocator = allocator;
+        crc = gzip ? new CRC32() : null;
+    }
+
+    synchronized Buffer encode(final Buffer src) {
+        final Deflater deflater = deflater();
+        if (deflater == null) {
+            return EMPTY_BUFFER;
+        }
+        final int length = src.readableBytes();
+        if (length == 0) {
+            return EMPTY_BUFFER;
+        }
+        final byte[] input;
+        final int offset;
+        if (src.hasArray()) {
+            input = src.array();
+            offset = src.arrayOffset() + src.readerIndex();
+        } else {
+            input = new byte[length];
+            src.getBytes(src.readerIndex(), input);
+            offset = 0;
+        }
+        if (crc != null) {
+            crc.update(input, offset, length);
+        }
+        deflater.setInput(input, offset, length);
+        final Buffer out = newOutput(length);
+        deflate(deflater, out, SYNC_FLUSH);
+        return out;
+    }
+
+    synchronized Buffer finish() {
+        final Deflater deflater = deflater();
+        if (deflater == null) {
+            return EMPTY_BUFFER;
+        }
+        final Buffer out = newOutput(0);
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate(deflater, out, NO_FLUSH);
+        }
+        if (crc != null) {
+            out.writeIntLE((int) crc.getValue());
+            out.writeIntLE((int) deflater.getBytesRead());
+        }
+        return out;
+    }
+
+    synchronized void release() {
+        if (deflater != null) {
+            releaseDeflater(deflater, gzip);
+            deflater = null;
+        }
+        released = true;
+    }
+
+    @Nullable
+    private Deflater deflater() {
+        if (deflater == null && !released) {
+            deflater = acquireDeflater(gzip);
+        }
+        return deflater;
+    }
+
+    private Buffer newOutput(final int inputLength) {
+        final int capacity = inputLength + OUTPUT_OVERHEAD + (headerWritten ? 0 : GZIP_HEADER.length) +
+                (gzip ? GZIP_TRAILER_LENGTH : 0);
+        final Buffer out = allocator.newBuffer(capacity, false);
+        if (!headerWritten) {
+            headerWritten = true;
+            if (gzip) {
+                out.writeBytes(GZIP_HEADER);
+            }
+        }
+        return out;
+    }
+
+    private void deflate(final Deflater deflater, final Buffer out, final int flush) {
+        int written;
+        int writable;
+        do {
+            writable = out.writableBytes();
+            if (writable == 0) {
+                out.ensureWritable(max(OUTPUT_OVERHEAD, out.capacity()));
+                writable = out.writableBytes();
+            }
+            if (out.hasArray()) {
+                written = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), writable, flush);
+                out.writerIndex(out.writerIndex() + written);
+            } else {
+                if (scratch == null) {
+                    scratch = new byte[8192];
+                }
+                writable = scratch.length;
+                written = deflater.deflate(scratch, 0, writable, flush);
+                out.writeBytes(scratch, 0, written);
+            }
+            // A full output means there may be more pending data, see Deflater#deflate(byte[], int, int, int).
+        } while (written == writable || (flush == SYNC_FLUSH && !deflater.needsInput()));
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+/**
+ * Thrown when a decompressed payload exceeds the maximum size configured for a {@link ContentCoding}.
+ */
+public final class DecodedPayloadTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 5046278131306211467L;
+
+    /**
+     * Create a new instance.
+     *
+     * @param message The detail message.
+     */
+    DecodedPayloadTooLargeException(final String message) {
+        super(message);
+    }
+}
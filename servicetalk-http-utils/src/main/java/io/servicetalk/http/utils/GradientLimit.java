@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.pow;
+import static java.lang.Math.sqrt;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * An {@link AdaptiveLimit} which compares a short term RTT sample against a long term exponential moving average of
+ * RTTs, in the spirit of TCP Vegas.
+ * <p>
+ * A growing RTT means requests are queueing, so the limit is multiplied by the ratio of both RTTs (the gradient). A
+ * headroom of {@code sqrt(limit)} is always added, so the limit can probe for more capacity when the RTT is stable.
+ * Dropped requests are the strongest sign of congestion and shrink the limit multiplicatively, like {@link AimdLimit}.
+ */
+final class GradientLimit extends AdaptiveLimit {
+    private static final AtomicIntegerFieldUpdater<GradientLimit> samplingUpdater =
+            newUpdater(GradientLimit.class, "sampling");
+    private static final AtomicIntegerFieldUpdater<GradientLimit> pendingDropsUpdater =
+            newUpdater(GradientLimit.class, "pendingDrops");
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private volatile int limit;
+    @SuppressWarnings("unused")
+    private volatile int sampling;
+    private volatile int pendingDrops;
+    // Guarded by sampling, published through limit.
+    private double estimatedLimit;
+    private double longRtt;
+    private int samples;
+
+    GradientLimit(final int initialLimit, final int minLimit, final int maxLimit, final double rttTolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    @Override
+    int limit() {
+        return limit;
+    }
+
+    @Override
+    void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        if (dropped) {
+            pendingDropsUpdater.incrementAndGet(this);
+        }
+        // The limit is statistical, so a sample that races with another one is skipped instead of waiting for it.
+        // Drops are counted and applied by whichever thread samples next, so they are never lost.
+        boolean rttSample = !dropped && rttNanos > 0;
+        do {
+            if (!samplingUpdater.compareAndSet(this, 0, 1)) {
+                return;
+            }
+            try {
+                final int drops = pendingDropsUpdater.getAndSet(this, 0);
+                if (drops > 0) {
+                    estimatedLimit = max(minLimit, estimatedLimit * pow(BACKOFF_RATIO, drops));
+                    limit = (int) estimatedLimit;
+                } else if (rttSample) {
+                    onRttSample(rttNanos, inFlight);
+                }
+                rttSample = false;
+            } finally {
+                sampling = 0;
+            }
+        } while (pendingDrops > 0);
+    }
+
+    private void onRttSample(final long rttNanos, final int inFlight) {
+        final double shortRtt = rttNanos;
+        if (samples < WARMUP_SAMPLES) {
+            // Plain average until there are enough samples for the moving average to be meaningful.
+            longRtt = (longRtt * samples + shortRtt) / ++samples;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+        }
+        if (longRtt / shortRtt > 2) {
+            // The long term RTT drifted up during a sustained overload, let it recover faster.
+            longRtt *= 0.95;
+        }
+        if (inFlight < estimatedLimit / 2) {
+            // The application does not use the limit, growing it would not be backed by any measurement.
+            return;
+        }
+        final double gradient = max(MIN_GRADIENT, min(1, rttTolerance * longRtt / shortRtt));
+        final double newLimit = estimatedLimit * gradient + sqrt(estimatedLimit);
+        estimatedLimit = max(minLimit, min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
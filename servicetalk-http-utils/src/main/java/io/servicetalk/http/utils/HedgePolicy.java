@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.http.api.HttpRequestMetaData;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Predicate;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.round;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * Decides which requests are hedged, when a hedged request is sent and how many hedged requests are allowed.
+ * <p>
+ * The hedge budget is a token bucket: every hedgeable request deposits a fraction of a token and every hedged request
+ * withdraws a whole token, so on average no more than the configured ratio of requests is hedged. The bucket holds a
+ * limited number of tokens, so that a long period without hedges does not allow a burst of hedges later.
+ * <p>
+ * If the delay is derived from the observed latency, a stochastic approximation of the latency percentile is used
+ * which requires constant memory and no coordination between threads. Updates may be lost under contention, which is
+ * acceptable for an estimate.
+ */
+final class HedgePolicy {
+    private static final AtomicIntegerFieldUpdater<HedgePolicy> balanceUpdater =
+            newUpdater(HedgePolicy.class, "balance");
+
+    /**
+     * Cost of a single hedged request, in units of the balance.
+     */
+    private static final int HEDGE_COST = 1000;
+    /**
+     * Maximum number of hedged requests that can be accumulated in the balance.
+     */
+    private static final int MAX_BURST = 10;
+    /**
+     * The estimate decreases by {@code 1 / 2^ESTIMATE_STEP_SHIFT} of its value for every faster sample.
+     */
+    private static final int ESTIMATE_STEP_SHIFT = 10;
+
+    private final Predicate<HttpRequestMetaData> hedgeFor;
+    private final long minDelayNanos;
+    private final double percentile;
+    private final double increaseFactor;
+    private final int deposit;
+
+    private volatile int balance;
+    private volatile long estimateNanos;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param hedgeFor {@link Predicate} which selects requests that can be hedged.
+     * @param minDelayNanos The delay after which a hedged request is sent. If {@code percentile} is positive, the
+     * initial and minimum delay.
+     * @param percentile The latency percentile in the {@code (0, 1)} range from which the delay is derived, or
+     * {@code 0} for a fixed delay.
+     * @param budget The maximum ratio of hedged requests to all hedgeable requests in the {@code (0, 1]} range.
+     */
+    HedgePolicy(final Predicate<HttpRequestMetaData> hedgeFor, final long minDelayNanos, final double percentile,
+                final double budget) {
+        this.hedgeFor = hedgeFor;
+        this.minDelayNanos = minDelayNanos;
+        this.percentile = percentile;
+        this.increaseFactor = percentile / (1 - percentile);
+        this.deposit = max(1, (int) round(budget * HEDGE_COST));
+        this.estimateNanos = minDelayNanos;
+    }
+
+    boolean isHedgeable(final HttpRequestMetaData metaData) {
+        return hedgeFor.test(metaData);
+    }
+
+    long delayNanos() {
+        return percentile == 0 ? minDelayNanos : max(minDelayNanos, estimateNanos);
+    }
+
+    void recordLatency(final long latencyNanos) {
+        if (percentile == 0) {
+            return;
+        }
+        // The estimate is stable when it is exceeded by (1 - percentile) of the samples, because then the expected
+        // increase (1 - percentile) * step * percentile / (1 - percentile) equals the expected decrease
+        // percentile * step.
+        final long estimate = estimateNanos;
+        final long step = max(1, estimate >>> ESTIMATE_STEP_SHIFT);
+        estimateNanos = latencyNanos > estimate ? estimate + (long) (step * increaseFactor) :
+                max(minDelayNanos, estimate - step);
+    }
+
+    void onRequest() {
+        final int maxBalance = HEDGE_COST * MAX_BURST;
+        for (;;) {
+            final int current = balance;
+            if (current >= maxBalance || balanceUpdater.compareAndSet(this, current,
+                    min(maxBalance, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    boolean tryAcquireHedge() {
+        for (;;) {
+            final int current = balance;
+            if (current < HEDGE_COST) {
+                return false;
+            }
+            if (balanceUpdater.compareAndSet(this, current, current - HEDGE_COST)) {
+                return true;
+            }
+        }
+    }
+
+    void releaseHedge() {
+        balanceUpdater.addAndGet(this, HEDGE_COST);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.SingleSource;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.internal.SubscribableSingle;
+import io.servicetalk.concurrent.internal.DelayedCancellable;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static io.servicetalk.concurrent.internal.SubscriberUtils.handleExceptionFromOnSubscribe;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * An operator, which sends a hedged request if the original request does not complete within the delay defined by
+ * {@link HedgePolicy}.
+ * <p>
+ * The first successful response is emitted and the other request is cancelled. If the other request has already
+ * produced a response, its payload body is drained. An error is emitted only when all requests failed.
+ */
+final class HedgingSingle extends SubscribableSingle<StreamingHttpResponse> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgingSingle.class);
+
+    private final Single<StreamingHttpResponse> attempt;
+    private final HedgePolicy policy;
+    private final Executor timer;
+
+    /**
+     * Create a new instance.
+     *
+     * @param attempt {@link Single} which sends a new request for every subscribe.
+     * @param policy {@link HedgePolicy} to use.
+     * @param timer {@link Executor} to schedule the hedged request.
+     */
+    HedgingSingle(final Single<StreamingHttpResponse> attempt, final HedgePolicy policy, final Executor timer) {
+        this.attempt = attempt;
+        this.policy = policy;
+        this.timer = timer;
+    }
+
+    @Override
+    protected void handleSubscribe(final Subscriber<? super StreamingHttpResponse> subscriber) {
+        final HedgeState state = new HedgeState(subscriber, policy);
+        try {
+            subscriber.onSubscribe(state);
+        } catch (Throwable cause) {
+            handleExceptionFromOnSubscribe(subscriber, cause);
+            return;
+        }
+        policy.onRequest();
+        if (!state.startAttempt(attempt, state.original)) {
+            return;
+        }
+        try {
+            state.timer.delayedCancellable(timer.schedule(() -> state.hedge(attempt), policy.delayNanos(),
+                    NANOSECONDS));
+        } catch (Throwable cause) {
+            // Hedging is an optimization, the original request is still in progress.
+            LOGGER.debug("Failed to schedule a hedged request, continuing without hedging.", cause);
+        }
+    }
+
+    private static final class HedgeState implements Cancellable {
+        private static final AtomicIntegerFieldUpdater<HedgeState> outstandingUpdater =
+                newUpdater(HedgeState.class, "outstanding");
+        private static final int TERMINATED = -1;
+
+        private final Subscriber<? super StreamingHttpResponse> target;
+        private final HedgePolicy policy;
+        final DelayedCancellable original = new DelayedCancellable();
+        final DelayedCancellable hedged = new DelayedCancellable();
+        final DelayedCancellable timer = new DelayedCancellable();
+
+        /**
+         * Number of requests which did not terminate yet, or {@link #TERMINATED} once the target has been terminated
+         * or cancelled.
+         */
+        private volatile int outstanding;
+
+        HedgeState(final Subscriber<? super StreamingHttpResponse> target, final HedgePolicy policy) {
+            this.target = target;
+            this.policy = policy;
+        }
+
+        boolean startAttempt(final Single<StreamingHttpResponse> attempt, final DelayedCancellable cancellable) {
+            for (;;) {
+                final int current = outstanding;
+                if (current == TERMINATED) {
+                    return false;
+                }
+                if (outstandingUpdater.compareAndSet(this, current, current + 1)) {
+                    break;
+                }
+            }
+            toSource(attempt).subscribe(new AttemptSubscriber(this, cancellable));
+            return true;
+        }
+
+        void hedge(final Single<StreamingHttpResponse> attempt) {
+            if (outstanding == TERMINATED || !policy.tryAcquireHedge()) {
+                return;
+            }
+            if (!startAttempt(attempt, hedged)) {
+                policy.releaseHedge();
+            }
+        }
+
+        boolean terminate() {
+            return outstandingUpdater.getAndSet(this, TERMINATED) != TERMINATED;
+        }
+
+        /**
+         * Called when a request failed.
+         *
+         * @return {@code true} if it was the last outstanding request and the error has to be delivered.
+         */
+        boolean attemptFailed() {
+            for (;;) {
+                final int current = outstanding;
+                if (current == TERMINATED) {
+                    return false;
+                }
+                if (current == 1) {
+                    if (outstandingUpdater.compareAndSet(this, 1, TERMINATED)) {
+                        timer.cancel();
+                        return true;
+                    }
+                } else if (outstandingUpdater.compareAndSet(this, current, current - 1)) {
+                    return false;
+                }
+            }
+        }
+
+        void cancelOthers(final DelayedCancellable winner) {
+            timer.cancel();
+            if (winner == original) {
+                hedged.cancel();
+            } else {
+                original.cancel();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (terminate()) {
+                timer.cancel();
+                original.cancel();
+                hedged.cancel();
+            }
+        }
+    }
+
+    private static final class AttemptSubscriber implements SingleSource.Subscriber<StreamingHttpResponse> {
+        private final HedgeState state;
+        private final DelayedCancellable cancellable;
+        private final long startNanos = nanoTime();
+
+        AttemptSubscriber(final HedgeState state, final DelayedCancellable cancellable) {
+            this.state = state;
+            this.cancellable = cancellable;
+        }
+
+        @Override
+        public void onSubscribe(final Cancellable cancellable) {
+            this.cancellable.delayedCancellable(cancellable);
+        }
+
+        @Override
+        public void onSuccess(@Nullable final StreamingHttpResponse result) {
+            state.policy.recordLatency(nanoTime() - startNanos);
+            if (state.terminate()) {
+                state.cancelOthers(cancellable);
+                state.target.onSuccess(result);
+            } else if (result != null) {
+                // Consume the payload body of the response which lost the race to release the connection.
+                result.payloadBodyAndTrailers().ignoreElements().subscribe();
+            }
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            if (state.attemptFailed()) {
+                state.target.onError(t);
+            }
+        }
+    }
+}
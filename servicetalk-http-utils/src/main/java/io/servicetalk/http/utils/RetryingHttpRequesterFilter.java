@@ -15,6 +15,7 @@
  */
 package io.servicetalk.http.utils;
 
+import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.client.api.AbstractRetryingFilterBuilder;
 import io.servicetalk.client.api.AbstractRetryingFilterBuilder.ReadOnlyRetryableSettings;
 import io.servicetalk.concurrent.api.BiIntFunction;
@@ -26,22 +27,39 @@ import io.servicetalk.http.api.FilterableStreamingHttpClient;
 import io.servicetalk.http.api.FilterableStreamingHttpConnection;
 import io.servicetalk.http.api.HttpExecutionStrategy;
 import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpRequest;
 import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.http.api.StatelessTrailersTransformer;
 import io.servicetalk.http.api.StreamingHttpClientFilter;
 import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
 import io.servicetalk.http.api.StreamingHttpConnectionFilter;
 import io.servicetalk.http.api.StreamingHttpConnectionFilterFactory;
 import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestFactory;
 import io.servicetalk.http.api.StreamingHttpRequester;
 import io.servicetalk.http.api.StreamingHttpResponse;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.Completable.failed;
+import static io.servicetalk.concurrent.api.Publisher.from;
+import static java.util.Objects.requireNonNull;
 
 /**
  * A filter to enable retries for HTTP requests.
+ * <p>
+ * When applied to a client, the filter can also hedge requests, see {@link Builder#hedgeAfter(Duration)} and
+ * {@link Builder#hedgeAfterLatencyPercentile(double, Duration)}: if a response is not received within a delay, a
+ * duplicate request is sent, the first successful response is used and the other request is cancelled. The duplicate
+ * request is routed by the client's load balancer independently of the original request, so with the default
+ * round-robin load balancer it is sent to a different host when there is more than one. The ratio of hedged requests
+ * is bounded by {@link Builder#hedgeBudget(double)} to avoid amplifying the load on already slow hosts. Every attempt
+ * sends a copy of the request with the aggregated payload body.
  *
  * @see RetryStrategies
  */
@@ -50,9 +68,13 @@ public final class RetryingHttpRequesterFilter implements StreamingHttpClientFil
                                                           HttpExecutionStrategyInfluencer {
 
     private final ReadOnlyRetryableSettings<HttpRequestMetaData> settings;
+    @Nullable
+    private final HedgePolicy hedgePolicy;
 
-    private RetryingHttpRequesterFilter(final ReadOnlyRetryableSettings<HttpRequestMetaData> settings) {
+    private RetryingHttpRequesterFilter(final ReadOnlyRetryableSettings<HttpRequestMetaData> settings,
+                                        @Nullable final HedgePolicy hedgePolicy) {
         this.settings = settings;
+        this.hedgePolicy = hedgePolicy;
     }
 
     private Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
@@ -78,11 +100,36 @@ public final class RetryingHttpRequesterFilter implements StreamingHttpClientFil
             protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
                                                             final HttpExecutionStrategy strategy,
                                                             final StreamingHttpRequest request) {
-                return RetryingHttpRequesterFilter.this.request(delegate, strategy, request, retryStrategy);
+                // Hedging is only applied to clients, a hedged request on the same connection will not be faster.
+                if (hedgePolicy == null || !hedgePolicy.isHedgeable(request)) {
+                    return RetryingHttpRequesterFilter.this.request(delegate, strategy, request, retryStrategy);
+                }
+                // The attempts run concurrently, so each one needs its own request: filters further down may mutate
+                // the headers and the payload body can only be subscribed once. The payload body is aggregated to
+                // replay it for the hedged request.
+                return request.toRequest().flatMap(aggregated -> new HedgingSingle(Single.defer(() ->
+                        RetryingHttpRequesterFilter.this.request(delegate, strategy, newAttempt(delegate, aggregated),
+                                retryStrategy)),
+                        hedgePolicy, client.executionContext().executor()));
             }
         };
     }
 
+    private static StreamingHttpRequest newAttempt(final StreamingHttpRequestFactory requestFactory,
+                                                   final HttpRequest request) {
+        final StreamingHttpRequest attempt = requestFactory.newRequest(request.method(), request.requestTarget())
+                .version(request.version())
+                .payloadBody(from(request.payloadBody().duplicate()));
+        attempt.headers().set(request.headers());
+        final HttpHeaders trailers = request.trailers();
+        return trailers.isEmpty() ? attempt : attempt.transform(new StatelessTrailersTransformer<Buffer>() {
+            @Override
+            protected HttpHeaders payloadComplete(final HttpHeaders attemptTrailers) {
+                return attemptTrailers.add(trailers);
+            }
+        });
+    }
+
     @Override
     public StreamingHttpConnectionFilter create(final FilterableStreamingHttpConnection connection) {
         return new StreamingHttpConnectionFilter(connection) {
@@ -111,10 +158,96 @@ public final class RetryingHttpRequesterFilter implements StreamingHttpClientFil
     public static final class Builder
             extends AbstractRetryingFilterBuilder<Builder, RetryingHttpRequesterFilter, HttpRequestMetaData> {
 
+        @Nullable
+        private Duration hedgeDelay;
+        private double hedgeLatencyPercentile;
+        private double hedgeBudget = 0.05;
+        @Nullable
+        private Predicate<HttpRequestMetaData> hedgeForPredicate;
+
+        /**
+         * Enables hedging of requests with a fixed delay: if a response is not received within {@code delay}, a
+         * duplicate request is sent and the first successful response is used.
+         * <p>
+         * Hedging only applies when this filter is appended to a client, and only to requests selected by
+         * {@link #hedgeFor(Predicate)}.
+         *
+         * @param delay The delay after which a duplicate request is sent.
+         * @return {@code this}
+         */
+        public Builder hedgeAfter(final Duration delay) {
+            if (delay.isNegative() || delay.isZero()) {
+                throw new IllegalArgumentException("delay: " + delay + " (expected: >0)");
+            }
+            this.hedgeDelay = delay;
+            this.hedgeLatencyPercentile = 0;
+            return this;
+        }
+
+        /**
+         * Enables hedging of requests with a delay derived from the observed latency: if a response is not received
+         * within the estimated {@code percentile} of the latency of previous requests, a duplicate request is sent and
+         * the first successful response is used.
+         * <p>
+         * Hedging only applies when this filter is appended to a client, and only to requests selected by
+         * {@link #hedgeFor(Predicate)}.
+         *
+         * @param percentile The latency percentile in the {@code (0, 1)} range, for example {@code 0.95} for the 95th
+         * percentile.
+         * @param minDelay The minimum delay after which a duplicate request is sent, also used until enough latency has
+         * been observed.
+         * @return {@code this}
+         */
+        public Builder hedgeAfterLatencyPercentile(final double percentile, final Duration minDelay) {
+            if (!(percentile > 0 && percentile < 1)) {
+                throw new IllegalArgumentException("percentile: " + percentile + " (expected: (0, 1))");
+            }
+            if (minDelay.isNegative() || minDelay.isZero()) {
+                throw new IllegalArgumentException("minDelay: " + minDelay + " (expected: >0)");
+            }
+            this.hedgeDelay = minDelay;
+            this.hedgeLatencyPercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the maximum ratio of hedged requests to all hedgeable requests, {@code 0.05} by default.
+         *
+         * @param ratio The maximum ratio of hedged requests in the {@code (0, 1]} range, for example {@code 0.05} to
+         * allow hedging at most 5% of requests.
+         * @return {@code this}
+         */
+        public Builder hedgeBudget(final double ratio) {
+            if (!(ratio > 0 && ratio <= 1)) {
+                throw new IllegalArgumentException("ratio: " + ratio + " (expected: (0, 1])");
+            }
+            this.hedgeBudget = ratio;
+            return this;
+        }
+
+        /**
+         * Overrides the default criterion for requests that can be hedged, which selects
+         * <a href="https://tools.ietf.org/html/rfc7231#section-4.2.2">idempotent</a> requests.
+         * <p>
+         * <b>Note:</b> The {@link StreamingHttpRequest#payloadBody() payload body} of a hedged
+         * {@link StreamingHttpRequest request} is aggregated before the request is sent, so that it can be replayed
+         * for the duplicate request. Requests with large or long-lived streaming payload bodies should not be hedged.
+         *
+         * @param hedgeForPredicate {@link Predicate} which selects requests that can be hedged.
+         * @return {@code this}
+         */
+        public Builder hedgeFor(final Predicate<HttpRequestMetaData> hedgeForPredicate) {
+            this.hedgeForPredicate = requireNonNull(hedgeForPredicate);
+            return this;
+        }
+
         @Override
         protected RetryingHttpRequesterFilter build(
                 final ReadOnlyRetryableSettings<HttpRequestMetaData> readOnlySettings) {
-            return new RetryingHttpRequesterFilter(readOnlySettings);
+            return new RetryingHttpRequesterFilter(readOnlySettings, hedgeDelay == null ? null :
+                    new HedgePolicy(hedgeForPredicate != null ? hedgeForPredicate :
+                            meta -> meta.method().properties().isIdempotent(),
+                            hedgeDelay.toNanos(), hedgeLatencyPercentile, hedgeBudget));
         }
 
         /**
@@ -0,0 +1,339 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.HttpFileRegion;
+import io.servicetalk.http.api.HttpRequestMethod;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Publisher.defer;
+import static io.servicetalk.concurrent.api.Publisher.fromInputStream;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.CharSequences.regionMatches;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_RANGES;
+import static io.servicetalk.http.api.HttpHeaderNames.ALLOW;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_RANGE;
+import static io.servicetalk.http.api.HttpHeaderNames.RANGE;
+import static io.servicetalk.http.api.HttpHeaderValues.BYTES;
+import static io.servicetalk.http.api.HttpHeaderValues.ZERO;
+import static io.servicetalk.http.api.HttpRequestMethod.GET;
+import static io.servicetalk.http.api.HttpRequestMethod.HEAD;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.file.Files.isRegularFile;
+import static java.util.Arrays.copyOf;
+import static java.nio.file.Files.size;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * A {@link StreamingHttpService} which serves the files below a root directory, with support for single
+ * <a href="https://tools.ietf.org/html/rfc7233">byte range requests</a>.
+ * <p>
+ * Over HTTP/1.x the content of a file is written as a {@link HttpFileRegion}, so it is transferred from the file to
+ * the socket without being copied into user space. Other protocol versions read the file in chunks.
+ * <p>
+ * Requests with multiple ranges are answered with the whole file, as permitted by
+ * <a href="https://tools.ietf.org/html/rfc7233#section-3.1">RFC 7233</a>.
+ */
+public final class StaticFileHttpService implements StreamingHttpService {
+    private static final long[] UNSATISFIABLE = new long[0];
+    private static final CharSequence BYTES_UNIT = newAsciiString("bytes=");
+    private static final CharSequence ALLOWED_METHODS = newAsciiString("GET, HEAD");
+    private static final int READ_CHUNK_SIZE = 8192;
+
+    private final Path root;
+
+    /**
+     * Create a new instance.
+     *
+     * @param root the directory which contains the files to serve.
+     */
+    public StaticFileHttpService(final Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx, final StreamingHttpRequest request,
+                                                final StreamingHttpResponseFactory responseFactory) {
+        final HttpRequestMethod method = request.method();
+        if (!GET.equals(method) && !HEAD.equals(method)) {
+            final StreamingHttpResponse response = responseFactory.methodNotAllowed();
+            response.headers().set(ALLOW, ALLOWED_METHODS).set(CONTENT_LENGTH, ZERO);
+            return succeeded(response);
+        }
+        final Path file = resolve(request.path());
+        if (file == null || !isRegularFile(file)) {
+            final StreamingHttpResponse response = responseFactory.notFound();
+            response.headers().set(CONTENT_LENGTH, ZERO);
+            return succeeded(response);
+        }
+
+        final long fileSize;
+        try {
+            fileSize = size(file);
+        } catch (IOException e) {
+            return failed(e);
+        }
+        final CharSequence rangeHeader = request.headers().get(RANGE);
+        final long[] range = rangeHeader == null ? null : parseRange(rangeHeader, fileSize);
+        if (range == UNSATISFIABLE) {
+            final StreamingHttpResponse response = responseFactory.rangeNotSatisfiable();
+            response.headers().set(CONTENT_RANGE, "bytes */" + fileSize).set(CONTENT_LENGTH, ZERO);
+            return succeeded(response);
+        }
+
+        final StreamingHttpResponse response;
+        final long position;
+        final long count;
+        if (range == null) {
+            response = responseFactory.ok();
+            position = 0;
+            count = fileSize;
+        } else {
+            response = responseFactory.partialContent();
+            position = range[0];
+            count = range[1] - range[0] + 1;
+            response.headers().set(CONTENT_RANGE, "bytes " + range[0] + '-' + range[1] + '/' + fileSize);
+        }
+        response.headers().set(ACCEPT_RANGES, BYTES).set(CONTENT_LENGTH, Long.toString(count));
+        if (count > 0 && !HEAD.equals(method)) {
+            if (request.version().major() == 1) {
+                response.payloadBody(new HttpFileRegion(file, position, count));
+            } else {
+                response.payloadBody(readFile(file, position, count, ctx.executionContext().bufferAllocator()));
+            }
+        }
+        return succeeded(response);
+    }
+
+    @Nullable
+    private Path resolve(final String requestPath) {
+        final Path file;
+        try {
+            file = root.resolve(requestPath.startsWith("/") ? requestPath.substring(1) : requestPath).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        // Do not allow "../" to escape the root directory.
+        return file.startsWith(root) ? file : null;
+    }
+
+    /**
+     * Parses the value of a {@code Range} header.
+     *
+     * @param range the value of the {@code Range} header.
+     * @param size the size of the file.
+     * @return the first and the last (inclusive) position of the requested range, {@link #UNSATISFIABLE} if the
+     * range does not overlap with the file, or {@code null} if the header should be ignored.
+     */
+    @Nullable
+    static long[] parseRange(final CharSequence range, final long size) {
+        if (range.length() <= BYTES_UNIT.length() ||
+                !regionMatches(range, true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        final String spec = range.subSequence(BYTES_UNIT.length(), range.length()).toString().trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        final long first = parsePosition(spec, 0, dash);
+        final long last = parsePosition(spec, dash + 1, spec.length());
+        if (dash == 0) {
+            // Suffix range: the last N bytes of the file.
+            if (last < 0) {
+                return null;
+            }
+            return last == 0 || size == 0 ? UNSATISFIABLE : new long[] {max(0, size - last), size - 1};
+        }
+        if (first < 0 || (last < 0 && dash + 1 != spec.length()) || (last >= 0 && last < first)) {
+            return null;
+        }
+        if (first >= size) {
+            return UNSATISFIABLE;
+        }
+        return new long[] {first, last < 0 ? size - 1 : min(last, size - 1)};
+    }
+
+    private static long parsePosition(final String spec, final int begin, final int end) {
+        final String value = spec.substring(begin, end).trim();
+        if (value.isEmpty()) {
+            return -1;
+        }
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Publisher<Buffer> readFile(final Path file, final long position, final long count,
+                                              final BufferAllocator allocator) {
+        return defer(() -> {
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(file, READ);
+            } catch (IOException e) {
+                return Publisher.failed(e);
+            }
+            return fromInputStream(new FileRangeInputStream(channel, position, count)).map(allocator::wrap);
+        });
+    }
+
+    /**
+     * Reads the content of a {@link HttpFileRegion} in chunks, for operators which need to process it as
+     * {@link Buffer}s. The file is opened when the iteration starts and closed when it ends or is cancelled.
+     *
+     * @param region the {@link HttpFileRegion} to read.
+     * @param allocator the {@link BufferAllocator} to wrap the chunks.
+     * @return an {@link Iterable} of the content of {@code region}.
+     */
+    static Iterable<Buffer> readFileRegion(final HttpFileRegion region, final BufferAllocator allocator) {
+        return () -> new FileRegionIterator(region, allocator);
+    }
+
+    /**
+     * An {@link Iterator} over the content of a {@link HttpFileRegion}.
+     */
+    private static final class FileRegionIterator implements Iterator<Buffer>, AutoCloseable {
+        private final HttpFileRegion region;
+        private final BufferAllocator allocator;
+        @Nullable
+        private FileRangeInputStream stream;
+        @Nullable
+        private byte[] next;
+
+        FileRegionIterator(final HttpFileRegion region, final BufferAllocator allocator) {
+            this.region = region;
+            this.allocator = allocator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                if (stream == null) {
+                    stream = new FileRangeInputStream(FileChannel.open(region.path(), READ), region.position(),
+                            region.count());
+                }
+                final byte[] chunk = new byte[max(1, stream.available())];
+                final int read = stream.read(chunk, 0, chunk.length);
+                if (read < 0) {
+                    close();
+                    return false;
+                }
+                next = read == chunk.length ? chunk : copyOf(chunk, read);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Buffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            assert next != null;
+            final Buffer buffer = allocator.wrap(next);
+            next = null;
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * An {@link InputStream} over a range of a {@link FileChannel}.
+     */
+    private static final class FileRangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        FileRangeInputStream(final FileChannel channel, final long position, final long count) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            final int read = channel.read(ByteBuffer.wrap(b, off, (int) min(len, remaining)), position);
+            if (read < 0) {
+                // The file was truncated after its size was sent.
+                throw new IOException("Unexpected end of file, " + remaining + " bytes missing");
+            }
+            position += read;
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) min(remaining, READ_CHUNK_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
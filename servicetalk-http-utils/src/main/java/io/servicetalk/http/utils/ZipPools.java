@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.lang.Math.max;
+import static java.util.zip.Deflater.DEFAULT_COMPRESSION;
+
+/**
+ * Bounded pools of {@link Deflater} and {@link Inflater} instances shared by all threads.
+ * <p>
+ * Creating these objects allocates native zlib state, which is much more expensive than compressing a typical HTTP
+ * payload. The pools are shared, rather than kept per thread, so that the native memory they retain is bounded
+ * independently of the number of threads processing payloads, and instances released by another thread than the one
+ * which acquired them are reused. Instances which do not fit in a pool are {@link Deflater#end() ended} immediately.
+ */
+final class ZipPools {
+    private static final int MAX_POOLED = max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final Pool<Deflater> GZIP_DEFLATERS = new Pool<>(() -> new Deflater(DEFAULT_COMPRESSION, true),
+            Deflater::reset, Deflater::end);
+    private static final Pool<Deflater> ZLIB_DEFLATERS = new Pool<>(() -> new Deflater(DEFAULT_COMPRESSION, false),
+            Deflater::reset, Deflater::end);
+    private static final Pool<Inflater> GZIP_INFLATERS = new Pool<>(() -> new Inflater(true),
+            Inflater::reset, Inflater::end);
+    private static final Pool<Inflater> ZLIB_INFLATERS = new Pool<>(() -> new Inflater(false),
+            Inflater::reset, Inflater::end);
+
+    private ZipPools() {
+        // no instances
+    }
+
+    /**
+     * Acquires a {@link Deflater}, which must be returned with {@link #releaseDeflater(Deflater, boolean)}.
+     *
+     * @param gzip {@code true} for a raw deflater, which is wrapped with a gzip header and trailer by the caller,
+     * {@code false} for a deflater producing the zlib format.
+     * @return a {@link Deflater} ready to use.
+     */
+    static Deflater acquireDeflater(final boolean gzip) {
+        return (gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS).acquire();
+    }
+
+    static void releaseDeflater(final Deflater deflater, final boolean gzip) {
+        (gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS).release(deflater);
+    }
+
+    /**
+     * Acquires an {@link Inflater}, which must be returned with {@link #releaseInflater(Inflater, boolean)}.
+     *
+     * @param gzip {@code true} for a raw inflater, the gzip header and trailer are parsed by the caller,
+     * {@code false} for an inflater consuming the zlib format.
+     * @return an {@link Inflater} ready to use.
+     */
+    static Inflater acquireInflater(final boolean gzip) {
+        return (gzip ? GZIP_INFLATERS : ZLIB_INFLATERS).acquire();
+    }
+
+    static void releaseInflater(final Inflater inflater, final boolean gzip) {
+        (gzip ? GZIP_INFLATERS : ZLIB_INFLATERS).release(inflater);
+    }
+
+    private static final class Pool<T> {
+        private final Queue<T> pooled = new ConcurrentLinkedQueue<>();
+        // Tracked separately because ConcurrentLinkedQueue#size() is O(n).
+        private final AtomicInteger size = new AtomicInteger();
+        private final Supplier<T> factory;
+        private final Consumer<T> reset;
+        private final Consumer<T> end;
+
+        Pool(final Supplier<T> factory, final Consumer<T> reset, final Consumer<T> end) {
+            this.factory = factory;
+            this.reset = reset;
+            this.end = end;
+        }
+
+        T acquire() {
+            final T instance = pooled.poll();
+            if (instance == null) {
+                return factory.get();
+            }
+            size.decrementAndGet();
+            return instance;
+        }
+
+        void release(final T instance) {
+            if (size.incrementAndGet() <= MAX_POOLED) {
+                reset.accept(instance);
+                pooled.offer(instance);
+            } else {
+                size.decrementAndGet();
+                end.accept(instance);
+            }
+        }
+    }
+}
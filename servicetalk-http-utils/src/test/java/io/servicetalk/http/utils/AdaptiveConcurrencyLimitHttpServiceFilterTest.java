@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestPublisher;
+import io.servicetalk.concurrent.api.TestSingle;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.Future;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+
+public class AdaptiveConcurrencyLimitHttpServiceFilterTest {
+    private static final HttpServiceContext CONN_CTX = mock(HttpServiceContext.class);
+    private static final StreamingHttpRequestResponseFactory REQ_RESP_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final Queue<TestSingle<StreamingHttpResponse>> pendingResponses = new ArrayDeque<>();
+
+    @Test
+    public void rejectsRequestsAboveLimit() throws Exception {
+        StreamingHttpServiceFilter service = newService(new AdaptiveConcurrencyLimitHttpServiceFilter.Builder()
+                .initialLimit(2).minLimit(2).maxLimit(2).build());
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture();
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture();
+
+        StreamingHttpResponse rejected = service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY)
+                .toFuture().get();
+        assertThat(rejected.status(), is(SERVICE_UNAVAILABLE));
+        assertThat("Service invoked for a rejected request.", pendingResponses.size(), is(2));
+    }
+
+    @Test
+    public void requestIsInFlightUntilPayloadCompletes() throws Exception {
+        StreamingHttpServiceFilter service = newService(new AdaptiveConcurrencyLimitHttpServiceFilter.Builder()
+                .initialLimit(1).minLimit(1).maxLimit(1).build());
+        Single<StreamingHttpResponse> first = service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY);
+        TestPublisher<Object> payload = new TestPublisher<>();
+        Future<StreamingHttpResponse> firstFuture = first.toFuture();
+        pendingResponses.remove().onSuccess(REQ_RESP_FACTORY.ok().transformRawPayloadBody(__ -> payload));
+        StreamingHttpResponse firstResponse = firstFuture.get();
+        assertThat(firstResponse.status(), is(OK));
+
+        assertThat(service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture().get().status(),
+                is(SERVICE_UNAVAILABLE));
+
+        Future<Collection<Object>> payloadFuture =
+                firstResponse.payloadBodyAndTrailers().toFuture();
+        payload.onComplete();
+        payloadFuture.get();
+
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture();
+        assertThat("Request not admitted after the previous one completed.", pendingResponses.size(), is(1));
+    }
+
+    @Test
+    public void limitIsNotAcquiredBeforeSubscribe() throws Exception {
+        StreamingHttpServiceFilter service = newService(new AdaptiveConcurrencyLimitHttpServiceFilter.Builder()
+                .initialLimit(1).minLimit(1).maxLimit(1).build());
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY);
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY);
+        assertThat("Service invoked before subscribe.", pendingResponses.size(), is(0));
+
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture();
+        assertThat("Request rejected by unsubscribed requests.", pendingResponses.size(), is(1));
+    }
+
+    @Test
+    public void rejectsGrpcRequestsWithServiceUnavailable() throws Exception {
+        StreamingHttpServiceFilter service = newService(new AdaptiveConcurrencyLimitHttpServiceFilter.Builder()
+                .initialLimit(1).minLimit(1).maxLimit(1).build());
+        service.handle(CONN_CTX, REQ_RESP_FACTORY.post("/"), REQ_RESP_FACTORY).toFuture();
+
+        StreamingHttpRequest request = REQ_RESP_FACTORY.post("/grpc.Service/Method");
+        request.headers().set(CONTENT_TYPE, "application/grpc+proto");
+        StreamingHttpResponse rejected = service.handle(CONN_CTX, request, REQ_RESP_FACTORY).toFuture().get();
+        assertThat(rejected.status(), is(SERVICE_UNAVAILABLE));
+        assertThat(rejected.headers().contains("grpc-status"), is(false));
+    }
+
+    @Test
+    public void aimdShrinksOnServerErrors() throws Exception {
+        AdaptiveConcurrencyLimitHttpServiceFilter filter = new AdaptiveConcurrencyLimitHttpServiceFilter.Builder()
+                .initialLimit(100).aimd(Duration.ofSeconds(10)).build();
+        StreamingHttpServiceFilter service = newService(filter);
+        for (int i = 0; i < 5; ++i) {
+            Future<StreamingHttpResponse> future =
+                    service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture();
+            pendingResponses.remove().onSuccess(REQ_RESP_FACTORY.internalServerError());
+            future.get().payloadBodyAndTrailers().toFuture().get();
+        }
+        assertThat(filter.limit(), lessThan(100));
+    }
+
+    @Test
+    public void gradientShrinksOnServerErrors() throws Exception {
+        AdaptiveConcurrencyLimitHttpServiceFilter filter = new AdaptiveConcurrencyLimitHttpServiceFilter.Builder()
+                .initialLimit(100).gradient(2).build();
+        StreamingHttpServiceFilter service = newService(filter);
+        for (int i = 0; i < 5; ++i) {
+            Future<StreamingHttpResponse> future =
+                    service.handle(CONN_CTX, REQ_RESP_FACTORY.get("/"), REQ_RESP_FACTORY).toFuture();
+            pendingResponses.remove().onSuccess(REQ_RESP_FACTORY.internalServerError());
+            future.get().payloadBodyAndTrailers().toFuture().get();
+        }
+        assertThat(filter.limit(), lessThan(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minLimitAboveMaxLimit() {
+        new AdaptiveConcurrencyLimitHttpServiceFilter.Builder().minLimit(10).maxLimit(5).build();
+    }
+
+    private StreamingHttpServiceFilter newService(final AdaptiveConcurrencyLimitHttpServiceFilter filter) {
+        return filter.create((ctx, request, responseFactory) -> {
+            TestSingle<StreamingHttpResponse> response = new TestSingle<>();
+            pendingResponses.add(response);
+            return response;
+        });
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.MaxRequestLimitExceededException;
+import io.servicetalk.client.api.internal.RequestConcurrencyController;
+import io.servicetalk.concurrent.api.TestCompletable;
+import io.servicetalk.concurrent.api.TestSingle;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.FilterableStreamingHttpLoadBalancedConnection;
+import io.servicetalk.http.api.HttpConnectionContext;
+import io.servicetalk.http.api.HttpLoadBalancerFactory;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.utils.AdaptiveRequestLimitHttpLoadBalancerFactory.LimitingConnectionFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Publisher.never;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static java.lang.Integer.MAX_VALUE;
+import static java.net.InetSocketAddress.createUnresolved;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveRequestLimitHttpLoadBalancerFactoryTest {
+    private static final StreamingHttpRequestResponseFactory REQ_RESP_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+    private static final InetSocketAddress ADDRESS_1 = createUnresolved("address-1", 80);
+    private static final InetSocketAddress ADDRESS_2 = createUnresolved("address-2", 80);
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final Queue<TestSingle<StreamingHttpResponse>> pendingResponses = new ArrayDeque<>();
+    private final Queue<TestCompletable> pendingCloses = new ArrayDeque<>();
+    @SuppressWarnings("unchecked")
+    private final HttpLoadBalancerFactory<InetSocketAddress> delegate = mock(HttpLoadBalancerFactory.class);
+
+    public AdaptiveRequestLimitHttpLoadBalancerFactoryTest() {
+        when(delegate.toLoadBalancedConnection(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void limitIsSharedByConnectionsToTheSameHost() throws Exception {
+        LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection> cf =
+                newLoadBalancerConnectionFactory(newFactory(2));
+        FilterableStreamingHttpLoadBalancedConnection first = newConnection(cf, ADDRESS_1, new TestCompletable());
+        FilterableStreamingHttpLoadBalancedConnection second = newConnection(cf, ADDRESS_1, new TestCompletable());
+        FilterableStreamingHttpLoadBalancedConnection other = newConnection(cf, ADDRESS_2, new TestCompletable());
+
+        first.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        second.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertRejected(first);
+        assertRejected(second);
+
+        other.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat("Request to another host not admitted.", pendingResponses.size(), is(3));
+    }
+
+    @Test
+    public void limitIsNotSharedByLoadBalancers() throws Exception {
+        AdaptiveRequestLimitHttpLoadBalancerFactory<InetSocketAddress> factory = newFactory(1);
+        FilterableStreamingHttpLoadBalancedConnection first = newConnection(newLoadBalancerConnectionFactory(factory),
+                ADDRESS_1, new TestCompletable());
+        FilterableStreamingHttpLoadBalancedConnection second = newConnection(newLoadBalancerConnectionFactory(factory),
+                ADDRESS_1, new TestCompletable());
+
+        first.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertRejected(first);
+
+        second.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat("Request of another load balancer not admitted.", pendingResponses.size(), is(2));
+    }
+
+    @Test
+    public void completedRequestReleasesCapacity() throws Exception {
+        FilterableStreamingHttpLoadBalancedConnection connection = newConnection(
+                newLoadBalancerConnectionFactory(newFactory(1)), ADDRESS_1, new TestCompletable());
+
+        Future<StreamingHttpResponse> response =
+                connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertRejected(connection);
+
+        pendingResponses.remove().onSuccess(REQ_RESP_FACTORY.ok());
+        response.get().payloadBodyAndTrailers().toFuture().get();
+
+        connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat("Request not admitted after the previous one completed.", pendingResponses.size(), is(1));
+    }
+
+    @Test
+    public void scoreReflectsRemainingCapacity() throws Exception {
+        FilterableStreamingHttpLoadBalancedConnection connection = newConnection(
+                newLoadBalancerConnectionFactory(newFactory(2)), ADDRESS_1, new TestCompletable());
+        assertThat(connection.score(), is(MAX_VALUE));
+
+        connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat(connection.score(), is(MAX_VALUE / 2));
+
+        connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat(connection.score(), is(0));
+    }
+
+    @Test
+    public void availableCapacityReflectsHostLimit() throws Exception {
+        LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection> cf =
+                newLoadBalancerConnectionFactory(newFactory(2));
+        FilterableStreamingHttpLoadBalancedConnection first = newConnection(cf, ADDRESS_1, new TestCompletable());
+        FilterableStreamingHttpLoadBalancedConnection second = newConnection(cf, ADDRESS_1, new TestCompletable());
+        assertThat(availableCapacity(first), is(2));
+
+        first.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat(availableCapacity(first), is(1));
+        assertThat(availableCapacity(second), is(1));
+
+        second.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat(availableCapacity(first), is(0));
+        assertThat(availableCapacity(second), is(0));
+    }
+
+    @Test
+    public void connectionOutsideOfLoadBalancerIsNotLimited() {
+        FilterableStreamingHttpLoadBalancedConnection connection = newFactory(1).toLoadBalancedConnection(
+                newRawConnection(ADDRESS_1, new TestCompletable()));
+        connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+        assertThat("Requests of an unbound connection not admitted.", pendingResponses.size(), is(2));
+        assertThat(availableCapacity(connection), is(MAX_VALUE));
+    }
+
+    @Test
+    public void aimdShrinksOnServerErrors() throws Exception {
+        LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection> cf =
+                newLoadBalancerConnectionFactory(AdaptiveRequestLimitHttpLoadBalancerFactory.Builder.from(delegate)
+                        .initialLimit(100).aimd(Duration.ofSeconds(10)).build());
+        FilterableStreamingHttpLoadBalancedConnection connection = newConnection(cf, ADDRESS_1, new TestCompletable());
+        for (int i = 0; i < 5; ++i) {
+            Future<StreamingHttpResponse> response =
+                    connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture();
+            pendingResponses.remove().onSuccess(REQ_RESP_FACTORY.serviceUnavailable());
+            response.get().payloadBodyAndTrailers().toFuture().get();
+        }
+        assertThat(cf.limit(ADDRESS_1), lessThan(100));
+    }
+
+    @Test
+    public void hostIsForgottenWhenAllConnectionsClose() throws Exception {
+        LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection> cf =
+                newLoadBalancerConnectionFactory(newFactory(2));
+        TestCompletable firstClose = new TestCompletable();
+        TestCompletable secondClose = new TestCompletable();
+        newConnection(cf, ADDRESS_1, firstClose);
+        newConnection(cf, ADDRESS_1, secondClose);
+
+        firstClose.onComplete();
+        assertThat(cf.limit(ADDRESS_1), is(2));
+        secondClose.onComplete();
+        assertThat(cf.limit(ADDRESS_1), is(-1));
+    }
+
+    private AdaptiveRequestLimitHttpLoadBalancerFactory<InetSocketAddress> newFactory(final int limit) {
+        return AdaptiveRequestLimitHttpLoadBalancerFactory.Builder.from(delegate)
+                .initialLimit(limit).minLimit(limit).maxLimit(limit).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection>
+    newLoadBalancerConnectionFactory(final AdaptiveRequestLimitHttpLoadBalancerFactory<InetSocketAddress> factory) {
+        ConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection> cf =
+                mock(ConnectionFactory.class);
+        when(cf.newConnection(any())).thenAnswer(invocation -> succeeded(factory.toLoadBalancedConnection(
+                newRawConnection(invocation.getArgument(0), pendingCloses.remove()))));
+        factory.newLoadBalancer(never(), cf);
+        ArgumentCaptor<ConnectionFactory> captor = ArgumentCaptor.forClass(ConnectionFactory.class);
+        verify(delegate, atLeastOnce()).newLoadBalancer(any(), captor.capture());
+        return (LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection>)
+                captor.getValue();
+    }
+
+    private FilterableStreamingHttpLoadBalancedConnection newConnection(
+            final LimitingConnectionFactory<InetSocketAddress, FilterableStreamingHttpLoadBalancedConnection> cf,
+            final InetSocketAddress address, final TestCompletable onClose) throws Exception {
+        pendingCloses.add(onClose);
+        return cf.newConnection(address).toFuture().get();
+    }
+
+    private static int availableCapacity(final FilterableStreamingHttpLoadBalancedConnection connection) {
+        return ((RequestConcurrencyController) connection).availableCapacity();
+    }
+
+    private void assertRejected(final FilterableStreamingHttpLoadBalancedConnection connection) throws Exception {
+        final int pending = pendingResponses.size();
+        try {
+            connection.request(noOffloadsStrategy(), REQ_RESP_FACTORY.get("/")).toFuture().get();
+            fail("Request not rejected.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(MaxRequestLimitExceededException.class)));
+        }
+        assertThat("Rejected request reached the connection.", pendingResponses.size(), is(pending));
+    }
+
+    private FilterableStreamingHttpLoadBalancedConnection newRawConnection(final InetSocketAddress address,
+                                                                           final TestCompletable onClose) {
+        FilterableStreamingHttpLoadBalancedConnection connection =
+                mock(FilterableStreamingHttpLoadBalancedConnection.class);
+        HttpConnectionContext ctx = mock(HttpConnectionContext.class);
+        when(ctx.remoteAddress()).thenReturn(address);
+        when(connection.connectionContext()).thenReturn(ctx);
+        when(connection.onClose()).thenReturn(onClose);
+        when(connection.score()).thenReturn(MAX_VALUE);
+        when(connection.request(any(), any())).thenAnswer(invocation -> {
+            TestSingle<StreamingHttpResponse> response = new TestSingle<>();
+            pendingResponses.add(response);
+            return response;
+        });
+        return connection;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpService;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Publisher.from;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.RANGE;
+import static io.servicetalk.http.api.HttpHeaderNames.VARY;
+import static io.servicetalk.http.api.HttpHeaderValues.GZIP;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static io.servicetalk.http.api.HttpResponseStatus.PAYLOAD_TOO_LARGE;
+import static io.servicetalk.http.api.HttpResponseStatus.UNSUPPORTED_MEDIA_TYPE;
+import static io.servicetalk.http.utils.ContentCoding.DEFLATE_CODING;
+import static io.servicetalk.http.utils.ContentCoding.GZIP_CODING;
+import static io.servicetalk.http.utils.ContentCodingHttpServiceFilter.negotiate;
+import static io.servicetalk.http.utils.ContentCodingTest.collect;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContentCodingHttpServiceFilterTest {
+    private static final String BODY = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final HttpServiceContext CONN_CTX = mock(HttpServiceContext.class);
+    private static final StreamingHttpRequestResponseFactory REQ_RESP_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+
+    @BeforeClass
+    public static void beforeClass() {
+        HttpExecutionContext ec = mock(HttpExecutionContext.class);
+        when(ec.bufferAllocator()).thenReturn(DEFAULT_ALLOCATOR);
+        when(CONN_CTX.executionContext()).thenReturn(ec);
+    }
+
+    @Test
+    public void negotiateHonoursWeights() {
+        assertThat(negotiate(headers(null), asList(GZIP_CODING, DEFLATE_CODING)), is(nullValue()));
+        assertThat(negotiate(headers("identity"), asList(GZIP_CODING, DEFLATE_CODING)), is(nullValue()));
+        assertThat(negotiate(headers("gzip, deflate"), asList(GZIP_CODING, DEFLATE_CODING)), is(GZIP_CODING));
+        assertThat(negotiate(headers("gzip, deflate"), asList(DEFLATE_CODING, GZIP_CODING)), is(DEFLATE_CODING));
+        assertThat(negotiate(headers("gzip;q=0.5, deflate"), asList(GZIP_CODING, DEFLATE_CODING)),
+                is(DEFLATE_CODING));
+        assertThat(negotiate(headers("GZIP ; q=1.0"), asList(GZIP_CODING, DEFLATE_CODING)), is(GZIP_CODING));
+        assertThat(negotiate(headers("*"), asList(DEFLATE_CODING, GZIP_CODING)), is(DEFLATE_CODING));
+        assertThat(negotiate(headers("*, deflate;q=0"), asList(DEFLATE_CODING, GZIP_CODING)), is(GZIP_CODING));
+        assertThat(negotiate(headers("gzip;q=0"), asList(GZIP_CODING, DEFLATE_CODING)), is(nullValue()));
+    }
+
+    @Test
+    public void compressesAcceptedResponse() throws Exception {
+        StreamingHttpResponse response = handle(newRequest("gzip"), null, null);
+        assertThat(response.status(), is(OK));
+        assertThat(response.headers().get(CONTENT_ENCODING), equalTo(GZIP));
+        assertThat(response.headers().contains(CONTENT_LENGTH), is(false));
+        assertThat(response.headers().containsIgnoreCase(VARY, ACCEPT_ENCODING), is(true));
+        assertThat(new String(collect(GZIP_CODING.decode(response.payloadBody(), DEFAULT_ALLOCATOR)), US_ASCII),
+                equalTo(BODY));
+    }
+
+    @Test
+    public void doesNotCompressWithoutAcceptEncoding() throws Exception {
+        StreamingHttpResponse response = handle(newRequest(null), null, null);
+        assertUncompressed(response);
+    }
+
+    @Test
+    public void doesNotCompressSmallResponse() throws Exception {
+        StreamingHttpResponse response = handle(newRequest("gzip"), String.valueOf(BODY.length()), null);
+        assertUncompressed(response);
+    }
+
+    @Test
+    public void doesNotCompressCompressedMediaType() throws Exception {
+        StreamingHttpResponse response = handle(newRequest("gzip"), null, "image/png");
+        assertUncompressed(response);
+    }
+
+    @Test
+    public void compressesFileRegionResponse() throws Exception {
+        byte[] content = newFileContent();
+        StreamingHttpRequest request = REQ_RESP_FACTORY.get("/file.txt");
+        request.headers().set(ACCEPT_ENCODING, GZIP);
+
+        StreamingHttpResponse response = handleStaticFile(request);
+        assertThat(response.status(), is(OK));
+        assertThat(response.headers().get(CONTENT_ENCODING), equalTo(GZIP));
+        assertThat(response.headers().contains(CONTENT_LENGTH), is(false));
+        assertThat(collect(GZIP_CODING.decode(response.payloadBody(), DEFAULT_ALLOCATOR)), equalTo(content));
+    }
+
+    @Test
+    public void doesNotCompressRangeResponse() throws Exception {
+        newFileContent();
+        StreamingHttpRequest request = REQ_RESP_FACTORY.get("/file.txt");
+        request.headers().set(ACCEPT_ENCODING, GZIP).set(RANGE, "bytes=0-2047");
+
+        StreamingHttpResponse response = handleStaticFile(request);
+        assertThat(response.status(), is(PARTIAL_CONTENT));
+        assertThat(response.headers().contains(CONTENT_ENCODING), is(false));
+        assertThat(response.headers().get(CONTENT_LENGTH).toString(), equalTo("2048"));
+    }
+
+    @Test
+    public void decompressesRequest() throws Exception {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.post("/")
+                .payloadBody(GZIP_CODING.encode(from(DEFAULT_ALLOCATOR.fromAscii(BODY)), DEFAULT_ALLOCATOR));
+        request.headers().set(CONTENT_ENCODING, GZIP);
+        StreamingHttpResponse response = handle(request, null, null);
+        assertThat(response.status(), is(OK));
+        assertThat(receivedBody.get(), equalTo(BODY));
+    }
+
+    @Test
+    public void rejectsUnsupportedRequestEncoding() throws Exception {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.post("/").payloadBody(from(DEFAULT_ALLOCATOR.fromAscii(BODY)));
+        request.headers().set(CONTENT_ENCODING, "br");
+        StreamingHttpResponse response = handle(request, null, null);
+        assertThat(response.status(), is(UNSUPPORTED_MEDIA_TYPE));
+        assertThat(response.headers().get(ACCEPT_ENCODING).toString(), equalTo("gzip, deflate"));
+    }
+
+    @Test
+    public void rejectsTooLargeDecodedRequest() throws Exception {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.post("/")
+                .payloadBody(GZIP_CODING.encode(from(DEFAULT_ALLOCATOR.fromAscii(BODY)), DEFAULT_ALLOCATOR));
+        request.headers().set(CONTENT_ENCODING, GZIP);
+        StreamingHttpResponse response = handle(
+                new ContentCodingHttpServiceFilter(asList(GZIP_CODING, DEFLATE_CODING), 64, BODY.length() - 1),
+                request);
+        assertThat(response.status(), is(PAYLOAD_TOO_LARGE));
+        assertThat(receivedBody.get(), is(nullValue()));
+    }
+
+    @Test
+    public void rejectsEncodedRequestWhenDecodingDisabled() throws Exception {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.post("/")
+                .payloadBody(GZIP_CODING.encode(from(DEFAULT_ALLOCATOR.fromAscii(BODY)), DEFAULT_ALLOCATOR));
+        request.headers().set(CONTENT_ENCODING, GZIP);
+        StreamingHttpResponse response = handle(
+                new ContentCodingHttpServiceFilter(asList(GZIP_CODING, DEFLATE_CODING), 64, 0), request);
+        assertThat(response.status(), is(UNSUPPORTED_MEDIA_TYPE));
+        assertThat(receivedBody.get(), is(nullValue()));
+    }
+
+    private byte[] newFileContent() throws Exception {
+        byte[] content = new byte[4096];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) BODY.charAt(i % BODY.length());
+        }
+        Files.write(folder.newFile("file.txt").toPath(), content);
+        return content;
+    }
+
+    private StreamingHttpResponse handleStaticFile(StreamingHttpRequest request) throws Exception {
+        StreamingHttpServiceFilter filter = new ContentCodingHttpServiceFilter()
+                .create(new StaticFileHttpService(folder.getRoot().toPath()));
+        return filter.handle(CONN_CTX, request, REQ_RESP_FACTORY).toFuture().get();
+    }
+
+    private StreamingHttpResponse handle(StreamingHttpRequest request, @Nullable String contentLength,
+                                         @Nullable String contentType) throws Exception {
+        return handle(new ContentCodingHttpServiceFilter(asList(GZIP_CODING, DEFLATE_CODING), 64), request,
+                contentLength, contentType);
+    }
+
+    private StreamingHttpResponse handle(ContentCodingHttpServiceFilter filterFactory,
+                                         StreamingHttpRequest request) throws Exception {
+        return handle(filterFactory, request, null, null);
+    }
+
+    private StreamingHttpResponse handle(ContentCodingHttpServiceFilter filterFactory, StreamingHttpRequest request,
+                                         @Nullable String contentLength,
+                                         @Nullable String contentType) throws Exception {
+        StreamingHttpService service = new StreamingHttpService() {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory factory) {
+                return request.payloadBody().collect(StringBuilder::new, (sb, buffer) ->
+                        sb.append(buffer.toString(US_ASCII))).map(sb -> {
+                    receivedBody.set(sb.toString());
+                    StreamingHttpResponse response = factory.ok().payloadBody(
+                            from(ctx.executionContext().bufferAllocator().fromAscii(BODY)));
+                    if (contentLength != null) {
+                        response.headers().set(CONTENT_LENGTH, contentLength);
+                    }
+                    if (contentType != null) {
+                        response.headers().set(CONTENT_TYPE, contentType);
+                    }
+                    return response;
+                });
+            }
+        };
+        StreamingHttpServiceFilter filter = filterFactory.create(service);
+        return filter.handle(CONN_CTX, request, REQ_RESP_FACTORY).toFuture().get();
+    }
+
+    private static void assertUncompressed(StreamingHttpResponse response) throws Exception {
+        assertThat(response.status(), is(OK));
+        assertThat(response.headers().contains(CONTENT_ENCODING), is(false));
+        assertThat(new String(collect(response.payloadBody()), US_ASCII), equalTo(BODY));
+    }
+
+    private static StreamingHttpRequest newRequest(@Nullable String acceptEncoding) {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.get("/");
+        if (acceptEncoding != null) {
+            request.headers().set(ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static HttpHeaders headers(@Nullable String acceptEncoding) {
+        return newRequest(acceptEncoding).headers();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Publisher.fromIterable;
+import static io.servicetalk.http.utils.ContentCoding.DEFLATE_CODING;
+import static io.servicetalk.http.utils.ContentCoding.GZIP_CODING;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Arrays.copyOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.fail;
+
+public class ContentCodingTest {
+    private static final byte[] CONTENT = newContent();
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    @Test
+    public void gzipEncodeIsReadableByJdk() throws Exception {
+        byte[] encoded = collect(GZIP_CODING.encode(split(CONTENT, 1000), DEFAULT_ALLOCATOR));
+        assertThat(readAll(new GZIPInputStream(new ByteArrayInputStream(encoded))), equalTo(CONTENT));
+        assertThat("Payload not compressed", encoded.length < CONTENT.length, is(true));
+    }
+
+    @Test
+    public void deflateEncodeIsReadableByJdk() throws Exception {
+        byte[] encoded = collect(DEFLATE_CODING.encode(split(CONTENT, 1000), DEFAULT_ALLOCATOR));
+        assertThat(readAll(new InflaterInputStream(new ByteArrayInputStream(encoded))), equalTo(CONTENT));
+    }
+
+    @Test
+    public void gzipDecodeSplitAtEveryByte() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write(CONTENT, 0, 2000);
+        }
+        assertThat(collect(GZIP_CODING.decode(split(bos.toByteArray(), 1), DEFAULT_ALLOCATOR)),
+                equalTo(copyOf(CONTENT, 2000)));
+    }
+
+    @Test
+    public void gzipDecodeOptionalHeaderFields() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write(CONTENT);
+        }
+        byte[] encoded = bos.toByteArray();
+        // Rewrite the header with FHCRC, FEXTRA, FNAME and FCOMMENT set.
+        ByteArrayOutputStream withFields = new ByteArrayOutputStream();
+        withFields.write(encoded, 0, 3);
+        withFields.write(0x02 | 0x04 | 0x08 | 0x10);
+        withFields.write(encoded, 4, 6);
+        withFields.write(new byte[] {3, 0, 1, 2, 3});
+        withFields.write("name\0comment\0".getBytes(US_ASCII));
+        withFields.write(new byte[] {0, 0});
+        withFields.write(encoded, 10, encoded.length - 10);
+        assertThat(collect(GZIP_CODING.decode(split(withFields.toByteArray(), 7), DEFAULT_ALLOCATOR)),
+                equalTo(CONTENT));
+    }
+
+    @Test
+    public void deflateDecode() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bos)) {
+            out.write(CONTENT);
+        }
+        assertThat(collect(DEFLATE_CODING.decode(split(bos.toByteArray(), 100), DEFAULT_ALLOCATOR)),
+                equalTo(CONTENT));
+    }
+
+    @Test
+    public void roundTripUsesPooledInstances() throws Exception {
+        for (int i = 0; i < 20; ++i) {
+            for (ContentCoding coding : ContentCoding.values()) {
+                byte[] encoded = collect(coding.encode(split(CONTENT, 4096), DEFAULT_ALLOCATOR));
+                assertThat(collect(coding.decode(split(encoded, 512), DEFAULT_ALLOCATOR)), equalTo(CONTENT));
+            }
+        }
+    }
+
+    @Test
+    public void emptyPayload() throws Exception {
+        for (ContentCoding coding : ContentCoding.values()) {
+            assertThat(collect(coding.decode(Publisher.empty(), DEFAULT_ALLOCATOR)).length, is(0));
+            byte[] encoded = collect(coding.encode(Publisher.empty(), DEFAULT_ALLOCATOR));
+            assertThat(collect(coding.decode(split(encoded, 3), DEFAULT_ALLOCATOR)).length, is(0));
+        }
+    }
+
+    @Test
+    public void truncatedPayloadFails() throws Exception {
+        byte[] encoded = collect(GZIP_CODING.encode(split(CONTENT, 1000), DEFAULT_ALLOCATOR));
+        try {
+            collect(GZIP_CODING.decode(split(copyOf(encoded, encoded.length - 4), 1000), DEFAULT_ALLOCATOR));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void corruptedPayloadFails() throws Exception {
+        byte[] encoded = collect(GZIP_CODING.encode(split(CONTENT, 1000), DEFAULT_ALLOCATOR));
+        // Corrupt the CRC32 in the trailer.
+        encoded[encoded.length - 8] ^= 1;
+        try {
+            collect(GZIP_CODING.decode(split(encoded, 1000), DEFAULT_ALLOCATOR));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void highlyCompressedPayloadIsDecodedInBoundedChunks() throws Exception {
+        byte[] content = new byte[1024 * 1024];
+        byte[] encoded = collect(GZIP_CODING.encode(split(content, content.length), DEFAULT_ALLOCATOR));
+        Collection<Buffer> decoded = GZIP_CODING.decode(split(encoded, encoded.length), DEFAULT_ALLOCATOR)
+                .toFuture().get();
+        int size = 0;
+        for (Buffer buffer : decoded) {
+            assertThat(buffer.readableBytes(), lessThanOrEqualTo(16 * 1024));
+            size += buffer.readableBytes();
+        }
+        assertThat(size, is(content.length));
+    }
+
+    @Test
+    public void payloadLargerThanMaxDecodedSizeFails() throws Exception {
+        for (ContentCoding coding : ContentCoding.values()) {
+            byte[] encoded = collect(coding.encode(split(CONTENT, 1000), DEFAULT_ALLOCATOR));
+            assertThat(collect(coding.decode(split(encoded, 100), DEFAULT_ALLOCATOR, CONTENT.length)),
+                    equalTo(CONTENT));
+            try {
+                collect(coding.decode(split(encoded, 100), DEFAULT_ALLOCATOR, CONTENT.length - 1));
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(DecodedPayloadTooLargeException.class));
+            }
+        }
+    }
+
+    private static byte[] newContent() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10_000; ++i) {
+            sb.append("servicetalk-").append(i % 97).append(' ');
+        }
+        return sb.toString().getBytes(US_ASCII);
+    }
+
+    private static Publisher<Buffer> split(byte[] content, int chunkSize) {
+        List<Buffer> buffers = new ArrayList<>();
+        for (int i = 0; i < content.length; i += chunkSize) {
+            buffers.add(DEFAULT_ALLOCATOR.wrap(content, i, Math.min(chunkSize, content.length - i)));
+        }
+        return fromIterable(buffers);
+    }
+
+    static byte[] collect(Publisher<Buffer> payload) throws Exception {
+        Collection<Buffer> buffers = payload.toFuture().get();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (Buffer buffer : buffers) {
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.readBytes(bytes);
+            bos.write(bytes);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            bos.write(chunk, 0, read);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestCancellable;
+import io.servicetalk.concurrent.api.TestExecutor;
+import io.servicetalk.concurrent.api.TestSingle;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.StreamingHttpClient;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.internal.DeliberateException.DELIBERATE_EXCEPTION;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.TestStreamingHttpClient.from;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RetryingHttpRequesterFilterHedgingTest {
+
+    private static final StreamingHttpRequestResponseFactory reqRespFactory =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final ServiceTalkTestTimeout timeout = new ServiceTalkTestTimeout();
+
+    private final TestExecutor executor = new TestExecutor();
+    private final List<TestSingle<StreamingHttpResponse>> attempts = new CopyOnWriteArrayList<>();
+    private final List<StreamingHttpRequest> requests = new CopyOnWriteArrayList<>();
+    private final List<TestCancellable> cancellables = new CopyOnWriteArrayList<>();
+    private final HttpExecutionContext executionContext = mock(HttpExecutionContext.class);
+
+    @Before
+    public void setUp() {
+        when(executionContext.executor()).thenReturn(executor);
+    }
+
+    private StreamingHttpClient newClient(final RetryingHttpRequesterFilter.Builder builder) {
+        StreamingHttpClientFilterFactory mockResponse = client -> new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return Single.defer(() -> {
+                    final TestSingle<StreamingHttpResponse> attempt =
+                            new TestSingle.Builder<StreamingHttpResponse>().disableAutoOnSubscribe().build();
+                    requests.add(request);
+                    attempts.add(attempt);
+                    return attempt;
+                });
+            }
+        };
+        return from(reqRespFactory, executionContext, builder.buildWithImmediateRetries().append(mockResponse));
+    }
+
+    private void subscribed(final int index) {
+        final TestCancellable cancellable = new TestCancellable();
+        cancellables.add(cancellable);
+        attempts.get(index).onSubscribe(cancellable);
+    }
+
+    @Test
+    public void noHedgeBeforeDelay() throws Exception {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(1));
+        Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        subscribed(0);
+        executor.advanceTimeBy(99, MILLISECONDS);
+        assertThat(attempts, hasSize(1));
+
+        StreamingHttpResponse response = reqRespFactory.newResponse(OK);
+        attempts.get(0).onSuccess(response);
+        assertThat(future.get(), is(sameInstance(response)));
+        executor.advanceTimeBy(1, MILLISECONDS);
+        assertThat(attempts, hasSize(1));
+    }
+
+    @Test
+    public void firstSuccessfulResponseWins() throws Exception {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(1));
+        Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        subscribed(0);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts, hasSize(2));
+        subscribed(1);
+
+        StreamingHttpResponse response = reqRespFactory.newResponse(OK);
+        attempts.get(1).onSuccess(response);
+        assertThat(future.get(), is(sameInstance(response)));
+        assertTrue(cancellables.get(0).isCancelled());
+        assertFalse(cancellables.get(1).isCancelled());
+    }
+
+    @Test
+    public void hedgedRequestIsACopy() throws Exception {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(1).hedgeFor(request -> true));
+        client.request(client.post("/path").addHeader("key", "value")
+                .payloadBody(Publisher.from(DEFAULT_ALLOCATOR.fromAscii("payload")))).toFuture();
+        subscribed(0);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        subscribed(1);
+
+        assertThat(requests, hasSize(2));
+        StreamingHttpRequest original = requests.get(0);
+        StreamingHttpRequest hedged = requests.get(1);
+        assertThat(hedged, is(not(sameInstance(original))));
+        assertThat(hedged.headers(), is(not(sameInstance(original.headers()))));
+        assertThat(hedged.requestTarget(), is("/path"));
+        assertThat(hedged.headers().get("key"), is("value"));
+        original.headers().set("key", "changed");
+        assertThat(hedged.headers().get("key"), is("value"));
+        assertThat(original.payloadBody().collect(StringBuilder::new, (sb, buffer) ->
+                sb.append(buffer.toString(US_ASCII))).toFuture().get().toString(), is("payload"));
+        assertThat(hedged.payloadBody().collect(StringBuilder::new, (sb, buffer) ->
+                sb.append(buffer.toString(US_ASCII))).toFuture().get().toString(), is("payload"));
+    }
+
+    @Test
+    public void errorIsDeliveredWhenAllRequestsFail() throws Exception {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(1));
+        Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        subscribed(0);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        subscribed(1);
+
+        attempts.get(0).onError(new IllegalStateException("original"));
+        assertFalse(future.isDone());
+        attempts.get(1).onError(DELIBERATE_EXCEPTION);
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause(), is(sameInstance(DELIBERATE_EXCEPTION)));
+    }
+
+    @Test
+    public void failureBeforeDelayDoesNotHedge() {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(1));
+        Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        subscribed(0);
+        attempts.get(0).onError(DELIBERATE_EXCEPTION);
+        assertTrue(future.isDone());
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts, hasSize(1));
+    }
+
+    @Test
+    public void nonIdempotentRequestIsNotHedged() {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(1));
+        client.request(client.post("/")).toFuture();
+        subscribed(0);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts, hasSize(1));
+    }
+
+    @Test
+    public void budgetLimitsHedges() {
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .hedgeAfter(ofMillis(100)).hedgeBudget(0.5));
+        // Every request deposits half of a hedge.
+        client.request(client.get("/")).toFuture();
+        subscribed(0);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts, hasSize(1));
+
+        client.request(client.get("/")).toFuture();
+        subscribed(1);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts, hasSize(3));
+
+        client.request(client.get("/")).toFuture();
+        subscribed(3);
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts, hasSize(4));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpFileRegion;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.RANGE;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_2_0;
+import static io.servicetalk.http.api.HttpResponseStatus.METHOD_NOT_ALLOWED;
+import static io.servicetalk.http.api.HttpResponseStatus.NOT_FOUND;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaticFileHttpServiceTest {
+    private static final String CONTENT = "0123456789";
+    private static final StreamingHttpRequestResponseFactory REQ_RESP_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final HttpServiceContext ctx = mock(HttpServiceContext.class);
+    private Path file;
+    private StaticFileHttpService service;
+
+    @Before
+    public void setUp() throws Exception {
+        HttpExecutionContext executionContext = mock(HttpExecutionContext.class);
+        when(executionContext.bufferAllocator()).thenReturn(DEFAULT_ALLOCATOR);
+        when(ctx.executionContext()).thenReturn(executionContext);
+        file = folder.newFile("file.txt").toPath();
+        Files.write(file, CONTENT.getBytes(US_ASCII));
+        service = new StaticFileHttpService(folder.getRoot().toPath());
+    }
+
+    @Test
+    public void parseRange() {
+        assertRange("bytes=0-4", 0, 4);
+        assertRange("bytes=5-", 5, 9);
+        assertRange("bytes=5-100", 5, 9);
+        assertRange("bytes=-3", 7, 9);
+        assertRange("bytes=-100", 0, 9);
+        assertRange("BYTES= 2 - 3 ", 2, 3);
+    }
+
+    @Test
+    public void ignoresInvalidRanges() {
+        assertThat(StaticFileHttpService.parseRange("items=0-4", 10), is(nullValue()));
+        assertThat(StaticFileHttpService.parseRange("bytes=4-0", 10), is(nullValue()));
+        assertThat(StaticFileHttpService.parseRange("bytes=a-b", 10), is(nullValue()));
+        assertThat(StaticFileHttpService.parseRange("bytes=0-1,3-4", 10), is(nullValue()));
+        assertThat(StaticFileHttpService.parseRange("bytes=5", 10), is(nullValue()));
+    }
+
+    @Test
+    public void unsatisfiableRanges() {
+        long[] unsatisfiable = StaticFileHttpService.parseRange("bytes=10-", 10);
+        assertThat(unsatisfiable, is(equalTo(new long[0])));
+        assertThat(StaticFileHttpService.parseRange("bytes=-0", 10), is(sameInstance(unsatisfiable)));
+        assertThat(StaticFileHttpService.parseRange("bytes=-5", 0), is(sameInstance(unsatisfiable)));
+    }
+
+    @Test
+    public void http1ResponseIsFileRegion() throws Exception {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.get("/file.txt");
+        request.headers().set(RANGE, "bytes=2-5");
+        StreamingHttpResponse response = service.handle(ctx, request, REQ_RESP_FACTORY).toFuture().get();
+        assertThat(response.status(), is(PARTIAL_CONTENT));
+        assertThat(response.headers().get(CONTENT_LENGTH).toString(), equalTo("4"));
+        Collection<Object> payload = response.payloadBodyAndTrailers().toFuture().get();
+        assertThat(payload, contains(new HttpFileRegion(file, 2, 4)));
+    }
+
+    @Test
+    public void http2ResponseIsRead() throws Exception {
+        StreamingHttpRequest request = REQ_RESP_FACTORY.get("/file.txt").version(HTTP_2_0);
+        request.headers().set(RANGE, "bytes=2-5");
+        StreamingHttpResponse response = service.handle(ctx, request, REQ_RESP_FACTORY).toFuture().get();
+        assertThat(response.status(), is(PARTIAL_CONTENT));
+        assertThat(response.toResponse().toFuture().get().payloadBody().toString(US_ASCII), equalTo("2345"));
+    }
+
+    @Test
+    public void headHasNoPayload() throws Exception {
+        StreamingHttpResponse response = service.handle(ctx, REQ_RESP_FACTORY.head("/file.txt"), REQ_RESP_FACTORY)
+                .toFuture().get();
+        assertThat(response.status(), is(OK));
+        assertThat(response.headers().get(CONTENT_LENGTH).toString(), equalTo("10"));
+        assertThat(response.payloadBodyAndTrailers().toFuture().get().isEmpty(), is(true));
+    }
+
+    @Test
+    public void notFound() throws Exception {
+        assertThat(service.handle(ctx, REQ_RESP_FACTORY.get("/missing.txt"), REQ_RESP_FACTORY)
+                .toFuture().get().status(), is(NOT_FOUND));
+        assertThat(service.handle(ctx, REQ_RESP_FACTORY.get("/../file.txt"), REQ_RESP_FACTORY)
+                .toFuture().get().status(), is(NOT_FOUND));
+    }
+
+    @Test
+    public void onlyGetAndHead() throws Exception {
+        assertThat(service.handle(ctx, REQ_RESP_FACTORY.post("/file.txt"), REQ_RESP_FACTORY)
+                .toFuture().get().status(), is(METHOD_NOT_ALLOWED));
+    }
+
+    private static void assertRange(final String range, final long first, final long last) {
+        assertThat(StaticFileHttpService.parseRange(range, 10), is(equalTo(new long[] {first, last})));
+    }
+}
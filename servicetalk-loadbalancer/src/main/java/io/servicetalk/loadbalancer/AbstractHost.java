@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.concurrent.api.AsyncCloseable;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+
+import static io.servicetalk.concurrent.api.Completable.mergeAllDelayError;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Connections to a single address of a load balancer. Closed connections are pruned, and connections added after the
+ * host was removed or closed are rejected.
+ *
+ * @param <Addr> The resolved address type.
+ * @param <C> The type of connection.
+ */
+abstract class AbstractHost<Addr, C extends ListenableAsyncCloseable> implements AsyncCloseable {
+    private static final List<?> CLOSED_LIST = new ArrayList<>(0);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AbstractHost, List> connectionsUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractHost.class, List.class, "connections");
+
+    final Addr address;
+    volatile List<C> connections = emptyList();
+
+    AbstractHost(final Addr address) {
+        this.address = requireNonNull(address);
+    }
+
+    /**
+     * Invoked after a connection was added to this host.
+     *
+     * @param connection the added connection.
+     * @param connections all connections of this host, including {@code connection}.
+     */
+    void onConnectionAdded(C connection, List<C> connections) {
+    }
+
+    /**
+     * Invoked once this host is removed from the load balancer or closed, to cancel background work.
+     */
+    void onInactive() {
+    }
+
+    /**
+     * Marks this host as removed from the load balancer, its connections are closed gracefully.
+     */
+    final void markInactive() {
+        @SuppressWarnings("unchecked")
+        final List<C> toRemove = connectionsUpdater.getAndSet(this, CLOSED_LIST);
+        onInactive();
+        for (C conn : toRemove) {
+            conn.closeAsyncGracefully().subscribe();
+        }
+    }
+
+    final boolean isInactive() {
+        return connections == CLOSED_LIST;
+    }
+
+    final boolean addConnection(C connection) {
+        for (;;) {
+            List<C> existing = this.connections;
+            if (existing == CLOSED_LIST) {
+                return false;
+            }
+            ArrayList<C> connectionAdded = new ArrayList<>(existing);
+            connectionAdded.add(connection);
+            if (connectionsUpdater.compareAndSet(this, existing, connectionAdded)) {
+                onConnectionAdded(connection, connectionAdded);
+                break;
+            }
+        }
+
+        // Instrument the new connection so we prune it on close
+        connection.onClose().beforeFinally(() -> {
+            for (;;) {
+                final List<C> existing = connections;
+                if (existing == CLOSED_LIST) {
+                    break;
+                }
+                ArrayList<C> connectionRemoved = new ArrayList<>(existing);
+                if (!connectionRemoved.remove(connection) ||
+                        connectionsUpdater.compareAndSet(this, existing, connectionRemoved)) {
+                    break;
+                }
+            }
+        }).subscribe();
+        return true;
+    }
+
+    // Used for testing only
+    final Entry<Addr, List<C>> asEntry() {
+        return new SimpleImmutableEntry<>(address, new ArrayList<>(connections));
+    }
+
+    @Override
+    public final Completable closeAsync() {
+        return doClose(AsyncCloseable::closeAsync);
+    }
+
+    @Override
+    public final Completable closeAsyncGracefully() {
+        return doClose(AsyncCloseable::closeAsyncGracefully);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Completable doClose(final Function<? super C, Completable> closeFunction) {
+        return defer(() -> {
+            final List<C> toClose = connectionsUpdater.getAndSet(this, CLOSED_LIST);
+            onInactive();
+            return succeeded(toClose);
+        })
+                .flatMapCompletable(list -> mergeAllDelayError(list.stream().map(closeFunction)::iterator));
+    }
+}
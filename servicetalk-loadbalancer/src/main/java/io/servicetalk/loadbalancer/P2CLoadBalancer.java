@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.ConnectionRejectedException;
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.LoadBalancerFactory;
+import io.servicetalk.client.api.ScoreSupplier;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.client.api.internal.RequestTracker;
+import io.servicetalk.client.api.internal.RequestTrackerAware;
+import io.servicetalk.concurrent.PublisherSource.Processor;
+import io.servicetalk.concurrent.PublisherSource.Subscriber;
+import io.servicetalk.concurrent.PublisherSource.Subscription;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.SingleTerminalSignalConsumer;
+import io.servicetalk.concurrent.internal.SequentialCancellable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_NOT_READY_EVENT;
+import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_READY_EVENT;
+import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.concurrent.api.AsyncCloseables.toAsyncCloseable;
+import static io.servicetalk.concurrent.api.Processors.newPublisherProcessorDropHeadOnOverflow;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A {@link LoadBalancer} that uses the "power of two choices" strategy for selecting addresses. It has the following
+ * behaviour:
+ * <ul>
+ * <li>For every selection two distinct addresses are picked at random and the least loaded one is used.</li>
+ * <li>The load of an address is the exponentially weighted moving average of its response latency, multiplied by the
+ * number of its outstanding requests and connection attempts plus one. Failed requests are penalized. An address
+ * without latency samples yet, for example a newly discovered one, is assumed to be as fast as the other candidate, so
+ * that only the outstanding requests are compared. Ties are broken by the moving average of the connection
+ * establishment latency.</li>
+ * <li>Requests are only observed on connections which implement {@link RequestTrackerAware}, such as the connections
+ * of ServiceTalk HTTP clients. For other connections only connection establishment is taken into account.</li>
+ * <li>Connections are created lazily, without any concurrency control on their creation.</li>
+ * <li>Within the selected address two random connections are compared by their {@link ScoreSupplier#score()} and the
+ * better one is offered to the selector passed to {@link #selectConnection(Predicate)}.</li>
+ * <li>Closed connections are automatically pruned.</li>
+ * </ul>
+ * Unlike {@link RoundRobinLoadBalancer} this strategy does not need any shared mutable state on the selection path, and
+ * naturally steers traffic away from addresses that are slow or saturated.
+ *
+ * @param <ResolvedAddress> The resolved address type.
+ * @param <C> The type of connection.
+ */
+public final class P2CLoadBalancer<ResolvedAddress, C extends LoadBalancedConnection> implements LoadBalancer<C> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(P2CLoadBalancer.class);
+    private static final List<?> CLOSED_LIST = new ArrayList<>(0);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<P2CLoadBalancer, List> activeHostsUpdater =
+            newUpdater(P2CLoadBalancer.class, List.class, "activeHosts");
+
+    /**
+     * See {@code RoundRobinLoadBalancer#MIN_SEARCH_SPACE}.
+     */
+    private static final int MIN_SEARCH_SPACE = 64;
+
+    /**
+     * See {@code RoundRobinLoadBalancer#SEARCH_FACTOR}.
+     */
+    private static final float SEARCH_FACTOR = 0.75f;
+
+    private volatile List<Host<ResolvedAddress, C>> activeHosts = emptyList();
+
+    private final Publisher<Object> eventStream;
+    private final SequentialCancellable discoveryCancellable = new SequentialCancellable();
+    private final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory;
+    private final ListenableAsyncCloseable asyncCloseable;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param eventPublisher    provides a stream of addresses to connect to.
+     * @param connectionFactory a function which creates new connections.
+     */
+    public P2CLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                           final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory) {
+        Processor<Object, Object> eventStreamProcessor = newPublisherProcessorDropHeadOnOverflow(32);
+        this.eventStream = fromSource(eventStreamProcessor);
+        this.connectionFactory = requireNonNull(connectionFactory);
+
+        toSource(eventPublisher).subscribe(new Subscriber<ServiceDiscovererEvent<ResolvedAddress>>() {
+
+            @Override
+            public void onSubscribe(final Subscription s) {
+                // See RoundRobinLoadBalancer, events are processed synchronously so flow control is not required.
+                s.request(Long.MAX_VALUE);
+                discoveryCancellable.nextCancellable(s);
+            }
+
+            @Override
+            public void onNext(final ServiceDiscovererEvent<ResolvedAddress> event) {
+                LOGGER.debug("Load balancer {}, received new ServiceDiscoverer event {}.", P2CLoadBalancer.this,
+                        event);
+                @SuppressWarnings("unchecked")
+                final List<Host<ResolvedAddress, C>> activeAddresses =
+                    activeHostsUpdater.updateAndGet(P2CLoadBalancer.this, oldHosts -> {
+                        if (oldHosts == CLOSED_LIST) {
+                            return CLOSED_LIST;
+                        }
+                        final ResolvedAddress addr = requireNonNull(event.address());
+                        @SuppressWarnings("unchecked")
+                        final List<Host<ResolvedAddress, C>> oldHostsTyped = (List<Host<ResolvedAddress, C>>) oldHosts;
+                        if (event.isAvailable()) {
+                            if (oldHostsTyped.isEmpty()) {
+                                return singletonList(new Host<>(addr));
+                            }
+                            final List<Host<ResolvedAddress, C>> newHosts = new ArrayList<>(oldHostsTyped.size() + 1);
+                            newHosts.addAll(oldHostsTyped);
+                            newHosts.add(new Host<>(addr));
+                            return newHosts;
+                        } else if (oldHostsTyped.isEmpty()) {
+                            return emptyList();
+                        } else {
+                            final List<Host<ResolvedAddress, C>> newHosts = new ArrayList<>(oldHostsTyped.size() - 1);
+                            for (int i = 0; i < oldHostsTyped.size(); ++i) {
+                                final Host<ResolvedAddress, C> host = oldHostsTyped.get(i);
+                                if (host.address.equals(addr)) {
+                                    host.markInactive();
+                                    for (int x = i + 1; x < oldHostsTyped.size(); ++x) {
+                                        newHosts.add(oldHostsTyped.get(x));
+                                    }
+                                    return newHosts.isEmpty() ? emptyList() : newHosts;
+                                } else {
+                                    newHosts.add(host);
+                                }
+                            }
+                            return newHosts;
+                        }
+                    });
+
+                LOGGER.debug("Load balancer {} now using {} addresses: {}", P2CLoadBalancer.this,
+                        activeAddresses.size(), activeAddresses);
+
+                if (event.isAvailable()) {
+                    if (activeAddresses.size() == 1) {
+                        eventStreamProcessor.onNext(LOAD_BALANCER_READY_EVENT);
+                    }
+                } else if (activeAddresses.isEmpty()) {
+                    eventStreamProcessor.onNext(LOAD_BALANCER_NOT_READY_EVENT);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+                List<Host<ResolvedAddress, C>> hosts = activeHosts;
+                eventStreamProcessor.onError(t);
+                LOGGER.error(
+                        "Load balancer {}. Service discoverer {} emitted an error. Last seen addresses (size {}) {}",
+                        P2CLoadBalancer.this, eventPublisher, hosts.size(), hosts, t);
+            }
+
+            @Override
+            public void onComplete() {
+                List<Host<ResolvedAddress, C>> hosts = activeHosts;
+                eventStreamProcessor.onComplete();
+                LOGGER.error("Load balancer {}. Service discoverer {} completed. Last seen addresses (size {}) {}",
+                        P2CLoadBalancer.this, eventPublisher, hosts.size(), hosts);
+            }
+        });
+        asyncCloseable = toAsyncCloseable(graceful -> {
+            @SuppressWarnings("unchecked")
+            List<Host<ResolvedAddress, C>> currentList = activeHostsUpdater.getAndSet(this, CLOSED_LIST);
+            discoveryCancellable.cancel();
+            eventStreamProcessor.onComplete();
+            CompositeCloseable cc = newCompositeCloseable().appendAll(currentList).appendAll(connectionFactory);
+            return graceful ? cc.closeAsyncGracefully() : cc.closeAsync();
+        });
+    }
+
+    /**
+     * Create a {@link LoadBalancerFactory} that creates instances of {@link P2CLoadBalancer}.
+     * @param <ResolvedAddress> The resolved address type.
+     * @param <C> The type of connection.
+     * @return a {@link LoadBalancerFactory} that creates instances of {@link P2CLoadBalancer}.
+     */
+    public static <ResolvedAddress, C extends LoadBalancedConnection>
+    P2CLoadBalancerFactory<ResolvedAddress, C> newP2CFactory() {
+        return new P2CLoadBalancerFactory<>();
+    }
+
+    @Override
+    public Single<C> selectConnection(Predicate<C> selector) {
+        return defer(() -> selectConnection0(selector).subscribeShareContext());
+    }
+
+    @Override
+    public Publisher<Object> eventStream() {
+        return eventStream;
+    }
+
+    private Single<C> selectConnection0(Predicate<C> selector) {
+        final List<Host<ResolvedAddress, C>> activeHosts = this.activeHosts;
+        if (activeHosts.isEmpty()) {
+            return activeHosts == CLOSED_LIST ? failedLBClosed() :
+                // This is the case when SD has emitted some items but none of the hosts are active.
+                failed(StacklessNoAvailableHostException.newInstance(
+                    "No hosts are available to connect.", P2CLoadBalancer.class, "selectConnection0(...)"));
+        }
+
+        final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        final Host<ResolvedAddress, C> host = pickHost(activeHosts, rnd);
+
+        // Try first to see if an existing connection can be used
+        final List<C> connections = host.connections;
+        final int size = connections.size();
+        // With small enough search space, attempt all connections.
+        // Back off after exploring most of the search space, it gives diminishing returns.
+        final int attempts = size < MIN_SEARCH_SPACE ? size : (int) (size * SEARCH_FACTOR);
+        for (int i = 0; i < attempts; i++) {
+            final C first = connections.get(rnd.nextInt(size));
+            final C second = connections.get(rnd.nextInt(size));
+            final C connection = second.score() > first.score() ? second : first;
+            if (selector.test(connection)) {
+                return succeeded(connection);
+            }
+        }
+
+        // No connection was selected: create a new one
+        return defer(() -> {
+                    final long connectStartTime = nanoTime();
+                    host.onConnectStart();
+                    return connectionFactory.newConnection(host.address)
+                            .whenFinally(new SingleTerminalSignalConsumer<C>() {
+                                @Override
+                                public void onSuccess(@Nullable final C result) {
+                                    host.onConnectSuccess(nanoTime() - connectStartTime);
+                                }
+
+                                @Override
+                                public void onError(final Throwable throwable) {
+                                    host.onConnectFailure(nanoTime() - connectStartTime);
+                                }
+
+                                @Override
+                                public void cancel() {
+                                    host.onConnectCancel();
+                                }
+                            });
+                })
+                .flatMap(newCnx -> {
+                    // Invoke the selector before adding the connection to the pool, otherwise, connection can be used
+                    // concurrently and hence a new connection can be rejected by the selector.
+                    if (!selector.test(newCnx)) {
+                        // Failure in selection could be temporary, hence add it to the queue and be consistent with the
+                        // fact that select failure does not close a connection.
+                        return newCnx.closeAsync().concat(failed(new ConnectionRejectedException(
+                                "Newly created connection " + newCnx + " rejected by the selection filter.")));
+                    }
+                    if (host.addConnection(newCnx)) {
+                        return succeeded(newCnx);
+                    }
+                    return newCnx.closeAsync().concat(this.activeHosts == CLOSED_LIST ? failedLBClosed() :
+                            failed(new ConnectionRejectedException("Failed to add newly created connection for host: " +
+                                    host.address + ", host inactive? " + host.isInactive())));
+                });
+    }
+
+    private static <Addr, C extends LoadBalancedConnection> Host<Addr, C> pickHost(final List<Host<Addr, C>> hosts,
+                                                                                 final ThreadLocalRandom rnd) {
+        final int size = hosts.size();
+        if (size == 1) {
+            return hosts.get(0);
+        }
+        final int firstIndex = rnd.nextInt(size);
+        int secondIndex = rnd.nextInt(size - 1);
+        if (secondIndex >= firstIndex) {
+            // Make sure both choices are distinct without retrying.
+            ++secondIndex;
+        }
+        final Host<Addr, C> first = hosts.get(firstIndex);
+        final Host<Addr, C> second = hosts.get(secondIndex);
+        return isLessLoaded(second, first) ? second : first;
+    }
+
+    private static <Addr, C extends LoadBalancedConnection> boolean isLessLoaded(final Host<Addr, C> host,
+                                                                               final Host<Addr, C> other) {
+        long latency = host.ewmaLatencyNanos;
+        long otherLatency = other.ewmaLatencyNanos;
+        // A host without samples is scored neutrally, as if it was as fast as the other one. Otherwise a new host
+        // would either be starved or flooded until its first responses arrive.
+        if (latency == 0) {
+            latency = otherLatency == 0 ? 1 : otherLatency;
+        }
+        if (otherLatency == 0) {
+            otherLatency = latency;
+        }
+        final long cost = latency * (host.outstanding() + 1);
+        final long otherCost = otherLatency * (other.outstanding() + 1);
+        if (cost != otherCost) {
+            return cost < otherCost;
+        }
+        return host.ewmaConnectNanos < other.ewmaConnectNanos;
+    }
+
+    @Override
+    public Completable onClose() {
+        return asyncCloseable.onClose();
+    }
+
+    @Override
+    public Completable closeAsync() {
+        return asyncCloseable.closeAsync();
+    }
+
+    @Override
+    public Completable closeAsyncGracefully() {
+        return asyncCloseable.closeAsyncGracefully();
+    }
+
+    /**
+     * {@link LoadBalancerFactory} for {@link P2CLoadBalancer}.
+     *
+     * @param <ResolvedAddress> The resolved address type.
+     * @param <C> The type of connection.
+     */
+    public static final class P2CLoadBalancerFactory<ResolvedAddress, C extends LoadBalancedConnection>
+            implements LoadBalancerFactory<ResolvedAddress, C> {
+
+        @Override
+        public <T extends C> LoadBalancer<T> newLoadBalancer(
+                final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                final ConnectionFactory<ResolvedAddress, T> connectionFactory) {
+            return new P2CLoadBalancer<>(eventPublisher, connectionFactory);
+        }
+    }
+
+    // Visible for testing
+    List<Entry<ResolvedAddress, List<C>>> activeAddresses() {
+        return activeHosts.stream().map(Host::asEntry).collect(toList());
+    }
+
+    private static final class Host<Addr, C extends LoadBalancedConnection> extends AbstractHost<Addr, C>
+            implements RequestTracker {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Host> pendingConnectsUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(Host.class, "pendingConnects");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Host> pendingRequestsUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(Host.class, "pendingRequests");
+
+        /**
+         * Weight of a new sample in the latency moving averages, expressed as a right shift (1/8).
+         */
+        private static final int EWMA_SHIFT = 3;
+
+        private volatile int pendingConnects;
+        private volatile int pendingRequests;
+        /**
+         * Updates are racy, losing a sample under concurrent connects is acceptable for a moving average.
+         */
+        private volatile long ewmaConnectNanos;
+        /**
+         * Updates are racy, losing a sample under concurrent responses is acceptable for a moving average.
+         */
+        private volatile long ewmaLatencyNanos;
+
+        Host(Addr address) {
+            super(address);
+        }
+
+        int outstanding() {
+            return pendingRequests + pendingConnects;
+        }
+
+        @Override
+        void onConnectionAdded(final C connection, final List<C> connections) {
+            if (connection instanceof RequestTrackerAware) {
+                ((RequestTrackerAware) connection).requestTracker(this);
+            }
+        }
+
+        @Override
+        public long beforeRequestStart() {
+            pendingRequestsUpdater.incrementAndGet(this);
+            return nanoTime();
+        }
+
+        @Override
+        public void onRequestSuccess(final long beforeStartTimeNs) {
+            pendingRequestsUpdater.decrementAndGet(this);
+            ewmaLatencyNanos = ewma(ewmaLatencyNanos, nanoTime() - beforeStartTimeNs);
+        }
+
+        @Override
+        public void onRequestError(final long beforeStartTimeNs) {
+            pendingRequestsUpdater.decrementAndGet(this);
+            // A failed request is penalized so that the host is less likely to be chosen again.
+            ewmaLatencyNanos = ewma(ewmaLatencyNanos, (nanoTime() - beforeStartTimeNs) << 1);
+        }
+
+        @Override
+        public void onRequestCancel(final long beforeStartTimeNs) {
+            // The request did not run to completion, so its latency says nothing about the host.
+            pendingRequestsUpdater.decrementAndGet(this);
+        }
+
+        void onConnectStart() {
+            pendingConnectsUpdater.incrementAndGet(this);
+        }
+
+        void onConnectSuccess(long durationNanos) {
+            pendingConnectsUpdater.decrementAndGet(this);
+            ewmaConnectNanos = ewma(ewmaConnectNanos, durationNanos);
+        }
+
+        void onConnectFailure(long durationNanos) {
+            pendingConnectsUpdater.decrementAndGet(this);
+            // A failed connect is penalized so that the host is less likely to be chosen again.
+            ewmaConnectNanos = ewma(ewmaConnectNanos, durationNanos << 1);
+        }
+
+        void onConnectCancel() {
+            pendingConnectsUpdater.decrementAndGet(this);
+        }
+
+        private static long ewma(final long current, final long sampleNanos) {
+            // Zero is reserved for "no samples".
+            final long sample = sampleNanos <= 0 ? 1 : sampleNanos;
+            return current == 0 ? sample : max(1, current + ((sample - current) >> EWMA_SHIFT));
+        }
+
+        @Override
+        public String toString() {
+            return "Host{" +
+                    "address=" + address +
+                    ", removed=" + isInactive() +
+                    ", pendingConnects=" + pendingConnects +
+                    ", pendingRequests=" + pendingRequests +
+                    ", ewmaConnectNanos=" + ewmaConnectNanos +
+                    ", ewmaLatencyNanos=" + ewmaLatencyNanos +
+                    '}';
+        }
+    }
+
+    private static <T> Single<T> failedLBClosed() {
+        return failed(new IllegalStateException("LoadBalancer has closed"));
+    }
+}
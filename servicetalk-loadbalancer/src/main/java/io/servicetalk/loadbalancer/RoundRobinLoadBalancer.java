@@ -20,47 +20,55 @@ import io.servicetalk.client.api.ConnectionRejectedException;
 import io.servicetalk.client.api.LoadBalancedConnection;
 import io.servicetalk.client.api.LoadBalancer;
 import io.servicetalk.client.api.LoadBalancerFactory;
-import io.servicetalk.client.api.NoAvailableHostException;
+import io.servicetalk.client.api.LoadBalancerReadyEvent;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.client.api.internal.RequestConcurrencyController;
+import io.servicetalk.concurrent.Cancellable;
 import io.servicetalk.concurrent.PublisherSource.Processor;
 import io.servicetalk.concurrent.PublisherSource.Subscriber;
 import io.servicetalk.concurrent.PublisherSource.Subscription;
-import io.servicetalk.concurrent.api.AsyncCloseable;
+import io.servicetalk.concurrent.SingleSource;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.concurrent.internal.SequentialCancellable;
-import io.servicetalk.concurrent.internal.ThrowableUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
-import java.util.function.Function;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_NOT_READY_EVENT;
 import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_READY_EVENT;
 import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
 import static io.servicetalk.concurrent.api.AsyncCloseables.toAsyncCloseable;
-import static io.servicetalk.concurrent.api.Completable.mergeAllDelayError;
 import static io.servicetalk.concurrent.api.Processors.newPublisherProcessorDropHeadOnOverflow;
 import static io.servicetalk.concurrent.api.Single.defer;
 import static io.servicetalk.concurrent.api.Single.failed;
 import static io.servicetalk.concurrent.api.Single.succeeded;
 import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static java.lang.Math.min;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
 import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
 import static java.util.stream.Collectors.toList;
@@ -71,11 +79,28 @@ import static java.util.stream.Collectors.toList;
  * <li>Round robining is done at address level.</li>
  * <li>Connections are created lazily, without any concurrency control on their creation.
  * This can lead to over-provisioning connections when dealing with a requests surge.</li>
+ * <li>When a minimum number of connections per host is configured via {@link RoundRobinLoadBalancerFactory.Builder},
+ * that many connections are eagerly established as soon as an address becomes available, so the first requests to
+ * a new address do not all pay the connection establishment latency. The {@link LoadBalancerReadyEvent} can be
+ * deferred until a number of addresses are warm.</li>
  * <li>Existing connections are reused unless a selector passed to {@link #selectConnection(Predicate)} suggests
  * otherwise.
  * This can lead to situations where connections will be used to their maximum capacity (for example in the context of
- * pipelining) before new connections are created.</li>
+ * pipelining or HTTP/2 multiplexing) before new connections are created.</li>
+ * <li>Connections which implement {@link RequestConcurrencyController} and report no
+ * {@link RequestConcurrencyController#availableCapacity() available capacity} (for example an HTTP/2 connection which
+ * reached the peer's {@code SETTINGS_MAX_CONCURRENT_STREAMS}) are skipped without consulting the selector.</li>
+ * <li>When an address has a relatively small number of connections, connections which can take more than one
+ * additional request (for example HTTP/2 connections) are tried in the order they were established, and a new
+ * connection is only created when all of them are saturated. Packing requests onto the oldest connections leaves
+ * connections which were created during a surge idle once the surge is over, so they can be closed when an idle
+ * connection timeout is configured via {@link RoundRobinLoadBalancerFactory.Builder}. Other connections are tried
+ * starting at a random position, so that requests are spread across them.</li>
  * <li>Closed connections are automatically pruned.</li>
+ * <li>When health checking is enabled via {@link RoundRobinLoadBalancerFactory.Builder}, an address that fails to
+ * establish a configured number of consecutive connections is considered unhealthy. No new connections are opened to
+ * unhealthy addresses on the selection path, instead a background task periodically (with exponential backoff) tries
+ * to connect and marks the address healthy again once it succeeds.</li>
  * </ul>
  *
  * @param <ResolvedAddress> The resolved address type.
@@ -93,6 +118,15 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
     @SuppressWarnings("rawtypes")
     private static final AtomicIntegerFieldUpdater<RoundRobinLoadBalancer> indexUpdater =
             newUpdater(RoundRobinLoadBalancer.class, "index");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<RoundRobinLoadBalancer> warmHostsUpdater =
+            newUpdater(RoundRobinLoadBalancer.class, "warmHosts");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<RoundRobinLoadBalancer> readyUpdater =
+            newUpdater(RoundRobinLoadBalancer.class, "ready");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<RoundRobinLoadBalancer, Cancellable> readyTimeoutUpdater =
+            newUpdater(RoundRobinLoadBalancer.class, Cancellable.class, "readyTimeout");
 
     /**
      * With a relatively small number of connections we can minimize connection creation under moderate concurrency by
@@ -113,11 +147,24 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
 
     @SuppressWarnings("unused")
     private volatile int index;
+    private volatile int warmHosts;
+    private volatile int ready;
+    @Nullable
+    private volatile Cancellable readyTimeout;
     private volatile List<Host<ResolvedAddress, C>> activeHosts = emptyList();
 
     private final Publisher<Object> eventStream;
+    private final Processor<Object, Object> eventStreamProcessor;
     private final SequentialCancellable discoveryCancellable = new SequentialCancellable();
     private final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory;
+    @Nullable
+    private final HealthCheckConfig healthCheckConfig;
+    private final int minConnectionsPerHost;
+    private final int minWarmHostsBeforeReady;
+    private final long readyTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final SequentialCancellable idleReaperCancellable = new SequentialCancellable();
+    private final Runnable onHostWarm;
     private final ListenableAsyncCloseable asyncCloseable;
 
     /**
@@ -128,11 +175,35 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
      */
     public RoundRobinLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
                                   final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory) {
-        Processor<Object, Object> eventStreamProcessor = newPublisherProcessorDropHeadOnOverflow(32);
+        this(eventPublisher.map(Collections::singletonList), connectionFactory, null, 0, 0, 0, 0);
+    }
+
+    RoundRobinLoadBalancer(
+            final Publisher<? extends Collection<? extends ServiceDiscovererEvent<ResolvedAddress>>> eventPublisher,
+            final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory,
+            @Nullable final HealthCheckConfig healthCheckConfig, final int minConnectionsPerHost,
+            final int minWarmHostsBeforeReady, final long readyTimeoutNanos, final long idleTimeoutNanos) {
+        this.eventStreamProcessor = newPublisherProcessorDropHeadOnOverflow(32);
         this.eventStream = fromSource(eventStreamProcessor);
         this.connectionFactory = requireNonNull(connectionFactory);
+        this.healthCheckConfig = healthCheckConfig;
+        this.minConnectionsPerHost = minConnectionsPerHost;
+        this.minWarmHostsBeforeReady = minWarmHostsBeforeReady;
+        this.readyTimeoutNanos = readyTimeoutNanos;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.onHostWarm = () -> {
+            warmHostsUpdater.incrementAndGet(this);
+            signalReadyIfWarm();
+        };
 
-        toSource(eventPublisher).subscribe(new Subscriber<ServiceDiscovererEvent<ResolvedAddress>>() {
+        toSource(eventPublisher).subscribe(
+                new Subscriber<Collection<? extends ServiceDiscovererEvent<ResolvedAddress>>>() {
+            /**
+             * Number of {@link Host}s per address in {@link #activeHosts}. Only accessed from
+             * {@link #onNext(Collection)} which is never invoked concurrently. It allows to discard events for unknown
+             * addresses and to locate the hosts to remove in a single pass, regardless of the size of a batch.
+             */
+            private final Map<ResolvedAddress, Integer> hostCounts = new HashMap<>();
 
             @Override
             public void onSubscribe(final Subscription s) {
@@ -145,54 +216,107 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
             }
 
             @Override
-            public void onNext(final ServiceDiscovererEvent<ResolvedAddress> event) {
-                LOGGER.debug("Load balancer {}, received new ServiceDiscoverer event {}.", RoundRobinLoadBalancer.this,
-                        event);
-                @SuppressWarnings("unchecked")
-                final List<Host<ResolvedAddress, C>> activeAddresses =
-                    activeHostsUpdater.updateAndGet(RoundRobinLoadBalancer.this, oldHosts -> {
-                        if (oldHosts == CLOSED_LIST) {
-                            return CLOSED_LIST;
+            public void onNext(final Collection<? extends ServiceDiscovererEvent<ResolvedAddress>> events) {
+                LOGGER.debug("Load balancer {}, received new ServiceDiscoverer events (size {}) {}.",
+                        RoundRobinLoadBalancer.this, events.size(), events);
+                final List<Host<ResolvedAddress, C>> oldHosts = activeHosts;
+                if (oldHosts == CLOSED_LIST) {
+                    return;
+                }
+
+                // All events of the batch are applied to a single copy of the hosts, which is then published
+                // atomically. This makes the cost of a batch linear in the number of hosts plus the number of events.
+                List<Host<ResolvedAddress, C>> newHosts = null;
+                List<Host<ResolvedAddress, C>> addedHosts = emptyList();
+                Map<ResolvedAddress, Integer> removals = null;
+                boolean sawUnavailable = false;
+                for (ServiceDiscovererEvent<ResolvedAddress> event : events) {
+                    final ResolvedAddress addr = requireNonNull(event.address());
+                    if (event.isAvailable()) {
+                        if (newHosts == null) {
+                            newHosts = new ArrayList<>(oldHosts.size() + events.size());
+                            newHosts.addAll(oldHosts);
+                            addedHosts = new ArrayList<>(events.size());
                         }
-                        final ResolvedAddress addr = requireNonNull(event.address());
-                        @SuppressWarnings("unchecked")
-                        final List<Host<ResolvedAddress, C>> oldHostsTyped = (List<Host<ResolvedAddress, C>>) oldHosts;
-                        if (event.isAvailable()) {
-                            if (oldHostsTyped.isEmpty()) {
-                                return singletonList(new Host<>(addr));
+                        final Host<ResolvedAddress, C> host = new Host<>(addr, connectionFactory, healthCheckConfig,
+                                minConnectionsPerHost, idleTimeoutNanos > 0, onHostWarm);
+                        newHosts.add(host);
+                        addedHosts.add(host);
+                        hostCounts.merge(addr, 1, Integer::sum);
+                    } else {
+                        sawUnavailable = true;
+                        final Integer count = hostCounts.get(addr);
+                        if (count != null) {
+                            if (count == 1) {
+                                hostCounts.remove(addr);
+                            } else {
+                                hostCounts.put(addr, count - 1);
+                            }
+                            if (removals == null) {
+                                removals = new HashMap<>();
                             }
-                            final List<Host<ResolvedAddress, C>> newHosts = new ArrayList<>(oldHostsTyped.size() + 1);
-                            newHosts.addAll(oldHostsTyped);
-                            newHosts.add(new Host<>(addr));
-                            return newHosts;
-                        } else if (oldHostsTyped.isEmpty()) {
-                            return emptyList();
+                            removals.merge(addr, 1, Integer::sum);
+                        }
+                    }
+                }
+
+                List<Host<ResolvedAddress, C>> removedHosts = emptyList();
+                if (removals != null) {
+                    // Removal always targets the oldest host for an address, which preserves the semantics of
+                    // applying the events one by one.
+                    final List<Host<ResolvedAddress, C>> source = newHosts == null ? oldHosts : newHosts;
+                    newHosts = new ArrayList<>(source.size());
+                    removedHosts = new ArrayList<>(removals.size());
+                    for (int i = 0; i < source.size(); ++i) {
+                        final Host<ResolvedAddress, C> host = source.get(i);
+                        final Integer pending = removals.isEmpty() ? null : removals.get(host.address);
+                        if (pending == null) {
+                            newHosts.add(host);
                         } else {
-                            final List<Host<ResolvedAddress, C>> newHosts = new ArrayList<>(oldHostsTyped.size() - 1);
-                            for (int i = 0; i < oldHostsTyped.size(); ++i) {
-                                final Host<ResolvedAddress, C> host = oldHostsTyped.get(i);
-                                if (host.address.equals(addr)) {
-                                    host.markInactive();
-                                    for (int x = i + 1; x < oldHostsTyped.size(); ++x) {
-                                        newHosts.add(oldHostsTyped.get(x));
-                                    }
-                                    return newHosts.isEmpty() ? emptyList() : newHosts;
-                                } else {
-                                    newHosts.add(host);
-                                }
+                            if (pending == 1) {
+                                removals.remove(host.address);
+                            } else {
+                                removals.put(host.address, pending - 1);
                             }
-                            return newHosts;
+                            removedHosts.add(host);
                         }
-                    });
+                    }
+                }
+
+                final List<Host<ResolvedAddress, C>> activeAddresses;
+                if (newHosts == null) {
+                    activeAddresses = oldHosts;
+                } else {
+                    activeAddresses = newHosts.isEmpty() ? emptyList() : newHosts;
+                    if (!activeHostsUpdater.compareAndSet(RoundRobinLoadBalancer.this, oldHosts, activeAddresses)) {
+                        // Only close can concurrently change the hosts, it takes care of closing the old hosts.
+                        return;
+                    }
+                    for (int i = 0; i < removedHosts.size(); ++i) {
+                        if (removedHosts.get(i).markRemoved()) {
+                            warmHostsUpdater.decrementAndGet(RoundRobinLoadBalancer.this);
+                        }
+                    }
+                    for (int i = 0; i < addedHosts.size(); ++i) {
+                        // Hosts added and removed within the same batch are already inactive, skip them.
+                        final Host<ResolvedAddress, C> host = addedHosts.get(i);
+                        if (!host.isInactive()) {
+                            host.warmUp();
+                        }
+                    }
+                }
 
                 LOGGER.debug("Load balancer {} now using {} addresses: {}", RoundRobinLoadBalancer.this,
                         activeAddresses.size(), activeAddresses);
 
-                if (event.isAvailable()) {
-                    if (activeAddresses.size() == 1) {
-                        eventStreamProcessor.onNext(LOAD_BALANCER_READY_EVENT);
+                if (!activeAddresses.isEmpty()) {
+                    // Removing cold hosts may be enough to reach the threshold, otherwise onHostWarm signals it.
+                    signalReadyIfWarm();
+                    if (oldHosts.isEmpty() && ready == 0) {
+                        scheduleReadyTimeout();
                     }
-                } else if (activeAddresses.isEmpty()) {
+                } else if (sawUnavailable) {
+                    readyUpdater.set(RoundRobinLoadBalancer.this, 0);
                     eventStreamProcessor.onNext(LOAD_BALANCER_NOT_READY_EVENT);
                 }
             }
@@ -218,10 +342,16 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
             @SuppressWarnings("unchecked")
             List<Host<ResolvedAddress, C>> currentList = activeHostsUpdater.getAndSet(this, CLOSED_LIST);
             discoveryCancellable.cancel();
+            cancelReadyTimeout();
+            idleReaperCancellable.cancel();
             eventStreamProcessor.onComplete();
             CompositeCloseable cc = newCompositeCloseable().appendAll(currentList).appendAll(connectionFactory);
             return graceful ? cc.closeAsyncGracefully() : cc.closeAsync();
         });
+        if (idleTimeoutNanos > 0) {
+            assert healthCheckConfig != null;
+            scheduleIdleReaper(healthCheckConfig.executor);
+        }
     }
 
     /**
@@ -235,6 +365,66 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
         return new RoundRobinLoadBalancerFactory<>();
     }
 
+    /**
+     * Signals readiness once enough hosts are warm. Hosts which were not discovered can never become warm, so the
+     * threshold is clamped to the number of active hosts.
+     */
+    private void signalReadyIfWarm() {
+        final int hosts = activeHosts.size();
+        if (hosts != 0 && warmHosts >= min(minWarmHostsBeforeReady, hosts)) {
+            signalReady();
+        }
+    }
+
+    private void signalReady() {
+        // Hosts may become warm concurrently, only the first one to observe the threshold signals readiness.
+        if (readyUpdater.compareAndSet(this, 0, 1)) {
+            cancelReadyTimeout();
+            LOGGER.debug("Load balancer {} has {} warm hosts, signalling readiness.", this, warmHosts);
+            eventStreamProcessor.onNext(LOAD_BALANCER_READY_EVENT);
+        }
+    }
+
+    private void scheduleReadyTimeout() {
+        if (healthCheckConfig == null || minWarmHostsBeforeReady == 0) {
+            return;
+        }
+        final Cancellable previous = readyTimeoutUpdater.getAndSet(this,
+                healthCheckConfig.executor.schedule(() -> {
+                    if (ready == 0 && !activeHosts.isEmpty()) {
+                        LOGGER.info("Load balancer {} has {} warm hosts after {}ms, signalling readiness anyway.",
+                                this, warmHosts, NANOSECONDS.toMillis(readyTimeoutNanos));
+                        signalReady();
+                    }
+                }, readyTimeoutNanos, NANOSECONDS));
+        if (previous != null) {
+            previous.cancel();
+        }
+        if (activeHosts == CLOSED_LIST) {
+            cancelReadyTimeout();
+        }
+    }
+
+    private void scheduleIdleReaper(final Executor executor) {
+        idleReaperCancellable.nextCancellable(executor.schedule(() -> {
+            final List<Host<ResolvedAddress, C>> hosts = activeHosts;
+            if (hosts == CLOSED_LIST) {
+                return;
+            }
+            for (int i = 0; i < hosts.size(); ++i) {
+                hosts.get(i).closeIdleConnections();
+            }
+            scheduleIdleReaper(executor);
+        }, idleTimeoutNanos, NANOSECONDS));
+    }
+
+    private void cancelReadyTimeout() {
+        final Cancellable current = readyTimeoutUpdater.getAndSet(this, null);
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
     @Override
     public Single<C> selectConnection(Predicate<C> selector) {
         return defer(() -> selectConnection0(selector).subscribeShareContext());
@@ -255,26 +445,69 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
         }
 
         final int cursor = (indexUpdater.getAndIncrement(this) & Integer.MAX_VALUE) % activeHosts.size();
-        final Host<ResolvedAddress, C> host = activeHosts.get(cursor);
-        assert host != null : "Host can't be null.";
         final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        Host<ResolvedAddress, C> pickedHost = null;
+        for (int i = 0; i < activeHosts.size(); ++i) {
+            // Only unhealthy hosts make us look beyond the host at the cursor.
+            final Host<ResolvedAddress, C> host = activeHosts.get((cursor + i) % activeHosts.size());
+            assert host != null : "Host can't be null.";
 
-        // Try first to see if an existing connection can be used
-        final List<C> connections = host.connections;
-        final int size = connections.size();
-        // With small enough search space, attempt all connections.
-        // Back off after exploring most of the search space, it gives diminishing returns.
-        final int attempts = size < MIN_SEARCH_SPACE ? size : (int) (size * SEARCH_FACTOR);
-        for (int i = 0; i < attempts; i++) {
-            final C connection = connections.get(rnd.nextInt(size));
-            if (selector.test(connection)) {
-                return succeeded(connection);
+            // Try first to see if an existing connection can be used
+            final List<C> connections = host.connections;
+            final int size = connections.size();
+            if (size < MIN_SEARCH_SPACE) {
+                // With small enough search space, attempt all connections. Connections which can take more than one
+                // request are packed in the order they were established, the others are spread from a random start.
+                boolean unordered = false;
+                for (int j = 0; j < size; j++) {
+                    final C connection = connections.get(j);
+                    if (isMultiplexed(connection)) {
+                        if (selector.test(connection)) {
+                            return succeeded(host.selected(connection));
+                        }
+                    } else {
+                        unordered = true;
+                    }
+                }
+                if (unordered) {
+                    final int start = rnd.nextInt(size);
+                    for (int j = 0; j < size; j++) {
+                        final C connection = connections.get((start + j) % size);
+                        if (!isMultiplexed(connection) && hasCapacity(connection) && selector.test(connection)) {
+                            return succeeded(host.selected(connection));
+                        }
+                    }
+                }
+            } else {
+                // Back off after exploring most of the search space, it gives diminishing returns.
+                final int attempts = (int) (size * SEARCH_FACTOR);
+                for (int j = 0; j < attempts; j++) {
+                    final C connection = connections.get(rnd.nextInt(size));
+                    if (hasCapacity(connection) && selector.test(connection)) {
+                        return succeeded(host.selected(connection));
+                    }
+                }
+            }
+
+            // Existing connections of an unhealthy host can still be used, but new connections are only opened to
+            // healthy hosts.
+            if (host.isHealthy()) {
+                pickedHost = host;
+                break;
             }
         }
+        if (pickedHost == null) {
+            return failed(StacklessNoAvailableHostException.newInstance(
+                    "Failed to pick an active host, all hosts are unhealthy.", RoundRobinLoadBalancer.class,
+                    "selectConnection0(...)"));
+        }
 
         // No connection was selected: create a new one
+        final Host<ResolvedAddress, C> host = pickedHost;
         return connectionFactory.newConnection(host.address)
+                .beforeOnError(host::onConnectFailure)
                 .flatMap(newCnx -> {
+                    host.onConnectSuccess();
                     // Invoke the selector before adding the connection to the pool, otherwise, connection can be used
                     // concurrently and hence a new connection can be rejected by the selector.
                     if (!selector.test(newCnx)) {
@@ -292,6 +525,21 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
                 });
     }
 
+    private static boolean isMultiplexed(final LoadBalancedConnection connection) {
+        return connection instanceof RequestConcurrencyController &&
+                ((RequestConcurrencyController) connection).availableCapacity() > 1;
+    }
+
+    private static boolean hasPendingRequests(final ListenableAsyncCloseable connection) {
+        return connection instanceof RequestConcurrencyController &&
+                ((RequestConcurrencyController) connection).hasPendingRequests();
+    }
+
+    private static boolean hasCapacity(final LoadBalancedConnection connection) {
+        return !(connection instanceof RequestConcurrencyController) ||
+                ((RequestConcurrencyController) connection).availableCapacity() > 0;
+    }
+
     @Override
     public Completable onClose() {
         return asyncCloseable.onClose();
@@ -316,11 +564,246 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
     public static final class RoundRobinLoadBalancerFactory<ResolvedAddress, C extends LoadBalancedConnection>
             implements LoadBalancerFactory<ResolvedAddress, C> {
 
+        @Nullable
+        private final HealthCheckConfig healthCheckConfig;
+        private final int minConnectionsPerHost;
+        private final int minWarmHostsBeforeReady;
+        private final long readyTimeoutNanos;
+        private final long idleTimeoutNanos;
+
+        /**
+         * Creates a new instance with health checking and connection pre-warming disabled.
+         *
+         * @see Builder
+         */
+        public RoundRobinLoadBalancerFactory() {
+            this(null, 0, 0, 0, 0);
+        }
+
+        private RoundRobinLoadBalancerFactory(@Nullable final HealthCheckConfig healthCheckConfig,
+                                              final int minConnectionsPerHost, final int minWarmHostsBeforeReady,
+                                              final long readyTimeoutNanos, final long idleTimeoutNanos) {
+            this.healthCheckConfig = healthCheckConfig;
+            this.minConnectionsPerHost = minConnectionsPerHost;
+            this.minWarmHostsBeforeReady = minWarmHostsBeforeReady;
+            this.readyTimeoutNanos = readyTimeoutNanos;
+            this.idleTimeoutNanos = idleTimeoutNanos;
+        }
+
         @Override
         public <T extends C> LoadBalancer<T> newLoadBalancer(
                 final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
                 final ConnectionFactory<ResolvedAddress, T> connectionFactory) {
-            return new RoundRobinLoadBalancer<>(eventPublisher, connectionFactory);
+            return new RoundRobinLoadBalancer<>(eventPublisher.map(Collections::singletonList), connectionFactory,
+                    healthCheckConfig, minConnectionsPerHost, minWarmHostsBeforeReady, readyTimeoutNanos,
+                    idleTimeoutNanos);
+        }
+
+        @Override
+        public <T extends C> LoadBalancer<T> newLoadBalancerFromBatches(
+                final Publisher<? extends Collection<? extends ServiceDiscovererEvent<ResolvedAddress>>> eventPublisher,
+                final ConnectionFactory<ResolvedAddress, T> connectionFactory) {
+            return new RoundRobinLoadBalancer<>(eventPublisher, connectionFactory, healthCheckConfig,
+                    minConnectionsPerHost, minWarmHostsBeforeReady, readyTimeoutNanos, idleTimeoutNanos);
+        }
+
+        /**
+         * Builder for {@link RoundRobinLoadBalancerFactory}.
+         *
+         * @param <ResolvedAddress> The resolved address type.
+         * @param <C> The type of connection.
+         */
+        public static final class Builder<ResolvedAddress, C extends LoadBalancedConnection> {
+            @Nullable
+            private Executor backgroundExecutor;
+            private Duration healthCheckInterval = Duration.ofSeconds(1);
+            private Duration healthCheckMaxInterval = Duration.ofSeconds(30);
+            private int healthCheckFailedConnectionsThreshold = 5;
+            private int minConnectionsPerHost;
+            private int minWarmHostsBeforeReady;
+            private Duration minWarmHostsBeforeReadyTimeout = Duration.ofSeconds(30);
+            @Nullable
+            private Duration idleConnectionTimeout;
+
+            /**
+             * Sets the {@link Executor} used to run background health checks, typically the
+             * {@link io.servicetalk.transport.api.IoExecutor} of the client. Health checking is disabled unless an
+             * {@link Executor} is provided.
+             *
+             * @param backgroundExecutor {@link Executor} used to schedule health checks.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> backgroundExecutor(final Executor backgroundExecutor) {
+                this.backgroundExecutor = requireNonNull(backgroundExecutor);
+                return this;
+            }
+
+            /**
+             * Sets the initial delay between health check attempts for an unhealthy host. The delay doubles after
+             * every failed attempt, up to {@link #healthCheckMaxInterval(Duration)}.
+             *
+             * @param interval initial delay between health check attempts.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> healthCheckInterval(final Duration interval) {
+                if (interval.isNegative() || interval.isZero()) {
+                    throw new IllegalArgumentException("interval: " + interval + " (expected >0)");
+                }
+                this.healthCheckInterval = interval;
+                return this;
+            }
+
+            /**
+             * Sets the maximum delay between health check attempts for an unhealthy host.
+             *
+             * @param maxInterval maximum delay between health check attempts.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> healthCheckMaxInterval(final Duration maxInterval) {
+                if (maxInterval.isNegative() || maxInterval.isZero()) {
+                    throw new IllegalArgumentException("maxInterval: " + maxInterval + " (expected >0)");
+                }
+                this.healthCheckMaxInterval = maxInterval;
+                return this;
+            }
+
+            /**
+             * Sets the number of consecutive connection failures after which a host is considered unhealthy.
+             *
+             * @param threshold number of consecutive connection failures.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> healthCheckFailedConnectionsThreshold(final int threshold) {
+                if (threshold <= 0) {
+                    throw new IllegalArgumentException("threshold: " + threshold + " (expected >0)");
+                }
+                this.healthCheckFailedConnectionsThreshold = threshold;
+                return this;
+            }
+
+            /**
+             * Sets the number of connections eagerly established to every address as soon as it becomes available.
+             * Failures to establish these connections count towards
+             * {@link #healthCheckFailedConnectionsThreshold(int)}. When a {@link #backgroundExecutor(Executor)} is
+             * provided, they are retried with the same backoff as health checks until they succeed or the address is
+             * removed, otherwise the address stops pre-warming and is counted as warm for
+             * {@link #minWarmHostsBeforeReady(int)}. Connections closed afterwards are re-established lazily on
+             * selection, like any other connection.
+             *
+             * @param minConnectionsPerHost number of connections to establish per address, {@code 0} (the default)
+             * disables pre-warming.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> minConnectionsPerHost(final int minConnectionsPerHost) {
+                if (minConnectionsPerHost < 0) {
+                    throw new IllegalArgumentException("minConnectionsPerHost: " + minConnectionsPerHost +
+                            " (expected >=0)");
+                }
+                this.minConnectionsPerHost = minConnectionsPerHost;
+                return this;
+            }
+
+            /**
+             * Defers {@link LoadBalancerReadyEvent#LOAD_BALANCER_READY_EVENT} on
+             * {@link LoadBalancer#eventStream()} until this many addresses are warm, i.e. have at least
+             * {@link #minConnectionsPerHost(int)} established connections. If fewer addresses are available, readiness
+             * is signalled once all of them are warm. When a {@link #backgroundExecutor(Executor)} is provided,
+             * readiness is signalled regardless after {@link #minWarmHostsBeforeReadyTimeout(Duration)}.
+             *
+             * @param minWarmHosts number of warm addresses required to signal readiness, {@code 0} (the default)
+             * signals readiness as soon as any address is available.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> minWarmHostsBeforeReady(final int minWarmHosts) {
+                if (minWarmHosts < 0) {
+                    throw new IllegalArgumentException("minWarmHosts: " + minWarmHosts + " (expected >=0)");
+                }
+                this.minWarmHostsBeforeReady = minWarmHosts;
+                return this;
+            }
+
+            /**
+             * Sets the maximum duration {@link LoadBalancerReadyEvent#LOAD_BALANCER_READY_EVENT} is deferred by
+             * {@link #minWarmHostsBeforeReady(int)}, measured from the first available address. It requires a
+             * {@link #backgroundExecutor(Executor)} and defaults to 30 seconds.
+             *
+             * @param timeout maximum duration to wait for warm addresses before signalling readiness.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> minWarmHostsBeforeReadyTimeout(final Duration timeout) {
+                if (timeout.isNegative() || timeout.isZero()) {
+                    throw new IllegalArgumentException("timeout: " + timeout + " (expected >0)");
+                }
+                this.minWarmHostsBeforeReadyTimeout = timeout;
+                return this;
+            }
+
+            /**
+             * Closes connections which were not selected for at least this duration, except for the
+             * {@link #minConnectionsPerHost(int)} oldest connections of every address. Connections are checked
+             * periodically, so an idle connection is closed after between one and two times {@code timeout}. It
+             * requires a {@link #backgroundExecutor(Executor)}.
+             * <p>
+             * Disabled by default, in which case idle connections are only closed by the
+             * {@link io.servicetalk.transport.api.ServiceTalkSocketOptions#IDLE_TIMEOUT} socket option of the
+             * transport, which is not set by default either.
+             *
+             * @param timeout duration after which a connection which was not selected is closed.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> idleConnectionTimeout(final Duration timeout) {
+                if (timeout.isNegative() || timeout.isZero()) {
+                    throw new IllegalArgumentException("timeout: " + timeout + " (expected >0)");
+                }
+                this.idleConnectionTimeout = timeout;
+                return this;
+            }
+
+            /**
+             * Builds a new {@link RoundRobinLoadBalancerFactory}.
+             *
+             * @return a new {@link RoundRobinLoadBalancerFactory}.
+             */
+            public RoundRobinLoadBalancerFactory<ResolvedAddress, C> build() {
+                if (healthCheckMaxInterval.compareTo(healthCheckInterval) < 0) {
+                    throw new IllegalArgumentException("healthCheckMaxInterval: " + healthCheckMaxInterval +
+                            " (expected >= healthCheckInterval: " + healthCheckInterval + ")");
+                }
+                if (idleConnectionTimeout != null && backgroundExecutor == null) {
+                    throw new IllegalArgumentException("idleConnectionTimeout: " + idleConnectionTimeout +
+                            " (requires a backgroundExecutor)");
+                }
+                return new RoundRobinLoadBalancerFactory<>(backgroundExecutor == null ? null :
+                        new HealthCheckConfig(backgroundExecutor, healthCheckInterval, healthCheckMaxInterval,
+                                healthCheckFailedConnectionsThreshold), minConnectionsPerHost,
+                        minWarmHostsBeforeReady, minWarmHostsBeforeReadyTimeout.toNanos(),
+                        idleConnectionTimeout == null ? 0 : idleConnectionTimeout.toNanos());
+            }
+        }
+    }
+
+    static final class HealthCheckConfig {
+        final Executor executor;
+        final long intervalNanos;
+        final long maxIntervalNanos;
+        final int failedThreshold;
+
+        HealthCheckConfig(final Executor executor, final Duration interval, final Duration maxInterval,
+                          final int failedThreshold) {
+            this.executor = executor;
+            this.intervalNanos = interval.toNanos();
+            this.maxIntervalNanos = maxInterval.toNanos();
+            this.failedThreshold = failedThreshold;
+        }
+
+        /**
+         * Exponential backoff capped at {@link #maxIntervalNanos}, with jitter so that clients do not probe a
+         * recovering host in lockstep.
+         */
+        long delayNanos(final int attempt) {
+            final long delay = attempt >= Long.SIZE - 1 || intervalNanos > (maxIntervalNanos >>> attempt) ?
+                    maxIntervalNanos : intervalNanos << attempt;
+            return ThreadLocalRandom.current().nextLong(delay / 2, delay + 1);
         }
     }
 
@@ -329,102 +812,315 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
         return activeHosts.stream().map(Host::asEntry).collect(toList());
     }
 
-    private static class Host<Addr, C extends ListenableAsyncCloseable> implements AsyncCloseable {
+    private static final class Host<Addr, C extends ListenableAsyncCloseable> extends AbstractHost<Addr, C> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Host, HealthCheck> healthCheckUpdater =
+                AtomicReferenceFieldUpdater.newUpdater(Host.class, HealthCheck.class, "healthCheck");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Host, Set> selectedConnectionsUpdater =
+                AtomicReferenceFieldUpdater.newUpdater(Host.class, Set.class, "selectedConnections");
         @SuppressWarnings("rawtypes")
-        private static final AtomicReferenceFieldUpdater<Host, List> connectionsUpdater =
-                AtomicReferenceFieldUpdater.newUpdater(Host.class, List.class, "connections");
+        private static final AtomicIntegerFieldUpdater<Host> consecutiveFailuresUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(Host.class, "consecutiveFailures");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Host> warmStateUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(Host.class, "warmState");
+        private static final int COLD = 0;
+        private static final int WARM = 1;
+        private static final int REMOVED = 2;
 
-        final Addr address;
-        private volatile List<C> connections = emptyList();
+        private final ConnectionFactory<Addr, ? extends C> connectionFactory;
+        @Nullable
+        private final HealthCheckConfig healthCheckConfig;
+        private final int minConnections;
+        private final Runnable onWarm;
+        /**
+         * Connections selected since the last {@link #closeIdleConnections()}, {@code null} if idle connections are
+         * not closed.
+         */
+        @Nullable
+        private volatile Set<C> selectedConnections;
+        @Nullable
+        private volatile HealthCheck<Addr, C> healthCheck;
+        private volatile int consecutiveFailures;
+        private volatile int warmState;
+        @Nullable
+        private volatile WarmUp<Addr, C> warmUp;
 
-        Host(Addr address) {
-            this.address = requireNonNull(address);
+        Host(Addr address, ConnectionFactory<Addr, ? extends C> connectionFactory,
+             @Nullable HealthCheckConfig healthCheckConfig, int minConnections, boolean closeIdleConnections,
+             Runnable onWarm) {
+            super(address);
+            this.connectionFactory = connectionFactory;
+            this.healthCheckConfig = healthCheckConfig;
+            this.minConnections = minConnections;
+            this.selectedConnections = closeIdleConnections ? newKeySet() : null;
+            this.onWarm = onWarm;
         }
 
-        void markInactive() {
+        C selected(C connection) {
+            final Set<C> selectedConnections = this.selectedConnections;
+            // Avoid a write for connections which were already selected in this period, the common case.
+            if (selectedConnections != null && !selectedConnections.contains(connection)) {
+                selectedConnections.add(connection);
+            }
+            return connection;
+        }
+
+        void closeIdleConnections() {
+            // Selections made while the connections are checked go to the new set and count for the next period,
+            // clearing the set afterwards would lose them.
             @SuppressWarnings("unchecked")
-            final List<C> toRemove = connectionsUpdater.getAndSet(this, CLOSED_LIST);
-            for (C conn : toRemove) {
-                conn.closeAsyncGracefully().subscribe();
+            final Set<C> selectedConnections = selectedConnectionsUpdater.getAndSet(this, newKeySet());
+            assert selectedConnections != null;
+            final List<C> connections = this.connections;
+            // The oldest connections are preferred by selection and kept for the minimum number of connections.
+            for (int i = minConnections; i < connections.size(); ++i) {
+                final C connection = connections.get(i);
+                // A connection selected before the period may still be processing a long running request.
+                if (!selectedConnections.contains(connection) && !hasPendingRequests(connection)) {
+                    LOGGER.debug("Host {} closing idle connection {}.", this, connection);
+                    connection.closeAsyncGracefully().subscribe();
+                }
             }
         }
 
-        boolean isInactive() {
-            return connections == CLOSED_LIST;
+        /**
+         * Marks this host as removed from the load balancer.
+         *
+         * @return {@code true} if this host was warm.
+         */
+        boolean markRemoved() {
+            markInactive();
+            return warmStateUpdater.getAndSet(this, REMOVED) == WARM;
         }
 
-        boolean addConnection(C connection) {
-            for (;;) {
-                List<C> existing = this.connections;
-                if (existing == CLOSED_LIST) {
-                    return false;
-                }
-                ArrayList<C> connectionAdded = new ArrayList<>(existing);
-                connectionAdded.add(connection);
-                if (connectionsUpdater.compareAndSet(this, existing, connectionAdded)) {
-                    break;
-                }
+        @Override
+        void onInactive() {
+            cancelHealthCheck();
+            cancelWarmUp();
+        }
+
+        @Override
+        void onConnectionAdded(final C connection, final List<C> connections) {
+            selected(connection);
+            if (connections.size() >= minConnections && warmState == COLD) {
+                markWarm();
             }
+        }
 
-            // Instrument the new connection so we prune it on close
-            connection.onClose().beforeFinally(() -> {
-                for (;;) {
-                    final List<C> existing = connections;
-                    if (existing == CLOSED_LIST) {
-                        break;
-                    }
-                    ArrayList<C> connectionRemoved = new ArrayList<>(existing);
-                    if (!connectionRemoved.remove(connection) ||
-                            connectionsUpdater.compareAndSet(this, existing, connectionRemoved)) {
-                        break;
-                    }
-                }
-            }).subscribe();
-            return true;
+        void warmUp() {
+            if (minConnections == 0) {
+                markWarm();
+                return;
+            }
+            final WarmUp<Addr, C> newWarmUp = new WarmUp<>(this, minConnections - connections.size());
+            warmUp = newWarmUp;
+            newWarmUp.start();
+            // The host may have been closed concurrently, before it could see the warm-up.
+            if (isInactive()) {
+                cancelWarmUp();
+            }
         }
 
-        // Used for testing only
-        Entry<Addr, List<C>> asEntry() {
-            return new SimpleImmutableEntry<>(address, new ArrayList<>(connections));
+        /**
+         * Invoked when pre-warming can not be retried. The host is counted as warm anyway so that it does not block
+         * readiness forever, it will be connected lazily on selection.
+         */
+        void onWarmUpAbandoned() {
+            if (warmState == COLD) {
+                LOGGER.debug("Host {} failed to pre-warm connections, counting it as warm.", this);
+                markWarm();
+            }
         }
 
-        @Override
-        public Completable closeAsync() {
-            return doClose(AsyncCloseable::closeAsync);
+        private void cancelWarmUp() {
+            final WarmUp<Addr, C> current = warmUp;
+            if (current != null) {
+                current.cancel();
+            }
         }
 
-        @Override
-        public Completable closeAsyncGracefully() {
-            return doClose(AsyncCloseable::closeAsyncGracefully);
+        private void markWarm() {
+            if (warmStateUpdater.compareAndSet(this, COLD, WARM)) {
+                onWarm.run();
+            }
         }
 
-        @SuppressWarnings("unchecked")
-        private Completable doClose(final Function<? super C, Completable> closeFunction) {
-            return defer(() -> succeeded((List<C>) connectionsUpdater.getAndSet(this, CLOSED_LIST)))
-                    .flatMapCompletable(list -> mergeAllDelayError(list.stream().map(closeFunction)::iterator));
+        boolean isHealthy() {
+            return healthCheck == null;
+        }
+
+        void onConnectSuccess() {
+            if (consecutiveFailures != 0) {
+                consecutiveFailuresUpdater.set(this, 0);
+            }
+        }
+
+        void onConnectFailure(Throwable cause) {
+            if (healthCheckConfig == null) {
+                return;
+            }
+            final int failures = consecutiveFailuresUpdater.incrementAndGet(this);
+            if (failures >= healthCheckConfig.failedThreshold && healthCheck == null && !isInactive()) {
+                final HealthCheck<Addr, C> newHealthCheck = new HealthCheck<>(this, healthCheckConfig);
+                if (healthCheckUpdater.compareAndSet(this, null, newHealthCheck)) {
+                    LOGGER.info("Host {} failed to establish {} consecutive connections, last failure: {}. " +
+                            "Marking it unhealthy until a background health check succeeds.", this, failures,
+                            cause.toString());
+                    newHealthCheck.schedule();
+                }
+            }
+        }
+
+        void onHealthCheckSuccess(HealthCheck<Addr, C> healthCheck, C connection) {
+            consecutiveFailuresUpdater.set(this, 0);
+            if (healthCheckUpdater.compareAndSet(this, healthCheck, null)) {
+                LOGGER.info("Host {} health check succeeded, marking it healthy.", this);
+            }
+            // The probe connection is as good as any other, keep it rather than paying for another connect.
+            if (!addConnection(connection)) {
+                connection.closeAsync().subscribe();
+            }
+        }
+
+        private void cancelHealthCheck() {
+            @SuppressWarnings("unchecked")
+            final HealthCheck<Addr, C> current = healthCheckUpdater.getAndSet(this, null);
+            if (current != null) {
+                current.cancel();
+            }
         }
 
         @Override
         public String toString() {
             return "Host{" +
                     "address=" + address +
-                    ", removed=" + (connections == CLOSED_LIST) +
+                    ", removed=" + isInactive() +
+                    ", healthy=" + (healthCheck == null) +
+                    ", warm=" + (warmState == WARM) +
                     '}';
         }
     }
 
-    private static final class StacklessNoAvailableHostException extends NoAvailableHostException {
-        private StacklessNoAvailableHostException(final String message) {
-            super(message);
+    private static final class HealthCheck<Addr, C extends ListenableAsyncCloseable> implements Cancellable {
+        private final Host<Addr, C> host;
+        private final HealthCheckConfig config;
+        private final SequentialCancellable cancellable = new SequentialCancellable();
+        private volatile boolean cancelled;
+        /**
+         * Only accessed from {@link #schedule()} which is never invoked concurrently, attempts are sequential.
+         */
+        private int attempts;
+
+        HealthCheck(final Host<Addr, C> host, final HealthCheckConfig config) {
+            this.host = host;
+            this.config = config;
+        }
+
+        void schedule() {
+            final long delayNanos = config.delayNanos(attempts++);
+            toSource(config.executor.timer(delayNanos, NANOSECONDS)
+                    .<C>concat(defer(() -> host.connectionFactory.newConnection(host.address))))
+                    .subscribe(new SingleSource.Subscriber<C>() {
+                        @Override
+                        public void onSubscribe(final Cancellable c) {
+                            cancellable.nextCancellable(c);
+                        }
+
+                        @Override
+                        public void onSuccess(@Nullable final C connection) {
+                            assert connection != null;
+                            host.onHealthCheckSuccess(HealthCheck.this, connection);
+                        }
+
+                        @Override
+                        public void onError(final Throwable t) {
+                            if (cancelled || host.isInactive()) {
+                                return;
+                            }
+                            LOGGER.debug("Health check attempt {} for host {} failed.", attempts, host, t);
+                            schedule();
+                        }
+                    });
         }
 
         @Override
-        public Throwable fillInStackTrace() {
-            return this;
+        public void cancel() {
+            cancelled = true;
+            cancellable.cancel();
+        }
+    }
+
+    /**
+     * Establishes the pre-warmed connections of a {@link Host}. Failed connects are retried with the health check
+     * backoff when a {@link HealthCheckConfig} is available, otherwise the warm-up is abandoned.
+     */
+    private static final class WarmUp<Addr, C extends ListenableAsyncCloseable> implements Cancellable {
+        private final Host<Addr, C> host;
+        private final SequentialCancellable[] connects;
+        private volatile boolean cancelled;
+
+        WarmUp(final Host<Addr, C> host, final int connections) {
+            this.host = host;
+            this.connects = new SequentialCancellable[connections];
+            for (int i = 0; i < connections; ++i) {
+                connects[i] = new SequentialCancellable();
+            }
+        }
+
+        void start() {
+            for (int i = 0; i < connects.length; ++i) {
+                connect(i, 0);
+            }
+        }
+
+        /**
+         * Attempts for a slot are sequential, a retry is only scheduled after the previous attempt failed.
+         */
+        private void connect(final int slot, final int attempt) {
+            final HealthCheckConfig config = host.healthCheckConfig;
+            final Single<C> newConnection = defer(() -> host.connectionFactory.newConnection(host.address));
+            toSource(attempt == 0 || config == null ? newConnection :
+                    config.executor.timer(config.delayNanos(attempt - 1), NANOSECONDS).concat(newConnection))
+                    .subscribe(new SingleSource.Subscriber<C>() {
+                        @Override
+                        public void onSubscribe(final Cancellable c) {
+                            connects[slot].nextCancellable(c);
+                        }
+
+                        @Override
+                        public void onSuccess(@Nullable final C connection) {
+                            assert connection != null;
+                            host.onConnectSuccess();
+                            if (!host.addConnection(connection)) {
+                                connection.closeAsync().subscribe();
+                            }
+                        }
+
+                        @Override
+                        public void onError(final Throwable t) {
+                            if (cancelled || host.isInactive()) {
+                                return;
+                            }
+                            LOGGER.debug("Host {} failed to establish a pre-warmed connection (attempt {}).", host,
+                                    attempt + 1, t);
+                            host.onConnectFailure(t);
+                            if (config == null) {
+                                host.onWarmUpAbandoned();
+                            } else {
+                                connect(slot, attempt + 1);
+                            }
+                        }
+                    });
         }
 
-        public static StacklessNoAvailableHostException newInstance(String message, Class<?> clazz, String method) {
-            return ThrowableUtils.unknownStackTrace(new StacklessNoAvailableHostException(message), clazz, method);
+        @Override
+        public void cancel() {
+            cancelled = true;
+            for (SequentialCancellable connect : connects) {
+                connect.cancel();
+            }
         }
     }
 
@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.NoAvailableHostException;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.client.api.internal.RequestTracker;
+import io.servicetalk.client.api.internal.RequestTrackerAware;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestPublisher;
+import io.servicetalk.concurrent.api.TestSubscription;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static io.servicetalk.concurrent.api.AsyncCloseables.emptyAsyncCloseable;
+import static io.servicetalk.concurrent.api.BlockingTestUtils.awaitIndefinitely;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class P2CLoadBalancerTest {
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final List<TestLoadBalancedConnection> connectionsCreated = new CopyOnWriteArrayList<>();
+    private final Map<String, RequestTracker> trackers = new ConcurrentHashMap<>();
+    private final TestPublisher<ServiceDiscovererEvent<String>> serviceDiscoveryPublisher = new TestPublisher<>();
+    private P2CLoadBalancer<String, TestLoadBalancedConnection> lb;
+    private TestConnectionFactory connectionFactory;
+
+    private static <T> Predicate<T> any() {
+        return __ -> true;
+    }
+
+    @Before
+    public void initialize() {
+        connectionFactory = new TestConnectionFactory();
+        lb = new P2CLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory);
+    }
+
+    @After
+    public void closeLoadBalancer() throws Exception {
+        awaitIndefinitely(lb.closeAsync());
+        awaitIndefinitely(lb.onClose());
+
+        TestSubscription subscription = new TestSubscription();
+        serviceDiscoveryPublisher.onSubscribe(subscription);
+        assertTrue(subscription.isCancelled());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void handleDiscoveryEvents() {
+        assertThat(lb.activeAddresses(), is(empty()));
+
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        sendServiceDiscoveryEvents(upEvent("address-2"));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-1"))).and(hasProperty("value", is(empty()))),
+                both(hasProperty("key", is("address-2"))).and(hasProperty("value", is(empty())))));
+
+        sendServiceDiscoveryEvents(downEvent("address-1"));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-2"))).and(hasProperty("value", is(empty())))));
+
+        sendServiceDiscoveryEvents(downEvent("address-2"));
+        assertThat(lb.activeAddresses(), is(empty()));
+    }
+
+    @Test
+    public void noServiceDiscoveryEvent() throws Exception {
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(NoAvailableHostException.class)));
+        }
+        assertThat(connectionsCreated, is(empty()));
+    }
+
+    @Test
+    public void existingConnectionIsReused() throws Exception {
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        TestLoadBalancedConnection first = awaitIndefinitely(lb.selectConnection(any()));
+        TestLoadBalancedConnection second = awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(second, is(first));
+        assertThat(connectionsCreated, hasSize(1));
+    }
+
+    @Test
+    public void prefersHostWithLowerLatency() throws Exception {
+        connectBothHosts();
+        recordLatency("address-1", MILLISECONDS.toNanos(100));
+        recordLatency("address-2", MILLISECONDS.toNanos(1));
+
+        for (int i = 0; i < 10; ++i) {
+            assertThat(selectAddress(), is("address-2"));
+        }
+    }
+
+    @Test
+    public void prefersHostWithFewerOutstandingRequests() throws Exception {
+        connectBothHosts();
+        recordLatency("address-1", MILLISECONDS.toNanos(10));
+        recordLatency("address-2", MILLISECONDS.toNanos(10));
+        trackers.get("address-1").beforeRequestStart();
+        trackers.get("address-1").beforeRequestStart();
+
+        for (int i = 0; i < 10; ++i) {
+            assertThat(selectAddress(), is("address-2"));
+        }
+    }
+
+    @Test
+    public void hostWithoutSamplesIsScoredNeutrally() throws Exception {
+        connectBothHosts();
+        recordLatency("address-1", MILLISECONDS.toNanos(10));
+        // address-2 has no latency samples yet, it is not preferred regardless of its outstanding requests.
+        trackers.get("address-2").beforeRequestStart();
+
+        for (int i = 0; i < 10; ++i) {
+            assertThat(selectAddress(), is("address-1"));
+        }
+    }
+
+    @Test
+    public void failedRequestsArePenalized() throws Exception {
+        connectBothHosts();
+        recordLatency("address-1", MILLISECONDS.toNanos(10));
+        final RequestTracker tracker = trackers.get("address-2");
+        tracker.onRequestError(tracker.beforeRequestStart() - MILLISECONDS.toNanos(6));
+
+        for (int i = 0; i < 10; ++i) {
+            assertThat(selectAddress(), is("address-1"));
+        }
+    }
+
+    private void connectBothHosts() throws Exception {
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        sendServiceDiscoveryEvents(upEvent("address-2"));
+        // Hosts without samples are scored alike, the connect latency breaks the tie in favour of the new host.
+        awaitIndefinitely(lb.selectConnection(any()));
+        awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(connectionsCreated, hasSize(2));
+        assertThat(trackers.keySet(), containsInAnyOrder("address-1", "address-2"));
+    }
+
+    private void recordLatency(final String address, final long latencyNanos) {
+        final RequestTracker tracker = trackers.get(address);
+        tracker.onRequestSuccess(tracker.beforeRequestStart() - latencyNanos);
+    }
+
+    private String selectAddress() throws Exception {
+        final TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+        assert connection != null;
+        return connection.address();
+    }
+
+    @Test
+    public void closeClosesConnectionFactory() throws Exception {
+        awaitIndefinitely(lb.closeAsync());
+        assertTrue("ConnectionFactory not closed.", connectionFactory.isClosed());
+    }
+
+    @Test
+    public void earlyFailsAfterClose() throws Exception {
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        awaitIndefinitely(lb.closeAsync());
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+        }
+        assertThat(connectionsCreated, is(empty()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sendServiceDiscoveryEvents(final ServiceDiscovererEvent... events) {
+        serviceDiscoveryPublisher.onNext((ServiceDiscovererEvent<String>[]) events);
+    }
+
+    private static ServiceDiscovererEvent upEvent(final String address) {
+        return new DefaultServiceDiscovererEvent<>(address, true);
+    }
+
+    private static ServiceDiscovererEvent downEvent(final String address) {
+        return new DefaultServiceDiscovererEvent<>(address, false);
+    }
+
+    private TestLoadBalancedConnection newConnection(final String address) {
+        final TrackingTestLoadBalancedConnection cnx = mock(TrackingTestLoadBalancedConnection.class);
+        final ListenableAsyncCloseable closeable = emptyAsyncCloseable();
+        when(cnx.closeAsync()).thenReturn(closeable.closeAsync());
+        when(cnx.closeAsyncGracefully()).thenReturn(closeable.closeAsyncGracefully());
+        when(cnx.onClose()).thenReturn(closeable.onClose());
+        when(cnx.address()).thenReturn(address);
+        doAnswer(invocation -> trackers.put(address, invocation.getArgument(0)))
+                .when(cnx).requestTracker(isA(RequestTracker.class));
+        when(cnx.toString()).thenReturn(address + '@' + cnx.hashCode());
+
+        connectionsCreated.add(cnx);
+        return cnx;
+    }
+
+    private interface TestLoadBalancedConnection extends ListenableAsyncCloseable, LoadBalancedConnection {
+        String address();
+    }
+
+    private interface TrackingTestLoadBalancedConnection extends TestLoadBalancedConnection, RequestTrackerAware {
+    }
+
+    private final class TestConnectionFactory implements ConnectionFactory<String, TestLoadBalancedConnection> {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public Single<TestLoadBalancedConnection> newConnection(String address) {
+            return succeeded(P2CLoadBalancerTest.this.newConnection(address));
+        }
+
+        @Override
+        public Completable onClose() {
+            return Completable.completed();
+        }
+
+        @Override
+        public Completable closeAsync() {
+            return Completable.completed().beforeOnSubscribe(cancellable -> closed.set(true));
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+    }
+}
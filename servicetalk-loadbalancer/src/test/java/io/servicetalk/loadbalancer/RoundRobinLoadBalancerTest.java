@@ -22,6 +22,7 @@ import io.servicetalk.client.api.LoadBalancedConnection;
 import io.servicetalk.client.api.LoadBalancerReadyEvent;
 import io.servicetalk.client.api.NoAvailableHostException;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.client.api.internal.RequestConcurrencyController;
 import io.servicetalk.concurrent.PublisherSource.Subscriber;
 import io.servicetalk.concurrent.PublisherSource.Subscription;
 import io.servicetalk.concurrent.api.Completable;
@@ -30,10 +31,12 @@ import io.servicetalk.concurrent.api.LegacyTestSingle;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestExecutor;
 import io.servicetalk.concurrent.api.TestPublisher;
 import io.servicetalk.concurrent.api.TestSubscription;
 import io.servicetalk.concurrent.internal.DeliberateException;
 import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.loadbalancer.RoundRobinLoadBalancer.RoundRobinLoadBalancerFactory;
 
 import org.junit.After;
 import org.junit.Before;
@@ -42,6 +45,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.Timeout;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -68,6 +72,7 @@ import static io.servicetalk.concurrent.api.Single.succeeded;
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
 import static io.servicetalk.concurrent.internal.DeliberateException.DELIBERATE_EXCEPTION;
 import static io.servicetalk.concurrent.internal.ServiceTalkTestTimeout.DEFAULT_TIMEOUT_SECONDS;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toSet;
@@ -76,6 +81,7 @@ import static org.hamcrest.Matchers.both;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasProperty;
@@ -83,6 +89,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -256,6 +263,37 @@ public class RoundRobinLoadBalancerTest {
         assertThat(lb.activeAddresses(), hasSize(0));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void batchOfEventsIsAppliedAtOnce() throws Exception {
+        awaitIndefinitely(lb.closeAsync());
+        final TestPublisher<List<ServiceDiscovererEvent<String>>> batchPublisher = new TestPublisher<>();
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory<String, TestLoadBalancedConnection>()
+                        .newLoadBalancerFromBatches(batchPublisher, connectionFactory);
+        final List<Boolean> readyEvents = new CopyOnWriteArrayList<>();
+        lb.eventStream().forEach(event -> {
+            if (event instanceof LoadBalancerReadyEvent) {
+                readyEvents.add(((LoadBalancerReadyEvent) event).isReady());
+            }
+        });
+
+        sendServiceDiscoveryEvents(batchPublisher, upEvent("address-1"), upEvent("address-2"), upEvent("address-1"),
+                downEvent("address-2"), downEvent("address-3"));
+        assertThat(lb.activeAddresses(), hasSize(2));
+        assertThat(lb.activeAddresses(), everyItem(hasProperty("key", is("address-1"))));
+        assertThat(readyEvents, contains(true));
+
+        sendServiceDiscoveryEvents(batchPublisher, downEvent("address-1"), upEvent("address-2"),
+                downEvent("address-1"));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-2"))).and(hasProperty("value", is(empty())))));
+
+        sendServiceDiscoveryEvents(batchPublisher, downEvent("address-2"));
+        assertThat(lb.activeAddresses(), is(empty()));
+        assertThat(readyEvents, contains(true, false));
+    }
+
     @Test
     public void noServiceDiscoveryEvent() {
         selectConnectionListener.listen(lb.selectConnection(any()));
@@ -379,6 +417,148 @@ public class RoundRobinLoadBalancerTest {
         assertThat(connectionsCreated, hasSize(1));
     }
 
+    @Test
+    public void multiplexedConnectionsAreTriedInEstablishmentOrder() throws Exception {
+        connectionFactory = new DelegatingConnectionFactory(address ->
+                succeeded(newCapacityAwareConnection(address, new AtomicInteger(10))));
+        lb = newTestLoadBalancer(connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        // Rejecting already seen connections forces the load balancer to open a new one for every selection.
+        final Set<TestLoadBalancedConnection> seen = new CopyOnWriteArraySet<>();
+        final TestLoadBalancedConnection first = awaitIndefinitely(lb.selectConnection(seen::add));
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        assertThat(connectionsCreated, hasSize(3));
+
+        for (int i = 0; i < 10; ++i) {
+            assertThat(awaitIndefinitely(lb.selectConnection(any())), is(first));
+        }
+        assertThat(connectionsCreated, hasSize(3));
+    }
+
+    @Test
+    public void otherConnectionsAreTriedFromRandomStart() throws Exception {
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        final Set<TestLoadBalancedConnection> seen = new CopyOnWriteArraySet<>();
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        assertThat(connectionsCreated, hasSize(3));
+
+        final Set<TestLoadBalancedConnection> selected = new CopyOnWriteArraySet<>();
+        for (int i = 0; i < 100; ++i) {
+            selected.add(awaitIndefinitely(lb.selectConnection(any())));
+        }
+        assertThat(selected, hasSize(3));
+        assertThat(connectionsCreated, hasSize(3));
+    }
+
+    @Test
+    public void connectionWithoutCapacityIsSkipped() throws Exception {
+        final AtomicInteger firstCapacity = new AtomicInteger(2);
+        connectionFactory = new DelegatingConnectionFactory(address -> succeeded(connectionsCreated.isEmpty() ?
+                newCapacityAwareConnection(address, firstCapacity) :
+                newCapacityAwareConnection(address, new AtomicInteger(2))));
+        lb = newTestLoadBalancer(connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        final List<TestLoadBalancedConnection> tested = new CopyOnWriteArrayList<>();
+        final Predicate<TestLoadBalancedConnection> selector = c -> {
+            tested.add(c);
+            return true;
+        };
+        final TestLoadBalancedConnection first = awaitIndefinitely(lb.selectConnection(selector));
+        assertThat(awaitIndefinitely(lb.selectConnection(selector)), is(first));
+        assertThat(connectionsCreated, hasSize(1));
+
+        // Saturate the first connection, a new connection is only created once all existing ones are saturated.
+        firstCapacity.set(0);
+        tested.clear();
+        final TestLoadBalancedConnection second = awaitIndefinitely(lb.selectConnection(selector));
+        assertThat(second, is(not(first)));
+        assertThat(connectionsCreated, hasSize(2));
+        assertThat(tested, contains(second));
+
+        // Once the first connection has capacity again, it is preferred.
+        firstCapacity.set(2);
+        assertThat(awaitIndefinitely(lb.selectConnection(selector)), is(first));
+        assertThat(connectionsCreated, hasSize(2));
+    }
+
+    @Test
+    public void idleConnectionsAreClosed() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .minConnectionsPerHost(1)
+                        .idleConnectionTimeout(Duration.ofSeconds(10))
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        final Set<TestLoadBalancedConnection> seen = new CopyOnWriteArraySet<>(connectionsCreated);
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        assertThat(connectionsCreated, hasSize(2));
+        final TestLoadBalancedConnection first = connectionsCreated.get(0);
+        final TestLoadBalancedConnection extra = connectionsCreated.get(1);
+
+        // Connections created or selected during the first period are kept.
+        testExecutor.advanceTimeBy(10, SECONDS);
+        verify(extra, times(0)).closeAsyncGracefully();
+
+        testExecutor.advanceTimeBy(10, SECONDS);
+        verify(extra).closeAsyncGracefully();
+        // The minimum number of connections is kept even when idle.
+        verify(first, times(0)).closeAsyncGracefully();
+
+        awaitIndefinitely(lb.closeAsync());
+        assertThat(testExecutor.scheduledTasksPending(), is(0));
+    }
+
+    @Test
+    public void idleConnectionsWithPendingRequestsAreKept() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        connectionFactory = new DelegatingConnectionFactory(address ->
+                succeeded(newCapacityAwareConnection(address, new AtomicInteger(1))));
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .minConnectionsPerHost(1)
+                        .idleConnectionTimeout(Duration.ofSeconds(10))
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        final Set<TestLoadBalancedConnection> seen = new CopyOnWriteArraySet<>(connectionsCreated);
+        awaitIndefinitely(lb.selectConnection(seen::add));
+        assertThat(connectionsCreated, hasSize(2));
+        final RequestConcurrencyController extra = (RequestConcurrencyController) connectionsCreated.get(1);
+        // A request selected the connection once and is still running, e.g. a long response stream.
+        when(extra.hasPendingRequests()).thenReturn(true);
+
+        testExecutor.advanceTimeBy(10, SECONDS);
+        testExecutor.advanceTimeBy(10, SECONDS);
+        verify(connectionsCreated.get(1), times(0)).closeAsyncGracefully();
+
+        when(extra.hasPendingRequests()).thenReturn(false);
+        testExecutor.advanceTimeBy(10, SECONDS);
+        verify(connectionsCreated.get(1)).closeAsyncGracefully();
+
+        awaitIndefinitely(lb.closeAsync());
+        assertThat(testExecutor.scheduledTasksPending(), is(0));
+    }
+
+    @Test
+    public void idleConnectionTimeoutRequiresBackgroundExecutor() {
+        thrown.expect(IllegalArgumentException.class);
+        new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                .idleConnectionTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
     @Test
     public void connectionFactoryErrorPropagation() throws Exception {
         serviceDiscoveryPublisher.onComplete();
@@ -438,11 +618,283 @@ public class RoundRobinLoadBalancerTest {
         verify(conn, times(0)).closeAsync();
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void unhealthyHostIsSkippedUntilHealthCheckSucceeds() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        final AtomicBoolean failConnects = new AtomicBoolean(true);
+        final AtomicInteger connectAttempts = new AtomicInteger();
+        connectionFactory = new DelegatingConnectionFactory(address -> {
+            if (!"address-1".equals(address)) {
+                return newRealizedConnectionSingle(address);
+            }
+            connectAttempts.incrementAndGet();
+            return failConnects.get() ? failed(DELIBERATE_EXCEPTION) : newRealizedConnectionSingle(address);
+        });
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .healthCheckFailedConnectionsThreshold(2)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        sendServiceDiscoveryEvents(upEvent("address-2"));
+
+        // Round robin alternates between the hosts, address-1 fails twice and becomes unhealthy.
+        for (int i = 0; i < 4; ++i) {
+            try {
+                TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+                assert connection != null;
+                assertThat(connection.address(), is("address-2"));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(DELIBERATE_EXCEPTION));
+            }
+        }
+        assertThat(connectAttempts.get(), is(2));
+        assertThat(testExecutor.scheduledTasksPending(), is(1));
+
+        // Unhealthy hosts are skipped without attempting to connect.
+        for (int i = 0; i < 4; ++i) {
+            TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+            assert connection != null;
+            assertThat(connection.address(), is("address-2"));
+        }
+        assertThat(connectAttempts.get(), is(2));
+
+        // A failed health check is rescheduled.
+        testExecutor.advanceTimeBy(1, SECONDS);
+        assertThat(connectAttempts.get(), is(3));
+        assertThat(testExecutor.scheduledTasksPending(), is(1));
+
+        failConnects.set(false);
+        testExecutor.advanceTimeBy(2, SECONDS);
+        assertThat(connectAttempts.get(), is(4));
+        assertThat(testExecutor.scheduledTasksPending(), is(0));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-1"))).and(hasProperty("value", hasSize(1))),
+                both(hasProperty("key", is("address-2"))).and(hasProperty("value", hasSize(1)))));
+    }
+
+    @Test
+    public void healthCheckIsCancelledWhenHostIsRemoved() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        connectionFactory = new DelegatingConnectionFactory(__ -> failed(DELIBERATE_EXCEPTION));
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .healthCheckFailedConnectionsThreshold(1)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(DELIBERATE_EXCEPTION));
+        }
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(NoAvailableHostException.class)));
+        }
+        assertThat(testExecutor.scheduledTasksPending(), is(1));
+
+        sendServiceDiscoveryEvents(downEvent("address-1"));
+        assertThat(testExecutor.scheduledTasksPending(), is(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void minConnectionsArePreWarmedWhenHostBecomesAvailable() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .minConnectionsPerHost(2)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(connectionsCreated, hasSize(2));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-1"))).and(hasProperty("value", hasSize(2)))));
+
+        // Selection reuses the pre-warmed connections.
+        TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(connectionsCreated, hasItems(connection));
+        assertThat(connectionsCreated, hasSize(2));
+    }
+
+    @Test
+    public void readyEventIsDeferredUntilMinWarmHosts() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        connectionFactory = new DelegatingConnectionFactory(this::newUnrealizedConnectionSingle);
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .minConnectionsPerHost(1)
+                        .minWarmHostsBeforeReady(2)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        final List<Boolean> readyEvents = new CopyOnWriteArrayList<>();
+        lb.eventStream().forEach(event -> {
+            if (event instanceof LoadBalancerReadyEvent) {
+                readyEvents.add(((LoadBalancerReadyEvent) event).isReady());
+            }
+        });
+
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+        assertThat(connectionRealizers, hasSize(2));
+        assertThat(readyEvents, is(empty()));
+
+        connectionRealizers.poll().run();
+        assertThat(readyEvents, is(empty()));
+
+        connectionRealizers.poll().run();
+        assertThat(readyEvents, contains(true));
+
+        sendServiceDiscoveryEvents(downEvent("address-1"), downEvent("address-2"));
+        assertThat(readyEvents, contains(true, false));
+    }
+
+    @Test
+    public void readyEventWhenFewerHostsThanMinWarmHosts() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .minConnectionsPerHost(1)
+                        .minWarmHostsBeforeReady(3)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        final List<Boolean> readyEvents = readyEvents();
+
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+        assertThat(connectionsCreated, hasSize(2));
+        assertThat(readyEvents, contains(true));
+    }
+
+    @Test
+    public void failedWarmUpConnectsAreRetried() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        final AtomicBoolean failConnects = new AtomicBoolean(true);
+        connectionFactory = new DelegatingConnectionFactory(address ->
+                failConnects.get() ? failed(DELIBERATE_EXCEPTION) : newRealizedConnectionSingle(address));
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .minConnectionsPerHost(1)
+                        .minWarmHostsBeforeReady(1)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        final List<Boolean> readyEvents = readyEvents();
+
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(readyEvents, is(empty()));
+        // The retry and the readiness timeout.
+        assertThat(testExecutor.scheduledTasksPending(), is(2));
+
+        failConnects.set(false);
+        testExecutor.advanceTimeBy(1, SECONDS);
+        assertThat(connectionsCreated, hasSize(1));
+        assertThat(readyEvents, contains(true));
+        assertThat(testExecutor.scheduledTasksPending(), is(0));
+    }
+
+    @Test
+    public void failedWarmUpIsCountedWithoutBackgroundExecutor() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        connectionFactory = new DelegatingConnectionFactory(__ -> failed(DELIBERATE_EXCEPTION));
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .minConnectionsPerHost(1)
+                        .minWarmHostsBeforeReady(1)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        final List<Boolean> readyEvents = readyEvents();
+
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(readyEvents, contains(true));
+    }
+
+    @Test
+    public void readyEventAfterMinWarmHostsTimeout() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        connectionFactory = new DelegatingConnectionFactory(this::newUnrealizedConnectionSingle);
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .minConnectionsPerHost(1)
+                        .minWarmHostsBeforeReady(1)
+                        .minWarmHostsBeforeReadyTimeout(Duration.ofSeconds(5))
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+        final List<Boolean> readyEvents = readyEvents();
+
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        testExecutor.advanceTimeBy(4, SECONDS);
+        assertThat(readyEvents, is(empty()));
+
+        testExecutor.advanceTimeBy(1, SECONDS);
+        assertThat(readyEvents, contains(true));
+
+        // A late warm host does not signal readiness twice.
+        connectionRealizers.poll().run();
+        assertThat(readyEvents, contains(true));
+    }
+
+    @Test
+    public void warmUpIsCancelledOnClose() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+
+        final TestExecutor testExecutor = new TestExecutor();
+        connectionFactory = new DelegatingConnectionFactory(__ -> failed(DELIBERATE_EXCEPTION));
+        lb = (RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                        .backgroundExecutor(testExecutor)
+                        .minConnectionsPerHost(2)
+                        .minWarmHostsBeforeReady(1)
+                        .build()
+                        .newLoadBalancer(serviceDiscoveryPublisher, connectionFactory);
+
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        // Two retries and the readiness timeout.
+        assertThat(testExecutor.scheduledTasksPending(), is(3));
+
+        awaitIndefinitely(lb.closeAsync());
+        assertThat(testExecutor.scheduledTasksPending(), is(0));
+    }
+
+    private List<Boolean> readyEvents() {
+        final List<Boolean> readyEvents = new CopyOnWriteArrayList<>();
+        lb.eventStream().forEach(event -> {
+            if (event instanceof LoadBalancerReadyEvent) {
+                readyEvents.add(((LoadBalancerReadyEvent) event).isReady());
+            }
+        });
+        return readyEvents;
+    }
+
     @SuppressWarnings("unchecked")
     private void sendServiceDiscoveryEvents(final ServiceDiscovererEvent... events) {
         serviceDiscoveryPublisher.onNext((ServiceDiscovererEvent<String>[]) events);
     }
 
+    @SuppressWarnings("unchecked")
+    private static void sendServiceDiscoveryEvents(final TestPublisher<List<ServiceDiscovererEvent<String>>> publisher,
+                                                   final ServiceDiscovererEvent... events) {
+        publisher.onNext(asList((ServiceDiscovererEvent<String>[]) events));
+    }
+
     private static ServiceDiscovererEvent upEvent(final String address) {
         return new DefaultServiceDiscovererEvent<>(address, true);
     }
@@ -480,6 +932,21 @@ public class RoundRobinLoadBalancerTest {
         return cnx;
     }
 
+    private TestLoadBalancedConnection newCapacityAwareConnection(final String address,
+                                                                  final AtomicInteger capacity) {
+        final CapacityAwareTestLoadBalancedConnection cnx = mock(CapacityAwareTestLoadBalancedConnection.class);
+        final ListenableAsyncCloseable closeable = emptyAsyncCloseable();
+        when(cnx.closeAsync()).thenReturn(closeable.closeAsync());
+        when(cnx.closeAsyncGracefully()).thenReturn(closeable.closeAsyncGracefully());
+        when(cnx.onClose()).thenReturn(closeable.onClose());
+        when(cnx.address()).thenReturn(address);
+        when(cnx.availableCapacity()).thenAnswer(__ -> capacity.get());
+        when(cnx.toString()).thenReturn(address + '@' + cnx.hashCode());
+
+        connectionsCreated.add(cnx);
+        return cnx;
+    }
+
     private static Predicate<TestLoadBalancedConnection> newSaturableConnectionFilter() {
         final AtomicInteger selectConnectionCount = new AtomicInteger();
         final Set<TestLoadBalancedConnection> saturatedConnections = new CopyOnWriteArraySet<>();
@@ -498,6 +965,10 @@ public class RoundRobinLoadBalancerTest {
         String address();
     }
 
+    private interface CapacityAwareTestLoadBalancedConnection extends TestLoadBalancedConnection,
+                                                                      RequestConcurrencyController {
+    }
+
     private static class DelegatingConnectionFactory implements ConnectionFactory<String, TestLoadBalancedConnection> {
 
         private final Function<String, Single<TestLoadBalancedConnection>> connectionFactory;
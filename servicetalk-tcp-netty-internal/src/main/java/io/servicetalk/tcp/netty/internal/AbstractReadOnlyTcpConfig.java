@@ -16,6 +16,8 @@
 package io.servicetalk.tcp.netty.internal;
 
 import io.servicetalk.transport.api.ServiceTalkSocketOptions;
+import io.servicetalk.transport.api.TransportObserver;
+import io.servicetalk.transport.netty.internal.ConnectionObserverInitializer;
 import io.servicetalk.transport.netty.internal.FlushStrategy;
 import io.servicetalk.transport.netty.internal.WireLoggingInitializer;
 
@@ -44,6 +46,8 @@ abstract class AbstractReadOnlyTcpConfig<SecurityConfig, ReadOnlyView> {
     private final FlushStrategy flushStrategy;
     @Nullable
     private final WireLoggingInitializer wireLoggingInitializer;
+    @Nullable
+    private final ConnectionObserverInitializer connectionObserverInitializer;
     private boolean alpnConfigured;
 
     protected AbstractReadOnlyTcpConfig(final AbstractTcpConfig<SecurityConfig, ReadOnlyView> from,
@@ -53,6 +57,9 @@ abstract class AbstractReadOnlyTcpConfig<SecurityConfig, ReadOnlyView> {
         flushStrategy = from.flushStrategy();
         final String wireLoggerName = from.wireLoggerName();
         wireLoggingInitializer = wireLoggerName != null ? new WireLoggingInitializer(wireLoggerName) : null;
+        final TransportObserver transportObserver = from.transportObserver();
+        connectionObserverInitializer = transportObserver != null ?
+                new ConnectionObserverInitializer(transportObserver) : null;
         this.alpnConfigured = alpnConfigured;
     }
 
@@ -95,6 +102,16 @@ abstract class AbstractReadOnlyTcpConfig<SecurityConfig, ReadOnlyView> {
         return wireLoggingInitializer;
     }
 
+    /**
+     * Returns the {@link ConnectionObserverInitializer} if a {@link TransportObserver} is configured.
+     *
+     * @return {@link ConnectionObserverInitializer} if any
+     */
+    @Nullable
+    public final ConnectionObserverInitializer connectionObserverInitializer() {
+        return connectionObserverInitializer;
+    }
+
     /**
      * Returns {@code true} if the <a href="https://tools.ietf.org/html/rfc7301#section-6">TLS ALPN Extension</a> is
      * configured.
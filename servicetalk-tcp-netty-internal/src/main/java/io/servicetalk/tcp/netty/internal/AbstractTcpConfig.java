@@ -16,6 +16,7 @@
 package io.servicetalk.tcp.netty.internal;
 
 import io.servicetalk.transport.api.ServiceTalkSocketOptions;
+import io.servicetalk.transport.api.TransportObserver;
 import io.servicetalk.transport.netty.internal.FlushStrategy;
 import io.servicetalk.transport.netty.internal.ReadOnlyServerSecurityConfig;
 
@@ -49,6 +50,8 @@ abstract class AbstractTcpConfig<SecurityConfig, ReadOnlyView> {
     @Nullable
     private String wireLoggerName;
     @Nullable
+    private TransportObserver transportObserver;
+    @Nullable
     private SecurityConfig securityConfig;
 
     protected AbstractTcpConfig() {
@@ -59,6 +62,7 @@ abstract class AbstractTcpConfig<SecurityConfig, ReadOnlyView> {
         idleTimeoutMs = from.idleTimeoutMs;
         flushStrategy = from.flushStrategy;
         wireLoggerName = from.wireLoggerName;
+        transportObserver = from.transportObserver;
         securityConfig = from.securityConfig;
     }
 
@@ -82,6 +86,11 @@ abstract class AbstractTcpConfig<SecurityConfig, ReadOnlyView> {
         return wireLoggerName;
     }
 
+    @Nullable
+    final TransportObserver transportObserver() {
+        return transportObserver;
+    }
+
     @Nullable
     final SecurityConfig securityConfig() {
         return securityConfig;
@@ -128,6 +137,16 @@ abstract class AbstractTcpConfig<SecurityConfig, ReadOnlyView> {
         wireLoggerName = requireNonNull(loggerName);
     }
 
+    /**
+     * Sets a {@link TransportObserver} that provides visibility into transport events of all connections.
+     *
+     * @param transportObserver a {@link TransportObserver} that provides visibility into transport events of all
+     * connections
+     */
+    public final void transportObserver(final TransportObserver transportObserver) {
+        this.transportObserver = requireNonNull(transportObserver);
+    }
+
     /**
      * Add security related config.
      *
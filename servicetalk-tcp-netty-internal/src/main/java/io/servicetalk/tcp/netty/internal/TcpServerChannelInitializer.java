@@ -16,6 +16,7 @@
 package io.servicetalk.tcp.netty.internal;
 
 import io.servicetalk.transport.netty.internal.ChannelInitializer;
+import io.servicetalk.transport.netty.internal.ConnectionObserverInitializer;
 import io.servicetalk.transport.netty.internal.IdleTimeoutInitializer;
 import io.servicetalk.transport.netty.internal.SslServerChannelInitializer;
 import io.servicetalk.transport.netty.internal.WireLoggingInitializer;
@@ -51,6 +52,12 @@ public class TcpServerChannelInitializer implements ChannelInitializer {
         if (wireLoggingInitializer != null) {
             delegate = delegate.andThen(wireLoggingInitializer);
         }
+
+        // Must be the last transport initializer to see if TLS is configured, it adds its handler first.
+        final ConnectionObserverInitializer connectionObserverInitializer = config.connectionObserverInitializer();
+        if (connectionObserverInitializer != null) {
+            delegate = delegate.andThen(connectionObserverInitializer);
+        }
         this.delegate = delegate;
     }
 
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.transport.api;
+
+import javax.net.ssl.SSLSession;
+
+/**
+ * An observer interface that provides visibility into the transport events of all connections created by a client or
+ * server.
+ * <p>
+ * All callbacks are invoked from the IO thread of the associated connection. Implementations must not block and are
+ * expected to be cheap, because they sit on the hot path of every read and write.
+ */
+public interface TransportObserver {
+
+    /**
+     * Notifies that a new connection has been initialized.
+     * <p>
+     * For clients this happens before the connect attempt starts, for servers this happens after a new connection has
+     * been accepted.
+     *
+     * @return {@link ConnectionObserver} that provides visibility into events of the new connection
+     */
+    ConnectionObserver onNewConnection();
+
+    /**
+     * An observer that provides visibility into events of a single connection.
+     */
+    interface ConnectionObserver {
+
+        /**
+         * Notifies that the transport level handshake (for example, TCP connect) completed and the connection is
+         * active.
+         */
+        default void onTransportHandshakeComplete() {
+        }
+
+        /**
+         * Notifies that some data has been read from the connection.
+         *
+         * @param size number of bytes read from the connection
+         */
+        default void onDataRead(long size) {
+        }
+
+        /**
+         * Notifies that some data is written to the connection. The data may not be flushed yet, see
+         * {@link #onFlush()}.
+         *
+         * @param size number of bytes written to the connection
+         */
+        default void onDataWrite(long size) {
+        }
+
+        /**
+         * Notifies that the connection has been flushed.
+         */
+        default void onFlush() {
+        }
+
+        /**
+         * Notifies that a security handshake (for example, TLS) started for this connection.
+         *
+         * @return {@link SecurityHandshakeObserver} that provides visibility into the result of the handshake
+         */
+        SecurityHandshakeObserver onSecurityHandshake();
+
+        /**
+         * Notifies that a new stream started on this connection. For protocols without multiplexing (like HTTP/1.x) a
+         * stream represents a single request-response exchange.
+         *
+         * @return {@link StreamObserver} that provides visibility into the lifecycle of the new stream
+         */
+        StreamObserver onNewStream();
+
+        /**
+         * Notifies that the connection has been closed due to an error.
+         *
+         * @param error an error that caused the connection closure
+         */
+        void connectionClosed(Throwable error);
+
+        /**
+         * Notifies that the connection has been closed.
+         */
+        void connectionClosed();
+    }
+
+    /**
+     * An observer that provides visibility into the result of a security handshake.
+     */
+    interface SecurityHandshakeObserver {
+
+        /**
+         * Notifies that the security handshake has failed.
+         *
+         * @param cause the cause of the handshake failure
+         */
+        void handshakeFailed(Throwable cause);
+
+        /**
+         * Notifies that the security handshake has completed successfully.
+         *
+         * @param sslSession the {@link SSLSession} negotiated by the handshake
+         */
+        void handshakeComplete(SSLSession sslSession);
+    }
+
+    /**
+     * An observer that provides visibility into the lifecycle of a stream. The time between
+     * {@link ConnectionObserver#onNewStream()} and the terminal callback of this observer represents the duration of
+     * the associated request-response exchange.
+     */
+    interface StreamObserver {
+
+        /**
+         * Notifies that the stream has been closed due to an error.
+         *
+         * @param error an error that caused the stream closure
+         */
+        void streamClosed(Throwable error);
+
+        /**
+         * Notifies that the stream has been closed.
+         */
+        void streamClosed();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.transport.netty.internal;
+
+import io.servicetalk.buffer.api.Buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.FileRegion;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link FlushStrategy} that coalesces writes until the I/O thread is done with the work which is already pending or
+ * until {@code maxPendingBytes} are written without a flush, whichever happens first.
+ */
+final class AdaptiveFlush implements FlushStrategy {
+
+    private final int maxPendingBytes;
+
+    AdaptiveFlush(final int maxPendingBytes) {
+        if (maxPendingBytes <= 0) {
+            throw new IllegalArgumentException("maxPendingBytes: " + maxPendingBytes + " (expected > 0)");
+        }
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    public WriteEventsListener apply(final FlushSender sender) {
+        return new AdaptiveFlushListener(sender, maxPendingBytes);
+    }
+
+    private static final class AdaptiveFlushListener extends NoopWriteEventsListener {
+        private final FlushSender sender;
+        private final int maxPendingBytes;
+        private long pendingBytes;
+        private boolean pendingItems;
+
+        AdaptiveFlushListener(final FlushSender sender, final int maxPendingBytes) {
+            this.sender = sender;
+            this.maxPendingBytes = maxPendingBytes;
+        }
+
+        @Override
+        public void itemWritten(@Nullable final Object written) {
+            pendingBytes += sizeOf(written);
+            if (pendingBytes >= maxPendingBytes) {
+                pendingBytes = 0;
+                pendingItems = false;
+                sender.flush();
+            } else {
+                pendingItems = true;
+                sender.flushOnIdle();
+            }
+        }
+
+        @Override
+        public void writeTerminated() {
+            // Terminal writes are flushed immediately so that callers waiting for the write to complete (e.g. to close
+            // the connection) are not delayed by other pending work on the I/O thread.
+            if (pendingItems) {
+                sender.flush();
+            }
+        }
+
+        private static long sizeOf(@Nullable final Object written) {
+            if (written instanceof Buffer) {
+                return ((Buffer) written).readableBytes();
+            }
+            if (written instanceof ByteBuf) {
+                return ((ByteBuf) written).readableBytes();
+            }
+            if (written instanceof ByteBufHolder) {
+                return ((ByteBufHolder) written).content().readableBytes();
+            }
+            if (written instanceof FileRegion) {
+                return ((FileRegion) written).count();
+            }
+            // Size of other objects (e.g. protocol meta-data) is unknown before encoding, they are flushed on idle.
+            return 0;
+        }
+    }
+}
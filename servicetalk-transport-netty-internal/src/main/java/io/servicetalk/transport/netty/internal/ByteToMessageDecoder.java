@@ -115,7 +115,21 @@ public abstract class ByteToMessageDecoder extends ChannelInboundHandlerAdapter
      * @throws IllegalArgumentException if the provided {@code cumulationAllocator} is not unpooled.
      */
     protected ByteToMessageDecoder(final ByteBufAllocator cumulationAllocator) {
-        if (cumulationAllocator.isDirectBufferPooled()) {
+        this(cumulationAllocator, false);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param cumulationAllocator {@link ByteBufAllocator} used to allocate more memory, if necessary for cumulation.
+     * @param pooledCumulation {@code true} if the cumulation is allowed to use pooled memory. The cumulation is
+     * released as soon as it has been fully decoded, so sub-classes MUST copy any data that is passed to user code
+     * instead of retaining or slicing the cumulation.
+     * @throws IllegalArgumentException if {@code pooledCumulation} is {@code false} and the provided
+     * {@code cumulationAllocator} is not unpooled.
+     */
+    protected ByteToMessageDecoder(final ByteBufAllocator cumulationAllocator, final boolean pooledCumulation) {
+        if (!pooledCumulation && cumulationAllocator.isDirectBufferPooled()) {
             throw new IllegalArgumentException("ByteBufAllocator must be unpooled");
         }
         this.cumulationAllocator = cumulationAllocator;
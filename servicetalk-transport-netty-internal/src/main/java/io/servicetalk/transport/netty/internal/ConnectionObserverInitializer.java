@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.transport.netty.internal;
+
+import io.servicetalk.transport.api.TransportObserver;
+import io.servicetalk.transport.api.TransportObserver.ConnectionObserver;
+import io.servicetalk.transport.api.TransportObserver.SecurityHandshakeObserver;
+import io.servicetalk.transport.netty.internal.NoopTransportObserver.NoopConnectionObserver;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.netty.util.AttributeKey;
+
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLSession;
+
+import static io.servicetalk.transport.netty.internal.NettyPipelineSslUtils.extractSslSession;
+import static io.servicetalk.transport.netty.internal.NettyPipelineSslUtils.isSslEnabled;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ChannelInitializer} that reports transport events of every {@link Channel} to a {@link TransportObserver}.
+ * <p>
+ * This initializer must be applied after all other transport level initializers (like TLS), because it places its
+ * handler at the head of the {@link ChannelPipeline} to observe raw bytes and needs to know if TLS is configured.
+ */
+public final class ConnectionObserverInitializer implements ChannelInitializer {
+
+    private static final AttributeKey<ConnectionObserver> CONNECTION_OBSERVER_KEY =
+            AttributeKey.newInstance("connectionObserver");
+
+    private final TransportObserver transportObserver;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param transportObserver {@link TransportObserver} to report transport events to
+     */
+    public ConnectionObserverInitializer(final TransportObserver transportObserver) {
+        this.transportObserver = requireNonNull(transportObserver);
+    }
+
+    @Override
+    public void init(final Channel channel) {
+        final ConnectionObserver observer = requireNonNull(transportObserver.onNewConnection());
+        channel.attr(CONNECTION_OBSERVER_KEY).set(observer);
+        final ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addFirst(new ConnectionObserverHandler(observer));
+        if (isSslEnabled(pipeline) || pipeline.get(DeferSslHandler.class) != null) {
+            pipeline.addLast(new SecurityHandshakeObserverHandler(observer));
+        }
+    }
+
+    /**
+     * Returns the {@link ConnectionObserver} associated with the passed {@link Channel}.
+     * <p>
+     * Child channels (like HTTP/2 streams) do not have their own {@link ConnectionObserver}, callers are expected to
+     * query the parent {@link Channel} instead.
+     *
+     * @param channel {@link Channel} to query
+     * @return {@link ConnectionObserver} associated with the passed {@link Channel} or a no-op
+     * {@link ConnectionObserver} if {@link ConnectionObserverInitializer} was not applied to the {@link Channel}
+     */
+    public static ConnectionObserver connectionObserver(final Channel channel) {
+        if (!channel.hasAttr(CONNECTION_OBSERVER_KEY)) {
+            return NoopConnectionObserver.INSTANCE;
+        }
+        final ConnectionObserver observer = channel.attr(CONNECTION_OBSERVER_KEY).get();
+        return observer == null ? NoopConnectionObserver.INSTANCE : observer;
+    }
+
+    private static final class ConnectionObserverHandler extends ChannelDuplexHandler {
+        private final ConnectionObserver observer;
+        private boolean active;
+        @Nullable
+        private Throwable cause;
+
+        ConnectionObserverHandler(final ConnectionObserver observer) {
+            this.observer = observer;
+        }
+
+        @Override
+        public void handlerAdded(final ChannelHandlerContext ctx) {
+            // Accepted channels are already active when initialized.
+            if (ctx.channel().isActive()) {
+                transportHandshakeComplete();
+            }
+        }
+
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) {
+            transportHandshakeComplete();
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+            if (msg instanceof ByteBuf) {
+                observer.onDataRead(((ByteBuf) msg).readableBytes());
+            }
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+            if (msg instanceof ByteBuf) {
+                observer.onDataWrite(((ByteBuf) msg).readableBytes());
+            } else if (msg instanceof FileRegion) {
+                observer.onDataWrite(((FileRegion) msg).count());
+            }
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(final ChannelHandlerContext ctx) {
+            observer.onFlush();
+            ctx.flush();
+        }
+
+        @Override
+        public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+            if (this.cause == null) {
+                this.cause = cause;
+            }
+            ctx.fireExceptionCaught(cause);
+        }
+
+        @Override
+        public void channelInactive(final ChannelHandlerContext ctx) {
+            if (cause != null) {
+                observer.connectionClosed(cause);
+            } else {
+                observer.connectionClosed();
+            }
+            ctx.fireChannelInactive();
+        }
+
+        private void transportHandshakeComplete() {
+            if (!active) {
+                active = true;
+                observer.onTransportHandshakeComplete();
+            }
+        }
+    }
+
+    private static final class SecurityHandshakeObserverHandler extends ChannelInboundHandlerAdapter {
+        private final ConnectionObserver observer;
+        @Nullable
+        private SecurityHandshakeObserver handshakeObserver;
+
+        SecurityHandshakeObserverHandler(final ConnectionObserver observer) {
+            this.observer = observer;
+        }
+
+        @Override
+        public void handlerAdded(final ChannelHandlerContext ctx) {
+            if (ctx.channel().isActive()) {
+                handshakeStarted();
+            }
+        }
+
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) {
+            handshakeStarted();
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) {
+            if (evt instanceof SslHandshakeCompletionEvent) {
+                final SecurityHandshakeObserver handshakeObserver = handshakeStarted();
+                final SSLSession sslSession = extractSslSession(ctx.pipeline(), (SslHandshakeCompletionEvent) evt,
+                        handshakeObserver::handshakeFailed);
+                if (sslSession != null) {
+                    handshakeObserver.handshakeComplete(sslSession);
+                }
+                ctx.fireUserEventTriggered(evt);
+                // The handshake happens only once per connection, no need to stay in the pipeline.
+                ctx.pipeline().remove(this);
+            } else {
+                ctx.fireUserEventTriggered(evt);
+            }
+        }
+
+        private SecurityHandshakeObserver handshakeStarted() {
+            SecurityHandshakeObserver handshakeObserver = this.handshakeObserver;
+            if (handshakeObserver == null) {
+                handshakeObserver = requireNonNull(observer.onSecurityHandshake());
+                this.handshakeObserver = handshakeObserver;
+            }
+            return handshakeObserver;
+        }
+    }
+}
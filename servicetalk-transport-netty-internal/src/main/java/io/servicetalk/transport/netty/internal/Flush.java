@@ -18,12 +18,16 @@ package io.servicetalk.transport.netty.internal;
 import io.servicetalk.concurrent.PublisherSource.Subscriber;
 import io.servicetalk.concurrent.PublisherSource.Subscription;
 import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.transport.netty.internal.FlushStrategy.FlushSender;
 import io.servicetalk.transport.netty.internal.FlushStrategy.WriteEventsListener;
 
 import io.netty.channel.Channel;
 import io.netty.util.concurrent.EventExecutor;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
 
 /**
  * Utilities related to channel flush.
@@ -51,22 +55,47 @@ final class Flush {
         return source.liftSync(subscriber -> new FlushSubscriber<>(flushStrategy, subscriber, channel));
     }
 
-    private static final class FlushSubscriber<T> implements Subscriber<T> {
+    private static final class FlushSubscriber<T> implements Subscriber<T>, FlushSender, Runnable {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<FlushSubscriber> idleFlushPendingUpdater =
+                newUpdater(FlushSubscriber.class, "idleFlushPending");
+        private final Channel channel;
         private final EventExecutor eventLoop;
         private final Subscriber<? super T> subscriber;
         private final WriteEventsListener writeEventsListener;
         private volatile boolean enqueueFlush;
+        private volatile int idleFlushPending;
 
         FlushSubscriber(FlushStrategy flushStrategy, Subscriber<? super T> subscriber, Channel channel) {
+            this.channel = channel;
             this.eventLoop = requireNonNull(channel.eventLoop());
             this.subscriber = requireNonNull(subscriber);
-            this.writeEventsListener = flushStrategy.apply(() -> {
-                if (enqueueFlush) {
-                    eventLoop.execute(channel::flush);
-                } else {
-                    channel.flush();
-                }
-            });
+            this.writeEventsListener = flushStrategy.apply(this);
+        }
+
+        @Override
+        public void flush() {
+            if (enqueueFlush) {
+                eventLoop.execute(channel::flush);
+            } else {
+                channel.flush();
+            }
+        }
+
+        @Override
+        public void flushOnIdle() {
+            // Tasks are executed by the event loop after the current I/O and task processing is done, so all writes
+            // which happen before the task runs are flushed together. Only a single task is enqueued at a time.
+            if (idleFlushPending == 0 && idleFlushPendingUpdater.compareAndSet(this, 0, 1)) {
+                eventLoop.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            // Reset before flushing so that writes which race with this flush enqueue another one.
+            idleFlushPending = 0;
+            channel.flush();
         }
 
         @Override
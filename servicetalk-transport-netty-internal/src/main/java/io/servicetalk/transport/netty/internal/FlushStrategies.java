@@ -28,6 +28,12 @@ import static java.lang.Integer.MAX_VALUE;
  */
 public final class FlushStrategies {
 
+    /**
+     * Default number of bytes written without a flush after which {@link #adaptiveFlush()} flushes. This matches the
+     * maximum TLS record size, so each flush can fill at least a full record.
+     */
+    private static final int DEFAULT_ADAPTIVE_MAX_PENDING_BYTES = 16 * 1024;
+
     private FlushStrategies() {
         // No instances.
     }
@@ -94,4 +100,32 @@ public final class FlushStrategies {
     public static FlushStrategy flushOnEnd() {
         return FLUSH_ON_END;
     }
+
+    /**
+     * Creates a {@link FlushStrategy} that coalesces writes and {@link FlushSender#flushOnIdle() flushes} them once the
+     * I/O thread has processed the work that is already pending, or {@link FlushSender#flush() flushes} immediately
+     * if a default number of bytes are written without a flush.
+     *
+     * @return A {@link FlushStrategy} that coalesces writes till the I/O thread is idle.
+     * @see #adaptiveFlush(int)
+     */
+    public static FlushStrategy adaptiveFlush() {
+        return adaptiveFlush(DEFAULT_ADAPTIVE_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Creates a {@link FlushStrategy} that coalesces writes and {@link FlushSender#flushOnIdle() flushes} them once the
+     * I/O thread has processed the work that is already pending, or {@link FlushSender#flush() flushes} immediately
+     * if {@code maxPendingBytes} are written without a flush.
+     * <p>
+     * Pending writes are also flushed when {@link WriteEventsListener#writeTerminated()} is called. Items for which
+     * the size is not known before encoding (e.g. protocol meta-data) do not count towards {@code maxPendingBytes}.
+     *
+     * @param maxPendingBytes Maximum number of bytes written without a flush.
+     * @return A {@link FlushStrategy} that coalesces writes till the I/O thread is idle or {@code maxPendingBytes} are
+     * written.
+     */
+    public static FlushStrategy adaptiveFlush(int maxPendingBytes) {
+        return new AdaptiveFlush(maxPendingBytes);
+    }
 }
@@ -56,6 +56,17 @@ public interface FlushStrategy {
          * {@link WriteEventsListener}.
          */
         void flush();
+
+        /**
+         * Sends a flush on the associated connection after the I/O thread has finished processing the work that is
+         * already pending. This allows writes which are done as part of the same unit of work to share a single flush.
+         * Multiple calls before the flush is performed will result in a single flush.
+         * <p>
+         * The default implementation {@link #flush() flushes} immediately.
+         */
+        default void flushOnIdle() {
+            flush();
+        }
     }
 
     /**
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.transport.netty.internal;
+
+import io.servicetalk.transport.api.TransportObserver;
+
+import javax.net.ssl.SSLSession;
+
+/**
+ * A {@link TransportObserver} that does nothing. All returned observers are singletons, so using it does not allocate.
+ */
+public final class NoopTransportObserver implements TransportObserver {
+
+    /**
+     * Singleton instance of {@link NoopTransportObserver}.
+     */
+    public static final TransportObserver INSTANCE = new NoopTransportObserver();
+
+    private NoopTransportObserver() {
+        // Singleton
+    }
+
+    @Override
+    public ConnectionObserver onNewConnection() {
+        return NoopConnectionObserver.INSTANCE;
+    }
+
+    /**
+     * A {@link ConnectionObserver} that does nothing.
+     */
+    public static final class NoopConnectionObserver implements ConnectionObserver {
+
+        /**
+         * Singleton instance of {@link NoopConnectionObserver}.
+         */
+        public static final ConnectionObserver INSTANCE = new NoopConnectionObserver();
+
+        private NoopConnectionObserver() {
+            // Singleton
+        }
+
+        @Override
+        public SecurityHandshakeObserver onSecurityHandshake() {
+            return NoopSecurityHandshakeObserver.INSTANCE;
+        }
+
+        @Override
+        public StreamObserver onNewStream() {
+            return NoopStreamObserver.INSTANCE;
+        }
+
+        @Override
+        public void connectionClosed(final Throwable error) {
+        }
+
+        @Override
+        public void connectionClosed() {
+        }
+    }
+
+    /**
+     * A {@link SecurityHandshakeObserver} that does nothing.
+     */
+    public static final class NoopSecurityHandshakeObserver implements SecurityHandshakeObserver {
+
+        /**
+         * Singleton instance of {@link NoopSecurityHandshakeObserver}.
+         */
+        public static final SecurityHandshakeObserver INSTANCE = new NoopSecurityHandshakeObserver();
+
+        private NoopSecurityHandshakeObserver() {
+            // Singleton
+        }
+
+        @Override
+        public void handshakeFailed(final Throwable cause) {
+        }
+
+        @Override
+        public void handshakeComplete(final SSLSession sslSession) {
+        }
+    }
+
+    /**
+     * A {@link StreamObserver} that does nothing.
+     */
+    public static final class NoopStreamObserver implements StreamObserver {
+
+        /**
+         * Singleton instance of {@link NoopStreamObserver}.
+         */
+        public static final StreamObserver INSTANCE = new NoopStreamObserver();
+
+        private NoopStreamObserver() {
+            // Singleton
+        }
+
+        @Override
+        public void streamClosed(final Throwable error) {
+        }
+
+        @Override
+        public void streamClosed() {
+        }
+    }
+}
@@ -30,11 +30,12 @@ import static org.mockito.Mockito.when;
 abstract class AbstractFlushTest {
 
     Channel channel;
+    EventLoop eventLoop;
     private InOrder verifier;
 
     Publisher<String> setup(Publisher<String> source, FlushStrategy strategy) {
         channel = mock(Channel.class);
-        EventLoop eventLoop = mock(EventLoop.class);
+        eventLoop = mock(EventLoop.class);
         when(eventLoop.inEventLoop()).thenReturn(true);
         when(channel.eventLoop()).thenReturn(eventLoop);
         Publisher<String> flushedStream = composeFlushes(channel, source, strategy)
@@ -24,12 +24,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
 import static io.servicetalk.concurrent.internal.DeliberateException.DELIBERATE_EXCEPTION;
+import static io.servicetalk.transport.netty.internal.FlushStrategies.adaptiveFlush;
 import static io.servicetalk.transport.netty.internal.FlushStrategies.flushOnEach;
 import static io.servicetalk.transport.netty.internal.FlushStrategies.flushOnEnd;
 import static io.servicetalk.transport.netty.internal.FlushStrategies.flushWith;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -164,6 +168,36 @@ public class FlushStrategiesTest {
         assertTrue(subscription.isCancelled());
     }
 
+    @Test
+    public void testAdaptiveFlushOnIdle() {
+        setupFor(adaptiveFlush());
+        listener.itemWritten(1);
+        listener.itemWritten(DEFAULT_ALLOCATOR.fromAscii("Hello"));
+        verify(flushSender, times(2)).flushOnIdle();
+        verify(flushSender, never()).flush();
+        listener.writeTerminated();
+        verify(flushSender).flush();
+    }
+
+    @Test
+    public void testAdaptiveFlushMaxPendingBytes() {
+        setupFor(adaptiveFlush(4));
+        listener.itemWritten(DEFAULT_ALLOCATOR.fromAscii("He"));
+        verify(flushSender).flushOnIdle();
+        verify(flushSender, never()).flush();
+        listener.itemWritten(DEFAULT_ALLOCATOR.fromAscii("llo"));
+        verify(flushSender).flush();
+        listener.writeTerminated();
+        verify(flushSender).flush();
+    }
+
+    @Test
+    public void testAdaptiveFlushNoItems() {
+        setupFor(adaptiveFlush());
+        listener.writeTerminated();
+        verifyZeroInteractions(flushSender);
+    }
+
     private void setupFor(FlushStrategy strategy) {
         listener = strategy.apply(flushSender);
         listener.writeStarted();
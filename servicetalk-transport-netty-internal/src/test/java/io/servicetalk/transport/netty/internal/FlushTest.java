@@ -22,6 +22,7 @@ import io.servicetalk.transport.netty.internal.FlushStrategy.FlushSender;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
 import static io.servicetalk.concurrent.internal.DeliberateException.DELIBERATE_EXCEPTION;
@@ -33,6 +34,8 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -80,6 +83,26 @@ public class FlushTest extends AbstractFlushTest {
         verifyNoMoreInteractions(channel);
     }
 
+    @Test
+    public void testFlushOnIdle() {
+        subscriber.request(2);
+        source.onNext("Hello1", "Hello2");
+        flushSender.flushOnIdle();
+        flushSender.flushOnIdle();
+
+        ArgumentCaptor<Runnable> flushTask = ArgumentCaptor.forClass(Runnable.class);
+        verify(eventLoop).execute(flushTask.capture());
+        verify(channel, never()).flush();
+
+        flushTask.getValue().run();
+        verifyWriteAndFlushAfter("Hello1", "Hello2");
+        verifyNoMoreInteractions(channel);
+
+        // Once the pending flush is done, a new one is enqueued.
+        flushSender.flushOnIdle();
+        verify(eventLoop, times(2)).execute(flushTask.capture());
+    }
+
     @Test
     public void testCancel() {
         final TestSubscription subscription = new TestSubscription();